@@ -178,7 +178,7 @@ public class Main {
                 isLateAnyDay, payrollType, startDate, endDate, year, month, hasUnpaidAbsences);
 
         // Display salary details
-        outputManager.displaySalaryDetails(employee);
+        outputManager.displaySalaryDetails(employee, year, month, payrollType);
 
         // Final confirmation
         if (inputManager.getConfirmation("\nConfirm payroll for processing (Y/N): ")) {
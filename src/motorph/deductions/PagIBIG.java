@@ -1,6 +1,8 @@
 // File: motorph/deductions/PagIBIG.java
 package motorph.deductions;
 
+import motorph.util.Centavos;
+
 /**
  * Calculates Pag-IBIG Fund contributions based on salary range
  * Implements the DeductionProvider interface for uniform handling
@@ -15,6 +17,12 @@ public class PagIBIG implements DeductionProvider {
     private static final double MAX_CONTRIBUTION = 100.0; // Maximum monthly contribution
     private static final double MIN_CONTRIBUTION = 100.0; // Minimum monthly contribution
 
+    // The same limits in centavos
+    private static final long MIN_SALARY_CENTAVOS = 100_000;
+    private static final long MID_SALARY_CENTAVOS = 150_000;
+    private static final long MAX_CONTRIBUTION_CENTAVOS = 10_000;
+    private static final long MIN_CONTRIBUTION_CENTAVOS = 10_000;
+
     /**
      * Calculate Pag-IBIG contribution based on monthly salary
      *
@@ -47,6 +55,25 @@ public class PagIBIG implements DeductionProvider {
         return contribution;
     }
 
+    /**
+     * Calculate Pag-IBIG contribution in centavos
+     * The percentage is rounded to the centavo before the limits are applied
+     *
+     * @param monthlySalaryCentavos Monthly basic salary in centavos
+     * @return Pag-IBIG contribution (monthly) in centavos
+     */
+    public long calculateContributionCentavos(long monthlySalaryCentavos) {
+        if (monthlySalaryCentavos < MIN_SALARY_CENTAVOS) {
+            return 0;
+        }
+
+        long ratePercent = monthlySalaryCentavos <= MID_SALARY_CENTAVOS ? 1 : 2;
+        long contribution = Centavos.multiply(monthlySalaryCentavos, ratePercent, 100);
+
+        contribution = Math.max(contribution, MIN_CONTRIBUTION_CENTAVOS);
+        return Math.min(contribution, MAX_CONTRIBUTION_CENTAVOS);
+    }
+
     /**
      * Get the name of this deduction
      *
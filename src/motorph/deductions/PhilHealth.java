@@ -1,6 +1,8 @@
 // File: motorph/deductions/PhilHealth.java
 package motorph.deductions;
 
+import motorph.util.Centavos;
+
 /**
  * Calculates PhilHealth contributions based on monthly salary
  * Implements the DeductionProvider interface for uniform handling
@@ -10,6 +12,8 @@ public class PhilHealth implements DeductionProvider {
     // PhilHealth contribution constants
     private static final double RATE = 0.03; // 3% of monthly basic salary
     private static final double MAX_CONTRIBUTION = 1800.0; // Maximum monthly contribution
+    private static final long RATE_PERCENT = 3;
+    private static final long MAX_CONTRIBUTION_CENTAVOS = 180_000;
 
     /**
      * Calculate PhilHealth contribution based on monthly salary
@@ -29,6 +33,18 @@ public class PhilHealth implements DeductionProvider {
         return monthlyContribution;
     }
 
+    /**
+     * Calculate the monthly PhilHealth contribution in centavos
+     * 3% of the salary is rounded to the centavo before the cap is applied
+     *
+     * @param monthlySalaryCentavos Monthly basic salary in centavos
+     * @return PhilHealth contribution (monthly) in centavos
+     */
+    public long calculateContributionCentavos(long monthlySalaryCentavos) {
+        long monthlyContribution = Centavos.multiply(monthlySalaryCentavos, RATE_PERCENT, 100);
+        return Math.min(monthlyContribution, MAX_CONTRIBUTION_CENTAVOS);
+    }
+
     /**
      * Get the name of this deduction
      *
@@ -61,4 +77,15 @@ public class PhilHealth implements DeductionProvider {
     public double calculateSemiMonthlyContribution(double monthlySalary) {
         return calculateContribution(monthlySalary) / 2;
     }
+
+    /**
+     * Get the semi-monthly contribution in centavos
+     * Half of an odd monthly amount rounds up to the next centavo
+     *
+     * @param monthlySalaryCentavos Monthly basic salary in centavos
+     * @return PhilHealth contribution (semi-monthly) in centavos
+     */
+    public long calculateSemiMonthlyContributionCentavos(long monthlySalaryCentavos) {
+        return Centavos.divide(calculateContributionCentavos(monthlySalaryCentavos), 2);
+    }
 }
\ No newline at end of file
@@ -9,6 +9,14 @@ import motorph.process.PayrollDateManager;
  */
 public class SSS implements DeductionProvider {
 
+    // Bracket table in centavos: the first bracket ends at 3,250.00 and each
+    // following one is 500.00 wide and 22.50 higher, up to the maximum
+    private static final long FIRST_BRACKET_END_CENTAVOS = 325_000;
+    private static final long BRACKET_WIDTH_CENTAVOS = 50_000;
+    private static final long MIN_CONTRIBUTION_CENTAVOS = 13_500;
+    private static final long BRACKET_STEP_CENTAVOS = 2_250;
+    private static final long MAX_BRACKET = 44;
+
     /**
      * Calculate SSS contribution based on monthly compensation
      *
@@ -65,6 +73,21 @@ public class SSS implements DeductionProvider {
         else return 1125.00;
     }
 
+    /**
+     * Calculate SSS contribution in centavos
+     * Uses the same brackets as calculateContribution, so no rounding is needed
+     *
+     * @param monthlySalaryCentavos Monthly basic salary in centavos
+     * @return SSS contribution in centavos
+     */
+    public long calculateContributionCentavos(long monthlySalaryCentavos) {
+        if (monthlySalaryCentavos < FIRST_BRACKET_END_CENTAVOS) {
+            return MIN_CONTRIBUTION_CENTAVOS;
+        }
+        long bracket = (monthlySalaryCentavos - FIRST_BRACKET_END_CENTAVOS) / BRACKET_WIDTH_CENTAVOS + 1;
+        return MIN_CONTRIBUTION_CENTAVOS + Math.min(bracket, MAX_BRACKET) * BRACKET_STEP_CENTAVOS;
+    }
+
     /**
      * Get the name of this deduction
      *
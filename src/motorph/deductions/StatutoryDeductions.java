@@ -1,6 +1,8 @@
 // File: motorph/deductions/StatutoryDeductions.java
 package motorph.deductions;
 
+import motorph.util.Centavos;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -84,6 +86,46 @@ public class StatutoryDeductions {
         );
     }
 
+    /**
+     * Calculate all deductions in centavos, on the same schedule as calculateDeductions
+     * Each contribution is rounded to the centavo by its own calculation, and
+     * the mid-month PhilHealth share is half of the rounded monthly amount
+     *
+     * @param grossSalaryCentavos The gross salary for the period, in centavos
+     * @param payPeriod Either MID_MONTH or END_MONTH
+     * @param fullMonthlyGrossCentavos The total monthly gross (both periods), in centavos
+     * @return CentavoDeductionResult with all the calculated deductions
+     */
+    public static CentavoDeductionResult calculateDeductionsCentavos(long grossSalaryCentavos, int payPeriod,
+                                                                     long fullMonthlyGrossCentavos) {
+        long sssDeduction = 0;
+        long philhealthDeduction = 0;
+        long pagibigDeduction = 0;
+        long withholdingTax = 0;
+
+        if (payPeriod == MID_MONTH) {
+            sssDeduction = StatutoryDeductions.sssDeduction.calculateContributionCentavos(fullMonthlyGrossCentavos);
+            philhealthDeduction = StatutoryDeductions.philHealthDeduction
+                    .calculateSemiMonthlyContributionCentavos(fullMonthlyGrossCentavos);
+            pagibigDeduction = StatutoryDeductions.pagIbigDeduction.calculateContributionCentavos(fullMonthlyGrossCentavos);
+        }
+
+        if (payPeriod == END_MONTH) {
+            long monthlySSS = StatutoryDeductions.sssDeduction.calculateContributionCentavos(fullMonthlyGrossCentavos);
+            long monthlyPhilHealth = StatutoryDeductions.philHealthDeduction
+                    .calculateContributionCentavos(fullMonthlyGrossCentavos);
+            long monthlyPagIBIG = StatutoryDeductions.pagIbigDeduction.calculateContributionCentavos(fullMonthlyGrossCentavos);
+
+            withholdingTax = StatutoryDeductions.taxDeduction.calculateTaxCentavos(
+                    fullMonthlyGrossCentavos - (monthlySSS + monthlyPhilHealth + monthlyPagIBIG));
+        }
+
+        long totalDeductions = sssDeduction + philhealthDeduction + pagibigDeduction + withholdingTax;
+
+        return new CentavoDeductionResult(sssDeduction, philhealthDeduction, pagibigDeduction,
+                withholdingTax, totalDeductions);
+    }
+
     /**
      * Simple class to hold all deduction amounts
      */
@@ -108,4 +150,44 @@ public class StatutoryDeductions {
             this.totalDeductions = totalDeductions;
         }
     }
+
+    /**
+     * Deduction amounts in centavos
+     */
+    public static class CentavoDeductionResult {
+        public final long sssDeduction;
+        public final long philhealthDeduction;
+        public final long pagibigDeduction;
+        public final long withholdingTax;
+        public final long totalDeductions;
+
+        public CentavoDeductionResult(
+                long sssDeduction,
+                long philhealthDeduction,
+                long pagibigDeduction,
+                long withholdingTax,
+                long totalDeductions
+        ) {
+            this.sssDeduction = sssDeduction;
+            this.philhealthDeduction = philhealthDeduction;
+            this.pagibigDeduction = pagibigDeduction;
+            this.withholdingTax = withholdingTax;
+            this.totalDeductions = totalDeductions;
+        }
+
+        /**
+         * Convert to a DeductionResult in pesos
+         *
+         * @return DeductionResult with the same amounts
+         */
+        public DeductionResult toDeductionResult() {
+            return new DeductionResult(
+                    Centavos.toPesos(sssDeduction),
+                    Centavos.toPesos(philhealthDeduction),
+                    Centavos.toPesos(pagibigDeduction),
+                    Centavos.toPesos(withholdingTax),
+                    Centavos.toPesos(totalDeductions)
+            );
+        }
+    }
 }
\ No newline at end of file
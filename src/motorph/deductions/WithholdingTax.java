@@ -1,6 +1,8 @@
 // File: motorph/deductions/WithholdingTax.java
 package motorph.deductions;
 
+import motorph.util.Centavos;
+
 /**
  * Calculates withholding tax based on the Philippine tax brackets
  * Implements the DeductionProvider interface for uniform handling
@@ -29,6 +31,11 @@ public class WithholdingTax implements DeductionProvider {
     private static final double RATE_BRACKET_5 = 0.32; // 32%
     private static final double RATE_BRACKET_6 = 0.35; // 35%
 
+    // The same table in centavos, one entry per taxed bracket
+    private static final long[] BRACKET_START_CENTAVOS = {2_083_300, 3_333_200, 6_666_600, 16_666_600, 66_666_600};
+    private static final long[] BASE_TAX_CENTAVOS = {0, 250_000, 1_083_300, 4_083_333, 20_083_333};
+    private static final long[] RATE_PERCENT = {20, 25, 30, 32, 35};
+
     /**
      * Calculate withholding tax based on monthly taxable income
      * Applies progressive tax rates according to Philippine tax brackets
@@ -69,6 +76,26 @@ public class WithholdingTax implements DeductionProvider {
         }
     }
 
+    /**
+     * Calculate tax in centavos
+     * The percentage of the income above the bracket start is rounded to the
+     * centavo, then added to the bracket's base tax
+     *
+     * @param taxableIncomeCentavos The income after deductions, in centavos
+     * @return The calculated tax in centavos
+     */
+    public long calculateTaxCentavos(long taxableIncomeCentavos) {
+        int bracket = BRACKET_START_CENTAVOS.length - 1;
+        while (bracket >= 0 && taxableIncomeCentavos <= BRACKET_START_CENTAVOS[bracket]) {
+            bracket--;
+        }
+        if (bracket < 0) {
+            return 0; // No tax for income up to ₱20,833
+        }
+        long excess = taxableIncomeCentavos - BRACKET_START_CENTAVOS[bracket];
+        return BASE_TAX_CENTAVOS[bracket] + Centavos.multiply(excess, RATE_PERCENT[bracket], 100);
+    }
+
     /**
      * Calculate withholding tax based on monthly salary and deductions
      * This method accounts for deductions before calculating tax
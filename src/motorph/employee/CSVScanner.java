@@ -0,0 +1,425 @@
+// File: motorph/employee/CSVScanner.java
+package motorph.employee;
+
+import motorph.util.DateTimeUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Zero-copy CSV scanner over a memory-mapped file
+ * Finds field boundaries in the raw bytes and hands them to a row callback.
+ * Numeric, date and time columns can be decoded straight from the bytes;
+ * Strings are only created when a caller asks for one.
+ */
+public class CSVScanner {
+    // Size of each mapped window for large files
+    private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+    // Returned by the decoders when a field is not in the expected format
+    public static final int NO_VALUE = DateTimeUtil.INVALID;
+
+    /**
+     * Callback that receives each parsed row
+     * The Row object is reused, so it must not be kept after onRow returns
+     */
+    public interface RowHandler {
+        void onRow(Row row);
+    }
+
+    /**
+     * Scan a CSV file, skipping the header row
+     *
+     * @param filePath Path to the CSV file
+     * @param handler Callback for each data row
+     * @return Number of data rows passed to the handler
+     * @throws IOException If there's an error reading the file
+     */
+    public static int scan(String filePath, RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return scan(channel, 0, channel.size(), true, handler);
+        }
+    }
+
+    /**
+     * Scan a byte range of an open CSV file
+     * The range must start at the beginning of a line. Rows are passed to the
+     * handler up to the end of the range; a final row without a line break is
+     * included.
+     *
+     * @param channel Open file channel
+     * @param start Byte offset of the first row
+     * @param end Byte offset where scanning stops
+     * @param skipHeader Whether the first row is a header to skip
+     * @param handler Callback for each data row
+     * @return Number of data rows passed to the handler
+     * @throws IOException If there's an error reading the file
+     */
+    public static int scan(FileChannel channel, long start, long end,
+                           boolean skipHeader, RowHandler handler) throws IOException {
+        Row row = new Row();
+        int rowCount = 0;
+        long position = start;
+        boolean headerPending = skipHeader;
+
+        // Skip a UTF-8 byte order mark at the start of the file
+        if (position == 0 && end >= 3) {
+            ByteBuffer bom = ByteBuffer.allocate(3);
+            channel.read(bom, 0);
+            if (bom.get(0) == (byte) 0xEF && bom.get(1) == (byte) 0xBB && bom.get(2) == (byte) 0xBF) {
+                position = 3;
+            }
+        }
+
+        // Map the range in windows so files over 2 GB can be scanned
+        while (position < end) {
+            long windowSize = Math.min(WINDOW_SIZE, end - position);
+            boolean lastWindow = position + windowSize >= end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+            row.attach(buffer);
+
+            int offset = 0;
+            int limit = (int) windowSize;
+            while (offset < limit) {
+                int next = row.parse(offset, limit, lastWindow);
+                if (next < 0) {
+                    break; // Row continues past this window
+                }
+                offset = next;
+
+                if (headerPending) {
+                    headerPending = false;
+                } else if (!row.isBlank()) {
+                    handler.onRow(row);
+                    rowCount++;
+                }
+            }
+
+            if (offset == 0 && !lastWindow) {
+                throw new IOException("CSV row longer than " + WINDOW_SIZE + " bytes at offset " + position);
+            }
+            position += offset;
+            if (lastWindow) {
+                break;
+            }
+        }
+
+        return rowCount;
+    }
+
+    /**
+     * Find the first line start at or after a byte offset
+     * Used to split a file into chunks; it does not track quotes, so it is
+     * only safe for files without quoted line breaks
+     *
+     * @param channel Open file channel
+     * @param position Byte offset to start from
+     * @return Offset of the next line start, or the file size if there is none
+     * @throws IOException If there's an error reading the file
+     */
+    public static long lineStartAtOrAfter(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        if (position <= 0) {
+            return 0;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            block.clear();
+            int read = channel.read(block, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+
+        return size;
+    }
+
+    /**
+     * Find the end of the last complete line in a byte range
+     * Used to read only whole rows from a file that is still being written
+     *
+     * @param channel Open file channel
+     * @param start Start of the range
+     * @param end End of the range
+     * @return Offset just after the last line break in the range, or start if there is none
+     * @throws IOException If there's an error reading the file
+     */
+    public static long lineEndBefore(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(8192);
+        long blockEnd = end;
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - block.capacity());
+            block.clear();
+            block.limit((int) (blockEnd - blockStart));
+            int read = channel.read(block, blockStart);
+            for (int i = read - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+
+        return start;
+    }
+
+    /**
+     * A parsed CSV row: field boundaries over the underlying bytes
+     */
+    public static final class Row {
+        private ByteBuffer buffer;
+        private int[] starts = new int[32];
+        private int[] ends = new int[32];
+        private boolean[] quoted = new boolean[32];
+        private int fieldCount;
+        private byte[] scratch = new byte[256];
+        private final FieldChars chars = new FieldChars();
+
+        /**
+         * Point this row at a new buffer
+         */
+        void attach(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Parse one row starting at an offset
+         *
+         * @param offset Offset of the first byte of the row
+         * @param limit End of the readable bytes
+         * @param atEnd Whether limit is the end of the data
+         * @return Offset of the next row, or -1 if the row is incomplete
+         */
+        int parse(int offset, int limit, boolean atEnd) {
+            fieldCount = 0;
+            int fieldStart = offset;
+            boolean inQuotes = false;
+            boolean fieldQuoted = false;
+            int i = offset;
+
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                    fieldQuoted = true;
+                } else if (!inQuotes) {
+                    if (b == ',') {
+                        addField(fieldStart, i, fieldQuoted);
+                        fieldStart = i + 1;
+                        fieldQuoted = false;
+                    } else if (b == '\n') {
+                        int lineEnd = i > fieldStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                        addField(fieldStart, lineEnd, fieldQuoted);
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+
+            if (!atEnd) {
+                return -1;
+            }
+
+            // Last row of the data without a trailing line break
+            int lineEnd = i > fieldStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            addField(fieldStart, lineEnd, fieldQuoted);
+            return limit;
+        }
+
+        /**
+         * Record a field, trimming surrounding whitespace
+         */
+        private void addField(int start, int end, boolean isQuoted) {
+            while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+            while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--;
+
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+                quoted = Arrays.copyOf(quoted, fieldCount * 2);
+            }
+            starts[fieldCount] = start;
+            ends[fieldCount] = end;
+            quoted[fieldCount] = isQuoted;
+            fieldCount++;
+        }
+
+        /**
+         * Check if this row is an empty line
+         */
+        boolean isBlank() {
+            return fieldCount == 1 && starts[0] == ends[0];
+        }
+
+        /**
+         * Get the number of fields in the row
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Get a field as a String
+         * Quotes are removed and doubled quotes inside a quoted field become one quote
+         *
+         * @param field Field index
+         * @return Field value, trimmed
+         */
+        public String getString(int field) {
+            int start = starts[field];
+            int length = ends[field] - start;
+
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+
+            int count = 0;
+            if (!quoted[field]) {
+                for (int i = 0; i < length; i++) {
+                    scratch[count++] = buffer.get(start + i);
+                }
+                return new String(scratch, 0, count, StandardCharsets.UTF_8);
+            }
+
+            boolean inQuotes = false;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(start + i);
+                if (b == '"') {
+                    if (inQuotes && i + 1 < length && buffer.get(start + i + 1) == '"') {
+                        scratch[count++] = '"';
+                        i++;
+                    } else {
+                        inQuotes = !inQuotes;
+                    }
+                } else {
+                    scratch[count++] = b;
+                }
+            }
+            return new String(scratch, 0, count, StandardCharsets.UTF_8).trim();
+        }
+
+        /**
+         * Get all fields as a String array
+         *
+         * @return Array of field values
+         */
+        public String[] toArray() {
+            String[] values = new String[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                values[i] = getString(i);
+            }
+            return values;
+        }
+
+        /**
+         * Decode an unsigned integer field straight from the bytes
+         *
+         * @param field Field index
+         * @return Parsed value, or NO_VALUE if the field is not plain digits
+         */
+        public int getInt(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (quoted[field] || start == end || end - start > 9) {
+                return NO_VALUE;
+            }
+            return digits(start, end);
+        }
+
+        /**
+         * Decode a MM/dd/yyyy date field
+         * Plain dates are read straight from the bytes by DateTimeUtil
+         *
+         * @param field Field index
+         * @return Epoch day, or NO_VALUE if the field is not a valid date
+         */
+        public int getEpochDay(int field) {
+            return DateTimeUtil.parseEpochDay(quoted[field] ? getString(field) : chars(field));
+        }
+
+        /**
+         * Decode a time field, using the DateTimeUtil.parseTime rules
+         * Common formats are read straight from the bytes by DateTimeUtil
+         *
+         * @param field Field index
+         * @return Minute of day, or NO_VALUE if the field is not a valid time
+         */
+        public int getMinuteOfDay(int field) {
+            return DateTimeUtil.parseMinuteOfDay(quoted[field] ? getString(field) : chars(field));
+        }
+
+        /**
+         * Point the reusable character view at an unquoted field
+         */
+        private CharSequence chars(int field) {
+            chars.start = starts[field];
+            chars.length = ends[field] - starts[field];
+            return chars;
+        }
+
+        /**
+         * Parse a run of ASCII digits
+         *
+         * @return Parsed value, or NO_VALUE if a non-digit is found
+         */
+        private int digits(int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return NO_VALUE;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        /**
+         * Character view over a field's bytes, one char per byte
+         * Non-ASCII bytes never match the date/time digits, so those fields
+         * fall back to toString, which decodes UTF-8 like getString
+         */
+        private final class FieldChars implements CharSequence {
+            private int start;
+            private int length;
+
+            @Override
+            public int length() {
+                return length;
+            }
+
+            @Override
+            public char charAt(int index) {
+                return (char) (buffer.get(start + index) & 0xFF);
+            }
+
+            @Override
+            public CharSequence subSequence(int from, int to) {
+                return toString().substring(from, to);
+            }
+
+            @Override
+            public String toString() {
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = buffer.get(start + i);
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
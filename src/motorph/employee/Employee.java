@@ -67,6 +67,54 @@ public class Employee {
         }
     }
 
+    /**
+     * Copy another employee's details
+     */
+    private Employee(Employee other) {
+        this.employeeId = other.employeeId;
+        this.lastName = other.lastName;
+        this.firstName = other.firstName;
+        this.birthday = other.birthday;
+        this.address = other.address;
+        this.phoneNumber = other.phoneNumber;
+        this.sssNo = other.sssNo;
+        this.philhealthNo = other.philhealthNo;
+        this.tinNo = other.tinNo;
+        this.pagibigNo = other.pagibigNo;
+        this.status = other.status;
+        this.position = other.position;
+        this.immediateSupervisor = other.immediateSupervisor;
+        this.basicSalary = other.basicSalary;
+        this.riceSubsidy = other.riceSubsidy;
+        this.phoneAllowance = other.phoneAllowance;
+        this.clothingAllowance = other.clothingAllowance;
+        this.grossSemiMonthlyRate = other.grossSemiMonthlyRate;
+        this.hourlyRate = other.hourlyRate;
+    }
+
+    /**
+     * Get a copy of this employee with a different monthly salary
+     * The semi-monthly and hourly rates from the CSV are scaled by the same
+     * factor and rounded to the centavo. This employee is not changed.
+     *
+     * @param newBasicSalary New monthly salary
+     * @return Copy with the new salary
+     */
+    public Employee withBasicSalary(double newBasicSalary) {
+        Employee copy = new Employee(this);
+        copy.basicSalary = newBasicSalary;
+        if (basicSalary > 0) {
+            double factor = newBasicSalary / basicSalary;
+            copy.grossSemiMonthlyRate = Math.round(grossSemiMonthlyRate * factor * 100) / 100.0;
+            copy.hourlyRate = Math.round(hourlyRate * factor * 100) / 100.0;
+        } else {
+            // Without a salary to scale from, let the rates be worked out from the new one
+            copy.grossSemiMonthlyRate = 0;
+            copy.hourlyRate = 0;
+        }
+        return copy;
+    }
+
     /**
      * Convert string to number with proper error handling
      *
@@ -116,6 +164,21 @@ public class Employee {
     public String getPhoneNumber() { return phoneNumber; }
     public String getSupervisor() { return immediateSupervisor; }
 
+    /**
+     * Check if the employee is still on the payroll
+     * Regular and probationary employees are active; separated ones are not
+     *
+     * @return true unless the status marks the employee as separated
+     */
+    public boolean isActive() {
+        if (status == null) {
+            return true;
+        }
+        String normalized = status.trim().toLowerCase();
+        return !(normalized.equals("terminated") || normalized.equals("resigned")
+                || normalized.equals("inactive") || normalized.equals("separated"));
+    }
+
     // Salary getters
     public double getBasicSalary() { return basicSalary; }
 
@@ -1,13 +1,15 @@
 package motorph.employee;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
-import java.io.FileReader;
+import motorph.util.FileFingerprint;
+import motorph.util.SnapshotFile;
+
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
- * Reads and manages employee data from CSV using OpenCSV
+ * Reads and manages employee data from CSV
  * Same interface as before - your GUI code doesn't need to change!
  */
 public class EmployeeDataReader {
@@ -24,61 +26,83 @@ public class EmployeeDataReader {
     }
 
     /**
-     * Read employees from CSV file using OpenCSV
+     * Read employees from the snapshot, or from the CSV file using the
+     * memory-mapped CSV scanner when the snapshot is missing or stale
      */
     private void loadEmployees() {
-        System.out.println("Loading employee data with OpenCSV...");
+        System.out.println("Loading employee data...");
 
         try {
-            // Use OpenCSV for reliable CSV parsing
-            CSVReader csvReader = new CSVReader(new FileReader(employeeFilePath));
-            List<String[]> allRows = csvReader.readAll();
-            csvReader.close();
-
-            int lineNumber = 0;
-
-            // Skip header row (first row) and process data
-            for (int i = 1; i < allRows.size(); i++) {
-                lineNumber++;
-                String[] dataArray = allRows.get(i);
+            Path csvPath = Paths.get(employeeFilePath);
+            Path snapshotPath = SnapshotFile.pathFor(employeeFilePath);
+
+            List<String[]> rows = readSnapshot(snapshotPath, csvPath);
+            if (rows == null) {
+                // Fingerprinted before parsing, so a snapshot never covers later edits
+                FileFingerprint fingerprint = FileFingerprint.of(csvPath);
+                List<String[]> parsed = new ArrayList<>();
+                CSVScanner.scan(employeeFilePath, row -> parsed.add(row.toArray()));
+                rows = parsed;
+                writeSnapshot(snapshotPath, fingerprint, rows);
+            }
 
-                if (dataArray.length < 19) {
+            for (String[] row : rows) {
+                if (row.length < 19) {
                     // Skip incomplete records
                     continue;
                 }
 
                 try {
-                    // Use your existing Employee constructor - no changes needed!
-                    Employee employee = new Employee(dataArray);
+                    Employee employee = new Employee(row);
                     employeeMap.put(employee.getEmployeeId(), employee);
                 } catch (Exception e) {
-                    // Skip bad records silently (same as your original logic)
+                    // Skip bad records silently
                 }
             }
 
-            System.out.println("Employee data loaded successfully with OpenCSV");
+            System.out.println("Employee data loaded successfully");
             System.out.println("Total employees loaded: " + employeeMap.size());
 
         } catch (IOException e) {
             System.out.println("Error reading employee file: " + e.getMessage());
-        } catch (CsvException e) {
-            System.out.println("Error parsing CSV file with OpenCSV: " + e.getMessage());
         } catch (Exception e) {
             System.out.println("Unexpected error loading employees: " + e.getMessage());
         }
     }
 
+    /**
+     * Read rows from the snapshot, treating an unreadable one as missing
+     */
+    private static List<String[]> readSnapshot(Path snapshotPath, Path csvPath) {
+        try {
+            return EmployeeSnapshot.read(snapshotPath, csvPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save rows to the snapshot; failure only means the next load re-parses
+     */
+    private static void writeSnapshot(Path snapshotPath, FileFingerprint fingerprint, List<String[]> rows) {
+        try {
+            EmployeeSnapshot.write(snapshotPath, fingerprint, rows);
+        } catch (IOException e) {
+            System.out.println("Could not write employee snapshot: " + e.getMessage());
+        }
+    }
+
     /**
      * Get employee by ID
      */
-    public Employee getEmployee(String employeeId) {
+    public synchronized Employee getEmployee(String employeeId) {
         return employeeMap.get(employeeId);
     }
 
     /**
      * Find employee by name
      */
-    public Employee findEmployeeByName(String fullName) {
+    public synchronized Employee findEmployeeByName(String fullName) {
         String searchName = fullName.toLowerCase().trim();
 
         for (Employee employee : employeeMap.values()) {
@@ -117,7 +141,28 @@ public class EmployeeDataReader {
     /**
      * Get all employees
      */
-    public List<Employee> getAllEmployees() {
+    public synchronized List<Employee> getAllEmployees() {
         return new ArrayList<>(employeeMap.values());
     }
+
+    /**
+     * Replace an employee with an edited copy, or add a new one
+     * Only changes what this reader returns; the CSV file is not written
+     *
+     * @param employee The employee as it is now saved
+     */
+    public synchronized void putEmployee(Employee employee) {
+        employeeMap.put(employee.getEmployeeId(), employee);
+    }
+
+    /**
+     * Forget a deleted employee
+     * Only changes what this reader returns; the CSV file is not written
+     *
+     * @param employeeId ID of the deleted employee
+     * @return true if the employee was known
+     */
+    public synchronized boolean removeEmployee(String employeeId) {
+        return employeeMap.remove(employeeId) != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+// File: motorph/employee/EmployeeListener.java
+package motorph.employee;
+
+/**
+ * Receives notice of employee records edited or deleted after loading
+ * Called on the thread that saved the change, after the employee file was written
+ */
+public interface EmployeeListener {
+    /**
+     * Called after an employee record was changed
+     *
+     * @param employee The employee as it is now saved
+     */
+    void employeeUpdated(Employee employee);
+
+    /**
+     * Called after an employee record was deleted
+     *
+     * @param employeeId ID of the deleted employee
+     */
+    void employeeRemoved(String employeeId);
+}
@@ -0,0 +1,91 @@
+// File: motorph/employee/EmployeeSnapshot.java
+package motorph.employee;
+
+import motorph.util.FileFingerprint;
+import motorph.util.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of the employee CSV
+ * Stores the already split and unquoted fields of each row, so a restored
+ * load skips CSV scanning and goes straight to building Employee objects
+ */
+final class EmployeeSnapshot {
+    // "MPEM" - MotorPH employees
+    private static final int MAGIC = 0x4D50454D;
+    private static final int VERSION = 1;
+
+    private EmployeeSnapshot() {
+    }
+
+    /**
+     * Read the rows from a snapshot if it still matches the employee CSV
+     * The CSV is only hashed when its size matches but its time does not
+     *
+     * @param file Snapshot file
+     * @param source The employee CSV
+     * @return Rows in file order, or null if there is no usable snapshot
+     * @throws IOException If the snapshot or the CSV cannot be read
+     */
+    static List<String[]> read(Path file, Path source) throws IOException {
+        ByteBuffer buffer = SnapshotFile.open(file, MAGIC, VERSION);
+        if (buffer == null) {
+            return null;
+        }
+
+        try {
+            if (!FileFingerprint.readFrom(buffer).matchesContents(source)) {
+                return null;
+            }
+
+            int rowCount = buffer.getInt();
+            List<String[]> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                String[] row = new String[buffer.getInt()];
+                for (int field = 0; field < row.length; field++) {
+                    row[field] = SnapshotFile.getString(buffer);
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt snapshot
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot of the parsed rows
+     *
+     * @param file Snapshot file
+     * @param source Fingerprint of the CSV the rows were read from
+     * @param rows Rows in file order
+     * @throws IOException If the snapshot cannot be written
+     */
+    static void write(Path file, FileFingerprint source, List<String[]> rows) throws IOException {
+        int size = Integer.BYTES;
+        for (String[] row : rows) {
+            size += Integer.BYTES;
+            for (String value : row) {
+                size += SnapshotFile.stringSize(value);
+            }
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.putInt(rows.size());
+        for (String[] row : rows) {
+            body.putInt(row.length);
+            for (String value : row) {
+                SnapshotFile.putString(body, value);
+            }
+        }
+        body.flip();
+
+        SnapshotFile.write(file, MAGIC, VERSION, source, body);
+    }
+}
@@ -0,0 +1,224 @@
+// File: motorph/generator/AttendanceGenerator.java
+package motorph.generator;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic attendance record CSV
+ * Rows use the 6-column layout read by AttendanceRecord(String[]), ordered
+ * by date and then by employee like the real export. Every weekday in the
+ * configured span gets one punch per employee unless the employee is
+ * absent. Each employee has their own tendency to be late or work
+ * overtime, so some employees are consistently late and others rarely are.
+ */
+public class AttendanceGenerator {
+    // Header of the attendance file
+    static final String HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out";
+
+    // Mixed into the seed so attendance and employee data use separate random streams
+    private static final long SEED_MIX = 0x5DEECE66DL;
+
+    // Punch bounds in minutes of day. Times in are never before 8:00, since
+    // an H:mm time from 1:00 to 7:59 is read as PM.
+    private static final int START_MINUTE = 8 * 60;
+    private static final int GRACE_MINUTES = 10;
+    private static final int LATEST_TIME_IN = 10 * 60 + 59;
+    private static final int END_MINUTE = 17 * 60;
+    private static final int EARLIEST_TIME_OUT = 15 * 60;
+    private static final int LATEST_TIME_OUT = 21 * 60 + 59;
+
+    // Kinds of dirty rows
+    private static final int DIRTY_KINDS = 5;
+
+    private final GeneratorConfig config;
+
+    /**
+     * Create a generator for the given settings
+     *
+     * @param config Generator settings
+     */
+    public AttendanceGenerator(GeneratorConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Write the attendance record file
+     *
+     * @param filePath Output CSV path
+     * @return Number of data rows written, including dirty rows
+     * @throws IOException If the file cannot be written
+     */
+    public long write(String filePath) throws IOException {
+        SplittableRandom random = new SplittableRandom(config.getSeed() ^ SEED_MIX);
+        int employeeCount = config.getEmployeeCount();
+
+        // Per-employee tendencies, between a quarter and 1.75 times the configured rates
+        float[] lateFactor = new float[employeeCount];
+        float[] overtimeFactor = new float[employeeCount];
+        for (int i = 0; i < employeeCount; i++) {
+            lateFactor[i] = (float) (0.25 + random.nextDouble() * 1.5);
+            overtimeFactor[i] = (float) (0.25 + random.nextDouble() * 1.5);
+        }
+
+        // Rows reuse the same ID and name text for every day
+        String[] prefixes = new String[employeeCount];
+        for (int i = 0; i < employeeCount; i++) {
+            prefixes[i] = WorkforceGenerator.employeeIdOf(i) + "," + WorkforceGenerator.lastNameOf(i) + ","
+                    + WorkforceGenerator.firstNameOf(i) + ",";
+        }
+
+        long rowCount = 0;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(
+                new FileWriter(filePath, StandardCharsets.UTF_8), 1 << 16))) {
+            writer.println(HEADER);
+            StringBuilder line = new StringBuilder(64);
+
+            for (LocalDate date = config.getStartDate(); !date.isAfter(config.getEndDate()); date = date.plusDays(1)) {
+                if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                String dateText = formatDate(date);
+
+                for (int i = 0; i < employeeCount; i++) {
+                    if (random.nextDouble() < config.getAbsenceRate()) {
+                        continue;
+                    }
+                    int timeIn = timeIn(random, lateFactor[i]);
+                    int timeOut = timeOut(random, overtimeFactor[i]);
+
+                    if (config.getDirtyRowRate() > 0 && random.nextDouble() < config.getDirtyRowRate()) {
+                        rowCount += writeDirty(writer, line, random, prefixes[i], dateText, timeIn, timeOut);
+                        continue;
+                    }
+
+                    line.setLength(0);
+                    line.append(prefixes[i]).append(dateText).append(',');
+                    appendTime(line, timeIn).append(',');
+                    appendTime(line, timeOut);
+                    writer.println(line);
+                    rowCount++;
+                }
+            }
+        }
+
+        return rowCount;
+    }
+
+    /**
+     * Draw a time in: within the grace period, or late by an exponential delay
+     */
+    private int timeIn(SplittableRandom random, float lateFactor) {
+        if (random.nextDouble() < config.getLateRate() * lateFactor) {
+            int delay = 1 + (int) exponential(random, config.getLateMeanMinutes());
+            return Math.min(START_MINUTE + GRACE_MINUTES + delay, LATEST_TIME_IN);
+        }
+        return START_MINUTE + random.nextInt(GRACE_MINUTES + 1);
+    }
+
+    /**
+     * Draw a time out: early, on time, or after an exponential stretch of overtime
+     */
+    private int timeOut(SplittableRandom random, float overtimeFactor) {
+        double draw = random.nextDouble();
+        if (draw < config.getUndertimeRate()) {
+            return END_MINUTE - 1 - random.nextInt(END_MINUTE - EARLIEST_TIME_OUT);
+        }
+        if (draw < config.getUndertimeRate() + config.getOvertimeRate() * overtimeFactor) {
+            int overtime = 1 + (int) exponential(random, config.getOvertimeMeanMinutes());
+            return Math.min(END_MINUTE + overtime, LATEST_TIME_OUT);
+        }
+        return END_MINUTE + random.nextInt(16);
+    }
+
+    /**
+     * Write a malformed row, or a valid row followed by a conflicting duplicate
+     *
+     * @return Number of rows written
+     */
+    private int writeDirty(PrintWriter writer, StringBuilder line, SplittableRandom random,
+                           String prefix, String dateText, int timeIn, int timeOut) {
+        line.setLength(0);
+        line.append(prefix);
+
+        switch (random.nextInt(DIRTY_KINDS)) {
+            case 0:
+                // Missing the time columns
+                line.append(dateText);
+                break;
+            case 1:
+                // Impossible date
+                line.append("13/").append(32 + random.nextInt(68)).append(dateText, 5, 10).append(',');
+                appendTime(line, timeIn).append(',');
+                appendTime(line, timeOut);
+                break;
+            case 2:
+                // Impossible time in
+                line.append(dateText).append(",25:").append(60 + random.nextInt(40)).append(',');
+                appendTime(line, timeOut);
+                break;
+            case 3:
+                // Blank time out
+                line.append(dateText).append(',');
+                appendTime(line, timeIn).append(',');
+                break;
+            default:
+                // Valid row, then a second punch for the same day
+                line.append(dateText).append(',');
+                appendTime(line, timeIn).append(',');
+                appendTime(line, timeOut);
+                writer.println(line);
+
+                line.setLength(0);
+                line.append(prefix).append(dateText).append(',');
+                appendTime(line, Math.min(timeIn + 1 + random.nextInt(30), LATEST_TIME_IN)).append(',');
+                appendTime(line, Math.min(timeOut + random.nextInt(60), LATEST_TIME_OUT));
+                writer.println(line);
+                return 2;
+        }
+
+        writer.println(line);
+        return 1;
+    }
+
+    /**
+     * Draw from an exponential distribution with the given mean
+     */
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1.0 - random.nextDouble());
+    }
+
+    /**
+     * Format a date as MM/dd/yyyy
+     */
+    private static String formatDate(LocalDate date) {
+        StringBuilder text = new StringBuilder(10);
+        appendTwoDigits(text, date.getMonthValue()).append('/');
+        appendTwoDigits(text, date.getDayOfMonth()).append('/');
+        return text.append(date.getYear()).toString();
+    }
+
+    /**
+     * Append a minute of day as H:mm, the format of the source data
+     */
+    private static StringBuilder appendTime(StringBuilder line, int minuteOfDay) {
+        line.append(minuteOfDay / 60).append(':');
+        return appendTwoDigits(line, minuteOfDay % 60);
+    }
+
+    /**
+     * Append a number below 100 with a leading zero
+     */
+    private static StringBuilder appendTwoDigits(StringBuilder text, int value) {
+        if (value < 10) {
+            text.append('0');
+        }
+        return text.append(value);
+    }
+}
@@ -0,0 +1,114 @@
+// File: motorph/generator/DataGenerator.java
+package motorph.generator;
+
+import motorph.util.DateTimeUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Command-line tool that writes a synthetic employee details file and a
+ * matching attendance file for scale testing
+ * The files use the same names and layouts as the ones in resources, so
+ * the payroll code can be pointed at the output directory unchanged.
+ */
+public class DataGenerator {
+    // File names used in the output directory
+    public static final String EMPLOYEE_FILE_NAME = "MotorPH Employee Data - Employee Details.csv";
+    public static final String ATTENDANCE_FILE_NAME = "MotorPH Employee Data - Attendance Record.csv";
+
+    private static final String USAGE = "Usage: DataGenerator <outputDir> [--employees=N] [--seed=N]"
+            + " [--start=MM/dd/yyyy] [--end=MM/dd/yyyy] [--late-rate=R] [--late-mean=MIN]"
+            + " [--overtime-rate=R] [--overtime-mean=MIN] [--undertime-rate=R] [--absence-rate=R]"
+            + " [--dirty-rate=R]";
+
+    /**
+     * Write both files into a directory
+     *
+     * @param config Generator settings
+     * @param outputDir Directory to write to; created if missing
+     * @return Number of attendance rows written
+     * @throws IOException If a file cannot be written
+     */
+    public static long generate(GeneratorConfig config, String outputDir) throws IOException {
+        File directory = new File(outputDir);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + outputDir);
+        }
+
+        new WorkforceGenerator(config).write(new File(directory, EMPLOYEE_FILE_NAME).getPath());
+        return new AttendanceGenerator(config).write(new File(directory, ATTENDANCE_FILE_NAME).getPath());
+    }
+
+    /**
+     * Command-line entry point
+     *
+     * @param args Output directory followed by --name=value options
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        GeneratorConfig config = new GeneratorConfig();
+        try {
+            LocalDate startDate = config.getStartDate();
+            LocalDate endDate = config.getEndDate();
+
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1).trim();
+
+                switch (name) {
+                    case "employees": config.setEmployeeCount(Integer.parseInt(value)); break;
+                    case "seed": config.setSeed(Long.parseLong(value)); break;
+                    case "start": startDate = parseDate(value); break;
+                    case "end": endDate = parseDate(value); break;
+                    case "late-rate": config.setLateRate(Double.parseDouble(value)); break;
+                    case "late-mean": config.setLateMeanMinutes(Double.parseDouble(value)); break;
+                    case "overtime-rate": config.setOvertimeRate(Double.parseDouble(value)); break;
+                    case "overtime-mean": config.setOvertimeMeanMinutes(Double.parseDouble(value)); break;
+                    case "undertime-rate": config.setUndertimeRate(Double.parseDouble(value)); break;
+                    case "absence-rate": config.setAbsenceRate(Double.parseDouble(value)); break;
+                    case "dirty-rate": config.setDirtyRowRate(Double.parseDouble(value)); break;
+                    default:
+                        System.out.println("Unknown option: " + name);
+                        System.out.println(USAGE);
+                        return;
+                }
+            }
+            config.setDateRange(startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid option: " + e.getMessage());
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            long rows = generate(config, args[0]);
+            System.out.printf("Wrote %d employees and %d attendance rows to %s in %.0f ms%n",
+                    config.getEmployeeCount(), rows, args[0], (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.out.println("Error writing generated data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse a MM/dd/yyyy option value
+     */
+    private static LocalDate parseDate(String value) {
+        LocalDate date = DateTimeUtil.parseDate(value);
+        if (date == null) {
+            throw new IllegalArgumentException("Invalid date " + value + ", use MM/dd/yyyy");
+        }
+        return date;
+    }
+}
@@ -0,0 +1,96 @@
+// File: motorph/generator/GeneratorConfig.java
+package motorph.generator;
+
+import java.time.LocalDate;
+
+/**
+ * Settings for generating synthetic employee and attendance data
+ * The same settings and seed always produce the same files
+ */
+public class GeneratorConfig {
+    // Seed for every random choice
+    private long seed = 42L;
+
+    // Number of employees to generate
+    private int employeeCount = 1000;
+
+    // Attendance date span (inclusive); only weekdays get punches
+    private LocalDate startDate = LocalDate.of(2024, 6, 1);
+    private LocalDate endDate = LocalDate.of(2024, 12, 31);
+
+    // Share of workdays an employee arrives after the grace period, and the mean delay
+    private double lateRate = 0.30;
+    private double lateMeanMinutes = 25;
+
+    // Share of workdays with overtime, and the mean overtime
+    private double overtimeRate = 0.35;
+    private double overtimeMeanMinutes = 90;
+
+    // Share of workdays an employee leaves before 5:00 PM
+    private double undertimeRate = 0.05;
+
+    // Share of workdays with no punch at all
+    private double absenceRate = 0.02;
+
+    // Share of attendance rows written malformed or duplicated
+    private double dirtyRowRate = 0.0;
+
+    // Getters
+    public long getSeed() { return seed; }
+    public int getEmployeeCount() { return employeeCount; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public double getLateRate() { return lateRate; }
+    public double getLateMeanMinutes() { return lateMeanMinutes; }
+    public double getOvertimeRate() { return overtimeRate; }
+    public double getOvertimeMeanMinutes() { return overtimeMeanMinutes; }
+    public double getUndertimeRate() { return undertimeRate; }
+    public double getAbsenceRate() { return absenceRate; }
+    public double getDirtyRowRate() { return dirtyRowRate; }
+
+    // Setters
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setEmployeeCount(int employeeCount) {
+        if (employeeCount < 1) {
+            throw new IllegalArgumentException("Employee count must be at least 1");
+        }
+        this.employeeCount = employeeCount;
+    }
+
+    public void setDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public void setLateRate(double lateRate) { this.lateRate = checkRate(lateRate); }
+    public void setLateMeanMinutes(double lateMeanMinutes) { this.lateMeanMinutes = checkMean(lateMeanMinutes); }
+    public void setOvertimeRate(double overtimeRate) { this.overtimeRate = checkRate(overtimeRate); }
+    public void setOvertimeMeanMinutes(double overtimeMeanMinutes) { this.overtimeMeanMinutes = checkMean(overtimeMeanMinutes); }
+    public void setUndertimeRate(double undertimeRate) { this.undertimeRate = checkRate(undertimeRate); }
+    public void setAbsenceRate(double absenceRate) { this.absenceRate = checkRate(absenceRate); }
+    public void setDirtyRowRate(double dirtyRowRate) { this.dirtyRowRate = checkRate(dirtyRowRate); }
+
+    /**
+     * Check that a rate is a probability
+     */
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+
+    /**
+     * Check that a mean duration is positive
+     */
+    private static double checkMean(double minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Mean minutes must be positive: " + minutes);
+        }
+        return minutes;
+    }
+}
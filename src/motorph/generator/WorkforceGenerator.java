@@ -0,0 +1,265 @@
+// File: motorph/generator/WorkforceGenerator.java
+package motorph.generator;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic employee details CSV
+ * Rows use the 19-column layout read by Employee(String[]). Employees form
+ * a simple hierarchy: four executives, a manager for every 40 employees and a team
+ * leader for every 8, with everyone else in rank and file. Salaries and
+ * allowances follow the bands of the real MotorPH data.
+ */
+public class WorkforceGenerator {
+    // Header of the employee details file
+    static final String HEADER = "Employee #,Last Name,First Name,Birthday,Address,Phone Number,"
+            + "SSS #,Philhealth #,TIN #,Pag-ibig #,Status,Position,Immediate Supervisor,"
+            + "Basic Salary,Rice Subsidy,Phone Allowance,Clothing Allowance,Gross Semi-monthly Rate,Hourly Rate";
+
+    // First employee number
+    static final int FIRST_EMPLOYEE_ID = 10001;
+
+    private static final String[] LAST_NAMES = {
+            "Garcia", "Lim", "Aquino", "Reyes", "Hernandez", "Villanueva", "San Jose", "Romualdez",
+            "Atienza", "Alvaro", "Salcedo", "Lopez", "Farala", "Martinez", "Mata", "De Leon",
+            "Rosario", "Bautista", "Lazaro", "Delos Santos", "Santos", "Del Rosario", "Tolentino", "Gutierrez",
+            "Manalaysay", "Villegas", "Ramos", "Mendoza", "Cruz", "Dela Cruz", "Castillo", "Navarro"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Manuel", "Antonio", "Bianca Sofia", "Isabella", "Eduard", "Andrea Mae", "Brad", "Alice",
+            "Rosie", "Roderick", "Anthony", "Josie", "Martha", "Leila", "Fredrick", "Christian",
+            "Selena", "Allison", "Cydney", "Mark", "Darlene", "Kolby", "Vella", "Tomas",
+            "Jacklyn", "Percival", "Garfield", "Lizeth", "Carol", "Emelia", "Delia", "John Rafael"
+    };
+
+    private static final String[] CITIES = {
+            "Makati City", "Quezon City", "Taguig City", "Pasig City", "Mandaluyong City",
+            "Dasmarinas, Cavite", "Antipolo, Rizal", "Calamba, Laguna", "Davao City", "Cebu City"
+    };
+
+    private static final String[] EXECUTIVE_TITLES = {
+            "Chief Executive Officer", "Chief Operating Officer", "Chief Finance Officer", "Chief Marketing Officer"
+    };
+
+    private static final String[] DEPARTMENTS = {
+            "HR", "Payroll", "Account", "Sales", "Supply Chain", "IT"
+    };
+
+    /**
+     * Role tiers with their salary band and fixed allowances
+     */
+    enum Tier {
+        EXECUTIVE(60000, 90000, 2000, 1000),
+        MANAGER(50825, 53500, 1000, 1000),
+        TEAM_LEADER(38475, 42975, 800, 800),
+        RANK_AND_FILE(22500, 24750, 500, 500);
+
+        final int minSalary;
+        final int maxSalary;
+        final int phoneAllowance;
+        final int clothingAllowance;
+
+        Tier(int minSalary, int maxSalary, int phoneAllowance, int clothingAllowance) {
+            this.minSalary = minSalary;
+            this.maxSalary = maxSalary;
+            this.phoneAllowance = phoneAllowance;
+            this.clothingAllowance = clothingAllowance;
+        }
+    }
+
+    // Rice subsidy paid to every employee
+    private static final int RICE_SUBSIDY = 1500;
+
+    private final GeneratorConfig config;
+
+    /**
+     * Create a generator for the given settings
+     *
+     * @param config Generator settings
+     */
+    public WorkforceGenerator(GeneratorConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Write the employee details file
+     *
+     * @param filePath Output CSV path
+     * @return Number of employees written
+     * @throws IOException If the file cannot be written
+     */
+    public int write(String filePath) throws IOException {
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(
+                new FileWriter(filePath, StandardCharsets.UTF_8), 1 << 16))) {
+            writer.println(HEADER);
+            StringBuilder line = new StringBuilder(256);
+            for (int index = 0; index < config.getEmployeeCount(); index++) {
+                line.setLength(0);
+                appendEmployee(line, index, random);
+                writer.println(line);
+            }
+        }
+
+        return config.getEmployeeCount();
+    }
+
+    /**
+     * Build one employee row
+     */
+    private void appendEmployee(StringBuilder line, int index, SplittableRandom random) {
+        Tier tier = tierOf(index);
+        int salary = tier.minSalary + random.nextInt((tier.maxSalary - tier.minSalary) / 25 + 1) * 25;
+
+        line.append(employeeIdOf(index)).append(',');
+        line.append(lastNameOf(index)).append(',');
+        line.append(firstNameOf(index)).append(',');
+        line.append(String.format(Locale.US, "%02d/%02d/%04d", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                1960 + random.nextInt(45))).append(',');
+        line.append("\"Block ").append(1 + random.nextInt(99)).append(" Lot ").append(1 + random.nextInt(40))
+                .append(", ").append(CITIES[random.nextInt(CITIES.length)]).append("\",");
+        line.append(digits(random, 3)).append('-').append(digits(random, 3)).append('-')
+                .append(digits(random, 3)).append(',');
+        line.append(digits(random, 2)).append('-').append(digits(random, 7)).append('-')
+                .append(digits(random, 1)).append(',');
+        line.append(digits(random, 12)).append(',');
+        line.append(digits(random, 3)).append('-').append(digits(random, 3)).append('-')
+                .append(digits(random, 3)).append("-000,");
+        line.append(digits(random, 12)).append(',');
+        line.append(tier == Tier.RANK_AND_FILE && random.nextInt(10) < 3 ? "Probationary" : "Regular").append(',');
+        line.append(positionOf(index, tier)).append(',');
+
+        int supervisor = supervisorOf(index);
+        if (supervisor < 0) {
+            line.append("N/A,");
+        } else {
+            line.append('"').append(lastNameOf(supervisor)).append(", ").append(firstNameOf(supervisor)).append("\",");
+        }
+
+        line.append(money(salary)).append(',');
+        line.append(money(RICE_SUBSIDY)).append(',');
+        line.append(money(tier.phoneAllowance)).append(',');
+        line.append(money(tier.clothingAllowance)).append(',');
+        line.append(money((salary + 1) / 2)).append(',');
+        line.append(String.format(Locale.US, "%.2f", salary / 21.0 / 8.0));
+    }
+
+    /**
+     * Get the role tier of an employee by position in the file
+     */
+    static Tier tierOf(int index) {
+        if (index < EXECUTIVE_TITLES.length) {
+            return Tier.EXECUTIVE;
+        }
+        if (index % 40 == 1) {
+            return Tier.MANAGER;
+        }
+        if (index % 8 == 2) {
+            return Tier.TEAM_LEADER;
+        }
+        return Tier.RANK_AND_FILE;
+    }
+
+    /**
+     * Get the index of an employee's supervisor, or -1 for the CEO
+     */
+    static int supervisorOf(int index) {
+        if (index == 0) {
+            return -1;
+        }
+        switch (tierOf(index)) {
+            case EXECUTIVE:
+            case MANAGER:
+                return 0;
+            case TEAM_LEADER:
+                int manager = ((index - 1) / 40) * 40 + 1;
+                return manager < EXECUTIVE_TITLES.length ? 0 : manager;
+            default:
+                int leader = ((index - 2) / 8) * 8 + 2;
+                return leader < EXECUTIVE_TITLES.length ? 0 : leader;
+        }
+    }
+
+    /**
+     * Get the position title of an employee
+     */
+    private static String positionOf(int index, Tier tier) {
+        String department = DEPARTMENTS[(index / 40) % DEPARTMENTS.length];
+        switch (tier) {
+            case EXECUTIVE:
+                return EXECUTIVE_TITLES[index];
+            case MANAGER:
+                return department + " Manager";
+            case TEAM_LEADER:
+                return department + " Team Leader";
+            default:
+                return department + " Rank and File";
+        }
+    }
+
+    /**
+     * Get the employee number of an employee
+     */
+    static String employeeIdOf(int index) {
+        return Integer.toString(FIRST_EMPLOYEE_ID + index);
+    }
+
+    /**
+     * Get the last name of an employee
+     * Names depend only on the index so the attendance file can repeat them
+     */
+    static String lastNameOf(int index) {
+        return LAST_NAMES[index % LAST_NAMES.length];
+    }
+
+    /**
+     * Get the first name of an employee
+     */
+    static String firstNameOf(int index) {
+        String name = FIRST_NAMES[(index / LAST_NAMES.length) % FIRST_NAMES.length];
+        int round = index / (LAST_NAMES.length * FIRST_NAMES.length);
+        return round == 0 ? name : name + " " + toRoman(round + 1);
+    }
+
+    /**
+     * Write a whole number of pesos the way the source data does, e.g. "45,000"
+     */
+    private static String money(int pesos) {
+        return pesos >= 1000 ? String.format(Locale.US, "\"%,d\"", pesos) : Integer.toString(pesos);
+    }
+
+    /**
+     * Draw a string of random digits
+     */
+    private static String digits(SplittableRandom random, int count) {
+        char[] chars = new char[count];
+        for (int i = 0; i < count; i++) {
+            chars[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Write a number as a Roman numeral, used as a name suffix (II, III, ...)
+     */
+    private static String toRoman(int number) {
+        int[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+        String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+        StringBuilder roman = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            while (number >= values[i]) {
+                roman.append(numerals[i]);
+                number -= values[i];
+            }
+        }
+        return roman.toString();
+    }
+}
@@ -427,17 +427,16 @@ public class EmployeeDashboard extends JFrame {
 
     void showEmployeePayslip(PayPeriod payPeriod, int year, String monthName, String periodName) {
         // Calculate payroll details
-        double grossPay = employeeData.getSemiMonthlyRate();
-        double riceSubsidy = employeeData.getRiceSubsidy() / 2;
-        double phoneAllowance = employeeData.getPhoneAllowance() / 2;
-        double clothingAllowance = employeeData.getClothingAllowance() / 2;
-        double totalAllowances = riceSubsidy + phoneAllowance + clothingAllowance;
-        double totalGrossPay = grossPay + totalAllowances;
+        PayslipEstimate payslip = PayslipEstimate.calculate(employeeData, payPeriod);
+        double grossPay = payslip.basePay;
+        double riceSubsidy = payslip.riceSubsidy;
+        double phoneAllowance = payslip.phoneAllowance;
+        double clothingAllowance = payslip.clothingAllowance;
+        double totalGrossPay = payslip.grossPay;
 
-        StatutoryDeductions.DeductionResult deductions = StatutoryDeductions.calculateDeductions(
-                totalGrossPay, payPeriod.getPeriodType(), employeeData.getBasicSalary());
+        StatutoryDeductions.DeductionResult deductions = payslip.deductions;
 
-        double netPay = totalGrossPay - deductions.totalDeductions;
+        double netPay = payslip.netPay;
 
         // Create payslip dialog
         JDialog payslipDialog = new JDialog(this, "My Payslip - " + monthName + " " + year, true);
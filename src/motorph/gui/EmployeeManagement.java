@@ -555,10 +555,12 @@ public class EmployeeManagement extends JFrame {
                 String previewText = String.format(
                         "<html><b>Payroll Date:</b> %s<br/>" +
                                 "<b>Coverage Period:</b> %s<br/>" +
-                                "<b>Working Days:</b> %d days</html>",
+                                "<b>Working Days:</b> %d days<br/>" +
+                                "<b>Holidays:</b> %d</html>",
                         PayrollDateManager.formatDate(payrollDate),
                         PayrollDateManager.getFormattedDateRange(cutoffRange[0], cutoffRange[1]),
-                        PayrollDateManager.getWorkingDaysInPeriod(cutoffRange[0], cutoffRange[1])
+                        PayrollDateManager.getWorkingDaysInPeriod(cutoffRange[0], cutoffRange[1]),
+                        PayrollDateManager.getHolidayCount(selectedYear, selectedMonth, selectedPeriod)
                 );
                 previewLabel.setText(previewText);
             } catch (Exception ex) {
@@ -625,18 +627,16 @@ public class EmployeeManagement extends JFrame {
     private void showEnhancedPayslipWithPeriod(Employee employee, PayPeriod payPeriod,
                                                int year, String monthName, String periodName) {
         // Calculate payroll details
-        double grossPay = employee.getSemiMonthlyRate();
-        double riceSubsidy = employee.getRiceSubsidy() / 2;
-        double phoneAllowance = employee.getPhoneAllowance() / 2;
-        double clothingAllowance = employee.getClothingAllowance() / 2;
-        double totalAllowances = riceSubsidy + phoneAllowance + clothingAllowance;
-        double totalGrossPay = grossPay + totalAllowances;
+        PayslipEstimate payslip = PayslipEstimate.calculate(employee, payPeriod);
+        double grossPay = payslip.basePay;
+        double riceSubsidy = payslip.riceSubsidy;
+        double phoneAllowance = payslip.phoneAllowance;
+        double clothingAllowance = payslip.clothingAllowance;
+        double totalGrossPay = payslip.grossPay;
 
-        // Calculate statutory deductions
-        StatutoryDeductions.DeductionResult deductions = StatutoryDeductions.calculateDeductions(
-                totalGrossPay, payPeriod.getPeriodType(), employee.getBasicSalary());
+        StatutoryDeductions.DeductionResult deductions = payslip.deductions;
 
-        double netPay = totalGrossPay - deductions.totalDeductions;
+        double netPay = payslip.netPay;
 
         // Create enhanced payslip dialog
         JDialog payslipDialog = new JDialog(this, "Enhanced Payslip - " + employee.getFullName() + " (" + monthName + " " + year + ")", true);
@@ -1077,8 +1077,7 @@ public class EmployeeManagement extends JFrame {
                 content.append("                                      ─────────────────\n");
                 content.append("TOTAL GROSS PAY: ₱").append(String.format("%,.2f", totalGrossPay)).append("\n\n");
 
-                StatutoryDeductions.DeductionResult deductions = StatutoryDeductions.calculateDeductions(
-                        totalGrossPay, payPeriod.getPeriodType(), employee.getBasicSalary());
+                StatutoryDeductions.DeductionResult deductions = PayslipEstimate.calculate(employee, payPeriod).deductions;
 
                 content.append("STATUTORY DEDUCTIONS:\n");
                 content.append("SSS Contribution: ₱").append(String.format("%,.2f", deductions.sssDeduction)).append("\n");
@@ -3,6 +3,7 @@ package motorph.gui;
 
 import motorph.employee.Employee;
 import motorph.employee.EmployeeDataReader;
+import motorph.employee.EmployeeListener;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Handles all employee CRUD operations for the GUI system
@@ -23,6 +25,9 @@ public class EmployeeOperationsManager {
     private final JFrame parentFrame;
     private EmployeeDataReader employeeDataReader;
 
+    // Listeners told about saved edits and deletions
+    private final List<EmployeeListener> listeners = new CopyOnWriteArrayList<>();
+
     public EmployeeOperationsManager(String csvFilePath, JFrame parentFrame) {
         this.csvFilePath = csvFilePath;
         this.parentFrame = parentFrame;
@@ -316,6 +321,14 @@ public class EmployeeOperationsManager {
             // Refresh the employee data reader
             employeeDataReader = new EmployeeDataReader(csvFilePath);
 
+            // Let payroll recalculate only this employee's results
+            Employee updated = employeeDataReader.getEmployee(employeeId);
+            if (updated != null) {
+                for (EmployeeListener listener : listeners) {
+                    listener.employeeUpdated(updated);
+                }
+            }
+
             return true;
 
         } catch (Exception e) {
@@ -365,6 +378,10 @@ public class EmployeeOperationsManager {
             // Refresh the employee data reader
             employeeDataReader = new EmployeeDataReader(csvFilePath);
 
+            for (EmployeeListener listener : listeners) {
+                listener.employeeRemoved(employeeId);
+            }
+
             return true;
 
         } catch (Exception e) {
@@ -406,6 +423,22 @@ public class EmployeeOperationsManager {
         return field.replace("\"", "").trim();
     }
 
+    /**
+     * Register a listener for saved employee edits and deletions
+     * @param listener Listener to add, such as a PayrollProcessor
+     */
+    public void addEmployeeListener(EmployeeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added with addEmployeeListener
+     * @param listener Listener to remove
+     */
+    public void removeEmployeeListener(EmployeeListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Get current employee data reader (in case main class needs it)
      */
@@ -0,0 +1,44 @@
+// File: motorph/gui/PayslipEstimate.java
+package motorph.gui;
+
+import motorph.deductions.StatutoryDeductions;
+import motorph.employee.Employee;
+import motorph.process.PayPeriod;
+
+/**
+ * Payslip figures shown by the GUI payslip views
+ * The GUI does not process attendance, so a GUI payslip is an estimate: the
+ * semi-monthly rate plus half of each monthly allowance, less statutory
+ * deductions. Processed payroll results come from PayrollProcessor instead.
+ */
+final class PayslipEstimate {
+    public final double basePay;
+    public final double riceSubsidy;
+    public final double phoneAllowance;
+    public final double clothingAllowance;
+    public final double grossPay;
+    public final StatutoryDeductions.DeductionResult deductions;
+    public final double netPay;
+
+    private PayslipEstimate(Employee employee, PayPeriod payPeriod) {
+        this.basePay = employee.getSemiMonthlyRate();
+        this.riceSubsidy = employee.getRiceSubsidy() / 2;
+        this.phoneAllowance = employee.getPhoneAllowance() / 2;
+        this.clothingAllowance = employee.getClothingAllowance() / 2;
+        this.grossPay = basePay + riceSubsidy + phoneAllowance + clothingAllowance;
+        this.deductions = StatutoryDeductions.calculateDeductions(
+                grossPay, payPeriod.getPeriodType(), employee.getBasicSalary());
+        this.netPay = grossPay - deductions.totalDeductions;
+    }
+
+    /**
+     * Estimate the payslip of an employee for a pay period
+     *
+     * @param employee The employee
+     * @param payPeriod The pay period
+     * @return Payslip figures
+     */
+    static PayslipEstimate calculate(Employee employee, PayPeriod payPeriod) {
+        return new PayslipEstimate(employee, payPeriod);
+    }
+}
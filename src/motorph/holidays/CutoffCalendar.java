@@ -0,0 +1,140 @@
+// File: motorph/holidays/CutoffCalendar.java
+package motorph.holidays;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Holidays and day counts of one cutoff period, worked out once
+ * Every day of the cutoff has a byte of day type flags, and the holidays
+ * are also listed in date order so payroll can visit only those days. The
+ * calendar never changes after it is built and can be shared by every
+ * thread of a batch run; build a new one when a holiday is added.
+ */
+public final class CutoffCalendar {
+    // Day type flags
+    public static final byte REGULAR_HOLIDAY = 1;
+    public static final byte SPECIAL_HOLIDAY = 2;
+    public static final byte REST_DAY = 4;   // Sunday, as used for the holiday rest day premium
+    public static final byte WEEKEND = 8;    // Saturday or Sunday
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final long startEpochDay;
+
+    // Day type flags by day of the cutoff
+    private final byte[] dayTypes;
+
+    // Epoch days of the holidays, in date order
+    private final int[] holidayEpochDays;
+
+    private final int workingDayCount;
+
+    /**
+     * Build the calendar of a cutoff period
+     *
+     * @param holidayManager Holidays to use
+     * @param startDate Start date of the cutoff (inclusive)
+     * @param endDate End date of the cutoff (inclusive)
+     */
+    public CutoffCalendar(HolidayManager holidayManager, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Invalid cutoff dates");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.startEpochDay = startDate.toEpochDay();
+        this.dayTypes = new byte[(int) (endDate.toEpochDay() - startEpochDay + 1)];
+
+        int holidayCount = 0;
+        int weekdays = 0;
+        LocalDate date = startDate;
+        for (int day = 0; day < dayTypes.length; day++) {
+            byte type = 0;
+            if (holidayManager.isRegularHoliday(date)) {
+                type |= REGULAR_HOLIDAY;
+            } else if (holidayManager.isSpecialNonWorkingHoliday(date)) {
+                type |= SPECIAL_HOLIDAY;
+            }
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                type |= REST_DAY | WEEKEND;
+            } else if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                type |= WEEKEND;
+            } else {
+                weekdays++;
+            }
+            if ((type & (REGULAR_HOLIDAY | SPECIAL_HOLIDAY)) != 0) {
+                holidayCount++;
+            }
+            dayTypes[day] = type;
+            date = date.plusDays(1);
+        }
+        this.workingDayCount = weekdays;
+
+        this.holidayEpochDays = new int[holidayCount];
+        int holiday = 0;
+        for (int day = 0; day < dayTypes.length; day++) {
+            if ((dayTypes[day] & (REGULAR_HOLIDAY | SPECIAL_HOLIDAY)) != 0) {
+                holidayEpochDays[holiday++] = (int) (startEpochDay + day);
+            }
+        }
+    }
+
+    /**
+     * Check whether this calendar was built for a cutoff
+     *
+     * @param startDate Start date of the cutoff
+     * @param endDate End date of the cutoff
+     * @return true if the dates are the same
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return this.startDate.equals(startDate) && this.endDate.equals(endDate);
+    }
+
+    /**
+     * Get the day type flags of a date
+     *
+     * @param date Date to check
+     * @return Flags, or 0 if the date is outside the cutoff
+     */
+    public byte getDayType(LocalDate date) {
+        long day = date.toEpochDay() - startEpochDay;
+        return day >= 0 && day < dayTypes.length ? dayTypes[(int) day] : 0;
+    }
+
+    /**
+     * Check if a date in the cutoff is a holiday
+     *
+     * @param date Date to check
+     * @return true for regular and special holidays
+     */
+    public boolean isHoliday(LocalDate date) {
+        return (getDayType(date) & (REGULAR_HOLIDAY | SPECIAL_HOLIDAY)) != 0;
+    }
+
+    // Getters
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public int getDayCount() { return dayTypes.length; }
+    public int getWorkingDayCount() { return workingDayCount; }
+    public int getHolidayCount() { return holidayEpochDays.length; }
+
+    /**
+     * Get the epoch days of every holiday in the cutoff
+     *
+     * @return Copy of the epoch days, in date order
+     */
+    public int[] getHolidayEpochDays() {
+        return holidayEpochDays.clone();
+    }
+
+    // Holidays by position in date order
+    public int getHolidayEpochDay(int holiday) { return holidayEpochDays[holiday]; }
+    public LocalDate getHolidayDate(int holiday) { return LocalDate.ofEpochDay(holidayEpochDays[holiday]); }
+    public boolean isRegularHoliday(int holiday) { return (holidayType(holiday) & REGULAR_HOLIDAY) != 0; }
+    public boolean isRestDay(int holiday) { return (holidayType(holiday) & REST_DAY) != 0; }
+
+    private byte holidayType(int holiday) {
+        return dayTypes[(int) (holidayEpochDays[holiday] - startEpochDay)];
+    }
+}
@@ -5,15 +5,22 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages holidays and calculates holiday pay
  * Tracks both regular and special non-working holidays
+ * Safe to share between threads: lookups never lock, and addHoliday
+ * publishes a new copy of the list. One instance is usually shared by the
+ * whole application; users that cache holiday data compare getRevision
  */
 public class HolidayManager {
     // Holiday lists by type
-    private List<Holiday> regularHolidays;
-    private List<Holiday> specialNonWorkingHolidays;
+    private final List<Holiday> regularHolidays;
+    private final List<Holiday> specialNonWorkingHolidays;
+
+    // Dates of the holidays added by addHoliday, in order; the count is the revision
+    private final List<LocalDate> addedDates = new CopyOnWriteArrayList<>();
 
     // Holiday premium rates
     private static final double REGULAR_HOLIDAY_RATE = 1.0; // 100% of daily rate
@@ -24,8 +31,8 @@ public class HolidayManager {
      * Create a new holiday manager with predefined holidays
      */
     public HolidayManager() {
-        regularHolidays = new ArrayList<>();
-        specialNonWorkingHolidays = new ArrayList<>();
+        regularHolidays = new CopyOnWriteArrayList<>();
+        specialNonWorkingHolidays = new CopyOnWriteArrayList<>();
 
         // Set up holidays
         setup2024Holidays();
@@ -263,6 +270,28 @@ public class HolidayManager {
         } else {
             specialNonWorkingHolidays.add(holiday);
         }
+        addedDates.add(date);
+    }
+
+    /**
+     * Get the number of holidays added since this manager was created
+     * Changes whenever addHoliday is called
+     *
+     * @return The revision
+     */
+    public int getRevision() {
+        return addedDates.size();
+    }
+
+    /**
+     * Get the dates of the holidays added after a revision
+     *
+     * @param revision A revision returned by getRevision
+     * @return Dates added since, in the order they were added
+     */
+    public List<LocalDate> getDatesAddedSince(int revision) {
+        List<LocalDate> dates = new ArrayList<>(addedDates);
+        return dates.subList(Math.min(revision, dates.size()), dates.size());
     }
 }
 
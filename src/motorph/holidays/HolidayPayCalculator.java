@@ -1,6 +1,8 @@
 // File: motorph/holidays/HolidayPayCalculator.java
 package motorph.holidays;
 
+import motorph.util.Centavos;
+
 import java.time.LocalDate;
 
 /**
@@ -17,6 +19,17 @@ public class HolidayPayCalculator {
     private static final double OVERTIME_NON_LATE_PREMIUM = 0.25;      // 25% additional for non-late employees working overtime
     private static final double REST_DAY_PREMIUM = 0.3;                // 30% additional if holiday falls on rest day
 
+    // The same rates as whole percentages, for centavo calculations
+    private static final long REGULAR_HOLIDAY_NONWORKING_PERCENT = 100;
+    private static final long REGULAR_HOLIDAY_WORKING_PERCENT = 200;
+    private static final long SPECIAL_HOLIDAY_WORKING_PERCENT = 130;
+    private static final long OVERTIME_PERCENT = 130;
+    private static final long OVERTIME_NON_LATE_PERCENT = 125;
+    private static final long REST_DAY_PERCENT = 130;
+
+    // Hours are counted in hundredths; one 8-hour day is 800 of them
+    private static final long HUNDREDTHS_PER_DAY = 800;
+
     // Reference to holiday manager
     private final HolidayManager holidayManager;
 
@@ -60,6 +73,107 @@ public class HolidayPayCalculator {
         return 0.0;
     }
 
+    /**
+     * Calculate the pay for one holiday of a cutoff calendar
+     * Same as calculateHolidayPay, without looking the date up
+     *
+     * @param calendar Cutoff calendar
+     * @param holiday Position of the holiday in the calendar
+     * @param dailyRate Employee's daily rate
+     * @param hoursWorked Number of hours worked
+     * @param isLate Whether the employee was late
+     * @param overtimeHours Number of overtime hours worked
+     * @return The calculated holiday pay
+     */
+    public double calculateHolidayPay(CutoffCalendar calendar, int holiday, double dailyRate, double hoursWorked,
+                                      boolean isLate, double overtimeHours) {
+        if (calendar.isRegularHoliday(holiday)) {
+            return calculateRegularHolidayPay(dailyRate, hoursWorked, calendar.isRestDay(holiday), isLate,
+                    overtimeHours);
+        }
+        return calculateSpecialHolidayPay(dailyRate, hoursWorked, isLate, overtimeHours);
+    }
+
+    /**
+     * Calculate the holiday pay for a given workday in centavos
+     * The pay for the first 8 hours, the overtime pay and the rest day
+     * premium are each rounded to the centavo once
+     *
+     * @param date The date to check
+     * @param dailyRateCentavos Employee's daily rate in centavos
+     * @param hundredthsWorked Hours worked times 100
+     * @param isRestDay Whether the date is the employee's rest day
+     * @param isLate Whether the employee was late
+     * @param overtimeHundredths Overtime hours times 100
+     * @return The calculated holiday pay in centavos
+     */
+    public long calculateHolidayPayCentavos(LocalDate date, long dailyRateCentavos, long hundredthsWorked,
+                                            boolean isRestDay, boolean isLate, long overtimeHundredths) {
+        if (!holidayManager.isHoliday(date)) {
+            return 0;
+        }
+
+        boolean isRegularHoliday = holidayManager.isRegularHoliday(date);
+        if (!isRegularHoliday && !holidayManager.isSpecialNonWorkingHoliday(date)) {
+            return 0;
+        }
+
+        return holidayPayCentavos(isRegularHoliday, dailyRateCentavos, hundredthsWorked, isRestDay, isLate,
+                overtimeHundredths);
+    }
+
+    /**
+     * Calculate the pay for one holiday of a cutoff calendar in centavos
+     * Same as calculateHolidayPayCentavos, without looking the date up
+     *
+     * @param calendar Cutoff calendar
+     * @param holiday Position of the holiday in the calendar
+     * @param dailyRateCentavos Employee's daily rate in centavos
+     * @param hundredthsWorked Hours worked times 100
+     * @param isLate Whether the employee was late
+     * @param overtimeHundredths Overtime hours times 100
+     * @return The calculated holiday pay in centavos
+     */
+    public long calculateHolidayPayCentavos(CutoffCalendar calendar, int holiday, long dailyRateCentavos,
+                                            long hundredthsWorked, boolean isLate, long overtimeHundredths) {
+        return holidayPayCentavos(calendar.isRegularHoliday(holiday), dailyRateCentavos, hundredthsWorked,
+                calendar.isRestDay(holiday), isLate, overtimeHundredths);
+    }
+
+    /**
+     * Calculate holiday pay in centavos once the holiday type is known
+     */
+    private long holidayPayCentavos(boolean isRegularHoliday, long dailyRateCentavos, long hundredthsWorked,
+                                    boolean isRestDay, boolean isLate, long overtimeHundredths) {
+        if (hundredthsWorked == 0) {
+            // Non-working employees get 100% of daily rate on regular holidays only
+            return isRegularHoliday
+                    ? Centavos.multiply(dailyRateCentavos, REGULAR_HOLIDAY_NONWORKING_PERCENT, 100)
+                    : 0;
+        }
+
+        // First 8 hours
+        long regularHundredths = Math.min(hundredthsWorked, HUNDREDTHS_PER_DAY);
+        long workingPercent = isRegularHoliday ? REGULAR_HOLIDAY_WORKING_PERCENT : SPECIAL_HOLIDAY_WORKING_PERCENT;
+        long holidayPay = Centavos.multiply(dailyRateCentavos, regularHundredths * workingPercent,
+                HUNDREDTHS_PER_DAY * 100);
+
+        // Overtime: 30% premium, times another 25% for non-late employees
+        if (overtimeHundredths > 0) {
+            long overtimePercent = isRegularHoliday ? OVERTIME_PERCENT : SPECIAL_HOLIDAY_WORKING_PERCENT;
+            long nonLatePercent = isLate ? 100 : OVERTIME_NON_LATE_PERCENT;
+            holidayPay += Centavos.multiply(dailyRateCentavos, overtimeHundredths * overtimePercent * nonLatePercent,
+                    HUNDREDTHS_PER_DAY * 100 * 100);
+        }
+
+        // Rest day premium applies to regular holidays only
+        if (isRegularHoliday && isRestDay) {
+            holidayPay = Centavos.multiply(holidayPay, REST_DAY_PERCENT, 100);
+        }
+
+        return holidayPay;
+    }
+
     /**
      * Calculate pay for a regular holiday
      *
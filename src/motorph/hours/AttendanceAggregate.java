@@ -0,0 +1,232 @@
+// File: motorph/hours/AttendanceAggregate.java
+package motorph.hours;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Attendance totals for every employee over one date range
+ * Built in a single pass over the attendance store. Totals are kept in
+ * primitive arrays indexed by employee ordinal, and each employee's totals
+ * match what AttendanceReader.summarizeAttendance returns for them. The
+ * attendance of any holiday days given is picked up in the same pass.
+ */
+public final class AttendanceAggregate {
+    // Ordinal ranges smaller than this are not split further
+    private static final int MIN_PARTITION_SIZE = 256;
+
+    // Employee ordinal -> ID, and back
+    private final String[] employeeIds;
+    private final Map<String, Integer> ordinalsById;
+
+    // Totals by employee ordinal
+    private final double[] hours;
+    private final double[] overtimeHours;
+    private final double[] lateMinutes;
+    private final double[] undertimeMinutes;
+    private final boolean[] lateAnyDay;
+    private final int[] recordCounts;
+
+    // Attendance on each holiday day, at ordinal * holiday count + holiday; null if not worked
+    private final int[] holidayEpochDays;
+    private final DailyAttendance[] holidayAttendance;
+
+    private AttendanceAggregate(int employeeCount, int[] holidayEpochDays) {
+        employeeIds = new String[employeeCount];
+        ordinalsById = new HashMap<>(employeeCount * 2);
+        hours = new double[employeeCount];
+        overtimeHours = new double[employeeCount];
+        lateMinutes = new double[employeeCount];
+        undertimeMinutes = new double[employeeCount];
+        lateAnyDay = new boolean[employeeCount];
+        recordCounts = new int[employeeCount];
+        this.holidayEpochDays = holidayEpochDays;
+        holidayAttendance = new DailyAttendance[employeeCount * holidayEpochDays.length];
+    }
+
+    /**
+     * Total up every employee's attendance in a date range
+     * Each employee's rows are read from the date index, so only rows in the
+     * range are touched. With parallelism above 1 the employees are split
+     * into ordinal ranges that are totalled on a ForkJoinPool.
+     *
+     * @param store Attendance store; must not change while this runs
+     * @param startDate Start date of range (inclusive)
+     * @param endDate End date of range (inclusive)
+     * @param holidayEpochDays Epoch days of the holidays in the range, in date order
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return Totals for every employee in the store
+     */
+    static AttendanceAggregate compute(AttendanceStore store, LocalDate startDate, LocalDate endDate,
+                                       int[] holidayEpochDays, int parallelism) {
+        int employeeCount = store.getEmployeeCount();
+        AttendanceAggregate aggregate = new AttendanceAggregate(employeeCount, holidayEpochDays);
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            aggregate.employeeIds[ordinal] = store.getEmployeeId(ordinal);
+            aggregate.ordinalsById.put(aggregate.employeeIds[ordinal], ordinal);
+        }
+
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+
+        if (parallelism <= 1 || employeeCount < MIN_PARTITION_SIZE * 2) {
+            aggregate.addRange(store, 0, employeeCount, startDay, endDay);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(aggregate.new Partition(store, 0, employeeCount, startDay, endDay));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        return aggregate;
+    }
+
+    /**
+     * Total the rows of a range of employees
+     * Each ordinal is written by exactly one partition, so no locking is needed
+     */
+    private void addRange(AttendanceStore store, int fromOrdinal, int toOrdinal, int startDay, int endDay) {
+        for (int ordinal = fromOrdinal; ordinal < toOrdinal; ordinal++) {
+            int from = store.indexOnOrAfter(ordinal, startDay);
+            int to = store.indexOnOrAfter(ordinal, endDay + 1);
+
+            double totalHours = 0;
+            double totalOvertimeHours = 0;
+            double totalLateMinutes = 0;
+            double totalUndertimeMinutes = 0;
+            boolean isLateAnyDay = false;
+            int recordCount = 0;
+            int holiday = 0;
+
+            for (int i = from; i < to; i++) {
+                int row = store.getRow(ordinal, i);
+
+                // When a date has several rows, only the last one counts
+                if (i + 1 < to && store.getEpochDay(store.getRow(ordinal, i + 1)) == store.getEpochDay(row)) {
+                    continue;
+                }
+
+                totalHours += store.getRegularHoursWorked(row);
+                totalOvertimeHours += store.getOvertimeHours(row);
+                totalLateMinutes += store.getLateMinutes(row);
+                totalUndertimeMinutes += store.getUndertimeMinutes(row);
+                isLateAnyDay |= store.isLate(row);
+                recordCount++;
+
+                // Rows are in date order, so the holidays are walked alongside them
+                int epochDay = store.getEpochDay(row);
+                while (holiday < holidayEpochDays.length && holidayEpochDays[holiday] < epochDay) {
+                    holiday++;
+                }
+                if (holiday < holidayEpochDays.length && holidayEpochDays[holiday] == epochDay) {
+                    holidayAttendance[ordinal * holidayEpochDays.length + holiday] = new DailyAttendance(store, row);
+                }
+            }
+
+            hours[ordinal] = totalHours;
+            overtimeHours[ordinal] = totalOvertimeHours;
+            lateMinutes[ordinal] = totalLateMinutes;
+            undertimeMinutes[ordinal] = totalUndertimeMinutes;
+            lateAnyDay[ordinal] = isLateAnyDay;
+            recordCounts[ordinal] = recordCount;
+        }
+    }
+
+    /**
+     * Fork/join task that splits an ordinal range in half until it is small
+     */
+    private final class Partition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AttendanceStore store;
+        private final int fromOrdinal;
+        private final int toOrdinal;
+        private final int startDay;
+        private final int endDay;
+
+        Partition(AttendanceStore store, int fromOrdinal, int toOrdinal, int startDay, int endDay) {
+            this.store = store;
+            this.fromOrdinal = fromOrdinal;
+            this.toOrdinal = toOrdinal;
+            this.startDay = startDay;
+            this.endDay = endDay;
+        }
+
+        @Override
+        protected void compute() {
+            if (toOrdinal - fromOrdinal <= MIN_PARTITION_SIZE) {
+                addRange(store, fromOrdinal, toOrdinal, startDay, endDay);
+                return;
+            }
+
+            int middle = (fromOrdinal + toOrdinal) >>> 1;
+            invokeAll(new Partition(store, fromOrdinal, middle, startDay, endDay),
+                    new Partition(store, middle, toOrdinal, startDay, endDay));
+        }
+    }
+
+    /**
+     * Get the number of employees covered
+     */
+    public int getEmployeeCount() {
+        return employeeIds.length;
+    }
+
+    /**
+     * Get the ordinal of an employee
+     *
+     * @param employeeId Employee ID
+     * @return Employee ordinal, or -1 if the employee has no attendance rows
+     */
+    public int getOrdinal(String employeeId) {
+        Integer ordinal = ordinalsById.get(employeeId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    // Totals by employee ordinal
+    public String getEmployeeId(int ordinal) { return employeeIds[ordinal]; }
+    public double getHours(int ordinal) { return hours[ordinal]; }
+    public double getOvertimeHours(int ordinal) { return overtimeHours[ordinal]; }
+    public double getLateMinutes(int ordinal) { return lateMinutes[ordinal]; }
+    public double getUndertimeMinutes(int ordinal) { return undertimeMinutes[ordinal]; }
+    public boolean isLateAnyDay(int ordinal) { return lateAnyDay[ordinal]; }
+    public int getRecordCount(int ordinal) { return recordCounts[ordinal]; }
+
+    /**
+     * Get the number of holiday days attendance was picked up for
+     */
+    public int getHolidayCount() {
+        return holidayEpochDays.length;
+    }
+
+    /**
+     * Get an employee's attendance on one of the holiday days
+     *
+     * @param ordinal Employee ordinal
+     * @param holiday Position of the holiday in the epoch days given to compute
+     * @return Attendance for the day, or null if there is no record
+     */
+    public DailyAttendance getHolidayAttendance(int ordinal, int holiday) {
+        return holidayAttendance[ordinal * holidayEpochDays.length + holiday];
+    }
+
+    /**
+     * Get one employee's totals as an AttendanceSummary
+     *
+     * @param employeeId Employee ID
+     * @return Summary, with zero totals if the employee has no rows
+     */
+    public AttendanceSummary getSummary(String employeeId) {
+        int ordinal = getOrdinal(employeeId);
+        if (ordinal < 0) {
+            return new AttendanceSummary(0, 0, 0, 0, false, 0, 0);
+        }
+        return new AttendanceSummary(hours[ordinal], overtimeHours[ordinal], lateMinutes[ordinal],
+                undertimeMinutes[ordinal], lateAnyDay[ordinal], 0, recordCounts[ordinal]);
+    }
+}
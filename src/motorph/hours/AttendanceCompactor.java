@@ -0,0 +1,70 @@
+// File: motorph/hours/AttendanceCompactor.java
+package motorph.hours;
+
+import motorph.util.FileFingerprint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts a monolithic attendance CSV into month partitions
+ * Once compacted, AttendanceReader reads only the months a query touches.
+ * Run it again whenever the CSV changes; until then the reader falls back
+ * to loading the whole CSV.
+ */
+public class AttendanceCompactor {
+    // Default attendance file
+    private static final String DEFAULT_ATTENDANCE_FILE = "resources/MotorPH Employee Data - Attendance Record.csv";
+
+    /**
+     * Compact an attendance file into month partitions
+     * The CSV is parsed in full, with conflicts handled by the given policy
+     *
+     * @param attendanceFilePath Path to the attendance CSV
+     * @param conflictPolicy Policy the partitions are built under
+     * @return Number of month partitions written
+     * @throws IOException If the CSV changes while it is read or the partitions cannot be written
+     */
+    public static int compact(String attendanceFilePath, ConflictPolicy conflictPolicy) throws IOException {
+        Path csvPath = Paths.get(attendanceFilePath);
+        FileFingerprint fingerprint = FileFingerprint.of(csvPath);
+
+        AttendanceReader reader = new AttendanceReader(attendanceFilePath,
+                Runtime.getRuntime().availableProcessors(), false, conflictPolicy);
+        if (!fingerprint.equals(FileFingerprint.of(csvPath))) {
+            throw new IOException("Attendance file changed while it was being compacted");
+        }
+
+        return AttendancePartitions.write(attendanceFilePath, fingerprint, reader.getStore(),
+                reader.getSkippedRecordCount(), reader.getErrorRecordCount());
+    }
+
+    /**
+     * Command-line entry point
+     *
+     * @param args Optional attendance file path and conflict policy (FLAG, MERGE or REJECT)
+     */
+    public static void main(String[] args) {
+        String attendanceFilePath = args.length > 0 ? args[0] : DEFAULT_ATTENDANCE_FILE;
+        ConflictPolicy conflictPolicy = ConflictPolicy.FLAG;
+
+        if (args.length > 1) {
+            try {
+                conflictPolicy = ConflictPolicy.valueOf(args[1].trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Usage: AttendanceCompactor [attendanceFile] [FLAG|MERGE|REJECT]");
+                return;
+            }
+        }
+
+        try {
+            long start = System.nanoTime();
+            int partitionCount = compact(attendanceFilePath, conflictPolicy);
+            System.out.printf("Wrote %d monthly attendance partitions to %s in %.0f ms%n", partitionCount,
+                    AttendancePartitions.directoryFor(attendanceFilePath), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.out.println("Error compacting attendance file: " + e.getMessage());
+        }
+    }
+}
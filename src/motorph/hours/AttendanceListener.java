@@ -0,0 +1,20 @@
+// File: motorph/hours/AttendanceListener.java
+package motorph.hours;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * Receives notice of attendance rows appended after the initial load
+ * Called on the thread that ingested the rows, after the new rows are
+ * visible through the AttendanceReader
+ */
+public interface AttendanceListener {
+    /**
+     * Called after new attendance rows were added
+     *
+     * @param changedDates Employee ID -> dates that gained rows
+     */
+    void attendanceAppended(Map<String, SortedSet<LocalDate>> changedDates);
+}
@@ -0,0 +1,350 @@
+// File: motorph/hours/AttendancePartitions.java
+package motorph.hours;
+
+import motorph.util.FileFingerprint;
+import motorph.util.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Month-partitioned copy of an attendance file
+ * The partitions live in a directory next to the CSV: one segment file per
+ * year-month holding that month's rows, and a manifest with the employee
+ * dictionary, the list of months and the punch conflicts. Segments are
+ * only read when a query touches their month, so a cutoff reads two
+ * months instead of the whole history.
+ * The partitions are built by AttendanceCompactor and are only used while
+ * the CSV still has the size and modification time they were built from.
+ */
+final class AttendancePartitions {
+    // Suffix added to the CSV path to name the partition directory
+    static final String DIRECTORY_SUFFIX = ".partitions";
+
+    private static final String MANIFEST_NAME = "manifest";
+    private static final String SEGMENT_EXTENSION = ".segment";
+
+    // "MPAM" - MotorPH attendance manifest, "MPAS" - MotorPH attendance segment
+    private static final int MANIFEST_MAGIC = 0x4D50414D;
+    private static final int SEGMENT_MAGIC = 0x4D504153;
+    private static final int VERSION = 1;
+
+    private final Path directory;
+    private final FileFingerprint source;
+
+    // Month keys (year * 12 + month - 1) in ascending order, with their row counts
+    private final int[] months;
+    private final int[] rowCounts;
+    private final boolean[] loaded;
+    private int loadedCount;
+
+    // Counts from the parse the partitions were built from
+    private final int skippedCount;
+    private final int errorCount;
+
+    private AttendancePartitions(Path directory, FileFingerprint source, int[] months, int[] rowCounts,
+                                 int skippedCount, int errorCount) {
+        this.directory = directory;
+        this.source = source;
+        this.months = months;
+        this.rowCounts = rowCounts;
+        this.loaded = new boolean[months.length];
+        this.skippedCount = skippedCount;
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * Get the partition directory for a CSV file
+     *
+     * @param csvPath Path to the attendance CSV
+     * @return Path of the partition directory
+     */
+    static Path directoryFor(String csvPath) {
+        return Paths.get(csvPath + DIRECTORY_SUFFIX);
+    }
+
+    /**
+     * Open the partitions of a CSV file if they are current
+     * Fills the store's employee dictionary and conflicts; no rows are read
+     *
+     * @param csvPath Path to the attendance CSV
+     * @param store Empty store, set to the conflict policy in use
+     * @return Opened partitions, or null if there are none, they are stale
+     *         or they were built under another conflict policy
+     * @throws IOException If the manifest cannot be read
+     */
+    static AttendancePartitions open(String csvPath, AttendanceStore store) throws IOException {
+        Path directory = directoryFor(csvPath);
+        ByteBuffer buffer = SnapshotFile.open(directory.resolve(MANIFEST_NAME), MANIFEST_MAGIC, VERSION);
+        if (buffer == null) {
+            return null;
+        }
+
+        try {
+            FileFingerprint source = FileFingerprint.readFrom(buffer);
+            if (!source.matchesMetadata(Paths.get(csvPath))) {
+                return null;
+            }
+
+            int skipped = buffer.getInt();
+            int errors = buffer.getInt();
+            if (buffer.get() != store.getConflictPolicy().ordinal()) {
+                return null;
+            }
+            int employeeCount = buffer.getInt();
+            List<String[]> employees = AttendanceSnapshot.getDictionary(buffer, employeeCount);
+
+            int partitionCount = buffer.getInt();
+            int[] months = new int[partitionCount];
+            int[] rowCounts = new int[partitionCount];
+            for (int i = 0; i < partitionCount; i++) {
+                months[i] = buffer.getInt();
+                rowCounts[i] = buffer.getInt();
+            }
+            int[] conflictFields = AttendanceSnapshot.getConflictFields(buffer, employeeCount);
+            if (conflictFields == null) {
+                return null;
+            }
+
+            for (String[] employee : employees) {
+                store.addEmployee(employee[0], employee[1], employee[2]);
+            }
+            store.loadConflicts(AttendanceSnapshot.toConflicts(conflictFields, store));
+            return new AttendancePartitions(directory, source, months, rowCounts, skipped, errors);
+        } catch (RuntimeException e) {
+            // Truncated or corrupt manifest
+            return null;
+        }
+    }
+
+    /**
+     * Check whether any month overlapping a day range is still unread
+     *
+     * @param fromDay First epoch day of the range
+     * @param toDay Last epoch day of the range
+     * @return true if load would read a segment
+     */
+    boolean needsLoad(int fromDay, int toDay) {
+        if (loadedCount == months.length) {
+            return false;
+        }
+        int last = lastIndexOnOrBefore(monthKey(toDay));
+        for (int i = firstIndexOnOrAfter(monthKey(fromDay)); i <= last; i++) {
+            if (!loaded[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read every unread month overlapping a day range into the store
+     *
+     * @param fromDay First epoch day of the range
+     * @param toDay Last epoch day of the range
+     * @param store Store opened with these partitions
+     * @return Number of rows added
+     * @throws IOException If a segment is missing, stale or unreadable
+     */
+    int load(int fromDay, int toDay, AttendanceStore store) throws IOException {
+        int added = 0;
+        int last = lastIndexOnOrBefore(monthKey(toDay));
+        for (int i = firstIndexOnOrAfter(monthKey(fromDay)); i <= last; i++) {
+            if (!loaded[i]) {
+                added += loadSegment(i, store);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Read every unread month into the store
+     *
+     * @param store Store opened with these partitions
+     * @return Number of rows added
+     * @throws IOException If a segment is missing, stale or unreadable
+     */
+    int loadAll(AttendanceStore store) throws IOException {
+        int added = 0;
+        for (int i = 0; i < months.length; i++) {
+            if (!loaded[i]) {
+                added += loadSegment(i, store);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Read one month's segment into the store
+     */
+    private int loadSegment(int index, AttendanceStore store) throws IOException {
+        Path file = directory.resolve(segmentName(months[index]));
+        ByteBuffer buffer = SnapshotFile.open(file, SEGMENT_MAGIC, VERSION, source);
+        if (buffer == null) {
+            throw new IOException("Attendance partition " + file.getFileName() + " is missing or out of date");
+        }
+
+        try {
+            int month = buffer.getInt();
+            int rowCount = buffer.getInt();
+            AttendanceSnapshot.Columns columns = rowCount == rowCounts[index] && month == months[index]
+                    ? AttendanceSnapshot.Columns.read(buffer, rowCount, store.getEmployeeCount())
+                    : null;
+            if (columns == null) {
+                throw new IOException("Attendance partition " + file.getFileName() + " does not match its manifest");
+            }
+
+            store.appendColumns(columns.ordinals, columns.days, columns.timeIns, columns.timeOuts, rowCount);
+            loaded[index] = true;
+            loadedCount++;
+            return rowCount;
+        } catch (RuntimeException e) {
+            throw new IOException("Attendance partition " + file.getFileName() + " is corrupt", e);
+        }
+    }
+
+    /**
+     * Write the partitions of a fully loaded store
+     * The old manifest is removed first and the new one written last, so a
+     * partly written set is never opened. Segments for months that no longer
+     * have rows are deleted.
+     *
+     * @param csvPath Path to the attendance CSV
+     * @param source Fingerprint of the CSV the store was loaded from
+     * @param store Indexed store holding every row
+     * @param skippedCount Rows skipped while parsing
+     * @param errorCount Rows that failed while parsing
+     * @return Number of month partitions written
+     * @throws IOException If the partitions cannot be written
+     */
+    static int write(String csvPath, FileFingerprint source, AttendanceStore store,
+                     int skippedCount, int errorCount) throws IOException {
+        Path directory = directoryFor(csvPath);
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(MANIFEST_NAME));
+
+        // Group rows by month, keeping index order within each month
+        Map<Integer, int[]> rowsByMonth = new TreeMap<>();
+        Map<Integer, Integer> countsByMonth = new TreeMap<>();
+        for (int ordinal = 0; ordinal < store.getEmployeeCount(); ordinal++) {
+            int count = store.getRowCount(ordinal);
+            for (int position = 0; position < count; position++) {
+                int row = store.getRow(ordinal, position);
+                int month = monthKey(store.getEpochDay(row));
+                int monthCount = countsByMonth.getOrDefault(month, 0);
+                int[] rows = rowsByMonth.get(month);
+                if (rows == null || monthCount == rows.length) {
+                    rows = rows == null ? new int[64] : Arrays.copyOf(rows, monthCount * 2);
+                    rowsByMonth.put(month, rows);
+                }
+                rows[monthCount] = row;
+                countsByMonth.put(month, monthCount + 1);
+            }
+        }
+
+        // One segment per month
+        List<String> segmentNames = new ArrayList<>();
+        for (Map.Entry<Integer, int[]> entry : rowsByMonth.entrySet()) {
+            int month = entry.getKey();
+            int rowCount = countsByMonth.get(month);
+            ByteBuffer body = ByteBuffer.allocate(2 * Integer.BYTES + AttendanceSnapshot.Columns.size(rowCount));
+            body.putInt(month);
+            body.putInt(rowCount);
+            AttendanceSnapshot.Columns.write(body, store, entry.getValue(), rowCount);
+            body.flip();
+
+            String name = segmentName(month);
+            SnapshotFile.write(directory.resolve(name), SEGMENT_MAGIC, VERSION, source, body);
+            segmentNames.add(name);
+        }
+
+        // Manifest, written last
+        List<PunchConflict> conflicts = store.getConflicts();
+        int size = 4 * Integer.BYTES + 1 + AttendanceSnapshot.dictionarySize(store)
+                + rowsByMonth.size() * 2 * Integer.BYTES + AttendanceSnapshot.conflictsSize(conflicts);
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.putInt(skippedCount);
+        body.putInt(errorCount);
+        body.put((byte) store.getConflictPolicy().ordinal());
+        body.putInt(store.getEmployeeCount());
+        AttendanceSnapshot.putDictionary(body, store);
+        body.putInt(rowsByMonth.size());
+        for (Map.Entry<Integer, Integer> entry : countsByMonth.entrySet()) {
+            body.putInt(entry.getKey());
+            body.putInt(entry.getValue());
+        }
+        AttendanceSnapshot.putConflicts(body, conflicts);
+        body.flip();
+        SnapshotFile.write(directory.resolve(MANIFEST_NAME), MANIFEST_MAGIC, VERSION, source, body);
+
+        // Remove segments left over from an earlier compaction
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : stream) {
+                if (!segmentNames.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        return rowsByMonth.size();
+    }
+
+    /**
+     * Get the month key of an epoch day: year * 12 + month - 1
+     */
+    static int monthKey(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * Get the segment file name of a month, e.g. 2024-06.segment
+     */
+    private static String segmentName(int month) {
+        return String.format("%04d-%02d%s", month / 12, month % 12 + 1, SEGMENT_EXTENSION);
+    }
+
+    /**
+     * Find the first partition whose month is not before a month key
+     */
+    private int firstIndexOnOrAfter(int month) {
+        int index = Arrays.binarySearch(months, month);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Find the last partition whose month is not after a month key
+     */
+    private int lastIndexOnOrBefore(int month) {
+        int index = Arrays.binarySearch(months, month);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // Getters
+    long getSourceSize() { return source.size; }
+    int getPartitionCount() { return months.length; }
+    int getLoadedCount() { return loadedCount; }
+    int getSkippedCount() { return skippedCount; }
+    int getErrorCount() { return errorCount; }
+
+    /**
+     * Get the number of rows across all partitions
+     */
+    int getRowCount() {
+        int total = 0;
+        for (int count : rowCounts) {
+            total += count;
+        }
+        return total;
+    }
+}
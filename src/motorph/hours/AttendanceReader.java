@@ -1,14 +1,27 @@
 // File: motorph/hours/AttendanceReader.java
 package motorph.hours;
 
-import motorph.employee.CSVReader;
+import motorph.employee.CSVScanner;
 import motorph.util.DateTimeUtil;
+import motorph.util.FileFingerprint;
+import motorph.util.SnapshotFile;
 
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Reads and processes attendance data from CSV file
@@ -18,70 +31,568 @@ public class AttendanceReader {
     // File path to attendance data
     private final String attendanceFilePath;
 
-    // List of all attendance records
-    private final List<AttendanceRecord> attendanceRecords;
+    // Columnar storage of all attendance records
+    private final AttendanceStore store;
 
     // Date formatter for consistent formatting
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
 
+    // Files at least this large are loaded in parallel by default
+    private static final long PARALLEL_LOAD_THRESHOLD = 8L * 1024 * 1024;
+
+    // Target size of each chunk in a parallel load
+    private static final long MIN_CHUNK_SIZE = 1024L * 1024;
+
+    // Suffix of the conflict report written next to the attendance file
+    public static final String CONFLICT_REPORT_SUFFIX = ".conflicts.csv";
+
+    // Counts of rows skipped while loading
+    private int skippedRecordCount;
+    private int errorRecordCount;
+
+    // Byte offset up to which the file has been read
+    private long consumedOffset;
+
+    // Guards the store against appends while it is being read
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Listeners told about appended rows
+    private final List<AttendanceListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Month partitions read on demand, or null when the whole CSV is loaded
+    private AttendancePartitions partitions;
+
     /**
      * Create a new AttendanceReader and load attendance data
+     * Large files are parsed in parallel on all available cores. When the
+     * file has been compacted into month partitions, only the months that
+     * queries touch are read; otherwise a binary snapshot next to the CSV
+     * is used when it is still current.
      *
      * @param attendanceFilePath Path to the attendance CSV file
      */
     public AttendanceReader(String attendanceFilePath) {
+        this(attendanceFilePath, defaultParallelism(attendanceFilePath));
+    }
+
+    /**
+     * Create a new AttendanceReader and load attendance data
+     *
+     * @param attendanceFilePath Path to the attendance CSV file
+     * @param parallelism Number of threads used to parse the file (1 for a serial load)
+     */
+    public AttendanceReader(String attendanceFilePath, int parallelism) {
+        this(attendanceFilePath, parallelism, true);
+    }
+
+    /**
+     * Create a new AttendanceReader and load attendance data
+     *
+     * @param attendanceFilePath Path to the attendance CSV file
+     * @param parallelism Number of threads used to parse the file (1 for a serial load)
+     * @param useSnapshot Whether to use the month partitions and binary snapshot
+     */
+    public AttendanceReader(String attendanceFilePath, int parallelism, boolean useSnapshot) {
+        this(attendanceFilePath, parallelism, useSnapshot, ConflictPolicy.FLAG);
+    }
+
+    /**
+     * Create a new AttendanceReader and load attendance data
+     *
+     * @param attendanceFilePath Path to the attendance CSV file
+     * @param parallelism Number of threads used to parse the file (1 for a serial load)
+     * @param useSnapshot Whether to use the month partitions and binary snapshot
+     * @param conflictPolicy How a second row for an employee and date is handled
+     */
+    public AttendanceReader(String attendanceFilePath, int parallelism, boolean useSnapshot,
+                            ConflictPolicy conflictPolicy) {
         this.attendanceFilePath = attendanceFilePath;
-        this.attendanceRecords = new ArrayList<>();
-        loadAttendance();
+        this.store = new AttendanceStore();
+        this.store.setConflictPolicy(conflictPolicy);
+        loadAttendance(parallelism, useSnapshot);
     }
 
     /**
-     * Load attendance data from CSV file
+     * Pick the load parallelism for a file based on its size
      */
-    private void loadAttendance() {
-        try {
-            // Read CSV data
-            List<String[]> attendanceData = CSVReader.read(attendanceFilePath);
-
-            // Process each row
-            for (String[] row : attendanceData) {
-                if (row.length >= 6) {  // Make sure we have all needed columns
-                    try {
-                        // Create attendance record
-                        AttendanceRecord record = new AttendanceRecord(row);
-
-                        // Add to list if valid
-                        if (record.getDate() != null &&
-                                record.getTimeIn() != null &&
-                                record.getTimeOut() != null) {
-                            attendanceRecords.add(record);
-                        }
-                    } catch (Exception e) {
-                        // Skip bad records
-                        System.out.println("Error processing attendance record: " + e.getMessage());
-                    }
+    private static int defaultParallelism(String attendanceFilePath) {
+        File file = new File(attendanceFilePath);
+        return file.length() >= PARALLEL_LOAD_THRESHOLD ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    /**
+     * Load attendance data from the partitions, the snapshot or the CSV file
+     * When the CSV has to be parsed, rows are decoded straight from the
+     * mapped file into the store and a fresh snapshot is written
+     *
+     * @param parallelism Number of threads used to parse the file
+     * @param useSnapshot Whether to use the month partitions and binary snapshot
+     */
+    private void loadAttendance(int parallelism, boolean useSnapshot) {
+        Path csvPath = Paths.get(attendanceFilePath);
+
+        if (useSnapshot && openPartitions()) {
+            consumedOffset = partitions.getSourceSize();
+            skippedRecordCount = partitions.getSkippedCount();
+            errorRecordCount = partitions.getErrorCount();
+            System.out.println("Opened " + partitions.getPartitionCount() + " monthly attendance partitions ("
+                    + partitions.getRowCount() + " records).");
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            AttendanceSnapshot snapshot = useSnapshot ? restoreSnapshot(csvPath) : null;
+
+            if (snapshot != null) {
+                consumedOffset = snapshot.getSourceSize();
+            } else {
+                // Fingerprinted before parsing, so a snapshot never covers rows appended meanwhile
+                FileFingerprint fingerprint = useSnapshot ? FileFingerprint.of(csvPath) : null;
+                long size = channel.size();
+                if (parallelism > 1) {
+                    loadParallel(channel, size, parallelism);
+                } else {
+                    AttendanceRowLoader loader = new AttendanceRowLoader(store);
+                    CSVScanner.scan(channel, 0, size, true, loader);
+                    skippedRecordCount = loader.getSkippedCount();
+                    errorRecordCount = loader.getErrorCount();
+                }
+                consumedOffset = size;
+                if (store.getConflictCount() > 0) {
+                    writeConflictReport();
+                }
+
+                // Only snapshot what matches the fingerprinted contents
+                if (fingerprint != null && fingerprint.size == size) {
+                    saveSnapshot(fingerprint);
                 }
             }
 
-            System.out.println("Loaded " + attendanceRecords.size() + " attendance records.");
+            System.out.println("Loaded " + store.size() + " attendance records.");
+            if (skippedRecordCount + errorRecordCount > 0) {
+                System.out.println("Skipped " + (skippedRecordCount + errorRecordCount) + " invalid records.");
+            }
+            if (store.getConflictCount() > 0) {
+                System.out.println("Found " + store.getConflictCount() + " conflicting attendance records ("
+                        + store.getConflictPolicy() + "); see " + getConflictReportPath());
+            }
         } catch (IOException e) {
             System.out.println("Error reading attendance file: " + e.getMessage());
         }
     }
 
+    /**
+     * Open the month partitions if they match the CSV
+     *
+     * @return true if the partitions will be used
+     */
+    private boolean openPartitions() {
+        try {
+            partitions = AttendancePartitions.open(attendanceFilePath, store);
+        } catch (IOException e) {
+            partitions = null;
+        }
+        return partitions != null;
+    }
+
+    /**
+     * Make sure every month partition overlapping a date range is in the store
+     * Does nothing when the whole CSV was loaded
+     *
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     */
+    private void ensureLoaded(LocalDate startDate, LocalDate endDate) {
+        if (partitions == null) {
+            return;
+        }
+        int fromDay = (int) startDate.toEpochDay();
+        int toDay = (int) endDate.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            if (!partitions.needsLoad(fromDay, toDay)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            partitions.load(fromDay, toDay, store);
+        } catch (IOException e) {
+            System.out.println("Error reading attendance partitions: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Make sure every month partition is in the store
+     * Does nothing when the whole CSV was loaded
+     */
+    private void ensureAllLoaded() {
+        if (partitions == null) {
+            return;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (partitions.getLoadedCount() == partitions.getPartitionCount()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            partitions.loadAll(store);
+        } catch (IOException e) {
+            System.out.println("Error reading attendance partitions: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fill the store from the snapshot if it matches the CSV
+     *
+     * @param csvPath Path to the CSV
+     * @return The snapshot used, or null if the CSV has to be parsed
+     */
+    private AttendanceSnapshot restoreSnapshot(Path csvPath) {
+        try {
+            AttendanceSnapshot snapshot = AttendanceSnapshot.read(
+                    SnapshotFile.pathFor(attendanceFilePath), csvPath, store);
+            if (snapshot == null) {
+                return null;
+            }
+            skippedRecordCount = snapshot.getSkippedCount();
+            errorRecordCount = snapshot.getErrorCount();
+            return snapshot;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot of the freshly parsed store
+     * A snapshot that can't be written only costs the next startup a re-parse
+     *
+     * @param fingerprint Fingerprint of the CSV that was parsed
+     */
+    private void saveSnapshot(FileFingerprint fingerprint) {
+        try {
+            AttendanceSnapshot.write(SnapshotFile.pathFor(attendanceFilePath), fingerprint,
+                    store, skippedRecordCount, errorRecordCount);
+        } catch (IOException e) {
+            System.out.println("Could not write attendance snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write every conflict found so far to the conflict report
+     * The report is rewritten in full, in the order the rows arrived
+     */
+    private void writeConflictReport() {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(getConflictReportPath()))) {
+            writer.println("Employee #,Date,Kind,Existing Log In,Existing Log Out,New Log In,New Log Out,Action");
+            for (PunchConflict conflict : store.getConflicts()) {
+                writer.println(conflict.getEmployeeId() + ","
+                        + conflict.getDate().format(DATE_FORMAT) + ","
+                        + conflict.getKind() + ","
+                        + DateTimeUtil.formatTimeMilitary(conflict.getExistingTimeIn()) + ","
+                        + DateTimeUtil.formatTimeMilitary(conflict.getExistingTimeOut()) + ","
+                        + DateTimeUtil.formatTimeMilitary(conflict.getNewTimeIn()) + ","
+                        + DateTimeUtil.formatTimeMilitary(conflict.getNewTimeOut()) + ","
+                        + conflict.getPolicy());
+            }
+        } catch (IOException e) {
+            System.out.println("Could not write attendance conflict report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the file in chunks on a ForkJoinPool
+     * The data is split into byte ranges that start on line boundaries. Each
+     * chunk is parsed into its own store, and the chunks are merged in file
+     * order so the result matches a serial load. Attendance exports have no
+     * quoted line breaks, so every line break ends a row.
+     *
+     * @param channel Open attendance file
+     * @param size Number of bytes to load
+     * @param parallelism Number of worker threads
+     * @throws IOException If there's an error reading the file
+     */
+    private void loadParallel(FileChannel channel, long size, int parallelism) throws IOException {
+        long dataStart = CSVScanner.lineStartAtOrAfter(channel, 1); // after the header row
+        int chunkCount = (int) Math.max(1, Math.min(parallelism * 4L, (size - dataStart) / MIN_CHUNK_SIZE));
+
+        // Work out chunk boundaries, aligned to the start of a line
+        long[] bounds = new long[chunkCount + 1];
+        bounds[0] = dataStart;
+        bounds[chunkCount] = size;
+        for (int i = 1; i < chunkCount; i++) {
+            long target = dataStart + (size - dataStart) * i / chunkCount;
+            bounds[i] = Math.max(bounds[i - 1], CSVScanner.lineStartAtOrAfter(channel, target));
+        }
+
+        // Parse each chunk into its own store
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<AttendanceRowLoader>> tasks = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(pool.submit(() -> {
+                    AttendanceRowLoader loader = new AttendanceRowLoader(new AttendanceStore(false));
+                    CSVScanner.scan(channel, start, end, false, loader);
+                    return loader;
+                }));
+            }
+
+            // Merge in file order
+            for (ForkJoinTask<AttendanceRowLoader> task : tasks) {
+                AttendanceRowLoader loader = task.join();
+                store.addAll(loader.getStore());
+                skippedRecordCount += loader.getSkippedCount();
+                errorRecordCount += loader.getErrorCount();
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Parallel attendance load failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Read rows appended to the file since the last load
+     * Only complete lines are read; a line still being written is picked up
+     * by a later call. If the previous read ended on a line without a line
+     * break, the rest of that line is skipped, since its row was already
+     * loaded. With month partitions, only the months the new rows fall in
+     * are read before the rows are added. Listeners are told which
+     * employees and dates changed.
+     *
+     * @return Number of rows added
+     * @throws IOException If there's an error reading the file
+     */
+    public int ingestAppendedRows() throws IOException {
+        Map<String, SortedSet<LocalDate>> changedDates = new TreeMap<>();
+        int added;
+
+        lock.writeLock().lock();
+        try (FileChannel channel = FileChannel.open(Paths.get(attendanceFilePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < consumedOffset) {
+                System.out.println("Attendance file shrank; appended rows are ignored until it is reloaded.");
+                return 0;
+            }
+
+            // Start of the first unread line, and end of the last complete one
+            long start = CSVScanner.lineStartAtOrAfter(channel, consumedOffset);
+            long end = CSVScanner.lineEndBefore(channel, start, size);
+            if (end <= start) {
+                return 0;
+            }
+
+            // Decode the new rows on their own first, to see which months they touch
+            AttendanceRowLoader loader = new AttendanceRowLoader(new AttendanceStore(false));
+            CSVScanner.scan(channel, start, end, start == 0, loader);
+            AttendanceStore appended = loader.getStore();
+            if (partitions != null) {
+                for (int row = 0; row < appended.size(); row++) {
+                    int epochDay = appended.getEpochDay(row);
+                    if (partitions.needsLoad(epochDay, epochDay)) {
+                        partitions.load(epochDay, epochDay, store);
+                    }
+                }
+            }
+
+            int firstRow = store.size();
+            int firstConflict = store.getConflictCount();
+            store.addAll(appended);
+            skippedRecordCount += loader.getSkippedCount();
+            errorRecordCount += loader.getErrorCount();
+            consumedOffset = end;
+
+            // Collect the employees and dates that gained rows
+            added = store.size() - firstRow;
+            for (int row = firstRow; row < store.size(); row++) {
+                String employeeId = store.getEmployeeId(store.getEmployeeOrdinal(row));
+                changedDates.computeIfAbsent(employeeId, id -> new TreeSet<>()).add(store.getDate(row));
+            }
+
+            // Merged rows change a day without adding a row
+            List<PunchConflict> conflicts = store.getConflicts();
+            for (int i = firstConflict; i < conflicts.size(); i++) {
+                PunchConflict conflict = conflicts.get(i);
+                if (conflict.getPolicy() == ConflictPolicy.MERGE) {
+                    changedDates.computeIfAbsent(conflict.getEmployeeId(), id -> new TreeSet<>()).add(conflict.getDate());
+                }
+            }
+            if (conflicts.size() > firstConflict) {
+                writeConflictReport();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Notify outside the lock so listeners can query this reader
+        if (!changedDates.isEmpty()) {
+            Map<String, SortedSet<LocalDate>> view = Collections.unmodifiableMap(changedDates);
+            for (AttendanceListener listener : listeners) {
+                listener.attendanceAppended(view);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Recompute the stored late, undertime, worked and overtime minutes
+     * Call this after the schedule rules change; rows loaded later use the
+     * same schedule
+     *
+     * @param schedule Work schedule to apply
+     */
+    public void recomputeMetrics(WorkSchedule schedule) {
+        lock.writeLock().lock();
+        try {
+            store.recomputeMetrics(schedule);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Register a listener for appended rows
+     *
+     * @param listener Listener to add
+     */
+    public void addAttendanceListener(AttendanceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added with addAttendanceListener
+     *
+     * @param listener Listener to remove
+     */
+    public void removeAttendanceListener(AttendanceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the path of the attendance file
+     */
+    public String getAttendanceFilePath() {
+        return attendanceFilePath;
+    }
+
+    /**
+     * Get the store holding the loaded rows
+     * Used by AttendanceCompactor after a full load
+     */
+    AttendanceStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the path of the conflict report for this attendance file
+     */
+    public String getConflictReportPath() {
+        return attendanceFilePath + CONFLICT_REPORT_SUFFIX;
+    }
+
+    /**
+     * Get every conflicting row found while loading, in file order
+     *
+     * @return Conflicts with the punches of both rows
+     */
+    public List<PunchConflict> getConflicts() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(store.getConflicts());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of rows skipped for missing columns or an invalid date/time
+     */
+    public int getSkippedRecordCount() {
+        return skippedRecordCount;
+    }
+
+    /**
+     * Get the number of rows skipped because they could not be processed
+     */
+    public int getErrorRecordCount() {
+        return errorRecordCount;
+    }
+
     /**
      * Get all attendance records for one employee
      *
      * @param employeeId Employee ID to search for
-     * @return List of attendance records for the employee
+     * @return List of attendance records for the employee, sorted by date
      */
     public List<AttendanceRecord> getRecordsForEmployee(String employeeId) {
         List<AttendanceRecord> employeeRecords = new ArrayList<>();
+        ensureAllLoaded();
+
+        lock.readLock().lock();
+        try {
+            int ordinal = store.getOrdinal(employeeId);
+            if (ordinal < 0) {
+                return employeeRecords;
+            }
 
-        for (AttendanceRecord record : attendanceRecords) {
-            if (record.getEmployeeId().equals(employeeId)) {
-                employeeRecords.add(record);
+            int count = store.getRowCount(ordinal);
+            for (int i = 0; i < count; i++) {
+                employeeRecords.add(store.toRecord(store.getRow(ordinal, i)));
             }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return employeeRecords;
+    }
+
+    /**
+     * Get attendance records for one employee within a date range
+     * Uses binary search on the date-sorted index to find the window
+     *
+     * @param employeeId Employee ID to search for
+     * @param startDate Start date of range (inclusive)
+     * @param endDate End date of range (inclusive)
+     * @return List of attendance records in the range, sorted by date
+     */
+    public List<AttendanceRecord> getRecordsForEmployee(
+            String employeeId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceRecord> employeeRecords = new ArrayList<>();
+        if (startDate == null || endDate == null) {
+            return employeeRecords;
+        }
+        ensureLoaded(startDate, endDate);
+
+        lock.readLock().lock();
+        try {
+            int ordinal = store.getOrdinal(employeeId);
+            if (ordinal < 0) {
+                return employeeRecords;
+            }
+
+            int from = store.indexOnOrAfter(ordinal, (int) startDate.toEpochDay());
+            int to = store.indexOnOrAfter(ordinal, (int) endDate.toEpochDay() + 1);
+            for (int i = from; i < to; i++) {
+                employeeRecords.add(store.toRecord(store.getRow(ordinal, i)));
+            }
+        } finally {
+            lock.readLock().unlock();
         }
 
         return employeeRecords;
@@ -89,6 +600,57 @@ public class AttendanceReader {
 
     /**
      * Get daily attendance for an employee within date range
+     * When there are several rows for one date, the last one in the file is used
+     *
+     * @param employeeId Employee ID
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     * @return Attendance for each day with records, sorted by date
+     */
+    public List<DailyAttendance> getDailyAttendance(
+            String employeeId, LocalDate startDate, LocalDate endDate) {
+        List<DailyAttendance> days = new ArrayList<>();
+        if (startDate == null || endDate == null) {
+            return days;
+        }
+        ensureLoaded(startDate, endDate);
+
+        lock.readLock().lock();
+        try {
+            int ordinal = store.getOrdinal(employeeId);
+            if (ordinal < 0) {
+                return days;
+            }
+
+            int from = store.indexOnOrAfter(ordinal, (int) startDate.toEpochDay());
+            int to = store.indexOnOrAfter(ordinal, (int) endDate.toEpochDay() + 1);
+            for (int i = from; i < to; i++) {
+                if (isLastRowForDate(ordinal, i, to)) {
+                    days.add(new DailyAttendance(store, store.getRow(ordinal, i)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return days;
+    }
+
+    /**
+     * Get an employee's attendance for a single day
+     *
+     * @param employeeId Employee ID
+     * @param date Attendance date
+     * @return Attendance for the day, or null if there is no record
+     */
+    public DailyAttendance getDailyAttendance(String employeeId, LocalDate date) {
+        List<DailyAttendance> days = getDailyAttendance(employeeId, date, date);
+        return days.isEmpty() ? null : days.get(days.size() - 1);
+    }
+
+    /**
+     * Get daily attendance for an employee within date range
+     * Map form of getDailyAttendance, kept for existing callers
      *
      * @param employeeId Employee ID
      * @param startDate Start date of range
@@ -98,39 +660,121 @@ public class AttendanceReader {
     public Map<LocalDate, Map<String, Object>> getDailyAttendanceForEmployee(
             String employeeId, LocalDate startDate, LocalDate endDate) {
 
-        // Get all records for this employee
-        List<AttendanceRecord> employeeRecords = getRecordsForEmployee(employeeId);
-
         // Create a map to store daily attendance: date -> details
         Map<LocalDate, Map<String, Object>> dailyAttendance = new TreeMap<>();
+        for (DailyAttendance day : getDailyAttendance(employeeId, startDate, endDate)) {
+            dailyAttendance.put(day.getDate(), day.toMap());
+        }
+
+        return dailyAttendance;
+    }
+
+    /**
+     * Check whether an index position holds the last row for its date
+     * Rows for the same date sit next to each other in file order
+     *
+     * @param ordinal Employee ordinal
+     * @param position Position in the employee's index
+     * @param end End of the positions being read
+     * @return true if no later row in the range has the same date
+     */
+    private boolean isLastRowForDate(int ordinal, int position, int end) {
+        return position + 1 >= end
+                || store.getEpochDay(store.getRow(ordinal, position + 1))
+                != store.getEpochDay(store.getRow(ordinal, position));
+    }
 
-        // Process each record
-        for (AttendanceRecord record : employeeRecords) {
-            LocalDate recordDate = record.getDate();
-
-            // Check if record is within date range
-            if (DateTimeUtil.isDateInRange(recordDate, startDate, endDate)) {
-                // Create a map for this day's data
-                Map<String, Object> dayData = new HashMap<>();
-                dayData.put("timeIn", record.getFormattedTimeIn());
-                dayData.put("timeOut", record.getFormattedTimeOut());
-                dayData.put("hours", record.getRegularHoursWorked());
-                dayData.put("lateMinutes", record.getLateMinutes());
-                dayData.put("undertimeMinutes", record.getUndertimeMinutes());
-                dayData.put("overtimeHours", record.getOvertimeHours());
-                dayData.put("isLate", record.isLate());
-                dayData.put("isUndertime", record.isUndertime());
-
-                // Add to daily attendance map
-                dailyAttendance.put(recordDate, dayData);
+    /**
+     * Get an employee's attendance totals for each ISO week in a date range
+     * Weeks that lie wholly inside the range are read from the weekly
+     * rollup; the partial weeks at either end are totalled from their days
+     *
+     * @param employeeId Employee ID
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     * @return Totals for each week with attendance, in date order
+     */
+    public List<WeeklyAttendance> getWeeklyAttendance(
+            String employeeId, LocalDate startDate, LocalDate endDate) {
+        List<WeeklyAttendance> weeks = new ArrayList<>();
+        if (startDate == null || endDate == null) {
+            return weeks;
+        }
+        ensureLoaded(startDate, endDate);
+
+        lock.readLock().lock();
+        try {
+            int ordinal = store.getOrdinal(employeeId);
+            if (ordinal < 0) {
+                return weeks;
             }
+
+            int startDay = (int) startDate.toEpochDay();
+            int endDay = (int) endDate.toEpochDay();
+            WeeklyRollup rollup = store.getWeeklyRollup();
+            int lastKey = WeeklyRollup.weekKey(endDay);
+
+            for (int position = rollup.weekOnOrAfter(ordinal, WeeklyRollup.weekKey(startDay));
+                 position < rollup.getWeekCount(ordinal) && rollup.getWeekKey(ordinal, position) <= lastKey;
+                 position++) {
+                int weekKey = rollup.getWeekKey(ordinal, position);
+                int monday = WeeklyRollup.mondayOfWeek(weekKey);
+
+                WeeklyAttendance week;
+                if (monday >= startDay && monday + 6 <= endDay) {
+                    week = new WeeklyAttendance(weekKey,
+                            rollup.getHoursHundredths(ordinal, position),
+                            rollup.getOvertimeHundredths(ordinal, position),
+                            rollup.getLateMinutes(ordinal, position),
+                            rollup.getUndertimeMinutes(ordinal, position),
+                            rollup.getDayCount(ordinal, position));
+                } else {
+                    week = totalPartialWeek(ordinal, weekKey,
+                            Math.max(startDay, monday), Math.min(endDay, monday + 6));
+                }
+
+                if (week.getDayCount() > 0) {
+                    weeks.add(week);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
         }
 
-        return dailyAttendance;
+        return weeks;
+    }
+
+    /**
+     * Total the days of a week that fall inside a range
+     * Caller must hold the read lock
+     */
+    private WeeklyAttendance totalPartialWeek(int ordinal, int weekKey, int fromDay, int toDay) {
+        int hours = 0;
+        int overtime = 0;
+        int late = 0;
+        int undertime = 0;
+        int days = 0;
+
+        int from = store.indexOnOrAfter(ordinal, fromDay);
+        int to = store.indexOnOrAfter(ordinal, toDay + 1);
+        for (int i = from; i < to; i++) {
+            if (!isLastRowForDate(ordinal, i, to)) {
+                continue;
+            }
+            int row = store.getRow(ordinal, i);
+            hours += WeeklyRollup.regularHundredths(store, row);
+            overtime += WorkSchedule.toHundredths(store.getOvertimeMinute(row));
+            late += store.getLateMinute(row);
+            undertime += store.getUndertimeMinute(row);
+            days++;
+        }
+
+        return new WeeklyAttendance(weekKey, hours, overtime, late, undertime, days);
     }
 
     /**
      * Get weekly attendance summary for an employee
+     * Map form of getWeeklyAttendance, kept for existing callers
      *
      * @param employeeId Employee ID
      * @param startDate Start date of range
@@ -139,14 +783,10 @@ public class AttendanceReader {
      */
     public Map<String, Map<String, Double>> getWeeklyAttendanceForEmployee(
             String employeeId, LocalDate startDate, LocalDate endDate) {
-
-        // Get weekly attendance with daily logs
-        Map<String, Object> attendanceData = getWeeklyAttendanceWithDailyLogs(employeeId, startDate, endDate);
-
-        @SuppressWarnings("unchecked")
-        Map<String, Map<String, Double>> weeklyAttendance =
-                (Map<String, Map<String, Double>>) attendanceData.get("weeklyRecords");
-
+        Map<String, Map<String, Double>> weeklyAttendance = new LinkedHashMap<>();
+        for (WeeklyAttendance week : getWeeklyAttendance(employeeId, startDate, endDate)) {
+            weeklyAttendance.put(week.getLabel(), week.toMap());
+        }
         return weeklyAttendance;
     }
 
@@ -161,53 +801,23 @@ public class AttendanceReader {
     public Map<String, Object> getWeeklyAttendanceWithDailyLogs(
             String employeeId, LocalDate startDate, LocalDate endDate) {
 
-        // Get daily attendance records
-        Map<LocalDate, Map<String, Object>> dailyAttendance =
-                getDailyAttendanceForEmployee(employeeId, startDate, endDate);
-
-        // Create maps to store weekly totals and daily logs by week
+        // Weekly totals, labelled by week key
         Map<String, Map<String, Double>> weeklyAttendance = new LinkedHashMap<>();
-        Map<String, List<Map<String, Object>>> dailyLogsByWeek = new LinkedHashMap<>();
-
-        // Group by week
-        for (Map.Entry<LocalDate, Map<String, Object>> entry : dailyAttendance.entrySet()) {
-            LocalDate date = entry.getKey();
-            Map<String, Object> dayData = entry.getValue();
-
-            // Get week of year
-            int weekOfYear = date.get(WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear());
-
-            // Create week label
-            LocalDate weekStart = date.minusDays(date.getDayOfWeek().getValue() - 1);
-            LocalDate weekEnd = weekStart.plusDays(6);
-            String weekLabel = "Week " + weekOfYear + " (" +
-                    DateTimeUtil.formatDateShort(weekStart) + " - " +
-                    DateTimeUtil.formatDateShort(weekEnd) + ")";
-
-            // Get or create week data
-            Map<String, Double> weekData = weeklyAttendance.getOrDefault(weekLabel, new HashMap<>());
-            List<Map<String, Object>> weekLogs = dailyLogsByWeek.getOrDefault(weekLabel, new ArrayList<>());
-
-            // Add this day's values to week totals
-            double hoursWorked = (double) dayData.get("hours");
-            double lateMinutes = (double) dayData.get("lateMinutes");
-            double undertimeMinutes = (double) dayData.getOrDefault("undertimeMinutes", 0.0);
-            double overtimeHours = (double) dayData.get("overtimeHours");
-
-            // Update totals
-            weekData.put("hours", weekData.getOrDefault("hours", 0.0) + hoursWorked);
-            weekData.put("lateMinutes", weekData.getOrDefault("lateMinutes", 0.0) + lateMinutes);
-            weekData.put("undertimeMinutes", weekData.getOrDefault("undertimeMinutes", 0.0) + undertimeMinutes);
-            weekData.put("overtimeHours", weekData.getOrDefault("overtimeHours", 0.0) + overtimeHours);
-
-            // Create daily log with date
-            Map<String, Object> dayLog = new HashMap<>(dayData);
-            dayLog.put("date", date);
-            weekLogs.add(dayLog);
+        Map<Integer, String> labelsByWeek = new HashMap<>();
+        for (WeeklyAttendance week : getWeeklyAttendance(employeeId, startDate, endDate)) {
+            String weekLabel = week.getLabel();
+            labelsByWeek.put(week.getWeekKey(), weekLabel);
+            weeklyAttendance.put(weekLabel, week.toMap());
+        }
 
-            // Update maps
-            weeklyAttendance.put(weekLabel, weekData);
-            dailyLogsByWeek.put(weekLabel, weekLogs);
+        // Daily logs grouped under the same labels
+        Map<String, List<Map<String, Object>>> dailyLogsByWeek = new LinkedHashMap<>();
+        for (DailyAttendance day : getDailyAttendance(employeeId, startDate, endDate)) {
+            String weekLabel = labelsByWeek.computeIfAbsent(
+                    WeeklyRollup.weekKey(day.getEpochDay()), WeeklyAttendance::label);
+            Map<String, Object> dayLog = day.toMap();
+            dayLog.put("date", day.getDate());
+            dailyLogsByWeek.computeIfAbsent(weekLabel, label -> new ArrayList<>()).add(dayLog);
         }
 
         // Create result
@@ -219,72 +829,110 @@ public class AttendanceReader {
     }
 
     /**
-     * Calculate attendance summary for a date range
+     * Calculate attendance totals for a date range in one pass over the store
+     * When there are several rows for one date, the last one in the file is used
      *
      * @param employeeId Employee ID
      * @param startDate Start date of range
      * @param endDate End date of range
-     * @return Map with attendance summary
+     * @return Attendance summary
      */
-    public Map<String, Object> getAttendanceSummary(
+    public AttendanceSummary summarizeAttendance(
             String employeeId, LocalDate startDate, LocalDate endDate) {
 
-        // Get daily attendance records
-        Map<LocalDate, Map<String, Object>> dailyAttendance =
-                getDailyAttendanceForEmployee(employeeId, startDate, endDate);
-
         // Calculate totals
         double totalHours = 0;
         double totalOvertimeHours = 0;
         double totalLateMinutes = 0;
         double totalUndertimeMinutes = 0;
         boolean isLateAnyDay = false;
-        boolean hasUnpaidAbsences = false;
-        int unpaidAbsenceCount = 0;
-
-        for (Map<String, Object> dayData : dailyAttendance.values()) {
-            // Sum up totals
-            totalHours += (double) dayData.get("hours");
-            totalOvertimeHours += (double) dayData.get("overtimeHours");
-            totalLateMinutes += (double) dayData.get("lateMinutes");
-            totalUndertimeMinutes += (double) dayData.getOrDefault("undertimeMinutes", 0.0);
-
-            // Check flags
-            if ((boolean) dayData.get("isLate")) {
-                isLateAnyDay = true;
-            }
+        int recordCount = 0;
 
-            // Check for unpaid absences (simplified)
-            String absenceType = (String) dayData.getOrDefault("absenceType", "");
-            boolean isUnpaidAbsence = false;
-
-            if (dayData.containsKey("isUnpaidAbsence")) {
-                isUnpaidAbsence = (boolean) dayData.get("isUnpaidAbsence");
-            } else if (absenceType != null && !absenceType.isEmpty()) {
-                // For backward compatibility
-                String type = absenceType.toLowerCase();
-                isUnpaidAbsence = type.contains("unpaid") ||
-                        type.contains("unauthoriz") ||
-                        type.contains("unapproved");
-            }
+        if (startDate == null || endDate == null) {
+            return new AttendanceSummary(0, 0, 0, 0, false, 0, 0);
+        }
+        ensureLoaded(startDate, endDate);
+
+        lock.readLock().lock();
+        try {
+            int ordinal = store.getOrdinal(employeeId);
+            if (ordinal >= 0) {
+                int from = store.indexOnOrAfter(ordinal, (int) startDate.toEpochDay());
+                int to = store.indexOnOrAfter(ordinal, (int) endDate.toEpochDay() + 1);
+                for (int i = from; i < to; i++) {
+                    if (!isLastRowForDate(ordinal, i, to)) {
+                        continue;
+                    }
+                    int row = store.getRow(ordinal, i);
+
+                    // Sum up totals
+                    totalHours += store.getRegularHoursWorked(row);
+                    totalOvertimeHours += store.getOvertimeHours(row);
+                    totalLateMinutes += store.getLateMinutes(row);
+                    totalUndertimeMinutes += store.getUndertimeMinutes(row);
 
-            if (isUnpaidAbsence) {
-                hasUnpaidAbsences = true;
-                unpaidAbsenceCount++;
+                    // Check flags
+                    if (store.isLate(row)) {
+                        isLateAnyDay = true;
+                    }
+                    recordCount++;
+                }
             }
+        } finally {
+            lock.readLock().unlock();
         }
 
-        // Create summary
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("hours", totalHours);
-        summary.put("overtimeHours", totalOvertimeHours);
-        summary.put("lateMinutes", totalLateMinutes);
-        summary.put("undertimeMinutes", totalUndertimeMinutes);
-        summary.put("isLateAnyDay", isLateAnyDay);
-        summary.put("hasUnpaidAbsences", hasUnpaidAbsences);
-        summary.put("unpaidAbsenceCount", unpaidAbsenceCount);
-        summary.put("recordCount", dailyAttendance.size());
+        // Punch records never carry absence data, so there are no unpaid absences here
+        return new AttendanceSummary(totalHours, totalOvertimeHours, totalLateMinutes,
+                totalUndertimeMinutes, isLateAnyDay, 0, recordCount);
+    }
+
+    /**
+     * Calculate attendance totals for every employee in one pass
+     * Use this instead of one summarizeAttendance call per employee when
+     * processing a whole-company cutoff
+     *
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return Totals for every employee with attendance rows
+     */
+    public AttendanceAggregate aggregateAttendance(LocalDate startDate, LocalDate endDate, int parallelism) {
+        return aggregateAttendance(startDate, endDate, new int[0], parallelism);
+    }
 
-        return summary;
+    /**
+     * Calculate attendance totals for every employee in one pass, and pick up
+     * each employee's attendance on the given holiday days along the way
+     *
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     * @param holidayEpochDays Epoch days of the holidays in the range, in date order
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return Totals for every employee with attendance rows
+     */
+    public AttendanceAggregate aggregateAttendance(LocalDate startDate, LocalDate endDate,
+                                                   int[] holidayEpochDays, int parallelism) {
+        ensureLoaded(startDate, endDate);
+        lock.readLock().lock();
+        try {
+            return AttendanceAggregate.compute(store, startDate, endDate, holidayEpochDays, parallelism);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calculate attendance summary for a date range
+     * Map form of summarizeAttendance, kept for existing callers
+     *
+     * @param employeeId Employee ID
+     * @param startDate Start date of range
+     * @param endDate End date of range
+     * @return Map with attendance summary
+     */
+    public Map<String, Object> getAttendanceSummary(
+            String employeeId, LocalDate startDate, LocalDate endDate) {
+        return summarizeAttendance(employeeId, startDate, endDate).toMap();
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,6 @@ package motorph.hours;
 import motorph.util.DateTimeUtil;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.Duration;
 
 /**
  * Represents a single attendance record for an employee
@@ -27,6 +26,13 @@ public class AttendanceRecord {
     public static final LocalTime STANDARD_END_TIME = LocalTime.of(17, 0);  // 5:00 PM
     public static final int LUNCH_BREAK_MINUTES = 60; // 1-hour lunch break
 
+    // Metrics precomputed by the attendance store, in minutes
+    private boolean metricsStored;
+    private int storedLateMinutes;
+    private int storedUndertimeMinutes;
+    private int storedWorkedMinutes;
+    private int storedOvertimeMinutes;
+
     /**
      * Create record from CSV data array
      *
@@ -45,6 +51,53 @@ public class AttendanceRecord {
         }
     }
 
+    /**
+     * Create record from already parsed values
+     * Used to build record views from the columnar attendance store
+     *
+     * @param employeeId Employee ID
+     * @param lastName Employee last name
+     * @param firstName Employee first name
+     * @param date Attendance date
+     * @param timeIn Clock-in time
+     * @param timeOut Clock-out time
+     */
+    public AttendanceRecord(String employeeId, String lastName, String firstName,
+                            LocalDate date, LocalTime timeIn, LocalTime timeOut) {
+        this.employeeId = employeeId;
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.date = date;
+        this.timeIn = timeIn;
+        this.timeOut = timeOut;
+    }
+
+    /**
+     * Create record with metrics already computed by the attendance store
+     * The metrics are used until the times are changed
+     *
+     * @param employeeId Employee ID
+     * @param lastName Employee last name
+     * @param firstName Employee first name
+     * @param date Attendance date
+     * @param timeIn Clock-in time
+     * @param timeOut Clock-out time
+     * @param lateMinutes Minutes late
+     * @param undertimeMinutes Minutes undertime
+     * @param workedMinutes Minutes worked, after lunch
+     * @param overtimeMinutes Overtime minutes
+     */
+    AttendanceRecord(String employeeId, String lastName, String firstName,
+                     LocalDate date, LocalTime timeIn, LocalTime timeOut,
+                     int lateMinutes, int undertimeMinutes, int workedMinutes, int overtimeMinutes) {
+        this(employeeId, lastName, firstName, date, timeIn, timeOut);
+        this.metricsStored = true;
+        this.storedLateMinutes = lateMinutes;
+        this.storedUndertimeMinutes = undertimeMinutes;
+        this.storedWorkedMinutes = workedMinutes;
+        this.storedOvertimeMinutes = overtimeMinutes;
+    }
+
     /**
      * Create empty attendance record
      */
@@ -63,7 +116,10 @@ public class AttendanceRecord {
      * @return true if employee arrived after 8:10 AM
      */
     public boolean isLate() {
-        return timeIn != null && timeIn.isAfter(GRACE_PERIOD_END);
+        if (metricsStored) {
+            return storedLateMinutes > 0;
+        }
+        return timeIn != null && WorkSchedule.STANDARD.isLate(toMinuteOfDay(timeIn));
     }
 
     /**
@@ -72,7 +128,10 @@ public class AttendanceRecord {
      * @return true if employee left before 5:00 PM
      */
     public boolean isUndertime() {
-        return timeOut != null && timeOut.isBefore(STANDARD_END_TIME);
+        if (metricsStored) {
+            return storedUndertimeMinutes > 0;
+        }
+        return timeOut != null && WorkSchedule.STANDARD.undertimeMinutes(toMinuteOfDay(timeOut)) > 0;
     }
 
     /**
@@ -81,12 +140,13 @@ public class AttendanceRecord {
      * @return Number of minutes late (0 if not late)
      */
     public double getLateMinutes() {
-        if (!isLate() || timeIn == null) {
+        if (metricsStored) {
+            return storedLateMinutes;
+        }
+        if (timeIn == null) {
             return 0.0;
         }
-
-        Duration lateBy = Duration.between(GRACE_PERIOD_END, timeIn);
-        return lateBy.toMinutes();
+        return WorkSchedule.STANDARD.lateMinutes(toMinuteOfDay(timeIn));
     }
 
     /**
@@ -95,12 +155,13 @@ public class AttendanceRecord {
      * @return Number of minutes undertime (0 if not undertime)
      */
     public double getUndertimeMinutes() {
-        if (!isUndertime() || timeOut == null) {
+        if (metricsStored) {
+            return storedUndertimeMinutes;
+        }
+        if (timeOut == null) {
             return 0.0;
         }
-
-        Duration undertimeBy = Duration.between(timeOut, STANDARD_END_TIME);
-        return undertimeBy.toMinutes();
+        return WorkSchedule.STANDARD.undertimeMinutes(toMinuteOfDay(timeOut));
     }
 
     /**
@@ -110,27 +171,13 @@ public class AttendanceRecord {
      * @return Total hours worked (with lunch break deducted)
      */
     public double getTotalHoursWorked() {
-        if (timeIn == null || timeOut == null || timeOut.isBefore(timeIn)) {
-            return 0.0;
-        }
-
-        // For late employees, cap timeOut at STANDARD_END_TIME
-        LocalTime effectiveTimeOut = timeOut;
-        if (isLate() && timeOut.isAfter(STANDARD_END_TIME)) {
-            effectiveTimeOut = STANDARD_END_TIME;
+        if (metricsStored) {
+            return WorkSchedule.toHours(storedWorkedMinutes);
         }
-
-        Duration workDuration = Duration.between(timeIn, effectiveTimeOut);
-        double totalMinutes = workDuration.toMinutes();
-
-        // Deduct 1 hour (60 minutes) for lunch break if working more than 5 hours
-        if (totalMinutes >= 300) { // Only deduct lunch if worked at least 5 hours
-            totalMinutes -= LUNCH_BREAK_MINUTES;
+        if (timeIn == null || timeOut == null) {
+            return 0.0;
         }
-
-        // Convert to hours and round to 2 decimal places
-        double hours = totalMinutes / 60.0;
-        return Math.round(hours * 100) / 100.0;
+        return WorkSchedule.toHours(WorkSchedule.STANDARD.workedMinutes(toMinuteOfDay(timeIn), toMinuteOfDay(timeOut)));
     }
 
     /**
@@ -148,21 +195,26 @@ public class AttendanceRecord {
      * @return Overtime hours (0 if late)
      */
     public double getOvertimeHours() {
-        // Late employees don't get overtime
-        if (isLate()) {
-            return 0.0;
+        if (metricsStored) {
+            return WorkSchedule.toHours(storedOvertimeMinutes);
         }
-
-        // Check if worked past 5:00 PM
-        if (timeOut == null || !timeOut.isAfter(STANDARD_END_TIME)) {
+        if (timeOut == null) {
             return 0.0;
         }
 
-        Duration overtimeDuration = Duration.between(STANDARD_END_TIME, timeOut);
-        double overtimeHours = overtimeDuration.toMinutes() / 60.0;
+        // A missing clock-in is treated as on time
+        int timeInMinute = timeIn != null ? toMinuteOfDay(timeIn) : 0;
+        return WorkSchedule.toHours(WorkSchedule.STANDARD.overtimeMinutes(timeInMinute, toMinuteOfDay(timeOut)));
+    }
 
-        // Round to 2 decimal places
-        return Math.round(overtimeHours * 100) / 100.0;
+    /**
+     * Convert a time to minutes since midnight
+     *
+     * @param time Time to convert
+     * @return Minute of day (0-1439)
+     */
+    static int toMinuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
     }
 
     // Getters and Setters
@@ -181,10 +233,10 @@ public class AttendanceRecord {
     public void setDate(LocalDate date) { this.date = date; }
 
     public LocalTime getTimeIn() { return timeIn; }
-    public void setTimeIn(LocalTime timeIn) { this.timeIn = timeIn; }
+    public void setTimeIn(LocalTime timeIn) { this.timeIn = timeIn; this.metricsStored = false; }
 
     public LocalTime getTimeOut() { return timeOut; }
-    public void setTimeOut(LocalTime timeOut) { this.timeOut = timeOut; }
+    public void setTimeOut(LocalTime timeOut) { this.timeOut = timeOut; this.metricsStored = false; }
 
     public String getFormattedDate() {
         return DateTimeUtil.formatDateStandard(date);
@@ -0,0 +1,70 @@
+// File: motorph/hours/AttendanceRowLoader.java
+package motorph.hours;
+
+import motorph.employee.CSVScanner;
+
+/**
+ * Decodes scanned attendance CSV rows into an AttendanceStore
+ * Keeps count of the rows it had to skip
+ */
+class AttendanceRowLoader implements CSVScanner.RowHandler {
+    // Store that receives the decoded rows
+    private final AttendanceStore store;
+
+    // Rows skipped for missing columns or an invalid date/time
+    private int skippedCount;
+
+    // Rows skipped because processing threw an exception
+    private int errorCount;
+
+    /**
+     * Create a loader that adds rows to the given store
+     *
+     * @param store Target store
+     */
+    AttendanceRowLoader(AttendanceStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Add one scanned CSV row to the store
+     *
+     * @param row Scanned row (Employee #, Last Name, First Name, Date, Log In, Log Out)
+     */
+    @Override
+    public void onRow(CSVScanner.Row row) {
+        if (row.getFieldCount() < 6) {  // Make sure we have all needed columns
+            skippedCount++;
+            return;
+        }
+
+        try {
+            // Parse the date and times
+            int epochDay = row.getEpochDay(3);
+            int timeIn = row.getMinuteOfDay(4);
+            int timeOut = row.getMinuteOfDay(5);
+
+            // Add to store if valid
+            if (epochDay != CSVScanner.NO_VALUE && timeIn != CSVScanner.NO_VALUE
+                    && timeOut != CSVScanner.NO_VALUE) {
+                String employeeId = row.getString(0);
+                int ordinal = store.getOrdinal(employeeId);
+                if (ordinal < 0) {
+                    ordinal = store.addEmployee(employeeId, row.getString(1), row.getString(2));
+                }
+                store.addRow(ordinal, epochDay, timeIn, timeOut);
+            } else {
+                skippedCount++;
+            }
+        } catch (Exception e) {
+            // Skip bad records
+            errorCount++;
+            System.out.println("Error processing attendance record: " + e.getMessage());
+        }
+    }
+
+    // Getters
+    AttendanceStore getStore() { return store; }
+    int getSkippedCount() { return skippedCount; }
+    int getErrorCount() { return errorCount; }
+}
@@ -0,0 +1,403 @@
+// File: motorph/hours/AttendanceSnapshot.java
+package motorph.hours;
+
+import motorph.util.FileFingerprint;
+import motorph.util.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of a loaded attendance file
+ * Holds the employee dictionary and the primitive row columns, with rows
+ * written in per-employee date order and the offset of each employee's
+ * first row, so the index is filled without searching. The metric columns
+ * and weekly totals are stored too, so a restore does no calculation;
+ * they are for the standard work schedule. The skip counts and punch
+ * conflicts from the original parse are kept so a restored load reports
+ * the same numbers. A snapshot is only used with the conflict policy it
+ * was built under.
+ * The encoding helpers are shared with the month partitions.
+ */
+final class AttendanceSnapshot {
+    // "MPAT" - MotorPH attendance
+    private static final int MAGIC = 0x4D504154;
+    private static final int VERSION = 3;
+
+    // Ints stored for each conflict: ordinal, day, existing in/out, new in/out
+    private static final int CONFLICT_FIELDS = 6;
+
+    // Counts from the parse the snapshot was built from
+    private final int skippedCount;
+    private final int errorCount;
+
+    // Size of the CSV the snapshot was built from
+    private final long sourceSize;
+
+    private AttendanceSnapshot(int skippedCount, int errorCount, long sourceSize) {
+        this.skippedCount = skippedCount;
+        this.errorCount = errorCount;
+        this.sourceSize = sourceSize;
+    }
+
+    /**
+     * Restore a snapshot into an empty store
+     * The CSV is only hashed when its size or last-modified time has changed.
+     * The store is left untouched unless the whole snapshot is read.
+     *
+     * @param file Snapshot file
+     * @param source Attendance CSV
+     * @param store Empty store to fill, set to the conflict policy in use
+     * @return Snapshot counts, or null if there is no usable snapshot
+     * @throws IOException If the snapshot or the CSV cannot be read
+     */
+    static AttendanceSnapshot read(Path file, Path source, AttendanceStore store) throws IOException {
+        if (store.getSchedule() != WorkSchedule.STANDARD) {
+            return null;
+        }
+        ByteBuffer buffer = SnapshotFile.open(file, MAGIC, VERSION);
+        if (buffer == null) {
+            return null;
+        }
+
+        try {
+            FileFingerprint fingerprint = FileFingerprint.readFrom(buffer);
+            if (!fingerprint.matchesContents(source)) {
+                return null;
+            }
+
+            int skipped = buffer.getInt();
+            int errors = buffer.getInt();
+            if (buffer.get() != store.getConflictPolicy().ordinal()) {
+                return null; // Built under another policy, so the rows may differ
+            }
+            int employeeCount = buffer.getInt();
+            int rowCount = buffer.getInt();
+
+            List<String[]> employees = getDictionary(buffer, employeeCount);
+            int[] offsets = getOffsets(buffer, employeeCount, rowCount);
+            Columns columns = Columns.read(buffer, rowCount, employeeCount);
+            Metrics metrics = Metrics.read(buffer, rowCount);
+            WeeklyRollup rollup = WeeklyRollup.readFrom(buffer, employeeCount);
+            int[] conflictFields = getConflictFields(buffer, employeeCount);
+            if (offsets == null || columns == null || rollup == null || conflictFields == null
+                    || !matchesOffsets(columns.ordinals, offsets)) {
+                return null;
+            }
+
+            for (String[] employee : employees) {
+                store.addEmployee(employee[0], employee[1], employee[2]);
+            }
+            store.loadColumns(columns, metrics, offsets, rollup, rowCount);
+            store.loadConflicts(toConflicts(conflictFields, store));
+            return new AttendanceSnapshot(skipped, errors, fingerprint.size);
+        } catch (RuntimeException e) {
+            // Truncated or corrupt snapshot
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot of a store
+     * Stores whose metrics use another schedule are not written
+     *
+     * @param file Snapshot file
+     * @param source Fingerprint of the CSV the store was loaded from
+     * @param store Indexed store to save
+     * @param skippedCount Rows skipped while parsing
+     * @param errorCount Rows that failed while parsing
+     * @throws IOException If the snapshot cannot be written
+     */
+    static void write(Path file, FileFingerprint source, AttendanceStore store,
+                      int skippedCount, int errorCount) throws IOException {
+        if (store.getSchedule() != WorkSchedule.STANDARD) {
+            return;
+        }
+        int employeeCount = store.getEmployeeCount();
+        int rowCount = store.size();
+        List<PunchConflict> conflicts = store.getConflicts();
+        WeeklyRollup rollup = store.getWeeklyRollup();
+
+        int size = 4 * Integer.BYTES + 1 + dictionarySize(store) + (employeeCount + 1) * Integer.BYTES
+                + Columns.size(rowCount) + Metrics.size(rowCount) + rollup.byteSize(employeeCount)
+                + conflictsSize(conflicts);
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.putInt(skippedCount);
+        body.putInt(errorCount);
+        body.put((byte) store.getConflictPolicy().ordinal());
+        body.putInt(employeeCount);
+        body.putInt(rowCount);
+        putDictionary(body, store);
+
+        // Rows in index order: employee by employee, sorted by date
+        int[] rows = new int[rowCount];
+        int next = 0;
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            body.putInt(next);
+            int count = store.getRowCount(ordinal);
+            for (int position = 0; position < count; position++) {
+                rows[next++] = store.getRow(ordinal, position);
+            }
+        }
+        body.putInt(next);
+        Columns.write(body, store, rows, rowCount);
+        Metrics.write(body, store, rows, rowCount);
+        rollup.writeTo(body, employeeCount);
+
+        putConflicts(body, conflicts);
+        body.flip();
+
+        SnapshotFile.write(file, MAGIC, VERSION, source, body);
+    }
+
+    /**
+     * Get the number of bytes putDictionary writes for a store
+     */
+    static int dictionarySize(AttendanceStore store) {
+        int size = 0;
+        for (int i = 0; i < store.getEmployeeCount(); i++) {
+            size += SnapshotFile.stringSize(store.getEmployeeId(i))
+                    + SnapshotFile.stringSize(store.getLastName(i))
+                    + SnapshotFile.stringSize(store.getFirstName(i));
+        }
+        return size;
+    }
+
+    /**
+     * Write the employee dictionary: ID, last name and first name per ordinal
+     */
+    static void putDictionary(ByteBuffer body, AttendanceStore store) {
+        for (int i = 0; i < store.getEmployeeCount(); i++) {
+            SnapshotFile.putString(body, store.getEmployeeId(i));
+            SnapshotFile.putString(body, store.getLastName(i));
+            SnapshotFile.putString(body, store.getFirstName(i));
+        }
+    }
+
+    /**
+     * Read a dictionary written by putDictionary
+     *
+     * @return ID, last name and first name for each ordinal
+     */
+    static List<String[]> getDictionary(ByteBuffer buffer, int employeeCount) {
+        List<String[]> employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            employees.add(new String[] {
+                    SnapshotFile.getString(buffer),
+                    SnapshotFile.getString(buffer),
+                    SnapshotFile.getString(buffer)
+            });
+        }
+        return employees;
+    }
+
+    /**
+     * Read the first row of each employee, followed by the row count
+     *
+     * @return Offsets, or null if they are not in order or don't end at the row count
+     */
+    private static int[] getOffsets(ByteBuffer buffer, int employeeCount, int rowCount) {
+        int[] offsets = new int[employeeCount + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+
+        if (offsets[0] != 0 || offsets[employeeCount] != rowCount) {
+            return null;
+        }
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            if (offsets[ordinal + 1] < offsets[ordinal]) {
+                return null;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Check that every row lies in its employee's offset range
+     */
+    private static boolean matchesOffsets(int[] ordinals, int[] offsets) {
+        for (int ordinal = 0; ordinal + 1 < offsets.length; ordinal++) {
+            for (int row = offsets[ordinal]; row < offsets[ordinal + 1]; row++) {
+                if (ordinals[row] != ordinal) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of bytes putConflicts writes
+     */
+    static int conflictsSize(List<PunchConflict> conflicts) {
+        return Integer.BYTES + conflicts.size() * CONFLICT_FIELDS * Integer.BYTES;
+    }
+
+    /**
+     * Write a count followed by the punches of each conflict
+     */
+    static void putConflicts(ByteBuffer body, List<PunchConflict> conflicts) {
+        body.putInt(conflicts.size());
+        for (PunchConflict conflict : conflicts) {
+            body.putInt(conflict.getOrdinal());
+            body.putInt(conflict.getEpochDay());
+            body.putInt(conflict.getExistingTimeInMinute());
+            body.putInt(conflict.getExistingTimeOutMinute());
+            body.putInt(conflict.getNewTimeInMinute());
+            body.putInt(conflict.getNewTimeOutMinute());
+        }
+    }
+
+    /**
+     * Read the fields written by putConflicts
+     *
+     * @return Flat conflict fields, or null if an ordinal is out of range
+     */
+    static int[] getConflictFields(ByteBuffer buffer, int employeeCount) {
+        int conflictCount = buffer.getInt();
+        int[] fields = new int[conflictCount * CONFLICT_FIELDS];
+        buffer.asIntBuffer().get(fields);
+        buffer.position(buffer.position() + fields.length * Integer.BYTES);
+
+        for (int i = 0; i < fields.length; i += CONFLICT_FIELDS) {
+            if (fields[i] < 0 || fields[i] >= employeeCount) {
+                return null;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Turn conflict fields back into conflicts under the store's policy
+     * The store's dictionary must already be filled
+     */
+    static List<PunchConflict> toConflicts(int[] fields, AttendanceStore store) {
+        List<PunchConflict> conflicts = new ArrayList<>(fields.length / CONFLICT_FIELDS);
+        for (int i = 0; i < fields.length; i += CONFLICT_FIELDS) {
+            int ordinal = fields[i];
+            conflicts.add(new PunchConflict(ordinal, store.getEmployeeId(ordinal), fields[i + 1],
+                    fields[i + 2], fields[i + 3], fields[i + 4], fields[i + 5], store.getConflictPolicy()));
+        }
+        return conflicts;
+    }
+
+    int getSkippedCount() {
+        return skippedCount;
+    }
+
+    int getErrorCount() {
+        return errorCount;
+    }
+
+    long getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * Row columns as stored on disk: all ordinals, then days, time-ins and time-outs
+     */
+    static final class Columns {
+        final int[] ordinals;
+        final int[] days;
+        final short[] timeIns;
+        final short[] timeOuts;
+
+        private Columns(int rowCount) {
+            ordinals = new int[rowCount];
+            days = new int[rowCount];
+            timeIns = new short[rowCount];
+            timeOuts = new short[rowCount];
+        }
+
+        /**
+         * Get the number of bytes write uses for a number of rows
+         */
+        static int size(int rowCount) {
+            return rowCount * (2 * Integer.BYTES + 2 * Short.BYTES);
+        }
+
+        /**
+         * Write the columns of the given rows, in the order given
+         */
+        static void write(ByteBuffer body, AttendanceStore store, int[] rows, int rowCount) {
+            for (int i = 0; i < rowCount; i++) body.putInt(store.getEmployeeOrdinal(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putInt(store.getEpochDay(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getTimeInMinute(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getTimeOutMinute(rows[i]));
+        }
+
+        /**
+         * Read columns in bulk from a mapped file
+         *
+         * @return Columns, or null if an ordinal is out of range
+         */
+        static Columns read(ByteBuffer buffer, int rowCount, int employeeCount) {
+            Columns columns = new Columns(rowCount);
+            buffer.asIntBuffer().get(columns.ordinals);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            buffer.asIntBuffer().get(columns.days);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            buffer.asShortBuffer().get(columns.timeIns);
+            buffer.position(buffer.position() + rowCount * Short.BYTES);
+            buffer.asShortBuffer().get(columns.timeOuts);
+            buffer.position(buffer.position() + rowCount * Short.BYTES);
+
+            for (int ordinal : columns.ordinals) {
+                if (ordinal < 0 || ordinal >= employeeCount) {
+                    return null;
+                }
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Metric columns as stored on disk: late, undertime, worked and overtime minutes
+     */
+    static final class Metrics {
+        final short[] lateMinutes;
+        final short[] undertimeMinutes;
+        final short[] workedMinutes;
+        final short[] overtimeMinutes;
+
+        private Metrics(int rowCount) {
+            lateMinutes = new short[rowCount];
+            undertimeMinutes = new short[rowCount];
+            workedMinutes = new short[rowCount];
+            overtimeMinutes = new short[rowCount];
+        }
+
+        /**
+         * Get the number of bytes write uses for a number of rows
+         */
+        static int size(int rowCount) {
+            return rowCount * 4 * Short.BYTES;
+        }
+
+        /**
+         * Write the metrics of the given rows, in the order given
+         */
+        static void write(ByteBuffer body, AttendanceStore store, int[] rows, int rowCount) {
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getLateMinute(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getUndertimeMinute(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getWorkedMinute(rows[i]));
+            for (int i = 0; i < rowCount; i++) body.putShort((short) store.getOvertimeMinute(rows[i]));
+        }
+
+        /**
+         * Read metric columns in bulk from a mapped file
+         */
+        static Metrics read(ByteBuffer buffer, int rowCount) {
+            Metrics metrics = new Metrics(rowCount);
+            for (short[] column : new short[][] { metrics.lateMinutes, metrics.undertimeMinutes,
+                    metrics.workedMinutes, metrics.overtimeMinutes }) {
+                buffer.asShortBuffer().get(column);
+                buffer.position(buffer.position() + rowCount * Short.BYTES);
+            }
+            return metrics;
+        }
+    }
+}
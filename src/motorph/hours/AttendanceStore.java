@@ -0,0 +1,579 @@
+// File: motorph/hours/AttendanceStore.java
+package motorph.hours;
+
+import motorph.util.LongHashSet;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar storage for attendance punches
+ * Each row is kept as primitives in parallel arrays (employee ordinal,
+ * epoch day, time-in and time-out minute of day). Employee IDs and names
+ * are stored once in a dictionary and referenced by ordinal.
+ */
+public class AttendanceStore {
+    // Initial capacity for row and index arrays
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_EMPLOYEE_ROWS = 16;
+
+    // Employee dictionary: ordinal -> ID and names
+    private final List<String> employeeIds = new ArrayList<>();
+    private final List<String> lastNames = new ArrayList<>();
+    private final List<String> firstNames = new ArrayList<>();
+
+    // Employee dictionary: ID -> ordinal
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+
+    // Row columns, in the order rows were added
+    private int[] employeeOrdinals = new int[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private short[] timeInMinutes = new short[INITIAL_CAPACITY];
+    private short[] timeOutMinutes = new short[INITIAL_CAPACITY];
+    private int rowCount;
+
+    // Metric columns, derived from the times when a row is added
+    private short[] lateMinutes = new short[INITIAL_CAPACITY];
+    private short[] undertimeMinutes = new short[INITIAL_CAPACITY];
+    private short[] workedMinutes = new short[INITIAL_CAPACITY];
+    private short[] overtimeMinutes = new short[INITIAL_CAPACITY];
+
+    // Schedule the metric columns were computed with
+    private WorkSchedule schedule = WorkSchedule.STANDARD;
+
+    // Per-employee row numbers, sorted by epoch day
+    private int[][] rowsByEmployee = new int[INITIAL_EMPLOYEE_ROWS][];
+    private int[] rowCountByEmployee = new int[INITIAL_EMPLOYEE_ROWS];
+
+    // Whether the per-employee index is maintained
+    private final boolean indexed;
+
+    // Weekly totals, kept up to date with the index
+    private final WeeklyRollup weeklyRollup = new WeeklyRollup();
+
+    // Employee/date keys already stored, for conflict detection (indexed stores only)
+    private final LongHashSet punchKeys;
+
+    // Whether punchKeys still has to be filled from restored rows
+    private boolean punchKeysPending;
+
+    // What to do with a second row for an employee and date
+    private ConflictPolicy conflictPolicy = ConflictPolicy.FLAG;
+
+    // Every conflict found, in the order the rows arrived
+    private final List<PunchConflict> conflicts = new ArrayList<>();
+
+    /**
+     * Create an empty, indexed store
+     */
+    public AttendanceStore() {
+        this(true);
+    }
+
+    /**
+     * Create an empty store
+     * Unindexed stores are used as staging areas (e.g. one chunk of a
+     * parallel load) and only support row access and addAll
+     *
+     * @param indexed Whether to maintain the per-employee date index
+     */
+    AttendanceStore(boolean indexed) {
+        this.indexed = indexed;
+        this.punchKeys = indexed ? new LongHashSet(INITIAL_CAPACITY) : null;
+    }
+
+    /**
+     * Get the ordinal for an employee, adding them to the dictionary if new
+     * The first names seen for an employee ID are the ones kept
+     *
+     * @param employeeId Employee ID
+     * @param lastName Employee last name
+     * @param firstName Employee first name
+     * @return Employee ordinal
+     */
+    public int addEmployee(String employeeId, String lastName, String firstName) {
+        Integer existing = ordinalsById.get(employeeId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int ordinal = employeeIds.size();
+        employeeIds.add(employeeId);
+        lastNames.add(lastName);
+        firstNames.add(firstName);
+        ordinalsById.put(employeeId, ordinal);
+
+        if (ordinal == rowsByEmployee.length) {
+            rowsByEmployee = Arrays.copyOf(rowsByEmployee, ordinal * 2);
+            rowCountByEmployee = Arrays.copyOf(rowCountByEmployee, ordinal * 2);
+        }
+        rowsByEmployee[ordinal] = new int[INITIAL_EMPLOYEE_ROWS];
+
+        return ordinal;
+    }
+
+    /**
+     * Add an attendance row
+     * The row is also placed in its employee's date-sorted index, after
+     * any existing rows for the same date. In an indexed store, a row for
+     * an employee and date that is already stored is recorded as a conflict
+     * and handled by the conflict policy.
+     *
+     * @param ordinal Employee ordinal from addEmployee
+     * @param epochDay Attendance date as epoch day
+     * @param timeInMinute Clock-in minute of day
+     * @param timeOutMinute Clock-out minute of day
+     * @return Row number of the new or merged row, or -1 if the row was rejected
+     */
+    public int addRow(int ordinal, int epochDay, int timeInMinute, int timeOutMinute) {
+        // One hash probe per row; the index is only searched when the date is taken
+        if (indexed) {
+            fillPendingPunchKeys();
+        }
+        if (indexed && !punchKeys.add(punchKey(ordinal, epochDay))) {
+            int existing = rowsByEmployee[ordinal][indexOnOrAfter(ordinal, epochDay + 1) - 1];
+            conflicts.add(new PunchConflict(ordinal, employeeIds.get(ordinal), epochDay,
+                    timeInMinutes[existing], timeOutMinutes[existing],
+                    timeInMinute, timeOutMinute, conflictPolicy));
+
+            if (conflictPolicy == ConflictPolicy.REJECT) {
+                return -1;
+            }
+            if (conflictPolicy == ConflictPolicy.MERGE) {
+                mergeRow(existing, timeInMinute, timeOutMinute);
+                return existing;
+            }
+        }
+
+        return storeRow(ordinal, epochDay, timeInMinute, timeOutMinute);
+    }
+
+    /**
+     * Append a row to the columns and the index without conflict checks
+     *
+     * @return Row number of the new row
+     */
+    private int storeRow(int ordinal, int epochDay, int timeInMinute, int timeOutMinute) {
+        if (rowCount == employeeOrdinals.length) {
+            int capacity = rowCount * 2;
+            employeeOrdinals = Arrays.copyOf(employeeOrdinals, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            timeInMinutes = Arrays.copyOf(timeInMinutes, capacity);
+            timeOutMinutes = Arrays.copyOf(timeOutMinutes, capacity);
+            lateMinutes = Arrays.copyOf(lateMinutes, capacity);
+            undertimeMinutes = Arrays.copyOf(undertimeMinutes, capacity);
+            workedMinutes = Arrays.copyOf(workedMinutes, capacity);
+            overtimeMinutes = Arrays.copyOf(overtimeMinutes, capacity);
+        }
+
+        int row = rowCount++;
+        employeeOrdinals[row] = ordinal;
+        epochDays[row] = epochDay;
+        timeInMinutes[row] = (short) timeInMinute;
+        timeOutMinutes[row] = (short) timeOutMinute;
+        computeMetrics(row);
+
+        if (indexed) {
+            int position = indexRow(ordinal, row, epochDay);
+
+            // A later row for the same date replaces the earlier one in the weekly totals
+            if (position > 0) {
+                int previous = rowsByEmployee[ordinal][position - 1];
+                if (epochDays[previous] == epochDay) {
+                    weeklyRollup.removeDay(this, previous);
+                }
+            }
+            weeklyRollup.addDay(this, row);
+        }
+        return row;
+    }
+
+    /**
+     * Widen a stored row to cover another set of punches
+     * The row keeps the earlier time in and the later time out
+     */
+    private void mergeRow(int row, int timeInMinute, int timeOutMinute) {
+        weeklyRollup.removeDay(this, row);
+        timeInMinutes[row] = (short) Math.min(timeInMinutes[row], timeInMinute);
+        timeOutMinutes[row] = (short) Math.max(timeOutMinutes[row], timeOutMinute);
+        computeMetrics(row);
+        weeklyRollup.addDay(this, row);
+    }
+
+    /**
+     * Fill the conflict detection keys of rows restored from a snapshot
+     * Deferred until a row is added, since a restored store is usually only read
+     */
+    private void fillPendingPunchKeys() {
+        if (!punchKeysPending) {
+            return;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            punchKeys.add(punchKey(employeeOrdinals[row], epochDays[row]));
+        }
+        punchKeysPending = false;
+    }
+
+    /**
+     * Build the conflict detection key for an employee and date
+     */
+    private static long punchKey(int ordinal, int epochDay) {
+        return ((long) ordinal << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Set how later rows for an already stored employee and date are handled
+     * Applies to rows added after the call
+     *
+     * @param conflictPolicy Policy to apply
+     */
+    public void setConflictPolicy(ConflictPolicy conflictPolicy) {
+        this.conflictPolicy = conflictPolicy;
+    }
+
+    /**
+     * Get the policy applied to conflicting rows
+     */
+    public ConflictPolicy getConflictPolicy() {
+        return conflictPolicy;
+    }
+
+    /**
+     * Get every conflict found so far, in arrival order
+     */
+    public List<PunchConflict> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Get the number of conflicts found so far
+     */
+    public int getConflictCount() {
+        return conflicts.size();
+    }
+
+    /**
+     * Restore conflicts recorded by an earlier load
+     * Used with loadColumns when restoring a snapshot
+     *
+     * @param restored Conflicts in arrival order
+     */
+    void loadConflicts(List<PunchConflict> restored) {
+        conflicts.clear();
+        conflicts.addAll(restored);
+    }
+
+    /**
+     * Append every row of another store, in that store's row order
+     * Employees are matched by ID and new ones are added to this dictionary
+     *
+     * @param other Store to copy rows from
+     */
+    public void addAll(AttendanceStore other) {
+        // Map the other store's ordinals to ours
+        int[] ordinalMap = new int[other.getEmployeeCount()];
+        for (int i = 0; i < ordinalMap.length; i++) {
+            ordinalMap[i] = addEmployee(other.getEmployeeId(i), other.getLastName(i), other.getFirstName(i));
+        }
+
+        for (int row = 0; row < other.rowCount; row++) {
+            addRow(ordinalMap[other.employeeOrdinals[row]], other.epochDays[row],
+                    other.timeInMinutes[row], other.timeOutMinutes[row]);
+        }
+    }
+
+    /**
+     * Recompute the metric columns of every row for a schedule
+     * Used when the schedule rules change; later rows use the same schedule
+     *
+     * @param schedule Work schedule to apply
+     */
+    public void recomputeMetrics(WorkSchedule schedule) {
+        this.schedule = schedule;
+        for (int row = 0; row < rowCount; row++) {
+            computeMetrics(row);
+        }
+        rebuildWeeklyRollup();
+    }
+
+    /**
+     * Rebuild the weekly totals from the index
+     * Only the last row of each date is counted
+     */
+    private void rebuildWeeklyRollup() {
+        weeklyRollup.clear();
+        if (!indexed) {
+            return;
+        }
+
+        for (int ordinal = 0; ordinal < getEmployeeCount(); ordinal++) {
+            int[] rows = rowsByEmployee[ordinal];
+            int count = rowCountByEmployee[ordinal];
+            for (int i = 0; i < count; i++) {
+                if (i + 1 == count || epochDays[rows[i + 1]] != epochDays[rows[i]]) {
+                    weeklyRollup.addDay(this, rows[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the weekly totals kept for each employee
+     * Only maintained for indexed stores
+     */
+    public WeeklyRollup getWeeklyRollup() {
+        return weeklyRollup;
+    }
+
+    /**
+     * Fill the metric columns of one row from its times
+     */
+    private void computeMetrics(int row) {
+        int timeIn = timeInMinutes[row];
+        int timeOut = timeOutMinutes[row];
+        lateMinutes[row] = (short) schedule.lateMinutes(timeIn);
+        undertimeMinutes[row] = (short) schedule.undertimeMinutes(timeOut);
+        workedMinutes[row] = (short) schedule.workedMinutes(timeIn, timeOut);
+        overtimeMinutes[row] = (short) schedule.overtimeMinutes(timeIn, timeOut);
+    }
+
+    /**
+     * Get the schedule the metric columns were computed with
+     */
+    public WorkSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Replace the rows of this store with columns restored from a snapshot
+     * Rows are grouped by employee in index order: offsets[k] is the first
+     * row of ordinal k and offsets[employeeCount] is the row count, so each
+     * index is filled without counting or searching. The metric columns and
+     * weekly totals are taken as stored and must match this store's
+     * schedule. Every ordinal must already be in the dictionary.
+     *
+     * @param columns Row columns
+     * @param metrics Metric columns
+     * @param offsets First row of each employee, then the row count
+     * @param rollup Weekly totals of the rows
+     * @param count Number of rows in the columns
+     */
+    void loadColumns(AttendanceSnapshot.Columns columns, AttendanceSnapshot.Metrics metrics,
+                     int[] offsets, WeeklyRollup rollup, int count) {
+        employeeOrdinals = columns.ordinals;
+        epochDays = columns.days;
+        timeInMinutes = columns.timeIns;
+        timeOutMinutes = columns.timeOuts;
+        lateMinutes = metrics.lateMinutes;
+        undertimeMinutes = metrics.undertimeMinutes;
+        workedMinutes = metrics.workedMinutes;
+        overtimeMinutes = metrics.overtimeMinutes;
+        rowCount = count;
+
+        if (!indexed) {
+            return;
+        }
+
+        for (int ordinal = 0; ordinal < getEmployeeCount(); ordinal++) {
+            int first = offsets[ordinal];
+            int rows = offsets[ordinal + 1] - first;
+            int[] index = new int[Math.max(rows, INITIAL_EMPLOYEE_ROWS)];
+            for (int i = 0; i < rows; i++) {
+                index[i] = first + i;
+            }
+            rowsByEmployee[ordinal] = index;
+            rowCountByEmployee[ordinal] = rows;
+        }
+        weeklyRollup.replaceWith(rollup);
+        punchKeys.clear();
+        punchKeysPending = count > 0;
+    }
+
+    /**
+     * Add rows that were already checked for conflicts
+     * Used when loading a month partition. Rows for each date must be in
+     * arrival order; the rows are indexed among those already stored.
+     *
+     * @param ordinals Employee ordinal column
+     * @param days Epoch day column
+     * @param timeIns Time-in minute column
+     * @param timeOuts Time-out minute column
+     * @param count Number of rows in the columns
+     */
+    void appendColumns(int[] ordinals, int[] days, short[] timeIns, short[] timeOuts, int count) {
+        if (indexed) {
+            fillPendingPunchKeys();
+        }
+        for (int i = 0; i < count; i++) {
+            storeRow(ordinals[i], days[i], timeIns[i], timeOuts[i]);
+            if (indexed) {
+                punchKeys.add(punchKey(ordinals[i], days[i]));
+            }
+        }
+    }
+
+    /**
+     * Insert a row into its employee's date-sorted index
+     * Rows usually arrive in date order, so this is normally an append
+     *
+     * @return Position of the row in the employee's index
+     */
+    private int indexRow(int ordinal, int row, int epochDay) {
+        int[] rows = rowsByEmployee[ordinal];
+        int count = rowCountByEmployee[ordinal];
+
+        if (count == rows.length) {
+            rows = Arrays.copyOf(rows, count * 2);
+            rowsByEmployee[ordinal] = rows;
+        }
+
+        // Insert after all rows on or before this date
+        int position = indexOnOrAfter(ordinal, epochDay + 1);
+        System.arraycopy(rows, position, rows, position + 1, count - position);
+        rows[position] = row;
+        rowCountByEmployee[ordinal] = count + 1;
+        return position;
+    }
+
+    /**
+     * Find the first position in an employee's index whose date is not before the given day
+     *
+     * @param ordinal Employee ordinal
+     * @param epochDay Day to search for
+     * @return Index position, or getRowCount(ordinal) if every row is earlier
+     */
+    public int indexOnOrAfter(int ordinal, int epochDay) {
+        int[] rows = rowsByEmployee[ordinal];
+        int low = 0;
+        int high = rowCountByEmployee[ordinal];
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[rows[mid]] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Get the ordinal of an employee
+     *
+     * @param employeeId Employee ID
+     * @return Employee ordinal, or -1 if the employee has no rows
+     */
+    public int getOrdinal(String employeeId) {
+        Integer ordinal = ordinalsById.get(employeeId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Get the number of employees in the dictionary
+     */
+    public int getEmployeeCount() {
+        return employeeIds.size();
+    }
+
+    /**
+     * Get the total number of rows
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Get the number of rows for one employee
+     *
+     * @param ordinal Employee ordinal
+     * @return Row count for the employee
+     */
+    public int getRowCount(int ordinal) {
+        return rowCountByEmployee[ordinal];
+    }
+
+    /**
+     * Get a row number from an employee's date-sorted index
+     *
+     * @param ordinal Employee ordinal
+     * @param position Position in the employee's index
+     * @return Row number
+     */
+    public int getRow(int ordinal, int position) {
+        return rowsByEmployee[ordinal][position];
+    }
+
+    // Dictionary getters
+    public String getEmployeeId(int ordinal) { return employeeIds.get(ordinal); }
+    public String getLastName(int ordinal) { return lastNames.get(ordinal); }
+    public String getFirstName(int ordinal) { return firstNames.get(ordinal); }
+
+    // Column getters
+    public int getEmployeeOrdinal(int row) { return employeeOrdinals[row]; }
+    public int getEpochDay(int row) { return epochDays[row]; }
+    public int getTimeInMinute(int row) { return timeInMinutes[row]; }
+    public int getTimeOutMinute(int row) { return timeOutMinutes[row]; }
+
+    // Metric column getters, in minutes
+    public int getLateMinute(int row) { return lateMinutes[row]; }
+    public int getUndertimeMinute(int row) { return undertimeMinutes[row]; }
+    public int getWorkedMinute(int row) { return workedMinutes[row]; }
+    public int getOvertimeMinute(int row) { return overtimeMinutes[row]; }
+
+    // Derived values, read from the metric columns
+    public boolean isLate(int row) { return lateMinutes[row] > 0; }
+    public boolean isUndertime(int row) { return undertimeMinutes[row] > 0; }
+    public double getLateMinutes(int row) { return lateMinutes[row]; }
+    public double getUndertimeMinutes(int row) { return undertimeMinutes[row]; }
+    public double getOvertimeHours(int row) { return WorkSchedule.toHours(overtimeMinutes[row]); }
+    public double getRegularHoursWorked(int row) { return Math.min(WorkSchedule.toHours(workedMinutes[row]), 8.0); }
+
+    /**
+     * Get the date of a row
+     *
+     * @param row Row number
+     * @return Attendance date
+     */
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(epochDays[row]);
+    }
+
+    /**
+     * Create an AttendanceRecord view of a row
+     *
+     * @param row Row number
+     * @return New AttendanceRecord holding the row's values
+     */
+    public AttendanceRecord toRecord(int row) {
+        int ordinal = employeeOrdinals[row];
+        return new AttendanceRecord(
+                employeeIds.get(ordinal),
+                lastNames.get(ordinal),
+                firstNames.get(ordinal),
+                getDate(row),
+                toTime(timeInMinutes[row]),
+                toTime(timeOutMinutes[row]),
+                lateMinutes[row],
+                undertimeMinutes[row],
+                workedMinutes[row],
+                overtimeMinutes[row]);
+    }
+
+    /**
+     * Convert a minute of day to a LocalTime
+     *
+     * @param minuteOfDay Minutes since midnight
+     * @return Time value
+     */
+    public static LocalTime toTime(int minuteOfDay) {
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
@@ -0,0 +1,70 @@
+// File: motorph/hours/AttendanceSummary.java
+package motorph.hours;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attendance totals for one employee over a date range
+ * Typed replacement for the map from getAttendanceSummary
+ */
+public final class AttendanceSummary {
+    private final double hours;
+    private final double overtimeHours;
+    private final double lateMinutes;
+    private final double undertimeMinutes;
+    private final boolean lateAnyDay;
+    private final int unpaidAbsenceCount;
+    private final int recordCount;
+
+    /**
+     * Create a summary
+     *
+     * @param hours Total regular hours worked
+     * @param overtimeHours Total overtime hours
+     * @param lateMinutes Total minutes late
+     * @param undertimeMinutes Total undertime minutes
+     * @param lateAnyDay Whether the employee was late on any day
+     * @param unpaidAbsenceCount Number of unpaid absence days
+     * @param recordCount Number of days with attendance
+     */
+    public AttendanceSummary(double hours, double overtimeHours, double lateMinutes,
+                             double undertimeMinutes, boolean lateAnyDay,
+                             int unpaidAbsenceCount, int recordCount) {
+        this.hours = hours;
+        this.overtimeHours = overtimeHours;
+        this.lateMinutes = lateMinutes;
+        this.undertimeMinutes = undertimeMinutes;
+        this.lateAnyDay = lateAnyDay;
+        this.unpaidAbsenceCount = unpaidAbsenceCount;
+        this.recordCount = recordCount;
+    }
+
+    // Getters
+    public double getHours() { return hours; }
+    public double getOvertimeHours() { return overtimeHours; }
+    public double getLateMinutes() { return lateMinutes; }
+    public double getUndertimeMinutes() { return undertimeMinutes; }
+    public boolean isLateAnyDay() { return lateAnyDay; }
+    public boolean hasUnpaidAbsences() { return unpaidAbsenceCount > 0; }
+    public int getUnpaidAbsenceCount() { return unpaidAbsenceCount; }
+    public int getRecordCount() { return recordCount; }
+
+    /**
+     * Convert to the map format used by getAttendanceSummary
+     *
+     * @return Map with attendance summary
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("hours", hours);
+        summary.put("overtimeHours", overtimeHours);
+        summary.put("lateMinutes", lateMinutes);
+        summary.put("undertimeMinutes", undertimeMinutes);
+        summary.put("isLateAnyDay", lateAnyDay);
+        summary.put("hasUnpaidAbsences", hasUnpaidAbsences());
+        summary.put("unpaidAbsenceCount", unpaidAbsenceCount);
+        summary.put("recordCount", recordCount);
+        return summary;
+    }
+}
@@ -0,0 +1,104 @@
+// File: motorph/hours/AttendanceTailWatcher.java
+package motorph.hours;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread that feeds appended attendance rows into a reader
+ * Wakes up when the file's directory reports a change, and also on a fixed
+ * poll interval because some file systems (network shares in particular)
+ * never deliver watch events
+ */
+public class AttendanceTailWatcher implements Closeable {
+    private final AttendanceReader reader;
+    private final long pollIntervalMillis;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private WatchService watchService;
+
+    /**
+     * Create a watcher; call start() to begin watching
+     *
+     * @param reader Reader to feed new rows into
+     * @param pollIntervalMillis Longest time between checks of the file
+     */
+    public AttendanceTailWatcher(AttendanceReader reader, long pollIntervalMillis) {
+        this.reader = reader;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.thread = new Thread(this::run, "attendance-tail-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching the attendance file
+     */
+    public void start() {
+        Path directory = Paths.get(reader.getAttendanceFilePath()).toAbsolutePath().getParent();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Fall back to polling only
+            System.out.println("File watching unavailable, polling attendance file: " + e.getMessage());
+            watchService = null;
+        }
+        thread.start();
+    }
+
+    /**
+     * Loop until closed, ingesting whatever was appended
+     */
+    private void run() {
+        while (running) {
+            try {
+                if (watchService != null) {
+                    WatchKey key = watchService.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(pollIntervalMillis);
+                }
+
+                reader.ingestAppendedRows();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                System.out.println("Error reading appended attendance: " + e.getMessage());
+            } catch (Exception e) {
+                // ClosedWatchServiceException after close(), or a listener failure
+                if (running) {
+                    System.out.println("Attendance watcher error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop watching and wait for the background thread to finish
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        thread.interrupt();
+        if (watchService != null) {
+            watchService.close();
+        }
+        try {
+            thread.join(pollIntervalMillis + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+// File: motorph/hours/ConflictPolicy.java
+package motorph.hours;
+
+/**
+ * What to do when a row arrives for an employee and date that already has one
+ * Every conflict is recorded for the conflict report whatever the policy
+ */
+public enum ConflictPolicy {
+    /** Keep both rows; the later row is the one used for the day */
+    FLAG,
+
+    /** Combine both rows into one, from the earliest time in to the latest time out */
+    MERGE,
+
+    /** Keep the first row and drop the later one */
+    REJECT
+}
@@ -0,0 +1,72 @@
+// File: motorph/hours/DailyAttendance.java
+package motorph.hours;
+
+import motorph.util.DateTimeUtil;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One employee's attendance for one day
+ * Typed replacement for the per-day maps from getDailyAttendanceForEmployee
+ */
+public final class DailyAttendance {
+    private final int epochDay;
+    private final int timeInMinute;
+    private final int timeOutMinute;
+    private final double hours;
+    private final double lateMinutes;
+    private final double undertimeMinutes;
+    private final double overtimeHours;
+    private final boolean late;
+    private final boolean undertime;
+
+    /**
+     * Create a day from a store row
+     *
+     * @param store Attendance store
+     * @param row Row number
+     */
+    DailyAttendance(AttendanceStore store, int row) {
+        this.epochDay = store.getEpochDay(row);
+        this.timeInMinute = store.getTimeInMinute(row);
+        this.timeOutMinute = store.getTimeOutMinute(row);
+        this.hours = store.getRegularHoursWorked(row);
+        this.lateMinutes = store.getLateMinutes(row);
+        this.undertimeMinutes = store.getUndertimeMinutes(row);
+        this.overtimeHours = store.getOvertimeHours(row);
+        this.late = store.isLate(row);
+        this.undertime = store.isUndertime(row);
+    }
+
+    // Getters
+    public LocalDate getDate() { return LocalDate.ofEpochDay(epochDay); }
+    public int getEpochDay() { return epochDay; }
+    public int getTimeInMinute() { return timeInMinute; }
+    public int getTimeOutMinute() { return timeOutMinute; }
+    public double getHours() { return hours; }
+    public double getLateMinutes() { return lateMinutes; }
+    public double getUndertimeMinutes() { return undertimeMinutes; }
+    public double getOvertimeHours() { return overtimeHours; }
+    public boolean isLate() { return late; }
+    public boolean isUndertime() { return undertime; }
+
+    /**
+     * Convert to the map format used by getDailyAttendanceForEmployee
+     *
+     * @return Map of day details
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> dayData = new HashMap<>();
+        dayData.put("timeIn", DateTimeUtil.formatTimeStandard(AttendanceStore.toTime(timeInMinute)));
+        dayData.put("timeOut", DateTimeUtil.formatTimeStandard(AttendanceStore.toTime(timeOutMinute)));
+        dayData.put("hours", hours);
+        dayData.put("lateMinutes", lateMinutes);
+        dayData.put("undertimeMinutes", undertimeMinutes);
+        dayData.put("overtimeHours", overtimeHours);
+        dayData.put("isLate", late);
+        dayData.put("isUndertime", undertime);
+        return dayData;
+    }
+}
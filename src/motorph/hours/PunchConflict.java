@@ -0,0 +1,86 @@
+// File: motorph/hours/PunchConflict.java
+package motorph.hours;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A second attendance row for an employee and date that already had one
+ * Holds the punches of both rows and the policy that was applied
+ */
+public final class PunchConflict {
+    /**
+     * How the second row relates to the first
+     */
+    public enum Kind {
+        /** Same time in and time out */
+        DUPLICATE,
+
+        /** Different punches whose time ranges overlap */
+        OVERLAP,
+
+        /** Separate punches that do not overlap */
+        SEPARATE
+    }
+
+    private final int ordinal;
+    private final String employeeId;
+    private final int epochDay;
+    private final int existingTimeIn;
+    private final int existingTimeOut;
+    private final int newTimeIn;
+    private final int newTimeOut;
+    private final ConflictPolicy policy;
+
+    /**
+     * Create a conflict record
+     *
+     * @param ordinal Employee ordinal in the store
+     * @param employeeId Employee ID
+     * @param epochDay Attendance date as epoch day
+     * @param existingTimeIn Time-in minute of the row already stored
+     * @param existingTimeOut Time-out minute of the row already stored
+     * @param newTimeIn Time-in minute of the incoming row
+     * @param newTimeOut Time-out minute of the incoming row
+     * @param policy Policy applied to the incoming row
+     */
+    PunchConflict(int ordinal, String employeeId, int epochDay, int existingTimeIn, int existingTimeOut,
+                  int newTimeIn, int newTimeOut, ConflictPolicy policy) {
+        this.ordinal = ordinal;
+        this.employeeId = employeeId;
+        this.epochDay = epochDay;
+        this.existingTimeIn = existingTimeIn;
+        this.existingTimeOut = existingTimeOut;
+        this.newTimeIn = newTimeIn;
+        this.newTimeOut = newTimeOut;
+        this.policy = policy;
+    }
+
+    /**
+     * Classify the conflict from the two sets of punches
+     */
+    public Kind getKind() {
+        if (existingTimeIn == newTimeIn && existingTimeOut == newTimeOut) {
+            return Kind.DUPLICATE;
+        }
+        if (newTimeIn < existingTimeOut && existingTimeIn < newTimeOut) {
+            return Kind.OVERLAP;
+        }
+        return Kind.SEPARATE;
+    }
+
+    // Getters
+    int getOrdinal() { return ordinal; }
+    public String getEmployeeId() { return employeeId; }
+    public int getEpochDay() { return epochDay; }
+    public LocalDate getDate() { return LocalDate.ofEpochDay(epochDay); }
+    public LocalTime getExistingTimeIn() { return AttendanceStore.toTime(existingTimeIn); }
+    public LocalTime getExistingTimeOut() { return AttendanceStore.toTime(existingTimeOut); }
+    public LocalTime getNewTimeIn() { return AttendanceStore.toTime(newTimeIn); }
+    public LocalTime getNewTimeOut() { return AttendanceStore.toTime(newTimeOut); }
+    int getExistingTimeInMinute() { return existingTimeIn; }
+    int getExistingTimeOutMinute() { return existingTimeOut; }
+    int getNewTimeInMinute() { return newTimeIn; }
+    int getNewTimeOutMinute() { return newTimeOut; }
+    public ConflictPolicy getPolicy() { return policy; }
+}
@@ -0,0 +1,94 @@
+// File: motorph/hours/WeeklyAttendance.java
+package motorph.hours;
+
+import motorph.util.DateTimeUtil;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One employee's attendance totals for one ISO week
+ * Typed replacement for the week maps from getWeeklyAttendanceForEmployee
+ */
+public final class WeeklyAttendance {
+    private final int weekKey;
+    private final int hoursHundredths;
+    private final int overtimeHundredths;
+    private final int lateMinutes;
+    private final int undertimeMinutes;
+    private final int dayCount;
+
+    /**
+     * Create a week's totals
+     *
+     * @param weekKey isoYear * 100 + ISO week number
+     * @param hoursHundredths Regular hours times 100
+     * @param overtimeHundredths Overtime hours times 100
+     * @param lateMinutes Minutes late
+     * @param undertimeMinutes Minutes undertime
+     * @param dayCount Number of days with attendance
+     */
+    WeeklyAttendance(int weekKey, int hoursHundredths, int overtimeHundredths,
+                     int lateMinutes, int undertimeMinutes, int dayCount) {
+        this.weekKey = weekKey;
+        this.hoursHundredths = hoursHundredths;
+        this.overtimeHundredths = overtimeHundredths;
+        this.lateMinutes = lateMinutes;
+        this.undertimeMinutes = undertimeMinutes;
+        this.dayCount = dayCount;
+    }
+
+    // Getters
+    public int getWeekKey() { return weekKey; }
+    public int getWeekBasedYear() { return weekKey / 100; }
+    public int getWeekOfYear() { return weekKey % 100; }
+    public double getHours() { return hoursHundredths / 100.0; }
+    public double getOvertimeHours() { return overtimeHundredths / 100.0; }
+    public double getLateMinutes() { return lateMinutes; }
+    public double getUndertimeMinutes() { return undertimeMinutes; }
+    public int getDayCount() { return dayCount; }
+
+    /**
+     * Get the Monday that starts this week
+     */
+    public LocalDate getWeekStart() {
+        return LocalDate.ofEpochDay(WeeklyRollup.mondayOfWeek(weekKey));
+    }
+
+    /**
+     * Get the display label, e.g. "Week 23 (06/03 - 06/09)"
+     *
+     * @return Week label
+     */
+    public String getLabel() {
+        return label(weekKey);
+    }
+
+    /**
+     * Format the display label of a week
+     *
+     * @param weekKey isoYear * 100 + ISO week number
+     * @return Week label
+     */
+    public static String label(int weekKey) {
+        LocalDate weekStart = LocalDate.ofEpochDay(WeeklyRollup.mondayOfWeek(weekKey));
+        return "Week " + weekKey % 100 + " (" +
+                DateTimeUtil.formatDateShort(weekStart) + " - " +
+                DateTimeUtil.formatDateShort(weekStart.plusDays(6)) + ")";
+    }
+
+    /**
+     * Convert to the map format used by getWeeklyAttendanceForEmployee
+     *
+     * @return Map of week totals
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> weekData = new HashMap<>();
+        weekData.put("hours", getHours());
+        weekData.put("lateMinutes", getLateMinutes());
+        weekData.put("undertimeMinutes", getUndertimeMinutes());
+        weekData.put("overtimeHours", getOvertimeHours());
+        return weekData;
+    }
+}
@@ -0,0 +1,307 @@
+// File: motorph/hours/WeeklyRollup.java
+package motorph.hours;
+
+import motorph.util.DateTimeUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Running weekly attendance totals for each employee
+ * Weeks are ISO weeks (Monday to Sunday) keyed by isoYear * 100 + week.
+ * Totals are whole numbers - hundredths of an hour for hours and minutes
+ * for late/undertime - so a day can be taken out again exactly when a later
+ * row replaces it.
+ */
+public final class WeeklyRollup {
+    private static final int INITIAL_WEEKS = 8;
+
+    // Per-employee week tables, indexed by employee ordinal
+    private Weeks[] weeksByEmployee = new Weeks[16];
+
+    /**
+     * One employee's weeks, sorted by week key
+     */
+    private static final class Weeks {
+        int[] keys = new int[INITIAL_WEEKS];
+        int[] hoursHundredths = new int[INITIAL_WEEKS];
+        int[] overtimeHundredths = new int[INITIAL_WEEKS];
+        int[] lateMinutes = new int[INITIAL_WEEKS];
+        int[] undertimeMinutes = new int[INITIAL_WEEKS];
+        int[] dayCounts = new int[INITIAL_WEEKS];
+        int count;
+
+        /**
+         * Find a week, adding an empty one if it's new
+         */
+        int positionOf(int weekKey) {
+            // Rows usually arrive in date order, so check the last week first
+            if (count > 0 && keys[count - 1] == weekKey) {
+                return count - 1;
+            }
+
+            int position = Arrays.binarySearch(keys, 0, count, weekKey);
+            if (position >= 0) {
+                return position;
+            }
+
+            position = -position - 1;
+            if (count == keys.length) {
+                int capacity = count * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                hoursHundredths = Arrays.copyOf(hoursHundredths, capacity);
+                overtimeHundredths = Arrays.copyOf(overtimeHundredths, capacity);
+                lateMinutes = Arrays.copyOf(lateMinutes, capacity);
+                undertimeMinutes = Arrays.copyOf(undertimeMinutes, capacity);
+                dayCounts = Arrays.copyOf(dayCounts, capacity);
+            }
+
+            int tail = count - position;
+            System.arraycopy(keys, position, keys, position + 1, tail);
+            System.arraycopy(hoursHundredths, position, hoursHundredths, position + 1, tail);
+            System.arraycopy(overtimeHundredths, position, overtimeHundredths, position + 1, tail);
+            System.arraycopy(lateMinutes, position, lateMinutes, position + 1, tail);
+            System.arraycopy(undertimeMinutes, position, undertimeMinutes, position + 1, tail);
+            System.arraycopy(dayCounts, position, dayCounts, position + 1, tail);
+
+            keys[position] = weekKey;
+            hoursHundredths[position] = 0;
+            overtimeHundredths[position] = 0;
+            lateMinutes[position] = 0;
+            undertimeMinutes[position] = 0;
+            dayCounts[position] = 0;
+            count++;
+            return position;
+        }
+    }
+
+    /**
+     * Add one day's row to its week
+     *
+     * @param store Store holding the row
+     * @param row Row number
+     */
+    void addDay(AttendanceStore store, int row) {
+        apply(store, row, 1);
+    }
+
+    /**
+     * Take a day's row back out of its week, when a later row replaces it
+     *
+     * @param store Store holding the row
+     * @param row Row number
+     */
+    void removeDay(AttendanceStore store, int row) {
+        apply(store, row, -1);
+    }
+
+    /**
+     * Add or subtract a row's values
+     */
+    private void apply(AttendanceStore store, int row, int sign) {
+        int ordinal = store.getEmployeeOrdinal(row);
+        if (ordinal >= weeksByEmployee.length) {
+            weeksByEmployee = Arrays.copyOf(weeksByEmployee, Math.max(ordinal + 1, weeksByEmployee.length * 2));
+        }
+        Weeks weeks = weeksByEmployee[ordinal];
+        if (weeks == null) {
+            weeks = new Weeks();
+            weeksByEmployee[ordinal] = weeks;
+        }
+
+        int position = weeks.positionOf(weekKey(store.getEpochDay(row)));
+        weeks.hoursHundredths[position] += sign * regularHundredths(store, row);
+        weeks.overtimeHundredths[position] += sign * WorkSchedule.toHundredths(store.getOvertimeMinute(row));
+        weeks.lateMinutes[position] += sign * store.getLateMinute(row);
+        weeks.undertimeMinutes[position] += sign * store.getUndertimeMinute(row);
+        weeks.dayCounts[position] += sign;
+    }
+
+    /**
+     * Clear all totals
+     */
+    void clear() {
+        Arrays.fill(weeksByEmployee, null);
+    }
+
+    /**
+     * Take over the totals of another rollup
+     * Used when restoring a snapshot
+     *
+     * @param other Rollup read by readFrom
+     */
+    void replaceWith(WeeklyRollup other) {
+        weeksByEmployee = other.weeksByEmployee;
+    }
+
+    /**
+     * Get the number of bytes writeTo uses
+     *
+     * @param employeeCount Number of employees in the store
+     */
+    int byteSize(int employeeCount) {
+        int size = employeeCount * Integer.BYTES;
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            size += getWeekCount(ordinal) * 6 * Integer.BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * Write every employee's weeks: a count, then each total column
+     *
+     * @param buffer Target buffer
+     * @param employeeCount Number of employees in the store
+     */
+    void writeTo(ByteBuffer buffer, int employeeCount) {
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            int count = getWeekCount(ordinal);
+            buffer.putInt(count);
+            if (count == 0) {
+                continue;
+            }
+            Weeks weeks = weeksByEmployee[ordinal];
+            for (int[] column : new int[][] { weeks.keys, weeks.hoursHundredths, weeks.overtimeHundredths,
+                    weeks.lateMinutes, weeks.undertimeMinutes, weeks.dayCounts }) {
+                buffer.asIntBuffer().put(column, 0, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+            }
+        }
+    }
+
+    /**
+     * Read totals written by writeTo
+     *
+     * @param buffer Source buffer
+     * @param employeeCount Number of employees in the store
+     * @return Rollup, or null if a week count is negative
+     */
+    static WeeklyRollup readFrom(ByteBuffer buffer, int employeeCount) {
+        WeeklyRollup rollup = new WeeklyRollup();
+        rollup.weeksByEmployee = new Weeks[Math.max(employeeCount, rollup.weeksByEmployee.length)];
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            int count = buffer.getInt();
+            if (count < 0) {
+                return null;
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            Weeks weeks = new Weeks();
+            int capacity = Math.max(count, INITIAL_WEEKS);
+            weeks.keys = new int[capacity];
+            weeks.hoursHundredths = new int[capacity];
+            weeks.overtimeHundredths = new int[capacity];
+            weeks.lateMinutes = new int[capacity];
+            weeks.undertimeMinutes = new int[capacity];
+            weeks.dayCounts = new int[capacity];
+            for (int[] column : new int[][] { weeks.keys, weeks.hoursHundredths, weeks.overtimeHundredths,
+                    weeks.lateMinutes, weeks.undertimeMinutes, weeks.dayCounts }) {
+                buffer.asIntBuffer().get(column, 0, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+            }
+            weeks.count = count;
+            rollup.weeksByEmployee[ordinal] = weeks;
+        }
+        return rollup;
+    }
+
+    /**
+     * Get the number of weeks held for an employee (including emptied weeks)
+     *
+     * @param ordinal Employee ordinal
+     * @return Week count
+     */
+    public int getWeekCount(int ordinal) {
+        Weeks weeks = ordinal < weeksByEmployee.length ? weeksByEmployee[ordinal] : null;
+        return weeks != null ? weeks.count : 0;
+    }
+
+    /**
+     * Find the first week position whose key is not before the given key
+     *
+     * @param ordinal Employee ordinal
+     * @param weekKey Week key to search for
+     * @return Position, or getWeekCount(ordinal) if every week is earlier
+     */
+    public int weekOnOrAfter(int ordinal, int weekKey) {
+        int count = getWeekCount(ordinal);
+        if (count == 0) {
+            return 0;
+        }
+        int position = Arrays.binarySearch(weeksByEmployee[ordinal].keys, 0, count, weekKey);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    // Week totals by employee ordinal and week position
+    public int getWeekKey(int ordinal, int position) { return weeksByEmployee[ordinal].keys[position]; }
+    public int getHoursHundredths(int ordinal, int position) { return weeksByEmployee[ordinal].hoursHundredths[position]; }
+    public int getOvertimeHundredths(int ordinal, int position) { return weeksByEmployee[ordinal].overtimeHundredths[position]; }
+    public int getLateMinutes(int ordinal, int position) { return weeksByEmployee[ordinal].lateMinutes[position]; }
+    public int getUndertimeMinutes(int ordinal, int position) { return weeksByEmployee[ordinal].undertimeMinutes[position]; }
+    public int getDayCount(int ordinal, int position) { return weeksByEmployee[ordinal].dayCounts[position]; }
+
+    /**
+     * Regular hours of a row in hundredths, capped at 8 hours
+     *
+     * @param store Store holding the row
+     * @param row Row number
+     * @return Regular hours times 100
+     */
+    static int regularHundredths(AttendanceStore store, int row) {
+        return Math.min(WorkSchedule.toHundredths(store.getWorkedMinute(row)), 800);
+    }
+
+    /**
+     * Get the ISO week key of a day
+     *
+     * @param epochDay Day as epoch day
+     * @return isoYear * 100 + ISO week number
+     */
+    public static int weekKey(int epochDay) {
+        // The ISO week belongs to the year its Thursday falls in
+        int thursday = mondayOf(epochDay) + 3;
+        int year = yearOf(thursday);
+        int week = (thursday - DateTimeUtil.epochDay(year, 1, 1)) / 7 + 1;
+        return year * 100 + week;
+    }
+
+    /**
+     * Get the Monday of the ISO week containing a day
+     *
+     * @param epochDay Day as epoch day
+     * @return Monday as epoch day
+     */
+    public static int mondayOf(int epochDay) {
+        // Epoch day 0 (1970-01-01) was a Thursday
+        return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+
+    /**
+     * Get the Monday of a week from its key
+     *
+     * @param weekKey isoYear * 100 + ISO week number
+     * @return Monday as epoch day
+     */
+    public static int mondayOfWeek(int weekKey) {
+        // Week 1 is the week containing January 4
+        int firstMonday = mondayOf(DateTimeUtil.epochDay(weekKey / 100, 1, 4));
+        return firstMonday + (weekKey % 100 - 1) * 7;
+    }
+
+    /**
+     * Get the calendar year of an epoch day
+     */
+    private static int yearOf(int epochDay) {
+        // Civil-from-days algorithm, counting years from March
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int year = yearOfEra + era * 400;
+        return monthIndex >= 10 ? year + 1 : year;
+    }
+}
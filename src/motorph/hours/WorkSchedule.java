@@ -0,0 +1,129 @@
+// File: motorph/hours/WorkSchedule.java
+package motorph.hours;
+
+import java.time.LocalTime;
+
+/**
+ * Work schedule rules used to derive attendance metrics
+ * All times are minutes of day and all results are whole minutes, so the
+ * metrics can be stored compactly and turned into hours only when read
+ */
+public final class WorkSchedule {
+    // Company schedule from AttendanceRecord: 8:10 grace, 5:00 PM end, 1-hour lunch
+    public static final WorkSchedule STANDARD = new WorkSchedule(
+            AttendanceRecord.GRACE_PERIOD_END, AttendanceRecord.STANDARD_END_TIME,
+            AttendanceRecord.LUNCH_BREAK_MINUTES);
+
+    // Lunch is only deducted when at least this many minutes were worked
+    private static final int LUNCH_THRESHOLD_MINUTES = 300;
+
+    private final int gracePeriodEndMinute;
+    private final int standardEndMinute;
+    private final int lunchBreakMinutes;
+
+    /**
+     * Create a work schedule
+     *
+     * @param gracePeriodEnd Latest clock-in that is not late
+     * @param standardEnd End of the regular work day
+     * @param lunchBreakMinutes Minutes deducted for lunch
+     */
+    public WorkSchedule(LocalTime gracePeriodEnd, LocalTime standardEnd, int lunchBreakMinutes) {
+        this.gracePeriodEndMinute = AttendanceRecord.toMinuteOfDay(gracePeriodEnd);
+        this.standardEndMinute = AttendanceRecord.toMinuteOfDay(standardEnd);
+        this.lunchBreakMinutes = lunchBreakMinutes;
+    }
+
+    /**
+     * Check lateness for a clock-in
+     *
+     * @param timeInMinute Clock-in minute of day
+     * @return true if after the grace period
+     */
+    public boolean isLate(int timeInMinute) {
+        return timeInMinute > gracePeriodEndMinute;
+    }
+
+    /**
+     * Minutes late for a clock-in
+     *
+     * @param timeInMinute Clock-in minute of day
+     * @return Minutes after the grace period (0 if not late)
+     */
+    public int lateMinutes(int timeInMinute) {
+        return isLate(timeInMinute) ? timeInMinute - gracePeriodEndMinute : 0;
+    }
+
+    /**
+     * Minutes undertime for a clock-out
+     *
+     * @param timeOutMinute Clock-out minute of day
+     * @return Minutes before the standard end time (0 if not undertime)
+     */
+    public int undertimeMinutes(int timeOutMinute) {
+        return timeOutMinute < standardEndMinute ? standardEndMinute - timeOutMinute : 0;
+    }
+
+    /**
+     * Minutes worked for a clock-in/out pair
+     * Late employees are capped at the standard end time and lunch is
+     * deducted when at least 5 hours were worked
+     *
+     * @param timeInMinute Clock-in minute of day
+     * @param timeOutMinute Clock-out minute of day
+     * @return Minutes worked (0 if clock-out is before clock-in)
+     */
+    public int workedMinutes(int timeInMinute, int timeOutMinute) {
+        if (timeOutMinute < timeInMinute) {
+            return 0;
+        }
+
+        // For late employees, cap timeOut at the end of the day
+        int effectiveTimeOut = timeOutMinute;
+        if (isLate(timeInMinute) && timeOutMinute > standardEndMinute) {
+            effectiveTimeOut = standardEndMinute;
+        }
+
+        int totalMinutes = effectiveTimeOut - timeInMinute;
+        if (totalMinutes >= LUNCH_THRESHOLD_MINUTES) {
+            totalMinutes -= lunchBreakMinutes;
+        }
+        return totalMinutes;
+    }
+
+    /**
+     * Overtime minutes for a clock-in/out pair
+     *
+     * @param timeInMinute Clock-in minute of day
+     * @param timeOutMinute Clock-out minute of day
+     * @return Minutes after the standard end time (0 if late)
+     */
+    public int overtimeMinutes(int timeInMinute, int timeOutMinute) {
+        // Late employees don't get overtime
+        if (isLate(timeInMinute) || timeOutMinute <= standardEndMinute) {
+            return 0;
+        }
+        return timeOutMinute - standardEndMinute;
+    }
+
+    /**
+     * Convert minutes to hours rounded to 2 decimal places
+     *
+     * @param minutes Whole minutes
+     * @return Hours, rounded the same way as the attendance reports
+     */
+    public static double toHours(int minutes) {
+        return toHundredths(minutes) / 100.0;
+    }
+
+    /**
+     * Convert minutes to hundredths of an hour, rounded like toHours
+     *
+     * @param minutes Whole minutes
+     * @return Hours times 100
+     */
+    public static int toHundredths(int minutes) {
+        double hours = minutes / 60.0;
+        return (int) Math.round(hours * 100);
+    }
+}
@@ -2,6 +2,7 @@ package motorph.output;
 
 import motorph.employee.Employee;
 import motorph.hours.AttendanceReader;
+import motorph.hours.WeeklyAttendance;
 import motorph.process.PayrollDateManager;
 import motorph.process.PayrollProcessor;
 import motorph.holidays.HolidayManager;
@@ -35,7 +36,7 @@ public class PayrollOutputManager {
         this.scanner = scanner;
         this.attendanceReader = attendanceReader;
         this.payrollProcessor = payrollProcessor;
-        this.holidayManager = new HolidayManager();
+        this.holidayManager = payrollProcessor.getHolidayManager();
     }
 
     private String formatTimeDuration(double minutes) {
@@ -269,6 +270,10 @@ public class PayrollOutputManager {
         payrollProcessor.displaySalaryDetails(employee);
     }
 
+    public void displaySalaryDetails(Employee employee, int year, int month, int payPeriodType) {
+        payrollProcessor.displaySalaryDetails(employee, year, month, payPeriodType);
+    }
+
     public void displayAttendanceOptions(Employee employee) {
         System.out.println("\n===== ATTENDANCE OPTIONS =====");
         System.out.println("Employee: " + employee.getFullName());
@@ -297,7 +302,7 @@ public class PayrollOutputManager {
         System.out.println("\n===== WEEKLY ATTENDANCE =====");
         System.out.println("Employee: " + employee.getFullName());
         System.out.println("Period: " + DateTimeUtil.formatDateStandard(startDate) + " to " + DateTimeUtil.formatDateStandard(endDate));
-        Map<String, Map<String, Double>> weeklyAttendance = attendanceReader.getWeeklyAttendanceForEmployee(employee.getEmployeeId(), startDate, endDate);
+        List<WeeklyAttendance> weeklyAttendance = attendanceReader.getWeeklyAttendance(employee.getEmployeeId(), startDate, endDate);
         if (weeklyAttendance.isEmpty()) {
             System.out.println("\nNo attendance records found for this period.");
             return;
@@ -309,17 +314,16 @@ public class PayrollOutputManager {
         double totalOvertimeHours = 0;
         double totalLateMinutes = 0;
         int totalUnpaidAbsences = 0;
-        for (String weekLabel : weeklyAttendance.keySet()) {
-            Map<String, Double> weekData = weeklyAttendance.get(weekLabel);
-            double hours = weekData.getOrDefault("hours", 0.0);
-            double overtimeHours = weekData.getOrDefault("overtimeHours", 0.0);
-            double lateMinutes = weekData.getOrDefault("lateMinutes", 0.0);
-            int unpaidAbsences = weekData.getOrDefault("unpaidAbsenceCount", 0.0).intValue();
+        for (WeeklyAttendance week : weeklyAttendance) {
+            double hours = week.getHours();
+            double overtimeHours = week.getOvertimeHours();
+            double lateMinutes = week.getLateMinutes();
+            int unpaidAbsences = 0; // Punch records carry no absence data
             totalHours += hours;
             totalOvertimeHours += overtimeHours;
             totalLateMinutes += lateMinutes;
             totalUnpaidAbsences += unpaidAbsences;
-            System.out.printf("%-30s %-10.2f %-12.2f %-12s %-10d\n", weekLabel, hours, overtimeHours, formatTimeDuration(lateMinutes), unpaidAbsences);
+            System.out.printf("%-30s %-10.2f %-12.2f %-12s %-10d\n", week.getLabel(), hours, overtimeHours, formatTimeDuration(lateMinutes), unpaidAbsences);
         }
         System.out.println("--------------------------------------------------------------------------------");
         System.out.printf("%-30s %-10.2f %-12.2f %-12s %-10d\n", "TOTALS:", totalHours, totalOvertimeHours, formatTimeDuration(totalLateMinutes), totalUnpaidAbsences);
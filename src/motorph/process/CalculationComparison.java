@@ -0,0 +1,242 @@
+// File: motorph/process/CalculationComparison.java
+package motorph.process;
+
+import motorph.process.PayrollProcessor.CalculationMode;
+import motorph.process.PayrollProcessor.PayrollResult;
+import motorph.util.Centavos;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a payroll run calculated in doubles with one calculated in centavos
+ * Double amounts are rounded to the centavo the way payslips display them,
+ * so every difference reported is one an employee would actually see.
+ */
+public class CalculationComparison {
+    // Amounts compared for every employee, in report order
+    private static final String[] FIELD_NAMES = {
+            "Gross Pay", "Net Pay", "Base Pay", "Overtime Pay", "Holiday Pay",
+            "Late Deduction", "Undertime Deduction", "Absence Deduction",
+            "SSS", "PhilHealth", "Pag-IBIG", "Withholding Tax", "Total Deductions"
+    };
+
+    // Most net pay differences listed in the report
+    private static final int MAX_LISTED_DIFFERENCES = 20;
+
+    private static final String DEFAULT_EMPLOYEE_FILE = "resources/MotorPH Employee Data - Employee Details.csv";
+    private static final String DEFAULT_ATTENDANCE_FILE = "resources/MotorPH Employee Data - Attendance Record.csv";
+
+    private final PayrollRun doubleRun;
+    private final PayrollRun centavoRun;
+
+    // Per field: employees that differ, largest difference and sum of differences, in centavos
+    private final int[] differingCounts = new int[FIELD_NAMES.length];
+    private final long[] maxDifferences = new long[FIELD_NAMES.length];
+    private final long[] netDifferences = new long[FIELD_NAMES.length];
+
+    private final List<String> netPayDifferences = new ArrayList<>();
+    private int comparedCount;
+    private int differingEmployeeCount;
+    private int unmatchedCount;
+
+    /**
+     * Compare two runs of the same pay period
+     *
+     * @param doubleRun Run calculated in DOUBLE mode
+     * @param centavoRun Run calculated in CENTAVOS mode
+     */
+    public CalculationComparison(PayrollRun doubleRun, PayrollRun centavoRun) {
+        this.doubleRun = doubleRun;
+        this.centavoRun = centavoRun;
+
+        Map<String, PayrollResult> centavoResults = new HashMap<>();
+        for (PayrollResult result : centavoRun.getResults()) {
+            centavoResults.put(result.employee.getEmployeeId(), result);
+        }
+
+        for (PayrollResult doubleResult : doubleRun.getResults()) {
+            PayrollResult centavoResult = centavoResults.remove(doubleResult.employee.getEmployeeId());
+            if (centavoResult == null) {
+                unmatchedCount++;
+                continue;
+            }
+            compare(doubleResult, centavoResult);
+        }
+        unmatchedCount += centavoResults.size();
+    }
+
+    /**
+     * Run a pay period in both modes and compare the results
+     * The processor is left in the mode it was in before
+     *
+     * @param processor Processor to run
+     * @param payPeriod Pay period to run
+     * @param parallelism Number of threads for each run
+     * @return The comparison
+     */
+    public static CalculationComparison run(PayrollProcessor processor, PayPeriod payPeriod, int parallelism) {
+        CalculationMode previousMode = processor.getCalculationMode();
+        try {
+            processor.setCalculationMode(CalculationMode.DOUBLE);
+            PayrollRun doubleRun = processor.runPayroll(payPeriod, parallelism);
+            processor.setCalculationMode(CalculationMode.CENTAVOS);
+            PayrollRun centavoRun = processor.runPayroll(payPeriod, parallelism);
+            return new CalculationComparison(doubleRun, centavoRun);
+        } finally {
+            processor.setCalculationMode(previousMode);
+        }
+    }
+
+    /**
+     * Compare one employee's results field by field
+     */
+    private void compare(PayrollResult doubleResult, PayrollResult centavoResult) {
+        comparedCount++;
+        boolean differs = false;
+
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            long difference = Centavos.fromPesos(amount(centavoResult, field))
+                    - Centavos.fromPesos(amount(doubleResult, field));
+            if (difference == 0) {
+                continue;
+            }
+            differs = true;
+            differingCounts[field]++;
+            maxDifferences[field] = Math.max(maxDifferences[field], Math.abs(difference));
+            netDifferences[field] += difference;
+        }
+
+        if (differs) {
+            differingEmployeeCount++;
+        }
+
+        long netPayDifference = Centavos.fromPesos(centavoResult.netPay) - Centavos.fromPesos(doubleResult.netPay);
+        if (netPayDifference != 0 && netPayDifferences.size() < MAX_LISTED_DIFFERENCES) {
+            netPayDifferences.add(String.format("%-8s %-30s %14s %14s %10s",
+                    doubleResult.employee.getEmployeeId(), doubleResult.employee.getFullName(),
+                    Centavos.format(Centavos.fromPesos(doubleResult.netPay)),
+                    Centavos.format(Centavos.fromPesos(centavoResult.netPay)),
+                    Centavos.format(netPayDifference)));
+        }
+    }
+
+    /**
+     * Get one compared amount of a result in pesos
+     */
+    private static double amount(PayrollResult result, int field) {
+        switch (field) {
+            case 0: return result.grossPay;
+            case 1: return result.netPay;
+            case 2: return result.basePay;
+            case 3: return result.overtimePay;
+            case 4: return result.holidayPay;
+            case 5: return result.lateDeduction;
+            case 6: return result.undertimeDeduction;
+            case 7: return result.absenceDeduction;
+            case 8: return result.deductions.sssDeduction;
+            case 9: return result.deductions.philhealthDeduction;
+            case 10: return result.deductions.pagibigDeduction;
+            case 11: return result.deductions.withholdingTax;
+            default: return result.deductions.totalDeductions;
+        }
+    }
+
+    // Getters
+    public int getComparedCount() { return comparedCount; }
+    public int getDifferingEmployeeCount() { return differingEmployeeCount; }
+    public int getUnmatchedCount() { return unmatchedCount; }
+    public boolean hasDifferences() { return differingEmployeeCount > 0 || unmatchedCount > 0; }
+
+    /**
+     * Print the comparison report
+     *
+     * @param out Stream to print to
+     */
+    public void printReport(PrintStream out) {
+        out.println("=== CALCULATION COMPARISON: DOUBLE vs CENTAVOS ===");
+        out.println(doubleRun.getPayPeriod());
+        out.println("Employees compared: " + comparedCount);
+        out.println("Employees with any difference: " + differingEmployeeCount);
+        if (unmatchedCount > 0) {
+            out.println("Employees paid in only one run: " + unmatchedCount);
+        }
+
+        out.println();
+        out.printf("%-20s %10s %12s %14s%n", "Amount", "Differing", "Max Diff", "Net Diff");
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            out.printf("%-20s %10d %12s %14s%n", FIELD_NAMES[field], differingCounts[field],
+                    Centavos.format(maxDifferences[field]), Centavos.format(netDifferences[field]));
+        }
+
+        out.println();
+        out.println("=== COMPANY TOTALS ===");
+        out.printf("%-20s %20s %20s %20s%n", "Total", "Double (unrounded)", "Double (rounded)", "Centavos");
+        printTotal(out, "Gross Pay", doubleRun.getTotalGrossPay(), doubleRun.getTotalGrossCentavos(),
+                centavoRun.getTotalGrossCentavos());
+        printTotal(out, "Deductions", doubleRun.getTotalDeductions(), doubleRun.getTotalDeductionsCentavos(),
+                centavoRun.getTotalDeductionsCentavos());
+        printTotal(out, "Net Pay", doubleRun.getTotalNetPay(), doubleRun.getTotalNetCentavos(),
+                centavoRun.getTotalNetCentavos());
+
+        if (!netPayDifferences.isEmpty()) {
+            out.println();
+            out.println("=== NET PAY DIFFERENCES (first " + MAX_LISTED_DIFFERENCES + ") ===");
+            out.printf("%-8s %-30s %14s %14s %10s%n", "ID", "Name", "Double", "Centavos", "Diff");
+            for (String line : netPayDifferences) {
+                out.println(line);
+            }
+        }
+    }
+
+    /**
+     * Print one line of the totals table
+     */
+    private static void printTotal(PrintStream out, String name, double doubleTotal, long roundedTotal,
+                                   long centavoTotal) {
+        out.printf("%-20s %20s %20s %20s%n", name, String.format("%,.6f", doubleTotal),
+                Centavos.format(roundedTotal), Centavos.format(centavoTotal));
+    }
+
+    /**
+     * Command-line entry point
+     *
+     * @param args Year, month, pay period type (1 = mid-month, 2 = end-month),
+     *             then optional employee file, attendance file and thread count
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: CalculationComparison <year> <month> <1|2>"
+                    + " [employeeFile] [attendanceFile] [threads]");
+            return;
+        }
+
+        int year;
+        int month;
+        int payrollType;
+        int parallelism;
+        try {
+            year = Integer.parseInt(args[0].trim());
+            month = Integer.parseInt(args[1].trim());
+            payrollType = Integer.parseInt(args[2].trim());
+            parallelism = args.length > 5 ? Integer.parseInt(args[5].trim()) : 1;
+        } catch (NumberFormatException e) {
+            System.out.println("Year, month, pay period type and threads must be numbers");
+            return;
+        }
+        if (month < 1 || month > 12 || (payrollType != PayrollDateManager.MID_MONTH
+                && payrollType != PayrollDateManager.END_MONTH) || parallelism < 1) {
+            System.out.println("Invalid month, pay period type or thread count");
+            return;
+        }
+
+        String employeeFilePath = args.length > 3 ? args[3] : DEFAULT_EMPLOYEE_FILE;
+        String attendanceFilePath = args.length > 4 ? args[4] : DEFAULT_ATTENDANCE_FILE;
+
+        PayrollProcessor processor = new PayrollProcessor(employeeFilePath, attendanceFilePath);
+        run(processor, PayPeriod.forPayroll(year, month, payrollType), parallelism).printReport(System.out);
+    }
+}
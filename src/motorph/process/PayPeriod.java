@@ -70,6 +70,20 @@ public class PayPeriod {
         return new PayPeriod(startDate, endDate, payDate, periodType);
     }
 
+    /**
+     * Create the pay period used by PayrollDateManager for a payroll month
+     * @param year The year
+     * @param month The month (1-12)
+     * @param payrollType PayrollDateManager.MID_MONTH or END_MONTH
+     * @return PayPeriod with the payroll date and cutoff range
+     */
+    public static PayPeriod forPayroll(int year, int month, int payrollType) {
+        LocalDate payDate = PayrollDateManager.getPayrollDate(year, month, payrollType);
+        LocalDate[] cutoffDates = PayrollDateManager.getCutoffDateRange(payDate, payrollType);
+        int periodType = payrollType == PayrollDateManager.MID_MONTH ? FIRST_HALF : SECOND_HALF;
+        return new PayPeriod(cutoffDates[0], cutoffDates[1], payDate, periodType);
+    }
+
     /**
      * Get all weekly date ranges within this pay period
      * @return List of date range pairs [startDate, endDate]
@@ -0,0 +1,177 @@
+// File: motorph/process/PayrollCalendar.java
+package motorph.process;
+
+import motorph.holidays.HolidayManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Pay dates, cutoff ranges and day counts for a span of years, worked out once
+ * Every (year, month, payroll type) in the span is a slot in a set of
+ * arrays, and weekday and holiday counts are kept as running totals by day,
+ * so every lookup is a constant-time array read. The calendar never changes
+ * after it is built and can be shared by any number of threads.
+ */
+public final class PayrollCalendar {
+    private final int firstYear;
+    private final int lastYear;
+
+    // By period slot: ((year - firstYear) * 12 + month - 1) * 2 + (0 mid-month, 1 end-month)
+    private final LocalDate[] payDates;
+    private final LocalDate[] cutoffStartDates;
+    private final LocalDate[] cutoffEndDates;
+    private final int[] workingDays;
+    private final int[] holidayCounts;
+
+    // Running totals by day: weekdays and holidays on the days before firstDay + i
+    private final long firstDay;
+    private final int[] weekdaysBefore;
+    private final int[] holidaysBefore;
+
+    /**
+     * Build the calendar for a span of years
+     *
+     * @param firstYear First payroll year covered
+     * @param lastYear Last payroll year covered
+     * @param holidayManager Holidays counted in each cutoff
+     */
+    public PayrollCalendar(int firstYear, int lastYear, HolidayManager holidayManager) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("Last year cannot be before first year");
+        }
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+
+        // The first mid-month cutoff starts in December of the year before
+        LocalDate start = PayrollDateManager.computeCutoffDateRange(
+                LocalDate.of(firstYear, 1, 1), PayrollDateManager.MID_MONTH)[0];
+        LocalDate end = LocalDate.of(lastYear, 12, 31);
+        this.firstDay = start.toEpochDay();
+
+        int dayCount = (int) (end.toEpochDay() - firstDay + 1);
+        this.weekdaysBefore = new int[dayCount + 1];
+        this.holidaysBefore = new int[dayCount + 1];
+        LocalDate date = start;
+        for (int day = 0; day < dayCount; day++) {
+            boolean isWeekday = date.getDayOfWeek() != DayOfWeek.SATURDAY
+                    && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+            weekdaysBefore[day + 1] = weekdaysBefore[day] + (isWeekday ? 1 : 0);
+            holidaysBefore[day + 1] = holidaysBefore[day] + (holidayManager.isHoliday(date) ? 1 : 0);
+            date = date.plusDays(1);
+        }
+
+        int periodCount = (lastYear - firstYear + 1) * 24;
+        this.payDates = new LocalDate[periodCount];
+        this.cutoffStartDates = new LocalDate[periodCount];
+        this.cutoffEndDates = new LocalDate[periodCount];
+        this.workingDays = new int[periodCount];
+        this.holidayCounts = new int[periodCount];
+
+        for (int year = firstYear; year <= lastYear; year++) {
+            for (int month = 1; month <= 12; month++) {
+                for (int payrollType = PayrollDateManager.MID_MONTH; payrollType <= PayrollDateManager.END_MONTH;
+                     payrollType++) {
+                    int slot = slot(year, month, payrollType);
+                    LocalDate payDate = PayrollDateManager.computePayrollDate(year, month, payrollType);
+                    LocalDate[] cutoff = PayrollDateManager.computeCutoffDateRange(payDate, payrollType);
+                    payDates[slot] = payDate;
+                    cutoffStartDates[slot] = cutoff[0];
+                    cutoffEndDates[slot] = cutoff[1];
+                    workingDays[slot] = countBetween(weekdaysBefore, cutoff[0], cutoff[1]);
+                    holidayCounts[slot] = countBetween(holidaysBefore, cutoff[0], cutoff[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a payroll month is in the calendar
+     *
+     * @param year The year
+     * @param month The month (1-12)
+     * @return true if the month can be looked up
+     */
+    public boolean contains(int year, int month) {
+        return year >= firstYear && year <= lastYear && month >= 1 && month <= 12;
+    }
+
+    /**
+     * Check if a date range lies inside the days the calendar counts
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return true if both dates are covered
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        long last = firstDay + weekdaysBefore.length - 2;
+        return startDate.toEpochDay() >= firstDay && endDate.toEpochDay() <= last;
+    }
+
+    // Period lookups; the month must be in the calendar
+    public LocalDate getPayrollDate(int year, int month, int payrollType) {
+        return payDates[slot(year, month, payrollType)];
+    }
+
+    public LocalDate getCutoffStartDate(int year, int month, int payrollType) {
+        return cutoffStartDates[slot(year, month, payrollType)];
+    }
+
+    public LocalDate getCutoffEndDate(int year, int month, int payrollType) {
+        return cutoffEndDates[slot(year, month, payrollType)];
+    }
+
+    public int getWorkingDays(int year, int month, int payrollType) {
+        return workingDays[slot(year, month, payrollType)];
+    }
+
+    public int getHolidayCount(int year, int month, int payrollType) {
+        return holidayCounts[slot(year, month, payrollType)];
+    }
+
+    // Getters
+    public int getFirstYear() { return firstYear; }
+    public int getLastYear() { return lastYear; }
+
+    /**
+     * Count the weekdays in a date range the calendar covers
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Number of weekdays, 0 if the end is before the start
+     */
+    public int getWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        return countBetween(weekdaysBefore, startDate, endDate);
+    }
+
+    /**
+     * Count the holidays in a date range the calendar covers
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Number of holidays, 0 if the end is before the start
+     */
+    public int getHolidaysBetween(LocalDate startDate, LocalDate endDate) {
+        return countBetween(holidaysBefore, startDate, endDate);
+    }
+
+    /**
+     * Read a count for a date range off running totals
+     */
+    private int countBetween(int[] countsBefore, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        int from = (int) (startDate.toEpochDay() - firstDay);
+        int to = (int) (endDate.toEpochDay() - firstDay + 1);
+        return countsBefore[to] - countsBefore[from];
+    }
+
+    /**
+     * Get the array slot of a period
+     * Like PayrollDateManager, any type other than MID_MONTH is end-month
+     */
+    private int slot(int year, int month, int payrollType) {
+        return ((year - firstYear) * 12 + month - 1) * 2 + (payrollType == PayrollDateManager.MID_MONTH ? 0 : 1);
+    }
+}
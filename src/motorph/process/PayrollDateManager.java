@@ -1,6 +1,9 @@
 // File: motorph/process/PayrollDateManager.java
 package motorph.process;
 
+import motorph.holidays.CutoffCalendar;
+import motorph.holidays.HolidayManager;
+
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
@@ -10,6 +13,8 @@ import java.time.format.DateTimeFormatter;
 /**
  * Manages payroll dates and cutoff periods
  * Handles all date-related calculations for payroll processing
+ * Lookups are answered from a shared PayrollCalendar when the dates fall in
+ * its span of years, and worked out directly otherwise
  */
 public class PayrollDateManager {
     // Date formatter for display
@@ -26,6 +31,84 @@ public class PayrollDateManager {
     private static final int END_MONTH_CUTOFF_START_DAY = 13;
     private static final int END_MONTH_CUTOFF_END_DAY = 26;
 
+    // Years either side of the current year in the default calendar
+    private static final int DEFAULT_CALENDAR_YEARS = 5;
+
+    // Shared precomputed calendar, built on first use
+    private static volatile PayrollCalendar calendar;
+
+    // The application's holidays, counted by the shared calendar
+    private static volatile HolidayManager holidayManager;
+
+    /**
+     * Get the shared payroll calendar
+     * The default one covers the current year and five years either side,
+     * with the holidays of getHolidayManager
+     *
+     * @return The calendar
+     */
+    public static PayrollCalendar getCalendar() {
+        PayrollCalendar current = calendar;
+        if (current == null) {
+            synchronized (PayrollDateManager.class) {
+                current = calendar;
+                if (current == null) {
+                    int year = LocalDate.now().getYear();
+                    current = new PayrollCalendar(year - DEFAULT_CALENDAR_YEARS, year + DEFAULT_CALENDAR_YEARS,
+                            getHolidayManager());
+                    calendar = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replace the shared payroll calendar, for example to cover other years
+     *
+     * @param payrollCalendar The new calendar
+     */
+    public static void setCalendar(PayrollCalendar payrollCalendar) {
+        if (payrollCalendar == null) {
+            throw new IllegalArgumentException("Calendar cannot be null");
+        }
+        calendar = payrollCalendar;
+    }
+
+    /**
+     * Get the application's holidays, counted by the shared calendar
+     * PayrollProcessor uses these unless it is given its own HolidayManager
+     *
+     * @return The holiday manager
+     */
+    public static HolidayManager getHolidayManager() {
+        HolidayManager current = holidayManager;
+        if (current == null) {
+            synchronized (PayrollDateManager.class) {
+                current = holidayManager;
+                if (current == null) {
+                    current = new HolidayManager();
+                    holidayManager = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Rebuild the shared calendar after a holiday was added to getHolidayManager
+     * PayrollProcessor.addHoliday calls this for the application's holidays.
+     * The calendar keeps its span of years; if none was built yet, nothing is done
+     */
+    public static void holidaysChanged() {
+        synchronized (PayrollDateManager.class) {
+            PayrollCalendar current = calendar;
+            if (current != null) {
+                calendar = new PayrollCalendar(current.getFirstYear(), current.getLastYear(), getHolidayManager());
+            }
+        }
+    }
+
     /**
      * Get the payroll date for a given month, year, and type
      *
@@ -35,6 +118,17 @@ public class PayrollDateManager {
      * @return The payroll date
      */
     public static LocalDate getPayrollDate(int year, int month, int payrollType) {
+        PayrollCalendar payrollCalendar = getCalendar();
+        if (payrollCalendar.contains(year, month)) {
+            return payrollCalendar.getPayrollDate(year, month, payrollType);
+        }
+        return computePayrollDate(year, month, payrollType);
+    }
+
+    /**
+     * Work out the payroll date without the calendar
+     */
+    static LocalDate computePayrollDate(int year, int month, int payrollType) {
         if (payrollType == MID_MONTH) {
             // Mid-month is the 15th
             LocalDate midMonth = LocalDate.of(year, month, MID_MONTH_PAY_DAY);
@@ -58,6 +152,23 @@ public class PayrollDateManager {
      * @return Array with start and end dates of the cutoff period
      */
     public static LocalDate[] getCutoffDateRange(LocalDate payrollDate, int payrollType) {
+        // The cutoff only depends on the month of the payroll date
+        int year = payrollDate.getYear();
+        int month = payrollDate.getMonthValue();
+        PayrollCalendar payrollCalendar = getCalendar();
+        if (payrollCalendar.contains(year, month)) {
+            return new LocalDate[] {
+                    payrollCalendar.getCutoffStartDate(year, month, payrollType),
+                    payrollCalendar.getCutoffEndDate(year, month, payrollType)
+            };
+        }
+        return computeCutoffDateRange(payrollDate, payrollType);
+    }
+
+    /**
+     * Work out the cutoff date range without the calendar
+     */
+    static LocalDate[] computeCutoffDateRange(LocalDate payrollDate, int payrollType) {
         LocalDate startDate, endDate;
 
         if (payrollType == MID_MONTH) {
@@ -108,6 +219,11 @@ public class PayrollDateManager {
      * @return Number of working days
      */
     public static int getWorkingDaysInPeriod(LocalDate startDate, LocalDate endDate) {
+        PayrollCalendar payrollCalendar = getCalendar();
+        if (payrollCalendar.covers(startDate, endDate)) {
+            return payrollCalendar.getWorkingDaysBetween(startDate, endDate);
+        }
+
         int workingDays = 0;
         LocalDate currentDate = startDate;
 
@@ -123,6 +239,23 @@ public class PayrollDateManager {
         return workingDays;
     }
 
+    /**
+     * Get the number of holidays in a payroll cutoff
+     *
+     * @param year The year
+     * @param month The month (1-12)
+     * @param payrollType Either MID_MONTH or END_MONTH
+     * @return Number of regular and special holidays in the cutoff
+     */
+    public static int getHolidayCount(int year, int month, int payrollType) {
+        PayrollCalendar payrollCalendar = getCalendar();
+        if (payrollCalendar.contains(year, month)) {
+            return payrollCalendar.getHolidayCount(year, month, payrollType);
+        }
+        LocalDate[] cutoff = computeCutoffDateRange(computePayrollDate(year, month, payrollType), payrollType);
+        return new CutoffCalendar(getHolidayManager(), cutoff[0], cutoff[1]).getHolidayCount();
+    }
+
     /**
      * Calculate the number of working days in a year
      * (Excluding weekends and estimated holidays)
@@ -0,0 +1,277 @@
+// File: motorph/process/PayrollDependencies.java
+package motorph.process;
+
+import motorph.process.PayrollProcessor.PayrollResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records which inputs each calculated payroll result depends on
+ * A result depends on the employee record, the employee's attendance days
+ * in the cutoff and the holidays in the cutoff. When one of those changes,
+ * only the results that used it are marked stale, so a correction can be
+ * applied without rerunning the whole payroll. Results the result store
+ * drops are forgotten, so tracking stays as bounded as the store, and one
+ * Cutoff is shared by every result of a period.
+ */
+final class PayrollDependencies {
+    // Cutoffs calculated for each employee
+    private final Map<String, Set<Cutoff>> cutoffsByEmployee = new HashMap<>();
+
+    // Employees calculated for each cutoff, used when a holiday changes
+    private final Map<Cutoff, Set<String>> employeesByCutoff = new HashMap<>();
+
+    // The one Cutoff instance of each period in use
+    private final Map<Cutoff, Cutoff> cutoffInstances = new HashMap<>();
+
+    // Results waiting to be recalculated
+    private final Map<String, Set<Cutoff>> stale = new TreeMap<>();
+    private int staleCount;
+
+    /**
+     * Record that a result was calculated
+     *
+     * @param result The new result
+     */
+    synchronized void recordResult(PayrollResult result) {
+        Cutoff cutoff = cutoffOf(result);
+        String employeeId = result.employee.getEmployeeId();
+
+        Set<String> employees = employeesByCutoff.get(cutoff);
+        if (employees == null) {
+            cutoffInstances.put(cutoff, cutoff);
+            employees = new LinkedHashSet<>();
+            employeesByCutoff.put(cutoff, employees);
+        }
+        employees.add(employeeId);
+
+        Set<Cutoff> cutoffs = cutoffsByEmployee.get(employeeId);
+        if (cutoffs == null) {
+            cutoffs = new LinkedHashSet<>();
+            cutoffsByEmployee.put(employeeId, cutoffs);
+        }
+        cutoffs.add(cutoff);
+
+        // A fresh result is no longer stale
+        Set<Cutoff> staleCutoffs = stale.get(employeeId);
+        if (staleCutoffs != null && staleCutoffs.remove(cutoff)) {
+            staleCount--;
+            if (staleCutoffs.isEmpty()) {
+                stale.remove(employeeId);
+            }
+        }
+    }
+
+    /**
+     * Forget a result the result store dropped
+     * A dropped result can't be looked up any more, so it is not recalculated
+     *
+     * @param result The dropped result
+     */
+    synchronized void resultDropped(PayrollResult result) {
+        Cutoff cutoff = cutoffOf(result);
+        String employeeId = result.employee.getEmployeeId();
+
+        Set<Cutoff> cutoffs = cutoffsByEmployee.get(employeeId);
+        if (cutoffs != null && cutoffs.remove(cutoff) && cutoffs.isEmpty()) {
+            cutoffsByEmployee.remove(employeeId);
+        }
+        removeEmployee(cutoff, employeeId);
+
+        Set<Cutoff> staleCutoffs = stale.get(employeeId);
+        if (staleCutoffs != null && staleCutoffs.remove(cutoff)) {
+            staleCount--;
+            if (staleCutoffs.isEmpty()) {
+                stale.remove(employeeId);
+            }
+        }
+    }
+
+    /**
+     * Mark every result of an employee stale
+     *
+     * @param employeeId Employee whose record changed
+     * @return Number of results newly marked stale
+     */
+    synchronized int employeeChanged(String employeeId) {
+        Set<Cutoff> cutoffs = cutoffsByEmployee.get(employeeId);
+        if (cutoffs == null) {
+            return 0;
+        }
+        int marked = 0;
+        for (Cutoff cutoff : cutoffs) {
+            marked += markStale(employeeId, cutoff);
+        }
+        return marked;
+    }
+
+    /**
+     * Forget a deleted employee
+     *
+     * @param employeeId ID of the deleted employee
+     */
+    synchronized void employeeRemoved(String employeeId) {
+        Set<Cutoff> cutoffs = cutoffsByEmployee.remove(employeeId);
+        if (cutoffs != null) {
+            for (Cutoff cutoff : cutoffs) {
+                removeEmployee(cutoff, employeeId);
+            }
+        }
+        Set<Cutoff> staleCutoffs = stale.remove(employeeId);
+        if (staleCutoffs != null) {
+            staleCount -= staleCutoffs.size();
+        }
+    }
+
+    /**
+     * Mark stale the results whose cutoff contains any of the changed dates
+     *
+     * @param changedDates Employee ID -> dates whose attendance changed
+     * @return Number of results newly marked stale
+     */
+    synchronized int attendanceChanged(Map<String, ? extends Collection<LocalDate>> changedDates) {
+        int marked = 0;
+        for (Map.Entry<String, ? extends Collection<LocalDate>> entry : changedDates.entrySet()) {
+            Set<Cutoff> cutoffs = cutoffsByEmployee.get(entry.getKey());
+            if (cutoffs == null) {
+                continue;
+            }
+            for (Cutoff cutoff : cutoffs) {
+                for (LocalDate date : entry.getValue()) {
+                    if (cutoff.contains(date)) {
+                        marked += markStale(entry.getKey(), cutoff);
+                        break;
+                    }
+                }
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Mark stale every result whose cutoff contains a changed holiday
+     *
+     * @param date Date of the added or changed holiday
+     * @return Number of results newly marked stale
+     */
+    synchronized int holidayChanged(LocalDate date) {
+        int marked = 0;
+        for (Map.Entry<Cutoff, Set<String>> entry : employeesByCutoff.entrySet()) {
+            if (entry.getKey().contains(date)) {
+                for (String employeeId : entry.getValue()) {
+                    marked += markStale(employeeId, entry.getKey());
+                }
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Take the stale results, leaving none marked
+     *
+     * @return Employee ID -> stale cutoffs, in employee ID order
+     */
+    synchronized Map<String, List<Cutoff>> takeStale() {
+        Map<String, List<Cutoff>> taken = new TreeMap<>();
+        for (Map.Entry<String, Set<Cutoff>> entry : stale.entrySet()) {
+            taken.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        stale.clear();
+        staleCount = 0;
+        return taken;
+    }
+
+    /**
+     * Get the number of results waiting to be recalculated
+     */
+    synchronized int getStaleCount() {
+        return staleCount;
+    }
+
+    /**
+     * Get the shared Cutoff of a result's period, or a new one if none is in use
+     */
+    private Cutoff cutoffOf(PayrollResult result) {
+        Cutoff cutoff = new Cutoff(result.year, result.month, result.payPeriodType, result.startDate, result.endDate);
+        Cutoff existing = cutoffInstances.get(cutoff);
+        return existing != null ? existing : cutoff;
+    }
+
+    /**
+     * Remove an employee from a cutoff, dropping the cutoff once nobody is left
+     */
+    private void removeEmployee(Cutoff cutoff, String employeeId) {
+        Set<String> employees = employeesByCutoff.get(cutoff);
+        if (employees != null && employees.remove(employeeId) && employees.isEmpty()) {
+            employeesByCutoff.remove(cutoff);
+            cutoffInstances.remove(cutoff);
+        }
+    }
+
+    /**
+     * Mark one result stale
+     *
+     * @return 1 if it was not already stale, otherwise 0
+     */
+    private int markStale(String employeeId, Cutoff cutoff) {
+        Set<Cutoff> cutoffs = stale.get(employeeId);
+        if (cutoffs == null) {
+            cutoffs = new LinkedHashSet<>();
+            stale.put(employeeId, cutoffs);
+        }
+        if (!cutoffs.add(cutoff)) {
+            return 0;
+        }
+        staleCount++;
+        return 1;
+    }
+
+    /**
+     * Payroll period and cutoff dates a result was calculated for
+     */
+    static final class Cutoff {
+        final int year;
+        final int month;
+        final int payPeriodType;
+        final LocalDate startDate;
+        final LocalDate endDate;
+
+        Cutoff(int year, int month, int payPeriodType, LocalDate startDate, LocalDate endDate) {
+            this.year = year;
+            this.month = month;
+            this.payPeriodType = payPeriodType;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        boolean contains(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Cutoff)) {
+                return false;
+            }
+            Cutoff cutoff = (Cutoff) other;
+            return year == cutoff.year && month == cutoff.month && payPeriodType == cutoff.payPeriodType
+                    && startDate.equals(cutoff.startDate) && endDate.equals(cutoff.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return (((year * 13 + month) * 3 + payPeriodType) * 31 + startDate.hashCode()) * 31 + endDate.hashCode();
+        }
+    }
+}
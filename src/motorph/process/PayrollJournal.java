@@ -0,0 +1,493 @@
+// File: motorph/process/PayrollJournal.java
+package motorph.process;
+
+import motorph.employee.Employee;
+import motorph.process.PayrollProcessor.CalculationMode;
+import motorph.process.PayrollProcessor.PayrollResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of one pay period's run, kept on disk as the run goes
+ * Every finished employee is appended as a result or error record. Records
+ * are buffered and written and forced to disk every sync interval, so a run
+ * that dies loses at most that many employees. When the journal is opened
+ * again its records are read back and a torn record at the end is cut off;
+ * runPayroll then skips the employees that already have a result. A run that
+ * finishes ends with a completion record, and the file stays behind as the
+ * run's audit trail. The header holds a digest of the run's inputs; a journal
+ * written from other inputs is never resumed but moved aside, still readable,
+ * and a new one is started. Append methods may be called from several threads.
+ */
+public class PayrollJournal implements Closeable {
+    // Default number of records written per forced sync
+    public static final int DEFAULT_SYNC_INTERVAL = 256;
+
+    private static final String JOURNAL_FILE_SUFFIX = ".journal";
+
+    // File framing
+    private static final int MAGIC = 0x4D50524A; // "MPRJ"
+    private static final int VERSION = 2;
+
+    // Bytes in the digest of the run's inputs
+    public static final int INPUTS_DIGEST_BYTES = 32;
+
+    // Record types; each record is [length][type + body][CRC32 of type + body]
+    private static final byte RESULT_RECORD = 1;
+    private static final byte ERROR_RECORD = 2;
+    private static final byte COMPLETE_RECORD = 3;
+
+    // Largest record body accepted when reading back
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int syncInterval;
+
+    // Journal of other inputs moved aside when this one was opened, or null
+    private final Path archivedFile;
+
+    // Latest result and error of each employee, and every record in file order
+    private final Map<String, PayrollResult> results = new HashMap<>();
+    private final Map<String, PayrollRun.PayrollError> errors = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingCount;
+    private int recoveredCount;
+    private long truncatedBytes;
+    private boolean complete;
+    private boolean closed;
+
+    private PayrollJournal(Path file, FileChannel channel, int syncInterval, Path archivedFile) {
+        this.file = file;
+        this.channel = channel;
+        this.syncInterval = syncInterval;
+        this.archivedFile = archivedFile;
+    }
+
+    /**
+     * Open the journal of a pay period in a directory, creating it if needed
+     *
+     * @param directory Directory journals are kept in
+     * @param payPeriod Pay period of the run
+     * @param mode Calculation mode of the run
+     * @param inputsDigest Digest of everything the run's results are calculated from
+     * @param employeeLookup Finds the employee of a journaled result
+     * @return The open journal
+     * @throws IOException If the file cannot be read or written, or belongs to another run
+     */
+    public static PayrollJournal open(String directory, PayPeriod payPeriod, CalculationMode mode,
+                                      byte[] inputsDigest, Function<String, Employee> employeeLookup)
+            throws IOException {
+        return open(directory, payPeriod, mode, inputsDigest, employeeLookup, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Open the journal of a pay period with a custom sync interval
+     *
+     * @param directory Directory journals are kept in
+     * @param payPeriod Pay period of the run
+     * @param mode Calculation mode of the run
+     * @param inputsDigest Digest of everything the run's results are calculated from
+     * @param employeeLookup Finds the employee of a journaled result
+     * @param syncInterval Records written per forced sync
+     * @return The open journal
+     * @throws IOException If the file cannot be read or written, or belongs to another run
+     */
+    public static PayrollJournal open(String directory, PayPeriod payPeriod, CalculationMode mode,
+                                      byte[] inputsDigest, Function<String, Employee> employeeLookup,
+                                      int syncInterval) throws IOException {
+        if (directory == null || directory.trim().isEmpty()) {
+            throw new IllegalArgumentException("Journal directory cannot be empty");
+        }
+        if (syncInterval < 1) {
+            throw new IllegalArgumentException("Sync interval must be at least 1");
+        }
+        if (inputsDigest == null || inputsDigest.length != INPUTS_DIGEST_BYTES) {
+            throw new IllegalArgumentException("Inputs digest must be " + INPUTS_DIGEST_BYTES + " bytes");
+        }
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(fileName(payPeriod));
+        byte[] header = header(payPeriod, mode, inputsDigest);
+        Path archivedFile = archiveIfStale(file, header);
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        PayrollJournal journal = new PayrollJournal(file, channel, syncInterval, archivedFile);
+        try {
+            if (channel.size() < header.length) {
+                // New, or the header itself was torn before its first sync
+                channel.truncate(0);
+                journal.write(header);
+                channel.force(true);
+            } else {
+                journal.recover(header, employeeLookup);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Get the journal file name of a pay period, for example "2024-06-30-2.journal"
+     */
+    static String fileName(PayPeriod payPeriod) {
+        return payPeriod.getPayDate() + "-" + payPeriod.getPeriodType() + JOURNAL_FILE_SUFFIX;
+    }
+
+    /**
+     * Build the file header identifying the run
+     */
+    private static byte[] header(PayPeriod payPeriod, CalculationMode mode, byte[] inputsDigest) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 4 + 8 * 3 + INPUTS_DIGEST_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(payPeriod.getStartDate().toEpochDay());
+        buffer.putLong(payPeriod.getEndDate().toEpochDay());
+        buffer.putLong(payPeriod.getPayDate().toEpochDay());
+        buffer.putInt(payPeriod.getPeriodType());
+        buffer.putInt(mode.ordinal());
+        buffer.put(inputsDigest);
+        return buffer.array();
+    }
+
+    /**
+     * Move a journal of the same run but other inputs out of the way
+     * Such a journal holds results from before a correction, so it must not
+     * be resumed. It is renamed to the first free "name.N.journal" and kept
+     * as an audit trail.
+     *
+     * @return The archived file, or null if the journal can be resumed or there is none
+     */
+    private static Path archiveIfStale(Path file, byte[] header) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < header.length) {
+            return null;
+        }
+        byte[] existing = new byte[header.length];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(existing);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole header is in the buffer
+            }
+        }
+
+        // Only the inputs digest at the end of the header may differ
+        int runBytes = header.length - INPUTS_DIGEST_BYTES;
+        if (!Arrays.equals(existing, 0, runBytes, header, 0, runBytes)
+                || Arrays.equals(existing, runBytes, header.length, header, runBytes, header.length)) {
+            return null;
+        }
+
+        String name = file.getFileName().toString();
+        String base = name.substring(0, name.length() - JOURNAL_FILE_SUFFIX.length());
+        for (int n = 1; ; n++) {
+            Path archived = file.resolveSibling(base + "." + n + JOURNAL_FILE_SUFFIX);
+            if (!Files.exists(archived)) {
+                return Files.move(file, archived);
+            }
+        }
+    }
+
+    /**
+     * Read back an existing journal and cut off anything after the last whole record
+     */
+    private void recover(byte[] header, Function<String, Employee> employeeLookup) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal is too large: " + file);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // Keep reading until the whole file is in the buffer
+        }
+        buffer.flip();
+
+        byte[] existing = new byte[header.length];
+        buffer.get(existing);
+        if (!Arrays.equals(existing, header)) {
+            throw new IOException("Journal belongs to a different pay period or calculation mode: " + file);
+        }
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < 1 || length > MAX_RECORD_LENGTH || buffer.remaining() < length + 4) {
+                buffer.position(start);
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != buffer.getInt(buffer.position() + length)) {
+                buffer.position(start);
+                break;
+            }
+
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length + 4);
+            readRecord(record, employeeLookup);
+            recoveredCount++;
+        }
+
+        // Whatever follows the last good record was torn by a crash
+        truncatedBytes = size - buffer.position();
+        if (truncatedBytes > 0) {
+            channel.truncate(buffer.position());
+            channel.force(true);
+        }
+        channel.position(buffer.position());
+    }
+
+    /**
+     * Apply one record read back from the file
+     */
+    private void readRecord(ByteBuffer record, Function<String, Employee> employeeLookup) {
+        byte type = record.get();
+        if (type == COMPLETE_RECORD) {
+            complete = true;
+            return;
+        }
+
+        String employeeId = getString(record);
+        if (type == RESULT_RECORD) {
+            Employee employee = employeeLookup.apply(employeeId);
+            if (employee == null) {
+                // The employee has since been removed; the record stays in the file only
+                return;
+            }
+            PayrollResult result = PayrollResultStore.getResult(record, employee);
+            results.put(employeeId, result);
+            errors.remove(employeeId);
+            entries.add(new Entry(result, null));
+        } else if (type == ERROR_RECORD) {
+            PayrollRun.PayrollError error = new PayrollRun.PayrollError(employeeId, getString(record),
+                    getString(record));
+            errors.put(employeeId, error);
+            entries.add(new Entry(null, error));
+        }
+    }
+
+    /**
+     * Append an employee's result
+     *
+     * @param result Payroll result
+     * @throws IOException If a sync was due and failed
+     */
+    public synchronized void appendResult(PayrollResult result) throws IOException {
+        byte[] id = result.employee.getEmployeeId().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 + id.length + PayrollResultStore.RESULT_SIZE);
+        body.put(RESULT_RECORD);
+        putString(body, id);
+        PayrollResultStore.putResult(body, result);
+        append(body.array());
+
+        results.put(result.employee.getEmployeeId(), result);
+        errors.remove(result.employee.getEmployeeId());
+        entries.add(new Entry(result, null));
+    }
+
+    /**
+     * Append an employee that could not be paid
+     * Errors are kept for the audit trail but do not count as finished, so a
+     * resumed run tries the employee again
+     *
+     * @param employee Employee
+     * @param message Why the employee could not be paid
+     * @throws IOException If a sync was due and failed
+     */
+    public synchronized void appendError(Employee employee, String message) throws IOException {
+        byte[] id = employee.getEmployeeId().getBytes(StandardCharsets.UTF_8);
+        byte[] name = employee.getFullName().getBytes(StandardCharsets.UTF_8);
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 * 3 + id.length + name.length + text.length);
+        body.put(ERROR_RECORD);
+        putString(body, id);
+        putString(body, name);
+        putString(body, text);
+        append(body.array());
+
+        PayrollRun.PayrollError error = new PayrollRun.PayrollError(employee.getEmployeeId(),
+                employee.getFullName(), message);
+        errors.put(employee.getEmployeeId(), error);
+        entries.add(new Entry(null, error));
+    }
+
+    /**
+     * Mark the run as finished and force everything to disk
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public synchronized void markComplete() throws IOException {
+        if (complete) {
+            sync();
+            return;
+        }
+        append(new byte[]{COMPLETE_RECORD});
+        complete = true;
+        sync();
+    }
+
+    /**
+     * Write and force every buffered record to disk
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed: " + file);
+        }
+        if (pendingCount == 0) {
+            return;
+        }
+        write(pending.toByteArray());
+        channel.force(false);
+        pending.reset();
+        pendingCount = 0;
+    }
+
+    /**
+     * Sync any buffered records and close the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Frame a record body, buffer it and sync if the interval is reached
+     */
+    private void append(byte[] body) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + body.length + 4);
+        frame.putInt(body.length);
+        frame.put(body);
+        frame.putInt((int) crc.getValue());
+        pending.write(frame.array(), 0, frame.capacity());
+
+        if (++pendingCount >= syncInterval) {
+            sync();
+        }
+    }
+
+    /**
+     * Write bytes at the current end of the file
+     */
+    private void write(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] utf8) {
+        buffer.putInt(utf8.length);
+        buffer.put(utf8);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getInt()];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the journaled result of an employee
+     *
+     * @param employeeId Employee ID
+     * @return Latest result, or null if the employee has not been paid in this run
+     */
+    public synchronized PayrollResult getResult(String employeeId) {
+        return results.get(employeeId);
+    }
+
+    /**
+     * Get the journaled error of an employee
+     *
+     * @param employeeId Employee ID
+     * @return Latest error, or null if the employee has none or was paid after it
+     */
+    public synchronized PayrollRun.PayrollError getError(String employeeId) {
+        return errors.get(employeeId);
+    }
+
+    /**
+     * Get every result and error of the run in the order it was journaled
+     *
+     * @return Copy of the audit trail
+     */
+    public synchronized List<Entry> getAuditTrail() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    // Getters
+    public Path getFile() { return file; }
+    public synchronized int getResultCount() { return results.size(); }
+    public synchronized int getErrorCount() { return errors.size(); }
+    public synchronized int getRecoveredCount() { return recoveredCount; }
+    public synchronized long getTruncatedBytes() { return truncatedBytes; }
+    public Path getArchivedFile() { return archivedFile; }
+    public synchronized boolean isComplete() { return complete; }
+
+    /**
+     * One journaled record: either a result or an error
+     */
+    public static class Entry {
+        public final PayrollResult result;
+        public final PayrollRun.PayrollError error;
+
+        Entry(PayrollResult result, PayrollRun.PayrollError error) {
+            this.result = result;
+            this.error = error;
+        }
+
+        public boolean isResult() {
+            return result != null;
+        }
+
+        @Override
+        public String toString() {
+            if (result != null) {
+                return result.employee.getEmployeeId() + " (" + result.employee.getFullName() + "): net pay "
+                        + String.format("%,.2f", result.netPay);
+            }
+            return error.toString();
+        }
+    }
+}
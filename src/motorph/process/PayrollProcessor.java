@@ -3,20 +3,40 @@ package motorph.process;
 import motorph.employee.EmployeeDataReader;
 import motorph.deductions.StatutoryDeductions;
 import motorph.employee.Employee;
+import motorph.employee.EmployeeListener;
+import motorph.hours.AttendanceAggregate;
 import motorph.hours.AttendanceReader;
+import motorph.hours.AttendanceSummary;
+import motorph.hours.DailyAttendance;
+import motorph.holidays.CutoffCalendar;
 import motorph.holidays.HolidayManager;
 import motorph.holidays.HolidayPayCalculator;
+import motorph.util.Centavos;
 import motorph.util.DateTimeUtil;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Handles all payroll calculations
  * Core class for processing employee payroll
+ * processPayroll and runPayroll may be called from several threads at once
  */
-public class PayrollProcessor {
+public class PayrollProcessor implements EmployeeListener {
     // Data readers
     private final EmployeeDataReader EmployeeDataReader;
     private final AttendanceReader attendanceReader;
@@ -25,22 +45,89 @@ public class PayrollProcessor {
     private final HolidayManager holidayManager;
     private final HolidayPayCalculator holidayPayCalculator;
 
-    // Storage for calculated values
-    private final Map<String, PayrollResult> payrollResults = new HashMap<>();
+    // Calculated results by employee and pay period; written by every thread of a parallel run
+    private final PayrollResultStore resultStore;
+
+    // Inputs each result was calculated from, to find the results a change affects
+    private final PayrollDependencies dependencies = new PayrollDependencies();
+
+    // Employee number order; numeric IDs sort by length first so 9999 comes before 10000
+    static final Comparator<String> EMPLOYEE_ID_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    // Smallest range of employees a parallel batch task calculates without splitting
+    private static final int MIN_BATCH_PARTITION_SIZE = 256;
+
+    // Hundredths of a minute in an 8-hour day, the time unit of centavo absence deductions
+    private static final long CENTIMINUTES_PER_DAY = 8 * 60 * 100;
+
+    // Year-to-date totals of finalized runs, saved to the file when one is set
+    private final Object yearToDateLock = new Object();
+    private final YearToDateStore yearToDate = new YearToDateStore();
+    private String yearToDateFile;
+
+    // Finalized results replaced since, by employee and pay period; guarded by yearToDateLock
+    private final Map<String, PayrollResult> supersededResults = new HashMap<>();
+
+    // Calendar of the most recent cutoff; rebuilt when a holiday is added
+    private final Object calendarLock = new Object();
+    private CutoffCalendar cutoffCalendar;
+
+    // Revision of the holiday manager the calendar and stale results reflect; guarded by calendarLock
+    private int holidayRevision;
+
+    // How processPayroll does its arithmetic
+    private volatile CalculationMode calculationMode = CalculationMode.DOUBLE;
 
     /**
-     * Create a new PayrollProcessor
+     * Create a new PayrollProcessor using the application's holidays
      *
      * @param employeeFilePath Path to employee data CSV
      * @param attendanceFilePath Path to attendance data CSV
      */
     public PayrollProcessor(String employeeFilePath, String attendanceFilePath) {
+        this(employeeFilePath, attendanceFilePath, PayrollDateManager.getHolidayManager());
+    }
+
+    /**
+     * Create a new PayrollProcessor
+     * Processors given the same HolidayManager see each other's added holidays
+     *
+     * @param employeeFilePath Path to employee data CSV
+     * @param attendanceFilePath Path to attendance data CSV
+     * @param holidayManager Holidays to pay, usually PayrollDateManager.getHolidayManager()
+     */
+    public PayrollProcessor(String employeeFilePath, String attendanceFilePath, HolidayManager holidayManager) {
+        if (holidayManager == null) {
+            throw new IllegalArgumentException("Holiday manager cannot be null");
+        }
         this.EmployeeDataReader = new EmployeeDataReader(employeeFilePath);
         this.attendanceReader = new AttendanceReader(attendanceFilePath);
-        this.holidayManager = new HolidayManager();
+        this.holidayManager = holidayManager;
+        this.holidayRevision = holidayManager.getRevision();
         this.holidayPayCalculator = new HolidayPayCalculator(holidayManager);
+        this.resultStore = new PayrollResultStore(PayrollResultStore.DEFAULT_CAPACITY,
+                this.EmployeeDataReader::getEmployee);
+        this.resultStore.setDropListener(dependencies::resultDropped);
+
+        // Corrected or late punches mark the results of their cutoff stale
+        this.attendanceReader.addAttendanceListener(dependencies::attendanceChanged);
     }
 
+    /**
+     * Set how payroll amounts are calculated
+     *
+     * @param calculationMode DOUBLE or CENTAVOS
+     */
+    public void setCalculationMode(CalculationMode calculationMode) {
+        if (calculationMode == null) {
+            throw new IllegalArgumentException("Calculation mode cannot be null");
+        }
+        this.calculationMode = calculationMode;
+    }
+
+    public CalculationMode getCalculationMode() { return calculationMode; }
+
     /**
      * Process payroll for an employee
      *
@@ -77,13 +164,84 @@ public class PayrollProcessor {
             throw new IllegalArgumentException("Employee cannot be null");
         }
 
+        // Only the holiday days of the cutoff need that day's attendance
+        CutoffCalendar calendar = getCutoffCalendar(startDate, endDate);
+        DailyAttendance[] holidayAttendance = new DailyAttendance[calendar.getHolidayCount()];
+        for (int holiday = 0; holiday < holidayAttendance.length; holiday++) {
+            holidayAttendance[holiday] = attendanceReader.getDailyAttendance(
+                    employee.getEmployeeId(), calendar.getHolidayDate(holiday));
+        }
+
+        return processPayroll(employee, hoursWorked, overtimeHours, lateMinutes, undertimeMinutes, isLateAnyDay,
+                payPeriodType, calendar, holidayAttendance, year, month, hasUnpaidAbsences);
+    }
+
+    /**
+     * Process payroll for an employee whose holiday attendance has been looked up
+     *
+     * @param calendar Calendar of the cutoff period
+     * @param holidayAttendance Attendance on each holiday of the calendar, null where there is none
+     */
+    private PayrollResult processPayroll(Employee employee, double hoursWorked, double overtimeHours,
+                                         double lateMinutes, double undertimeMinutes, boolean isLateAnyDay,
+                                         int payPeriodType, CutoffCalendar calendar,
+                                         DailyAttendance[] holidayAttendance, int year, int month,
+                                         boolean hasUnpaidAbsences) {
+        PayrollResult result = calculate(employee, hoursWorked, overtimeHours, lateMinutes, undertimeMinutes,
+                isLateAnyDay, payPeriodType, calendar, holidayAttendance, year, month, hasUnpaidAbsences);
+
+        storeResult(result);
+        return result;
+    }
+
+    /**
+     * Save a result and the inputs it was calculated from
+     * A finalized result that is replaced is kept until the period is
+     * finalized again, so the year-to-date totals can swap it out
+     */
+    private void storeResult(PayrollResult result) {
+        PayrollResult previous = resultStore.put(result);
+        dependencies.recordResult(result);
+        if (previous != null && previous != result) {
+            synchronized (yearToDateLock) {
+                if (yearToDate.includes(previous)) {
+                    supersededResults.putIfAbsent(periodKey(previous), previous);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate payroll in the current mode without storing the result
+     */
+    private PayrollResult calculate(Employee employee, double hoursWorked, double overtimeHours,
+                                    double lateMinutes, double undertimeMinutes, boolean isLateAnyDay,
+                                    int payPeriodType, CutoffCalendar calendar,
+                                    DailyAttendance[] holidayAttendance, int year, int month,
+                                    boolean hasUnpaidAbsences) {
         // Ensure non-negative values
         hoursWorked = Math.max(0, hoursWorked);
         overtimeHours = Math.max(0, overtimeHours);
         lateMinutes = Math.max(0, lateMinutes);
         undertimeMinutes = Math.max(0, undertimeMinutes);
 
-        String employeeId = employee.getEmployeeId();
+        return calculationMode == CalculationMode.CENTAVOS
+                ? calculateInCentavos(employee, hoursWorked, overtimeHours, lateMinutes, undertimeMinutes,
+                        isLateAnyDay, payPeriodType, calendar, holidayAttendance, year, month, hasUnpaidAbsences)
+                : calculateInPesos(employee, hoursWorked, overtimeHours, lateMinutes, undertimeMinutes,
+                        isLateAnyDay, payPeriodType, calendar, holidayAttendance, year, month, hasUnpaidAbsences);
+    }
+
+    /**
+     * Calculate payroll in double pesos, rounding only when amounts are displayed
+     */
+    private PayrollResult calculateInPesos(Employee employee, double hoursWorked, double overtimeHours,
+                                           double lateMinutes, double undertimeMinutes, boolean isLateAnyDay,
+                                           int payPeriodType, CutoffCalendar calendar,
+                                           DailyAttendance[] holidayAttendance, int year, int month,
+                                           boolean hasUnpaidAbsences) {
+        LocalDate startDate = calendar.getStartDate();
+        LocalDate endDate = calendar.getEndDate();
         double monthlySalary = employee.getBasicSalary();
         double semiMonthlySalary = employee.getSemiMonthlyRate();
         double hourlyRate = employee.getHourlyRate();
@@ -97,7 +255,7 @@ public class PayrollProcessor {
         double undertimeDeduction = undertimeMinutes > 0 ? (hourlyRate / 60.0) * undertimeMinutes : 0.0;
 
         // Calculate expected working hours for the period
-        int workingDaysInPeriod = DateTimeUtil.daysBetween(startDate, endDate);
+        int workingDaysInPeriod = calendar.getDayCount();
         workingDaysInPeriod = Math.min(workingDaysInPeriod, 12); // Maximum 12 working days per period
         double expectedHours = workingDaysInPeriod * 8.0; // 8 hours per day
 
@@ -109,26 +267,17 @@ public class PayrollProcessor {
         // Calculate overtime pay
         double overtimePay = !isLateAnyDay && overtimeHours > 0 ? hourlyRate * overtimeHours * 1.25 : 0.0;
 
-        // Calculate holiday pay for each day in the period
+        // Calculate holiday pay for each holiday in the period
         double holidayPay = 0.0;
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            if (holidayManager.isHoliday(currentDate)) {
-                Map<LocalDate, Map<String, Object>> dailyAttendance =
-                        attendanceReader.getDailyAttendanceForEmployee(employee.getEmployeeId(), currentDate, currentDate);
-                Map<String, Object> dayData = dailyAttendance.isEmpty() ? null : dailyAttendance.get(currentDate);
-
-                double dayHoursWorked = dayData != null ? (double) dayData.getOrDefault("hours", 0.0) : 0.0;
-                double dayOvertimeHours = dayData != null ? (double) dayData.getOrDefault("overtimeHours", 0.0) : 0.0;
-                boolean dayIsLate = dayData != null ? (boolean) dayData.getOrDefault("isLate", false) : false;
-
-                boolean isRestDay = currentDate.getDayOfWeek().getValue() == 7;
-                double dayHolidayPay = holidayPayCalculator.calculateHolidayPay(
-                        currentDate, dailyRate, dayHoursWorked, isRestDay, dayIsLate, dayOvertimeHours);
-
-                holidayPay += dayHolidayPay;
-            }
-            currentDate = currentDate.plusDays(1);
+        for (int holiday = 0; holiday < holidayAttendance.length; holiday++) {
+            DailyAttendance dayData = holidayAttendance[holiday];
+
+            double dayHoursWorked = dayData != null ? dayData.getHours() : 0.0;
+            double dayOvertimeHours = dayData != null ? dayData.getOvertimeHours() : 0.0;
+            boolean dayIsLate = dayData != null && dayData.isLate();
+
+            holidayPay += holidayPayCalculator.calculateHolidayPay(
+                    calendar, holiday, dailyRate, dayHoursWorked, dayIsLate, dayOvertimeHours);
         }
 
         // Calculate gross pay: base pay + overtime + holiday pay - deductions
@@ -145,8 +294,7 @@ public class PayrollProcessor {
         // Calculate net pay
         double netPay = Math.max(0, grossPay - deductions.totalDeductions);
 
-        // Create result object
-        PayrollResult result = new PayrollResult(
+        return new PayrollResult(
                 employee, grossPay, netPay, deductions,
                 basePay, overtimePay, holidayPay, lateDeduction,
                 undertimeDeduction, absenceDeduction, hoursWorked,
@@ -155,11 +303,488 @@ public class PayrollProcessor {
                 endDate, payPeriodType, hourlyRate, year, month,
                 hasUnpaidAbsences
         );
+    }
 
-        // Save result
-        payrollResults.put(employeeId, result);
+    /**
+     * Calculate payroll in whole centavos
+     * Rates are rounded to the centavo first, with the daily rate being the
+     * monthly salary / 22. Hours are taken in hundredths as the attendance
+     * reports round them, so time never adds a rounding of its own. Each
+     * earning and deduction component is then rounded once, half away from
+     * zero, and the totals are exact sums of those components.
+     */
+    private PayrollResult calculateInCentavos(Employee employee, double hoursWorked, double overtimeHours,
+                                              double lateMinutes, double undertimeMinutes, boolean isLateAnyDay,
+                                              int payPeriodType, CutoffCalendar calendar,
+                                              DailyAttendance[] holidayAttendance, int year, int month,
+                                              boolean hasUnpaidAbsences) {
+        LocalDate startDate = calendar.getStartDate();
+        LocalDate endDate = calendar.getEndDate();
+        long monthlySalary = Centavos.fromPesos(employee.getBasicSalary());
+        long semiMonthlySalary = Centavos.fromPesos(employee.getSemiMonthlyRate());
+        long hourlyRate = Centavos.fromPesos(employee.getHourlyRate());
+        long dailyRate = Centavos.divide(monthlySalary, 22); // 22 working days per month
 
-        return result;
+        long workedHundredths = Math.round(hoursWorked * 100);
+        long overtimeHundredths = Math.round(overtimeHours * 100);
+        long late = Math.round(lateMinutes);
+        long undertime = Math.round(undertimeMinutes);
+
+        // Base computation is the semi-monthly rate
+        long basePay = semiMonthlySalary;
+
+        // Late and undertime are charged per minute at the hourly rate
+        long lateDeduction = Centavos.multiply(hourlyRate, late, 60);
+        long undertimeDeduction = Centavos.multiply(hourlyRate, undertime, 60);
+
+        // Absences are counted in hundredths of a minute so hours and minutes subtract exactly
+        int workingDaysInPeriod = Math.min(calendar.getDayCount(), 12);
+        long expectedCentiminutes = workingDaysInPeriod * CENTIMINUTES_PER_DAY;
+        long absentCentiminutes = Math.max(0,
+                expectedCentiminutes - workedHundredths * 60 - (late + undertime) * 100);
+        long absenceDeduction = hasUnpaidAbsences
+                ? Centavos.multiply(dailyRate, absentCentiminutes, CENTIMINUTES_PER_DAY)
+                : 0;
+
+        // Overtime is paid at 125% of the hourly rate
+        long overtimePay = !isLateAnyDay ? Centavos.multiply(hourlyRate, overtimeHundredths * 125, 100 * 100) : 0;
+
+        // Holiday pay, rounded per day
+        long holidayPay = 0;
+        for (int holiday = 0; holiday < holidayAttendance.length; holiday++) {
+            DailyAttendance dayData = holidayAttendance[holiday];
+
+            long dayHundredths = dayData != null ? Math.round(dayData.getHours() * 100) : 0;
+            long dayOvertimeHundredths = dayData != null ? Math.round(dayData.getOvertimeHours() * 100) : 0;
+            boolean dayIsLate = dayData != null && dayData.isLate();
+
+            holidayPay += holidayPayCalculator.calculateHolidayPayCentavos(
+                    calendar, holiday, dailyRate, dayHundredths, dayIsLate, dayOvertimeHundredths);
+        }
+
+        long grossPay = Math.max(0,
+                basePay + overtimePay + holidayPay - lateDeduction - undertimeDeduction - absenceDeduction);
+
+        StatutoryDeductions.CentavoDeductionResult deductions =
+                StatutoryDeductions.calculateDeductionsCentavos(grossPay, payPeriodType, monthlySalary);
+
+        long netPay = Math.max(0, grossPay - deductions.totalDeductions);
+
+        return new PayrollResult(
+                employee, Centavos.toPesos(grossPay), Centavos.toPesos(netPay), deductions.toDeductionResult(),
+                Centavos.toPesos(basePay), Centavos.toPesos(overtimePay), Centavos.toPesos(holidayPay),
+                Centavos.toPesos(lateDeduction), Centavos.toPesos(undertimeDeduction),
+                Centavos.toPesos(absenceDeduction), hoursWorked, overtimeHours, lateMinutes, undertimeMinutes,
+                workingDaysInPeriod * 8.0, absentCentiminutes / 6000.0, Centavos.toPesos(dailyRate), startDate,
+                endDate, payPeriodType, Centavos.toPesos(hourlyRate), year, month, hasUnpaidAbsences
+        );
+    }
+
+    /**
+     * Process payroll for every active employee in a pay period
+     * Attendance totals are read in one pass over the period instead of one
+     * query per employee. Employees are processed in employee number order,
+     * and any employee that cannot be paid is recorded as an error in the
+     * run instead of stopping it. Nothing is printed.
+     *
+     * @param payPeriod The pay period to process
+     * @return PayrollRun with every result, error and the company totals
+     */
+    public PayrollRun runPayroll(PayPeriod payPeriod) {
+        return runPayroll(payPeriod, 1);
+    }
+
+    /**
+     * Process payroll for every active employee on several threads
+     * Employees are split into ranges that are calculated on a ForkJoinPool.
+     * Results are collected in employee number order and the totals are
+     * added up afterwards, so the run is identical to a sequential one.
+     *
+     * @param payPeriod The pay period to process
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return PayrollRun with every result, error and the company totals
+     */
+    public PayrollRun runPayroll(PayPeriod payPeriod, int parallelism) {
+        return runBatch(payPeriod, parallelism, null);
+    }
+
+    /**
+     * Process payroll for every active employee, journaling each one as it finishes
+     * The run's journal in the directory is opened, or created if this is the
+     * first attempt. Employees the journal already has a result for are not
+     * calculated again, so a run that died can be started over and only the
+     * work after the last journal sync is repeated. Employees that could not
+     * be paid are tried again, unless the journaled run had finished. The
+     * finished journal is kept as the run's audit trail. A journal is only
+     * resumed if the employees, attendance and holidays of the period are
+     * unchanged; after a correction it is moved aside and the run starts over.
+     *
+     * @param payPeriod The pay period to process
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @param journalDirectory Directory the run journal is kept in
+     * @return PayrollRun with every result, error and the company totals
+     * @throws IOException If the journal cannot be read or written
+     */
+    public PayrollRun runPayroll(PayPeriod payPeriod, int parallelism, String journalDirectory)
+            throws IOException {
+        if (payPeriod == null) {
+            throw new IllegalArgumentException("Pay period cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        BatchInputs inputs = prepareBatch(payPeriod, parallelism);
+        List<Employee> employees = getActiveEmployees();
+        try (PayrollJournal journal = PayrollJournal.open(journalDirectory, payPeriod, calculationMode,
+                inputsDigest(inputs, employees), this.EmployeeDataReader::getEmployee)) {
+            PayrollRun run;
+            try {
+                run = runBatch(inputs, employees, parallelism, journal);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            journal.markComplete();
+            return run;
+        }
+    }
+
+    /**
+     * Process payroll for every active employee, with an optional journal
+     *
+     * @param journal Run journal, or null to keep no journal
+     * @throws UncheckedIOException If the journal cannot be written
+     */
+    private PayrollRun runBatch(PayPeriod payPeriod, int parallelism, PayrollJournal journal) {
+        if (payPeriod == null) {
+            throw new IllegalArgumentException("Pay period cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        return runBatch(prepareBatch(payPeriod, parallelism), getActiveEmployees(), parallelism, journal);
+    }
+
+    /**
+     * Process payroll for the given employees over prepared inputs
+     */
+    private PayrollRun runBatch(BatchInputs inputs, List<Employee> employees, int parallelism,
+                                PayrollJournal journal) {
+        PayrollBatch batch = new PayrollBatch(inputs, employees, journal, true);
+        int employeeCount = batch.employees.size();
+        if (journal != null) {
+            batch.restore();
+        }
+
+        if (parallelism == 1 || employeeCount < MIN_BATCH_PARTITION_SIZE * 2) {
+            batch.processRange(0, employeeCount);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new BatchPartition(batch, 0, employeeCount));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        return batch.toRun();
+    }
+
+    /**
+     * Read the calendar and attendance totals of a pay period for batch runs
+     *
+     * @param payPeriod The pay period
+     * @param parallelism Number of threads for the attendance pass
+     * @return Inputs that any number of batches over the period may share
+     */
+    BatchInputs prepareBatch(PayPeriod payPeriod, int parallelism) {
+        CutoffCalendar calendar = getCutoffCalendar(payPeriod.getStartDate(), payPeriod.getEndDate());
+        AttendanceAggregate attendance = attendanceReader.aggregateAttendance(
+                payPeriod.getStartDate(), payPeriod.getEndDate(), calendar.getHolidayEpochDays(), parallelism);
+        return new BatchInputs(payPeriod, calendar, attendance);
+    }
+
+    /**
+     * Digest everything a batch's results are calculated from
+     * Covers the cutoff's days and holidays, and each employee's pay rates
+     * and attendance totals, so a journal written before any correction to
+     * them does not match
+     *
+     * @return SHA-256 of the inputs
+     */
+    static byte[] inputsDigest(BatchInputs inputs, List<Employee> employees) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        CutoffCalendar calendar = inputs.calendar;
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.putInt(calendar.getDayCount()).putInt(calendar.getWorkingDayCount());
+        for (int holiday = 0; holiday < calendar.getHolidayCount(); holiday++) {
+            buffer.putInt(calendar.getHolidayEpochDay(holiday));
+            buffer.put((byte) (calendar.isRegularHoliday(holiday) ? 1 : 0));
+            buffer.put((byte) (calendar.isRestDay(holiday) ? 1 : 0));
+            buffer = flush(digest, buffer);
+        }
+
+        AttendanceAggregate attendance = inputs.attendance;
+        for (Employee employee : employees) {
+            putString(digest, buffer, employee.getEmployeeId());
+            putString(digest, buffer, employee.getStatus());
+            buffer.putDouble(employee.getBasicSalary()).putDouble(employee.getHourlyRate());
+            buffer.putDouble(employee.getDailyRate()).putDouble(employee.getSemiMonthlyRate());
+            buffer.putDouble(employee.getRiceSubsidy()).putDouble(employee.getPhoneAllowance());
+            buffer.putDouble(employee.getClothingAllowance());
+
+            int ordinal = attendance.getOrdinal(employee.getEmployeeId());
+            if (ordinal < 0) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(attendance.getRecordCount(ordinal));
+                buffer.putDouble(attendance.getHours(ordinal)).putDouble(attendance.getOvertimeHours(ordinal));
+                buffer.putDouble(attendance.getLateMinutes(ordinal));
+                buffer.putDouble(attendance.getUndertimeMinutes(ordinal));
+                buffer.put((byte) (attendance.isLateAnyDay(ordinal) ? 1 : 0));
+                for (int holiday = 0; holiday < calendar.getHolidayCount(); holiday++) {
+                    DailyAttendance day = attendance.getHolidayAttendance(ordinal, holiday);
+                    if (day == null) {
+                        buffer.put((byte) 0);
+                    } else {
+                        buffer.put((byte) 1).putInt(day.getTimeInMinute()).putInt(day.getTimeOutMinute());
+                        buffer.putDouble(day.getHours()).putDouble(day.getOvertimeHours());
+                        buffer.putDouble(day.getLateMinutes()).putDouble(day.getUndertimeMinutes());
+                    }
+                    buffer = flush(digest, buffer);
+                }
+            }
+            buffer = flush(digest, buffer);
+        }
+        buffer.flip();
+        digest.update(buffer);
+        return digest.digest();
+    }
+
+    /**
+     * Hand the buffered bytes and then a zero-terminated string to the digest
+     */
+    private static void putString(MessageDigest digest, ByteBuffer buffer, String value) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Hand a digest buffer's contents to the digest once it is more than half full
+     */
+    private static ByteBuffer flush(MessageDigest digest, ByteBuffer buffer) {
+        if (buffer.position() > buffer.capacity() / 2) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return buffer;
+    }
+
+    /**
+     * Calculate batches over prepared periods for a given set of employees
+     * Nothing is stored, so the results of runPayroll and processPayroll are
+     * left alone. The periods are calculated side by side on one pool.
+     *
+     * @param periods Prepared pay periods
+     * @param employees Employees to pay, in the order results should be listed
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return One PayrollRun per period, in the same order
+     */
+    List<PayrollRun> simulateBatches(List<BatchInputs> periods, List<Employee> employees, int parallelism) {
+        List<PayrollBatch> batches = new ArrayList<>();
+        for (BatchInputs inputs : periods) {
+            batches.add(new PayrollBatch(inputs, employees, null, false));
+        }
+
+        if (parallelism == 1) {
+            for (PayrollBatch batch : batches) {
+                batch.processRange(0, employees.size());
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+                for (PayrollBatch batch : batches) {
+                    tasks.add(pool.submit(new BatchPartition(batch, 0, employees.size())));
+                }
+                for (ForkJoinTask<Void> task : tasks) {
+                    task.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        List<PayrollRun> runs = new ArrayList<>();
+        for (PayrollBatch batch : batches) {
+            runs.add(batch.toRun());
+        }
+        return runs;
+    }
+
+    /**
+     * Get active employees sorted by employee number
+     */
+    List<Employee> getActiveEmployees() {
+        List<Employee> employees = new ArrayList<>();
+        for (Employee employee : EmployeeDataReader.getAllEmployees()) {
+            if (employee.isActive()) {
+                employees.add(employee);
+            }
+        }
+
+        employees.sort(Comparator.comparing(Employee::getEmployeeId, EMPLOYEE_ID_ORDER));
+        return employees;
+    }
+
+    /**
+     * Use an edited employee record and mark that employee's results stale
+     * Register with EmployeeOperationsManager.addEmployeeListener to follow GUI edits
+     *
+     * @param employee The employee as it is now saved
+     */
+    @Override
+    public void employeeUpdated(Employee employee) {
+        EmployeeDataReader.putEmployee(employee);
+        dependencies.employeeChanged(employee.getEmployeeId());
+    }
+
+    /**
+     * Stop tracking a deleted employee
+     * Results already stored for the employee are kept
+     *
+     * @param employeeId ID of the deleted employee
+     */
+    @Override
+    public void employeeRemoved(String employeeId) {
+        EmployeeDataReader.removeEmployee(employeeId);
+        dependencies.employeeRemoved(employeeId);
+    }
+
+    /**
+     * Add a holiday and mark stale every result whose cutoff contains it
+     * If this processor uses the application's holidays, the shared payroll
+     * calendar is rebuilt to count it too
+     *
+     * @param name Holiday name
+     * @param date Holiday date
+     * @param isRegular Whether it's a regular holiday
+     */
+    public void addHoliday(String name, LocalDate date, boolean isRegular) {
+        holidayManager.addHoliday(name, date, isRegular);
+        syncHolidays();
+        if (holidayManager == PayrollDateManager.getHolidayManager()) {
+            PayrollDateManager.holidaysChanged();
+        }
+    }
+
+    /**
+     * Catch up with holidays added to the holiday manager, here or by another
+     * processor sharing it: drop the cached calendar and mark the affected
+     * results stale
+     */
+    private void syncHolidays() {
+        List<LocalDate> added;
+        synchronized (calendarLock) {
+            if (holidayManager.getRevision() == holidayRevision) {
+                return;
+            }
+            added = holidayManager.getDatesAddedSince(holidayRevision);
+            holidayRevision += added.size();
+            cutoffCalendar = null;
+        }
+        for (LocalDate date : added) {
+            dependencies.holidayChanged(date);
+        }
+    }
+
+    /**
+     * Get the calendar of a cutoff period, reusing the last one built
+     * Every employee of a pay period shares the same calendar
+     */
+    private CutoffCalendar getCutoffCalendar(LocalDate startDate, LocalDate endDate) {
+        syncHolidays();
+        synchronized (calendarLock) {
+            if (cutoffCalendar == null || !cutoffCalendar.covers(startDate, endDate)) {
+                cutoffCalendar = new CutoffCalendar(holidayManager, startDate, endDate);
+            }
+            return cutoffCalendar;
+        }
+    }
+
+    /**
+     * Get the number of results whose inputs changed since they were calculated
+     *
+     * @return Number of stale results
+     */
+    public int getChangedResultCount() {
+        syncHolidays();
+        return dependencies.getStaleCount();
+    }
+
+    /**
+     * Recalculate only the results whose inputs changed
+     * Inputs are the employee record, the attendance days in the cutoff and
+     * the holidays in the cutoff. Each stale result is recalculated from a
+     * fresh attendance summary of its cutoff and replaces the stored one.
+     * Results of deleted employees are skipped.
+     *
+     * @return Recalculated results in employee number order
+     */
+    public List<PayrollResult> recomputeChanged() {
+        syncHolidays();
+        Map<String, List<PayrollDependencies.Cutoff>> stale = dependencies.takeStale();
+        List<String> employeeIds = new ArrayList<>(stale.keySet());
+        employeeIds.sort(EMPLOYEE_ID_ORDER);
+
+        List<PayrollResult> results = new ArrayList<>();
+        for (String employeeId : employeeIds) {
+            Employee employee = EmployeeDataReader.getEmployee(employeeId);
+            if (employee == null) {
+                continue;
+            }
+
+            for (PayrollDependencies.Cutoff cutoff : stale.get(employeeId)) {
+                AttendanceSummary summary = attendanceReader.summarizeAttendance(
+                        employeeId, cutoff.startDate, cutoff.endDate);
+                results.add(processPayroll(
+                        employee, summary.getHours(), summary.getOvertimeHours(),
+                        summary.getLateMinutes(), summary.getUndertimeMinutes(),
+                        summary.isLateAnyDay(), cutoff.payPeriodType, cutoff.startDate, cutoff.endDate,
+                        cutoff.year, cutoff.month, summary.hasUnpaidAbsences()));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Get the attendance reader used for calculations
+     * Attach an AttendanceTailWatcher to it to pick up corrected punches
+     *
+     * @return AttendanceReader used by this processor
+     */
+    public AttendanceReader getAttendanceReader() {
+        return attendanceReader;
+    }
+
+    /**
+     * Get the holidays this processor pays
+     *
+     * @return HolidayManager used by this processor
+     */
+    public HolidayManager getHolidayManager() {
+        return holidayManager;
     }
 
     /**
@@ -169,11 +794,137 @@ public class PayrollProcessor {
      * @return PayrollResult or null if not found
      */
     public PayrollResult getPayrollResult(String employeeId) {
-        return payrollResults.get(employeeId);
+        return resultStore.getLatest(employeeId);
     }
 
     /**
-     * Display salary details for an employee
+     * Get the payroll result for an employee and pay period
+     *
+     * @param employeeId The employee ID
+     * @param year Year of payroll
+     * @param month Month of payroll
+     * @param payPeriodType Pay period type (MID_MONTH or END_MONTH)
+     * @return PayrollResult or null if that period has not been processed
+     */
+    public PayrollResult getPayrollResult(String employeeId, int year, int month, int payPeriodType) {
+        return resultStore.get(employeeId, year, month, payPeriodType);
+    }
+
+    /**
+     * Keep year-to-date totals in a file, loading the totals already in it
+     *
+     * @param file Totals file, or null to keep the totals in memory only
+     * @throws IOException If an existing file cannot be read
+     */
+    public void setYearToDateFile(String file) throws IOException {
+        synchronized (yearToDateLock) {
+            if (file != null) {
+                yearToDate.load(file);
+            }
+            yearToDateFile = file;
+        }
+    }
+
+    /**
+     * Finalize a payroll run by adding its results to the year-to-date totals
+     *
+     * @param run Payroll run to finalize
+     * @return What was added, replaced or left alone, and any conflicts
+     * @throws IOException If the totals file cannot be written
+     * @see #finalizeResults(Collection)
+     */
+    public YearToDateStore.FinalizeSummary finalizePayroll(PayrollRun run) throws IOException {
+        return finalizeResults(run.getResults());
+    }
+
+    /**
+     * Finalize results by adding them to the year-to-date totals
+     * A period that is already in the totals with the same amounts is left
+     * alone, so finalizing the same run twice changes nothing. A period whose
+     * result was recalculated since, by recomputeChanged or another run, has
+     * the earlier result taken out and the new one added. If the earlier
+     * result is no longer known the period is returned as a conflict and the
+     * totals are not changed. The totals file is saved once for all results.
+     *
+     * @param results Results to finalize, such as those of recomputeChanged
+     * @return What was added, replaced or left alone, and any conflicts
+     * @throws IOException If the totals file cannot be written
+     */
+    public YearToDateStore.FinalizeSummary finalizeResults(Collection<PayrollResult> results) throws IOException {
+        synchronized (yearToDateLock) {
+            int added = 0;
+            int replaced = 0;
+            int unchanged = 0;
+            List<PayrollResult> conflicts = new ArrayList<>();
+
+            for (PayrollResult result : results) {
+                String key = periodKey(result);
+                switch (yearToDate.finalizeResult(result, supersededResults.get(key))) {
+                    case ADDED:
+                        added++;
+                        break;
+                    case REPLACED:
+                        replaced++;
+                        break;
+                    case UNCHANGED:
+                        unchanged++;
+                        break;
+                    default:
+                        conflicts.add(result);
+                        continue;
+                }
+                supersededResults.remove(key);
+            }
+
+            if (added + replaced > 0 && yearToDateFile != null) {
+                yearToDate.save(yearToDateFile);
+            }
+            return new YearToDateStore.FinalizeSummary(added, replaced, unchanged, conflicts);
+        }
+    }
+
+    /**
+     * Get the key of a result's employee and pay period
+     */
+    private static String periodKey(PayrollResult result) {
+        return result.employee.getEmployeeId() + ":" + result.year + ":" + result.month + ":"
+                + (result.payPeriodType == PayrollDateManager.MID_MONTH ? PayrollDateManager.MID_MONTH
+                : PayrollDateManager.END_MONTH);
+    }
+
+    /**
+     * Work out the 13th-month pay of every employee from the year-to-date totals
+     * Employees separated during the year are included for the periods they
+     * were paid; active employees with no finalized payroll are listed as errors
+     *
+     * @param year Payroll year
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return Register in employee number order
+     */
+    public ThirteenthMonthRegister runThirteenthMonth(int year, int parallelism) {
+        return ThirteenthMonthRegister.compute(EmployeeDataReader.getAllEmployees(), yearToDate, year, parallelism);
+    }
+
+    /**
+     * Get the year-to-date totals of finalized runs
+     *
+     * @return YearToDateStore used by this processor
+     */
+    public YearToDateStore getYearToDateStore() {
+        return yearToDate;
+    }
+
+    /**
+     * Get the store that keeps calculated results
+     *
+     * @return PayrollResultStore used by this processor
+     */
+    public PayrollResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Display the most recent salary details for an employee
      *
      * @param employee The employee to display details for
      */
@@ -182,9 +933,30 @@ public class PayrollProcessor {
             System.out.println("No employee provided");
             return;
         }
+        displaySalaryDetails(employee, resultStore.getLatest(employee.getEmployeeId()));
+    }
+
+    /**
+     * Display salary details for an employee and pay period
+     *
+     * @param employee The employee to display details for
+     * @param year Year of payroll
+     * @param month Month of payroll
+     * @param payPeriodType Pay period type (MID_MONTH or END_MONTH)
+     */
+    public void displaySalaryDetails(Employee employee, int year, int month, int payPeriodType) {
+        if (employee == null) {
+            System.out.println("No employee provided");
+            return;
+        }
+        displaySalaryDetails(employee, resultStore.get(employee.getEmployeeId(), year, month, payPeriodType));
+    }
 
+    /**
+     * Print a stored result
+     */
+    private void displaySalaryDetails(Employee employee, PayrollResult result) {
         String employeeId = employee.getEmployeeId();
-        PayrollResult result = payrollResults.get(employeeId);
 
         if (result == null) {
             System.out.println("No payroll data for this employee.");
@@ -289,6 +1061,189 @@ public class PayrollProcessor {
         }
     }
 
+    /**
+     * Calendar and attendance totals of one pay period, read once for batch runs
+     */
+    static final class BatchInputs {
+        final PayPeriod payPeriod;
+        final CutoffCalendar calendar;
+        final AttendanceAggregate attendance;
+
+        BatchInputs(PayPeriod payPeriod, CutoffCalendar calendar, AttendanceAggregate attendance) {
+            this.payPeriod = payPeriod;
+            this.calendar = calendar;
+            this.attendance = attendance;
+        }
+    }
+
+    /**
+     * Employees of one batch run with a slot for each one's result or error
+     * Each slot is written by exactly one thread, so no locking is needed.
+     * Slots already filled from a run journal are skipped.
+     */
+    private final class PayrollBatch {
+        private final PayPeriod payPeriod;
+        private final CutoffCalendar calendar;
+        private final AttendanceAggregate attendance;
+        private final List<Employee> employees;
+        private final PayrollResult[] results;
+        private final String[] errors;
+        private final boolean[] resumed;
+        private final PayrollJournal journal;
+        private final boolean storeResults;
+
+        /**
+         * @param journal Run journal, or null to keep no journal
+         * @param storeResults Whether results go to the result store, as for runPayroll
+         */
+        PayrollBatch(BatchInputs inputs, List<Employee> employees, PayrollJournal journal, boolean storeResults) {
+            this.payPeriod = inputs.payPeriod;
+            this.calendar = inputs.calendar;
+            this.attendance = inputs.attendance;
+            this.employees = employees;
+            this.results = new PayrollResult[employees.size()];
+            this.errors = new String[employees.size()];
+            this.resumed = new boolean[employees.size()];
+            this.journal = journal;
+            this.storeResults = storeResults;
+        }
+
+        /**
+         * Fill the slots of employees the journal already has, and store their results
+         * Errors are only taken from a finished journal; otherwise they are tried again
+         */
+        void restore() {
+            boolean complete = journal.isComplete();
+            for (int i = 0; i < employees.size(); i++) {
+                String employeeId = employees.get(i).getEmployeeId();
+                PayrollResult result = journal.getResult(employeeId);
+                if (result != null) {
+                    results[i] = result;
+                    resumed[i] = true;
+                    storeResult(result);
+                } else if (complete && journal.getError(employeeId) != null) {
+                    errors[i] = journal.getError(employeeId).message;
+                }
+            }
+        }
+
+        /**
+         * Calculate payroll for the employees at positions [from, to)
+         */
+        void processRange(int from, int to) {
+            int year = payPeriod.getPayDate().getYear();
+            int month = payPeriod.getPayDate().getMonthValue();
+
+            for (int i = from; i < to; i++) {
+                if (results[i] != null || errors[i] != null) {
+                    continue;
+                }
+                Employee employee = employees.get(i);
+                int ordinal = attendance.getOrdinal(employee.getEmployeeId());
+                if (ordinal < 0 || attendance.getRecordCount(ordinal) == 0) {
+                    errors[i] = "No attendance records found for this period.";
+                    journal(i);
+                    continue;
+                }
+
+                // Holiday attendance was picked up by the aggregate pass. Punch records
+                // never carry absence data, so there are no unpaid absences here
+                DailyAttendance[] holidayAttendance = new DailyAttendance[calendar.getHolidayCount()];
+                for (int holiday = 0; holiday < holidayAttendance.length; holiday++) {
+                    holidayAttendance[holiday] = attendance.getHolidayAttendance(ordinal, holiday);
+                }
+
+                try {
+                    results[i] = calculate(
+                            employee, attendance.getHours(ordinal), attendance.getOvertimeHours(ordinal),
+                            attendance.getLateMinutes(ordinal), attendance.getUndertimeMinutes(ordinal),
+                            attendance.isLateAnyDay(ordinal), payPeriod.getPeriodType(), calendar,
+                            holidayAttendance, year, month, false);
+                    if (storeResults) {
+                        storeResult(results[i]);
+                    }
+                } catch (RuntimeException e) {
+                    errors[i] = "Payroll calculation failed: " + e.getMessage();
+                }
+                journal(i);
+            }
+        }
+
+        /**
+         * Collect the slots into a run, in employee order
+         */
+        PayrollRun toRun() {
+            PayrollRun run = new PayrollRun(payPeriod);
+            for (int i = 0; i < employees.size(); i++) {
+                if (results[i] != null) {
+                    run.addResult(results[i]);
+                    if (resumed[i]) {
+                        run.markResumed();
+                    }
+                } else {
+                    run.addError(employees.get(i), errors[i]);
+                }
+            }
+            return run;
+        }
+
+        /**
+         * Append an employee's result or error to the journal, if there is one
+         */
+        private void journal(int i) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                if (results[i] != null) {
+                    journal.appendResult(results[i]);
+                } else {
+                    journal.appendError(employees.get(i), errors[i]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that splits a range of batch employees in half until it is small
+     */
+    private static final class BatchPartition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PayrollBatch batch;
+        private final int from;
+        private final int to;
+
+        BatchPartition(PayrollBatch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_BATCH_PARTITION_SIZE) {
+                batch.processRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchPartition(batch, from, middle), new BatchPartition(batch, middle, to));
+        }
+    }
+
+    /**
+     * Arithmetic used for payroll amounts
+     */
+    public enum CalculationMode {
+        /** Calculate in double pesos; amounts are only rounded for display */
+        DOUBLE,
+
+        /** Calculate in whole centavos with a fixed rounding step for each component */
+        CENTAVOS
+    }
+
     /**
      * Inner class to store payroll calculation results
      */
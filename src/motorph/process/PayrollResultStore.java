@@ -0,0 +1,497 @@
+// File: motorph/process/PayrollResultStore.java
+package motorph.process;
+
+import motorph.deductions.StatutoryDeductions;
+import motorph.employee.Employee;
+import motorph.process.PayrollProcessor.PayrollResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps calculated payroll results by employee and pay period
+ * Results for the mid-month and end-month payroll of the same employee are
+ * kept side by side. At most a fixed number of results are held in memory;
+ * when the store is full the least recently used result is dropped, or
+ * written to the spill directory if one is set and read back on the next
+ * lookup. All methods may be called from several threads; spill files are
+ * written and read outside the store's lock, so one thread's disk I/O does
+ * not hold up the others.
+ */
+public class PayrollResultStore {
+    // Default number of results held in memory
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    // Size of a result written by putResult
+    static final int RESULT_SIZE = 4 * 3 + 8 * 2 + 1 + 8 * 21;
+
+    // Spilled result file framing
+    private static final int MAGIC = 0x4D505052; // "MPPR"
+    private static final int VERSION = 1;
+    private static final int RECORD_SIZE = 4 * 2 + RESULT_SIZE;
+    private static final String RESULT_FILE_SUFFIX = ".result";
+
+    // Number of locks spill writes of different keys are spread over
+    private static final int SPILL_LOCK_COUNT = 64;
+
+    private final int capacity;
+    private final Function<String, Employee> employeeLookup;
+    private final LinkedHashMap<Key, PayrollResult> results;
+
+    // Period of each employee's most recently stored result
+    private final Map<String, Key> latestKeys = new HashMap<>();
+
+    // Evicted results whose spill file is not written yet, still readable from here
+    private final Map<Key, PayrollResult> pendingSpills = new HashMap<>();
+
+    // Keys evicted but not yet handed to a thread to write, once the store's lock is released
+    private List<Key> evicted = new ArrayList<>();
+
+    // Keep spill writes of one key in order; writes of different keys run side by side
+    private final Object[] spillLocks = new Object[SPILL_LOCK_COUNT];
+
+    // Told about each result dropped without being spilled, while the store is locked
+    private Consumer<PayrollResult> dropListener;
+
+    private Path spillDirectory;
+    private long spillCount;
+    private long spillErrorCount;
+
+    /**
+     * Create a memory-only store
+     *
+     * @param capacity Maximum number of results held in memory
+     */
+    public PayrollResultStore(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Create a store that can spill results to disk
+     *
+     * @param capacity Maximum number of results held in memory
+     * @param employeeLookup Finds the employee of a result read back from disk
+     */
+    public PayrollResultStore(int capacity, Function<String, Employee> employeeLookup) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.employeeLookup = employeeLookup;
+        this.results = new LinkedHashMap<Key, PayrollResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PayrollResult> eldest) {
+                if (size() <= PayrollResultStore.this.capacity) {
+                    return false;
+                }
+                if (spillDirectory != null) {
+                    pendingSpills.put(eldest.getKey(), eldest.getValue());
+                    evicted.add(eldest.getKey());
+                } else if (dropListener != null) {
+                    dropListener.accept(eldest.getValue());
+                }
+                return true;
+            }
+        };
+        for (int i = 0; i < SPILL_LOCK_COUNT; i++) {
+            spillLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Set the directory evicted results are written to
+     * Needs an employee lookup so results can be read back
+     *
+     * @param directory Spill directory, or null to drop evicted results
+     */
+    public synchronized void setSpillDirectory(String directory) {
+        if (directory != null && employeeLookup == null) {
+            throw new IllegalStateException("A spill directory needs an employee lookup");
+        }
+        this.spillDirectory = directory != null ? Paths.get(directory) : null;
+    }
+
+    /**
+     * Set the listener told about each result dropped from memory without
+     * being spilled, so whatever tracks stored results can forget it
+     * The listener runs while the store is locked and must not call back into it
+     *
+     * @param listener Listener, or null for none
+     */
+    public synchronized void setDropListener(Consumer<PayrollResult> listener) {
+        this.dropListener = listener;
+    }
+
+    /**
+     * Store a result under its employee and pay period
+     * Replaces any earlier result for the same period, including one that
+     * was spilled to disk
+     *
+     * @param result Payroll result
+     * @return The result replaced, or null if there was none
+     */
+    public PayrollResult put(PayrollResult result) {
+        Key key = Key.of(result);
+        PayrollResult previous;
+        boolean spilled;
+        synchronized (this) {
+            previous = results.put(key, result);
+            latestKeys.put(key.employeeId, key);
+            if (previous == null) {
+                previous = pendingSpills.remove(key);
+            }
+            spilled = previous == null && spillDirectory != null;
+        }
+        if (spilled) {
+            previous = readSpilled(key);
+        }
+        writeEvicted();
+        return previous;
+    }
+
+    /**
+     * Get the result for an employee and pay period
+     *
+     * @param employeeId Employee ID
+     * @param year Year of payroll
+     * @param month Month of payroll
+     * @param payPeriodType Pay period type (MID_MONTH or END_MONTH)
+     * @return PayrollResult or null if it was never stored or has been dropped
+     */
+    public PayrollResult get(String employeeId, int year, int month, int payPeriodType) {
+        return get(new Key(employeeId, year, month, payPeriodType));
+    }
+
+    /**
+     * Get the most recently stored result for an employee
+     *
+     * @param employeeId Employee ID
+     * @return PayrollResult or null if none is available
+     */
+    public PayrollResult getLatest(String employeeId) {
+        Key key;
+        synchronized (this) {
+            key = latestKeys.get(employeeId);
+        }
+        return key != null ? get(key) : null;
+    }
+
+    /**
+     * Remove every result held in memory
+     * Spilled files are left on disk
+     */
+    public synchronized void clear() {
+        if (spillDirectory == null && dropListener != null) {
+            for (PayrollResult result : results.values()) {
+                dropListener.accept(result);
+            }
+        }
+        results.clear();
+        latestKeys.clear();
+    }
+
+    // Getters
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return results.size(); }
+    public synchronized long getSpillCount() { return spillCount; }
+    public synchronized long getSpillErrorCount() { return spillErrorCount; }
+
+    /**
+     * Look up a key in memory, then in the spill directory
+     * A result read back goes into memory unless another was stored meanwhile
+     */
+    private PayrollResult get(Key key) {
+        synchronized (this) {
+            PayrollResult result = results.get(key);
+            if (result == null) {
+                result = pendingSpills.get(key);
+            }
+            if (result != null || spillDirectory == null) {
+                return result;
+            }
+        }
+
+        PayrollResult spilled = readSpilled(key);
+        if (spilled == null) {
+            return null;
+        }
+        PayrollResult result;
+        synchronized (this) {
+            result = pendingSpills.get(key);
+            if (result == null) {
+                result = results.putIfAbsent(key, spilled);
+            }
+            if (result == null) {
+                result = spilled;
+            }
+        }
+        writeEvicted();
+        return result;
+    }
+
+    /**
+     * Write the results evicted so far, outside the store's lock
+     */
+    private void writeEvicted() {
+        List<Key> keys;
+        synchronized (this) {
+            if (evicted.isEmpty()) {
+                return;
+            }
+            keys = evicted;
+            evicted = new ArrayList<>();
+        }
+        for (Key key : keys) {
+            spill(key);
+        }
+    }
+
+    /**
+     * Write an evicted result to the spill directory
+     * Writes of one key are kept in order by its spill lock; a result that
+     * was stored again or evicted once more since is skipped. Failures are
+     * counted rather than printed, since eviction happens in the middle of
+     * batch runs.
+     */
+    private void spill(Key key) {
+        synchronized (spillLocks[(key.hashCode() & Integer.MAX_VALUE) % SPILL_LOCK_COUNT]) {
+            PayrollResult result;
+            Path file;
+            synchronized (this) {
+                result = pendingSpills.get(key);
+                file = spillFile(key);
+                if (result == null || file == null) {
+                    pendingSpills.remove(key);
+                    return;
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            putResult(buffer, result);
+
+            boolean written;
+            try {
+                Files.createDirectories(file.getParent());
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(temp, buffer.array());
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                written = true;
+            } catch (IOException e) {
+                written = false;
+            }
+
+            synchronized (this) {
+                pendingSpills.remove(key, result);
+                if (written) {
+                    spillCount++;
+                } else {
+                    spillErrorCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a spilled result back
+     *
+     * @return PayrollResult, or null if there is no valid file or the employee no longer exists
+     */
+    private PayrollResult readSpilled(Key key) {
+        Path file;
+        synchronized (this) {
+            file = spillFile(key);
+        }
+        if (file == null) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            synchronized (this) {
+                spillErrorCount++;
+            }
+            return null;
+        }
+
+        // The period follows the magic number and version
+        if (buffer.remaining() != RECORD_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt(8) != key.year || buffer.getInt(12) != key.month
+                || buffer.getInt(16) != key.payPeriodType) {
+            return null;
+        }
+
+        Employee employee = employeeLookup.apply(key.employeeId);
+        if (employee == null) {
+            return null;
+        }
+        return getResult(buffer, employee);
+    }
+
+    /**
+     * Write a result's period, flags and amounts, RESULT_SIZE bytes in all
+     * Shared with PayrollJournal so both files hold results the same way
+     *
+     * @param buffer Buffer to write to
+     * @param result Payroll result
+     */
+    static void putResult(ByteBuffer buffer, PayrollResult result) {
+        buffer.putInt(result.year);
+        buffer.putInt(result.month);
+        buffer.putInt(result.payPeriodType);
+        buffer.putLong(result.startDate.toEpochDay());
+        buffer.putLong(result.endDate.toEpochDay());
+        buffer.put((byte) (result.hasUnpaidAbsences ? 1 : 0));
+        buffer.putDouble(result.grossPay);
+        buffer.putDouble(result.netPay);
+        buffer.putDouble(result.deductions.sssDeduction);
+        buffer.putDouble(result.deductions.philhealthDeduction);
+        buffer.putDouble(result.deductions.pagibigDeduction);
+        buffer.putDouble(result.deductions.withholdingTax);
+        buffer.putDouble(result.deductions.totalDeductions);
+        buffer.putDouble(result.basePay);
+        buffer.putDouble(result.overtimePay);
+        buffer.putDouble(result.holidayPay);
+        buffer.putDouble(result.lateDeduction);
+        buffer.putDouble(result.undertimeDeduction);
+        buffer.putDouble(result.absenceDeduction);
+        buffer.putDouble(result.hoursWorked);
+        buffer.putDouble(result.overtimeHours);
+        buffer.putDouble(result.lateMinutes);
+        buffer.putDouble(result.undertimeMinutes);
+        buffer.putDouble(result.expectedHours);
+        buffer.putDouble(result.absentHours);
+        buffer.putDouble(result.dailyRate);
+        buffer.putDouble(result.hourlyRate);
+    }
+
+    /**
+     * Read a result written by putResult
+     *
+     * @param buffer Buffer positioned at the result
+     * @param employee Employee the result belongs to
+     * @return PayrollResult
+     */
+    static PayrollResult getResult(ByteBuffer buffer, Employee employee) {
+        int year = buffer.getInt();
+        int month = buffer.getInt();
+        int payPeriodType = buffer.getInt();
+        LocalDate startDate = LocalDate.ofEpochDay(buffer.getLong());
+        LocalDate endDate = LocalDate.ofEpochDay(buffer.getLong());
+        boolean hasUnpaidAbsences = buffer.get() != 0;
+        double grossPay = buffer.getDouble();
+        double netPay = buffer.getDouble();
+        StatutoryDeductions.DeductionResult deductions = new StatutoryDeductions.DeductionResult(
+                buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        double basePay = buffer.getDouble();
+        double overtimePay = buffer.getDouble();
+        double holidayPay = buffer.getDouble();
+        double lateDeduction = buffer.getDouble();
+        double undertimeDeduction = buffer.getDouble();
+        double absenceDeduction = buffer.getDouble();
+        double hoursWorked = buffer.getDouble();
+        double overtimeHours = buffer.getDouble();
+        double lateMinutes = buffer.getDouble();
+        double undertimeMinutes = buffer.getDouble();
+        double expectedHours = buffer.getDouble();
+        double absentHours = buffer.getDouble();
+        double dailyRate = buffer.getDouble();
+        double hourlyRate = buffer.getDouble();
+
+        return new PayrollResult(employee, grossPay, netPay, deductions, basePay, overtimePay, holidayPay,
+                lateDeduction, undertimeDeduction, absenceDeduction, hoursWorked, overtimeHours,
+                lateMinutes, undertimeMinutes, expectedHours, absentHours, dailyRate, startDate, endDate,
+                payPeriodType, hourlyRate, year, month, hasUnpaidAbsences);
+    }
+
+    /**
+     * Get the spill file of a key: one directory per pay period, one file per employee
+     *
+     * @return Path, or null if spilling is off or the employee ID is not safe as a file name
+     */
+    private Path spillFile(Key key) {
+        if (spillDirectory == null || !isSafeFileName(key.employeeId)) {
+            return null;
+        }
+        String period = key.year + "-" + (key.month < 10 ? "0" : "") + key.month + "-" + key.payPeriodType;
+        return spillDirectory.resolve(period).resolve(key.employeeId + RESULT_FILE_SUFFIX);
+    }
+
+    /**
+     * Check that an employee ID only has letters, digits, dashes and underscores
+     */
+    private static boolean isSafeFileName(String employeeId) {
+        if (employeeId.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < employeeId.length(); i++) {
+            char c = employeeId.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Employee and pay period a result belongs to
+     */
+    private static final class Key {
+        private final String employeeId;
+        private final int year;
+        private final int month;
+        private final int payPeriodType;
+
+        Key(String employeeId, int year, int month, int payPeriodType) {
+            this.employeeId = employeeId;
+            this.year = year;
+            this.month = month;
+            this.payPeriodType = payPeriodType;
+        }
+
+        static Key of(PayrollResult result) {
+            return new Key(result.employee.getEmployeeId(), result.year, result.month, result.payPeriodType);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return year == key.year && month == key.month && payPeriodType == key.payPeriodType
+                    && employeeId.equals(key.employeeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((employeeId.hashCode() * 31 + year) * 13 + month) * 3 + payPeriodType;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// File: motorph/process/PayrollRun.java
+package motorph.process;
+
+import motorph.employee.Employee;
+import motorph.process.PayrollProcessor.PayrollResult;
+import motorph.util.Centavos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of one whole-company payroll run
+ * Holds every employee's result, the employees that could not be paid and
+ * the company totals for the pay period.
+ */
+public class PayrollRun {
+    private final PayPeriod payPeriod;
+    private final List<PayrollResult> results = new ArrayList<>();
+    private final List<PayrollError> errors = new ArrayList<>();
+
+    // Company totals
+    private double totalGrossPay;
+    private double totalNetPay;
+    private double totalDeductions;
+    private double totalSss;
+    private double totalPhilhealth;
+    private double totalPagibig;
+    private double totalWithholdingTax;
+    private double totalOvertimePay;
+    private double totalHolidayPay;
+
+    // Totals of the amounts rounded to the centavo, exact in any number of employees
+    private long totalGrossCentavos;
+    private long totalNetCentavos;
+    private long totalDeductionsCentavos;
+
+    // Results read back from a run journal instead of calculated
+    private int resumedCount;
+
+    /**
+     * Create an empty run for a pay period
+     *
+     * @param payPeriod The pay period being processed
+     */
+    public PayrollRun(PayPeriod payPeriod) {
+        this.payPeriod = payPeriod;
+    }
+
+    /**
+     * Add an employee's result and include it in the totals
+     *
+     * @param result Payroll result
+     */
+    void addResult(PayrollResult result) {
+        results.add(result);
+        totalGrossPay += result.grossPay;
+        totalNetPay += result.netPay;
+        totalDeductions += result.deductions.totalDeductions;
+        totalSss += result.deductions.sssDeduction;
+        totalPhilhealth += result.deductions.philhealthDeduction;
+        totalPagibig += result.deductions.pagibigDeduction;
+        totalWithholdingTax += result.deductions.withholdingTax;
+        totalOvertimePay += result.overtimePay;
+        totalHolidayPay += result.holidayPay;
+        totalGrossCentavos += Centavos.fromPesos(result.grossPay);
+        totalNetCentavos += Centavos.fromPesos(result.netPay);
+        totalDeductionsCentavos += Centavos.fromPesos(result.deductions.totalDeductions);
+    }
+
+    /**
+     * Record an employee that could not be paid
+     *
+     * @param employee The employee
+     * @param message Reason the employee was not paid
+     */
+    void addError(Employee employee, String message) {
+        errors.add(new PayrollError(employee.getEmployeeId(), employee.getFullName(), message));
+    }
+
+    /**
+     * Count a result that was read back from a run journal
+     */
+    void markResumed() {
+        resumedCount++;
+    }
+
+    // Getters
+    public PayPeriod getPayPeriod() { return payPeriod; }
+    public List<PayrollResult> getResults() { return Collections.unmodifiableList(results); }
+    public List<PayrollError> getErrors() { return Collections.unmodifiableList(errors); }
+    public int getProcessedCount() { return results.size(); }
+    public int getErrorCount() { return errors.size(); }
+    public boolean hasErrors() { return !errors.isEmpty(); }
+    public int getResumedCount() { return resumedCount; }
+
+    // Total getters
+    public double getTotalGrossPay() { return totalGrossPay; }
+    public double getTotalNetPay() { return totalNetPay; }
+    public double getTotalDeductions() { return totalDeductions; }
+    public double getTotalSss() { return totalSss; }
+    public double getTotalPhilhealth() { return totalPhilhealth; }
+    public double getTotalPagibig() { return totalPagibig; }
+    public double getTotalWithholdingTax() { return totalWithholdingTax; }
+    public double getTotalOvertimePay() { return totalOvertimePay; }
+    public double getTotalHolidayPay() { return totalHolidayPay; }
+    public long getTotalGrossCentavos() { return totalGrossCentavos; }
+    public long getTotalNetCentavos() { return totalNetCentavos; }
+    public long getTotalDeductionsCentavos() { return totalDeductionsCentavos; }
+
+    /**
+     * An employee left out of the run and the reason why
+     */
+    public static class PayrollError {
+        public final String employeeId;
+        public final String employeeName;
+        public final String message;
+
+        public PayrollError(String employeeId, String employeeName, String message) {
+            this.employeeId = employeeId;
+            this.employeeName = employeeName;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return employeeId + " (" + employeeName + "): " + message;
+        }
+    }
+}
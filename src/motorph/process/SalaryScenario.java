@@ -0,0 +1,250 @@
+// File: motorph/process/SalaryScenario.java
+package motorph.process;
+
+import motorph.employee.Employee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A named set of salary changes laid over the loaded employees
+ * Each overlay picks employees by ID, position or supervisor and changes
+ * their monthly salary. Overlays apply in the order they were added, so a
+ * raise for a position followed by one for a single employee compounds.
+ * The loaded employees are never changed; apply returns copies.
+ */
+public class SalaryScenario {
+    /**
+     * Which employees an overlay applies to
+     */
+    public enum Target {
+        /** One employee, matched by employee ID */
+        EMPLOYEE,
+        /** Everyone in a position, matched ignoring case */
+        POSITION,
+        /** Everyone reporting to a supervisor, matched ignoring case */
+        SUPERVISOR
+    }
+
+    /**
+     * How an overlay changes the salary
+     */
+    public enum Change {
+        /** Raise (or cut) by a percentage of the current salary */
+        PERCENT,
+        /** Add (or subtract) a fixed monthly amount */
+        AMOUNT,
+        /** Set the monthly salary outright */
+        SALARY
+    }
+
+    private final String name;
+    private final List<Overlay> overlays = new ArrayList<>();
+
+    /**
+     * Create an empty scenario
+     *
+     * @param name Name shown in reports
+     */
+    public SalaryScenario(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Scenario name cannot be empty");
+        }
+        this.name = name.trim();
+    }
+
+    /**
+     * Add a salary change
+     *
+     * @param target Which employees to change
+     * @param match Employee ID, position or supervisor name
+     * @param change How to change the salary
+     * @param value Percentage, amount or new salary
+     * @return This scenario, for chaining
+     */
+    public SalaryScenario add(Target target, String match, Change change, double value) {
+        overlays.add(new Overlay(target, match, change, value));
+        return this;
+    }
+
+    /**
+     * Add a salary change written as "target:match:change"
+     * The change is "+5%" or "-2%" for a percentage, "+2000" or "-500" for
+     * an amount, and "=50000" for a new salary, for example
+     * "position:Account Manager:+5%" or "employee:10003:=60000"
+     *
+     * @param rule Rule text
+     * @return This scenario, for chaining
+     */
+    public SalaryScenario add(String rule) {
+        overlays.add(Overlay.parse(rule));
+        return this;
+    }
+
+    /**
+     * Apply the scenario to a list of employees
+     *
+     * @param employees Employees as loaded
+     * @return New list in the same order; changed employees are copies
+     */
+    public List<Employee> apply(List<Employee> employees) {
+        List<Employee> result = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            result.add(apply(employee));
+        }
+        return result;
+    }
+
+    /**
+     * Apply the scenario to one employee
+     *
+     * @param employee Employee as loaded
+     * @return The same employee if no overlay matches, otherwise a copy with the new salary
+     */
+    public Employee apply(Employee employee) {
+        double salary = employee.getBasicSalary();
+        boolean changed = false;
+        for (Overlay overlay : overlays) {
+            if (overlay.matches(employee)) {
+                salary = overlay.apply(salary);
+                changed = true;
+            }
+        }
+        return changed ? employee.withBasicSalary(salary) : employee;
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public List<Overlay> getOverlays() { return Collections.unmodifiableList(overlays); }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name);
+        for (Overlay overlay : overlays) {
+            sb.append("\n  ").append(overlay);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One salary change and the employees it applies to
+     */
+    public static class Overlay {
+        public final Target target;
+        public final String match;
+        public final Change change;
+        public final double value;
+
+        public Overlay(Target target, String match, Change change, double value) {
+            if (target == null || change == null) {
+                throw new IllegalArgumentException("Overlay target and change cannot be null");
+            }
+            if (match == null || match.trim().isEmpty()) {
+                throw new IllegalArgumentException("Overlay must name an employee, position or supervisor");
+            }
+            if (change == Change.SALARY && value < 0) {
+                throw new IllegalArgumentException("Salary cannot be negative");
+            }
+            this.target = target;
+            this.match = match.trim();
+            this.change = change;
+            this.value = value;
+        }
+
+        /**
+         * Parse a rule written as "target:match:change"
+         *
+         * @param rule Rule text
+         * @return Overlay
+         */
+        public static Overlay parse(String rule) {
+            int first = rule == null ? -1 : rule.indexOf(':');
+            int last = rule == null ? -1 : rule.lastIndexOf(':');
+            if (first < 0 || last == first) {
+                throw new IllegalArgumentException("Rule must be target:match:change: " + rule);
+            }
+
+            Target target;
+            try {
+                target = Target.valueOf(rule.substring(0, first).trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule target must be employee, position or supervisor: " + rule);
+            }
+
+            String text = rule.substring(last + 1).trim();
+            Change change;
+            if (text.startsWith("=")) {
+                change = Change.SALARY;
+                text = text.substring(1);
+            } else if (text.endsWith("%")) {
+                change = Change.PERCENT;
+                text = text.substring(0, text.length() - 1);
+            } else {
+                change = Change.AMOUNT;
+            }
+
+            double value;
+            try {
+                value = Double.parseDouble(text.replace(",", "").trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid change in rule: " + rule);
+            }
+            return new Overlay(target, rule.substring(first + 1, last), change, value);
+        }
+
+        /**
+         * Check whether an employee is picked by this overlay
+         */
+        public boolean matches(Employee employee) {
+            switch (target) {
+                case EMPLOYEE:
+                    return match.equals(employee.getEmployeeId());
+                case POSITION:
+                    return match.equalsIgnoreCase(trimmed(employee.getPosition()));
+                default:
+                    return match.equalsIgnoreCase(trimmed(employee.getSupervisor()));
+            }
+        }
+
+        /**
+         * Change a monthly salary; the result is never negative
+         */
+        public double apply(double salary) {
+            double changed;
+            switch (change) {
+                case PERCENT:
+                    changed = salary * (100 + value) / 100;
+                    break;
+                case AMOUNT:
+                    changed = salary + value;
+                    break;
+                default:
+                    changed = value;
+                    break;
+            }
+            return Math.max(0, changed);
+        }
+
+        private static String trimmed(String value) {
+            return value == null ? "" : value.trim();
+        }
+
+        @Override
+        public String toString() {
+            String amount;
+            switch (change) {
+                case PERCENT:
+                    amount = String.format("%+.2f%%", value);
+                    break;
+                case AMOUNT:
+                    amount = String.format("%+,.2f", value);
+                    break;
+                default:
+                    amount = String.format("= %,.2f", value);
+                    break;
+            }
+            return target.name().toLowerCase() + " " + match + ": " + amount;
+        }
+    }
+}
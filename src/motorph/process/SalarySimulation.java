@@ -0,0 +1,328 @@
+// File: motorph/process/SalarySimulation.java
+package motorph.process;
+
+import motorph.employee.Employee;
+import motorph.process.PayrollProcessor.PayrollResult;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What-if payroll for salary changes, without touching the employee file
+ * The active employees, each period's attendance totals and a baseline run
+ * are read once; every scenario after that lays its overlays over copies of
+ * the employees and runs the batch payroll for all the periods side by side.
+ * Simulated results are never stored, so the processor's own results are
+ * left alone.
+ */
+public class SalarySimulation {
+    // Amounts compared, in report order
+    public static final int GROSS_PAY = 0;
+    public static final int SSS = 1;
+    public static final int PHILHEALTH = 2;
+    public static final int PAGIBIG = 3;
+    public static final int WITHHOLDING_TAX = 4;
+    public static final int TOTAL_DEDUCTIONS = 5;
+    public static final int NET_PAY = 6;
+
+    private static final String[] FIELD_NAMES = {
+            "Gross Pay", "SSS", "PhilHealth", "Pag-IBIG", "Withholding Tax", "Total Deductions", "Net Pay"
+    };
+
+    private static final String DEFAULT_EMPLOYEE_FILE = "resources/MotorPH Employee Data - Employee Details.csv";
+    private static final String DEFAULT_ATTENDANCE_FILE = "resources/MotorPH Employee Data - Attendance Record.csv";
+
+    private final PayrollProcessor processor;
+    private final int parallelism;
+    private final List<PayPeriod> payPeriods;
+    private final List<PayrollProcessor.BatchInputs> periods = new ArrayList<>();
+    private final List<Employee> employees;
+    private final List<PayrollRun> baselineRuns;
+
+    /**
+     * Load the employees and attendance of the periods and run the baseline
+     *
+     * @param processor Processor whose employees and attendance are used
+     * @param payPeriods Pay periods every scenario is run for
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     */
+    public SalarySimulation(PayrollProcessor processor, List<PayPeriod> payPeriods, int parallelism) {
+        if (processor == null || payPeriods == null || payPeriods.isEmpty()) {
+            throw new IllegalArgumentException("Processor and at least one pay period are required");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.processor = processor;
+        this.parallelism = parallelism;
+        this.payPeriods = Collections.unmodifiableList(new ArrayList<>(payPeriods));
+        this.employees = Collections.unmodifiableList(processor.getActiveEmployees());
+        for (PayPeriod payPeriod : payPeriods) {
+            periods.add(processor.prepareBatch(payPeriod, parallelism));
+        }
+        this.baselineRuns = processor.simulateBatches(periods, employees, parallelism);
+    }
+
+    /**
+     * Run one scenario against the baseline
+     *
+     * @param scenario Salary changes to try
+     * @return Changes per employee and for the company
+     */
+    public Result run(SalaryScenario scenario) {
+        List<Employee> scenarioEmployees = scenario.apply(employees);
+        List<PayrollRun> scenarioRuns = processor.simulateBatches(periods, scenarioEmployees, parallelism);
+        return new Result(scenario, scenarioEmployees, scenarioRuns);
+    }
+
+    /**
+     * Run several scenarios against the same baseline
+     *
+     * @param scenarios Scenarios to try
+     * @return One result per scenario, in the same order
+     */
+    public List<Result> runAll(List<SalaryScenario> scenarios) {
+        List<Result> results = new ArrayList<>();
+        for (SalaryScenario scenario : scenarios) {
+            results.add(run(scenario));
+        }
+        return results;
+    }
+
+    // Getters
+    public List<PayPeriod> getPayPeriods() { return payPeriods; }
+    public List<PayrollRun> getBaselineRuns() { return Collections.unmodifiableList(baselineRuns); }
+    public int getEmployeeCount() { return employees.size(); }
+
+    /**
+     * Get one compared amount of a result
+     */
+    private static double amount(PayrollResult result, int field) {
+        switch (field) {
+            case GROSS_PAY: return result.grossPay;
+            case SSS: return result.deductions.sssDeduction;
+            case PHILHEALTH: return result.deductions.philhealthDeduction;
+            case PAGIBIG: return result.deductions.pagibigDeduction;
+            case WITHHOLDING_TAX: return result.deductions.withholdingTax;
+            case TOTAL_DEDUCTIONS: return result.deductions.totalDeductions;
+            default: return result.netPay;
+        }
+    }
+
+    /**
+     * Outcome of one scenario over all the periods
+     */
+    public class Result {
+        private final SalaryScenario scenario;
+        private final List<PayrollRun> scenarioRuns;
+        private final double[] baselineTotals = new double[FIELD_NAMES.length];
+        private final double[] scenarioTotals = new double[FIELD_NAMES.length];
+        private final List<EmployeeDelta> employeeDeltas = new ArrayList<>();
+        private int unmatchedCount;
+
+        private Result(SalaryScenario scenario, List<Employee> scenarioEmployees, List<PayrollRun> scenarioRuns) {
+            this.scenario = scenario;
+            this.scenarioRuns = scenarioRuns;
+
+            // Changes by field and employee position, summed over the periods
+            double[][] changes = new double[FIELD_NAMES.length][employees.size()];
+            Map<String, Integer> positions = new HashMap<>(employees.size() * 2);
+            for (int i = 0; i < employees.size(); i++) {
+                positions.put(employees.get(i).getEmployeeId(), i);
+            }
+
+            for (int period = 0; period < periods.size(); period++) {
+                Map<String, PayrollResult> baseline = new HashMap<>();
+                for (PayrollResult result : baselineRuns.get(period).getResults()) {
+                    baseline.put(result.employee.getEmployeeId(), result);
+                }
+
+                for (PayrollResult result : scenarioRuns.get(period).getResults()) {
+                    PayrollResult before = baseline.remove(result.employee.getEmployeeId());
+                    if (before == null) {
+                        unmatchedCount++;
+                        continue;
+                    }
+                    int position = positions.get(result.employee.getEmployeeId());
+                    for (int field = 0; field < FIELD_NAMES.length; field++) {
+                        double was = amount(before, field);
+                        double is = amount(result, field);
+                        baselineTotals[field] += was;
+                        scenarioTotals[field] += is;
+                        changes[field][position] += is - was;
+                    }
+                }
+                unmatchedCount += baseline.size();
+            }
+
+            for (int i = 0; i < employees.size(); i++) {
+                Employee before = employees.get(i);
+                Employee after = scenarioEmployees.get(i);
+                if (before == after) {
+                    continue;
+                }
+                double[] employeeChanges = new double[FIELD_NAMES.length];
+                for (int field = 0; field < FIELD_NAMES.length; field++) {
+                    employeeChanges[field] = changes[field][i];
+                }
+                employeeDeltas.add(new EmployeeDelta(before, after.getBasicSalary(), employeeChanges));
+            }
+        }
+
+        // Getters
+        public SalaryScenario getScenario() { return scenario; }
+        public List<PayrollRun> getScenarioRuns() { return Collections.unmodifiableList(scenarioRuns); }
+        public List<EmployeeDelta> getEmployeeDeltas() { return Collections.unmodifiableList(employeeDeltas); }
+        public int getChangedEmployeeCount() { return employeeDeltas.size(); }
+        public int getUnmatchedCount() { return unmatchedCount; }
+        public double getBaselineTotal(int field) { return baselineTotals[field]; }
+        public double getScenarioTotal(int field) { return scenarioTotals[field]; }
+        public double getTotalChange(int field) { return scenarioTotals[field] - baselineTotals[field]; }
+
+        /**
+         * Print the company totals and every changed employee
+         *
+         * @param out Stream to print to
+         */
+        public void printReport(PrintStream out) {
+            out.println("=== SALARY SIMULATION: " + scenario.getName() + " ===");
+            for (SalaryScenario.Overlay overlay : scenario.getOverlays()) {
+                out.println("  " + overlay);
+            }
+            for (PayPeriod payPeriod : payPeriods) {
+                out.println(payPeriod);
+            }
+            out.println("Employees: " + employees.size() + ", with a salary change: " + employeeDeltas.size());
+            if (unmatchedCount > 0) {
+                out.println("Results paid in only one run: " + unmatchedCount);
+            }
+
+            out.println();
+            out.printf("%-20s %18s %18s %16s%n", "Amount", "Baseline", "Scenario", "Change");
+            for (int field = 0; field < FIELD_NAMES.length; field++) {
+                out.printf("%-20s %18s %18s %16s%n", FIELD_NAMES[field],
+                        String.format("%,.2f", baselineTotals[field]), String.format("%,.2f", scenarioTotals[field]),
+                        String.format("%+,.2f", getTotalChange(field)));
+            }
+            out.println();
+            out.printf("Cost to company (gross): %,.2f%n", getTotalChange(GROSS_PAY));
+            out.printf("Taken by deductions:     %,.2f%n", getTotalChange(TOTAL_DEDUCTIONS));
+            out.printf("Kept by employees (net): %,.2f%n", getTotalChange(NET_PAY));
+
+            if (!employeeDeltas.isEmpty()) {
+                out.println();
+                out.println("=== EMPLOYEE CHANGES ===");
+                out.printf("%-8s %-25s %-25s %12s %12s %12s %12s %12s%n", "ID", "Name", "Position",
+                        "Old Salary", "New Salary", "Gross", "Deductions", "Net");
+                for (EmployeeDelta delta : employeeDeltas) {
+                    out.printf("%-8s %-25s %-25s %12s %12s %12s %12s %12s%n", delta.employeeId,
+                            truncate(delta.employeeName), truncate(delta.position),
+                            String.format("%,.2f", delta.oldSalary), String.format("%,.2f", delta.newSalary),
+                            String.format("%+,.2f", delta.getChange(GROSS_PAY)),
+                            String.format("%+,.2f", delta.getChange(TOTAL_DEDUCTIONS)),
+                            String.format("%+,.2f", delta.getChange(NET_PAY)));
+                }
+            }
+        }
+    }
+
+    private static String truncate(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() > 25 ? value.substring(0, 22) + "..." : value;
+    }
+
+    /**
+     * One employee's salary change and what it does to their pay over the periods
+     */
+    public static class EmployeeDelta {
+        public final String employeeId;
+        public final String employeeName;
+        public final String position;
+        public final double oldSalary;
+        public final double newSalary;
+        private final double[] changes;
+
+        EmployeeDelta(Employee employee, double newSalary, double[] changes) {
+            this.employeeId = employee.getEmployeeId();
+            this.employeeName = employee.getFullName();
+            this.position = employee.getPosition();
+            this.oldSalary = employee.getBasicSalary();
+            this.newSalary = newSalary;
+            this.changes = changes;
+        }
+
+        /**
+         * Get the change in one amount, summed over the periods
+         *
+         * @param field GROSS_PAY, SSS, PHILHEALTH, PAGIBIG, WITHHOLDING_TAX, TOTAL_DEDUCTIONS or NET_PAY
+         * @return Scenario amount minus baseline amount
+         */
+        public double getChange(int field) {
+            return changes[field];
+        }
+    }
+
+    /**
+     * Command-line entry point
+     *
+     * @param args Year, month, pay period type (1 = mid-month, 2 = end-month,
+     *             both = the whole month), then one or more rules such as
+     *             "position:Account Manager:+5%"
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: SalarySimulation <year> <month> <1|2|both> <rule> [rule...]");
+            System.out.println("Rules: employee:<id>:<change>, position:<name>:<change>,"
+                    + " supervisor:<name>:<change>; change is +5%, +2000 or =50000");
+            return;
+        }
+
+        int year;
+        int month;
+        try {
+            year = Integer.parseInt(args[0].trim());
+            month = Integer.parseInt(args[1].trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Year and month must be numbers");
+            return;
+        }
+        if (month < 1 || month > 12) {
+            System.out.println("Invalid month");
+            return;
+        }
+
+        List<PayPeriod> payPeriods = new ArrayList<>();
+        String type = args[2].trim();
+        if (type.equalsIgnoreCase("both")) {
+            payPeriods.add(PayPeriod.forPayroll(year, month, PayrollDateManager.MID_MONTH));
+            payPeriods.add(PayPeriod.forPayroll(year, month, PayrollDateManager.END_MONTH));
+        } else if (type.equals(String.valueOf(PayrollDateManager.MID_MONTH))
+                || type.equals(String.valueOf(PayrollDateManager.END_MONTH))) {
+            payPeriods.add(PayPeriod.forPayroll(year, month, Integer.parseInt(type)));
+        } else {
+            System.out.println("Pay period type must be 1, 2 or both");
+            return;
+        }
+
+        SalaryScenario scenario = new SalaryScenario("Command line");
+        try {
+            for (int i = 3; i < args.length; i++) {
+                scenario.add(args[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        PayrollProcessor processor = new PayrollProcessor(DEFAULT_EMPLOYEE_FILE, DEFAULT_ATTENDANCE_FILE);
+        SalarySimulation simulation = new SalarySimulation(processor, payPeriods,
+                Runtime.getRuntime().availableProcessors());
+        simulation.run(scenario).printReport(System.out);
+    }
+}
@@ -0,0 +1,271 @@
+// File: motorph/process/ThirteenthMonthRegister.java
+package motorph.process;
+
+import motorph.employee.Employee;
+import motorph.util.Centavos;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 13th-month pay of the whole workforce for one year
+ * Each employee's pay is the basic pay earned in the year's finalized
+ * payrolls divided by 12, taken from the year-to-date totals so the year is
+ * never recalculated. Basic pay earned leaves out overtime, holiday pay and
+ * allowances, and has late, undertime and absence deductions taken off. The
+ * pay is never more than one month's basic salary. Up to NON_TAXABLE_CEILING
+ * is tax-exempt; this system pays no other exempt benefits that share the
+ * ceiling, so all of it is applied to the 13th-month pay.
+ */
+public class ThirteenthMonthRegister {
+    // Tax-exempt 13th-month pay and other benefits per year, in centavos
+    public static final long NON_TAXABLE_CEILING = 90_000 * Centavos.PER_PESO;
+
+    // Employee ranges smaller than this are not split further
+    private static final int MIN_PARTITION_SIZE = 256;
+
+    private static final String DEFAULT_EMPLOYEE_FILE = "resources/MotorPH Employee Data - Employee Details.csv";
+    private static final String DEFAULT_ATTENDANCE_FILE = "resources/MotorPH Employee Data - Attendance Record.csv";
+
+    private final int year;
+    private final List<Line> lines = new ArrayList<>();
+    private final List<PayrollRun.PayrollError> errors = new ArrayList<>();
+
+    // Register totals in centavos
+    private long totalBasicPayEarned;
+    private long totalThirteenthMonthPay;
+    private long totalNonTaxable;
+    private long totalTaxable;
+
+    private ThirteenthMonthRegister(int year) {
+        this.year = year;
+    }
+
+    /**
+     * Work out the 13th-month pay of a list of employees
+     * Employees with no finalized payroll in the year are left out, and
+     * listed as errors if they are still active. With parallelism above 1 the
+     * employees are split into ranges that are worked out on a ForkJoinPool.
+     *
+     * @param employees Employees to pay
+     * @param yearToDate Year-to-date totals of finalized payrolls
+     * @param year Payroll year
+     * @param parallelism Number of threads (1 to run on the calling thread)
+     * @return Register in employee number order
+     */
+    public static ThirteenthMonthRegister compute(List<Employee> employees, YearToDateStore yearToDate, int year,
+                                                  int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        List<Employee> sorted = new ArrayList<>(employees);
+        sorted.sort(Comparator.comparing(Employee::getEmployeeId, PayrollProcessor.EMPLOYEE_ID_ORDER));
+        Line[] slots = new Line[sorted.size()];
+
+        if (parallelism == 1 || sorted.size() < MIN_PARTITION_SIZE * 2) {
+            computeRange(sorted, yearToDate, year, slots, 0, sorted.size());
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new Partition(sorted, yearToDate, year, slots, 0, sorted.size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        ThirteenthMonthRegister register = new ThirteenthMonthRegister(year);
+        for (int i = 0; i < slots.length; i++) {
+            Employee employee = sorted.get(i);
+            if (slots[i] != null) {
+                register.addLine(slots[i]);
+            } else if (employee.isActive()) {
+                register.errors.add(new PayrollRun.PayrollError(employee.getEmployeeId(), employee.getFullName(),
+                        "No finalized payroll in " + year + "."));
+            }
+        }
+        return register;
+    }
+
+    /**
+     * Work out the lines of the employees at positions [from, to)
+     * Each slot is written by exactly one partition, so no locking is needed
+     */
+    private static void computeRange(List<Employee> employees, YearToDateStore yearToDate, int year,
+                                     Line[] slots, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Employee employee = employees.get(i);
+            YearToDateStore.YearToDate totals = yearToDate.get(employee.getEmployeeId(), year);
+            if (totals == null || totals.periodMask == 0) {
+                continue;
+            }
+
+            long basicPayEarned = Math.max(0, totals.getCentavos(YearToDateStore.BASIC_PAY));
+            long pay = Centavos.divide(basicPayEarned, 12);
+            long monthlySalary = Centavos.fromPesos(employee.getBasicSalary());
+            if (monthlySalary > 0) {
+                pay = Math.min(pay, monthlySalary);
+            }
+            long nonTaxable = Math.min(pay, NON_TAXABLE_CEILING);
+
+            slots[i] = new Line(employee, totals.getPeriodCount(), monthlySalary, basicPayEarned, pay,
+                    nonTaxable, pay - nonTaxable);
+        }
+    }
+
+    /**
+     * Fork/join task that splits an employee range in half until it is small
+     */
+    private static final class Partition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Employee> employees;
+        private final YearToDateStore yearToDate;
+        private final int year;
+        private final Line[] slots;
+        private final int from;
+        private final int to;
+
+        Partition(List<Employee> employees, YearToDateStore yearToDate, int year, Line[] slots, int from, int to) {
+            this.employees = employees;
+            this.yearToDate = yearToDate;
+            this.year = year;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_PARTITION_SIZE) {
+                computeRange(employees, yearToDate, year, slots, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Partition(employees, yearToDate, year, slots, from, middle),
+                    new Partition(employees, yearToDate, year, slots, middle, to));
+        }
+    }
+
+    /**
+     * Add a line and include it in the totals
+     */
+    private void addLine(Line line) {
+        lines.add(line);
+        totalBasicPayEarned += line.basicPayEarned;
+        totalThirteenthMonthPay += line.thirteenthMonthPay;
+        totalNonTaxable += line.nonTaxable;
+        totalTaxable += line.taxable;
+    }
+
+    // Getters
+    public int getYear() { return year; }
+    public List<Line> getLines() { return Collections.unmodifiableList(lines); }
+    public List<PayrollRun.PayrollError> getErrors() { return Collections.unmodifiableList(errors); }
+    public long getTotalBasicPayEarned() { return totalBasicPayEarned; }
+    public long getTotalThirteenthMonthPay() { return totalThirteenthMonthPay; }
+    public long getTotalNonTaxable() { return totalNonTaxable; }
+    public long getTotalTaxable() { return totalTaxable; }
+
+    /**
+     * Print the register: one line per employee, then the totals and any errors
+     *
+     * @param out Stream to print to
+     */
+    public void printRegister(PrintStream out) {
+        out.println("=== 13TH MONTH PAY REGISTER " + year + " ===");
+        out.printf("%-8s %-25s %7s %14s %16s %14s %14s %12s%n", "ID", "Name", "Periods", "Monthly Salary",
+                "Basic Earned", "13th Month", "Non-Taxable", "Taxable");
+        for (Line line : lines) {
+            out.println(line);
+        }
+
+        out.println();
+        out.printf("%-8s %-25s %7s %14s %16s %14s %14s %12s%n", "TOTAL", lines.size() + " employees", "", "",
+                Centavos.format(totalBasicPayEarned), Centavos.format(totalThirteenthMonthPay),
+                Centavos.format(totalNonTaxable), Centavos.format(totalTaxable));
+
+        if (!errors.isEmpty()) {
+            out.println();
+            out.println("=== NOT INCLUDED ===");
+            for (PayrollRun.PayrollError error : errors) {
+                out.println(error);
+            }
+        }
+    }
+
+    /**
+     * One employee's 13th-month pay; amounts are in centavos
+     */
+    public static class Line {
+        public final String employeeId;
+        public final String employeeName;
+        public final int periodCount;
+        public final long monthlySalary;
+        public final long basicPayEarned;
+        public final long thirteenthMonthPay;
+        public final long nonTaxable;
+        public final long taxable;
+
+        Line(Employee employee, int periodCount, long monthlySalary, long basicPayEarned,
+             long thirteenthMonthPay, long nonTaxable, long taxable) {
+            this.employeeId = employee.getEmployeeId();
+            this.employeeName = employee.getFullName();
+            this.periodCount = periodCount;
+            this.monthlySalary = monthlySalary;
+            this.basicPayEarned = basicPayEarned;
+            this.thirteenthMonthPay = thirteenthMonthPay;
+            this.nonTaxable = nonTaxable;
+            this.taxable = taxable;
+        }
+
+        @Override
+        public String toString() {
+            String name = employeeName.length() > 25 ? employeeName.substring(0, 22) + "..." : employeeName;
+            return String.format("%-8s %-25s %7d %14s %16s %14s %14s %12s", employeeId, name, periodCount,
+                    Centavos.format(monthlySalary), Centavos.format(basicPayEarned),
+                    Centavos.format(thirteenthMonthPay), Centavos.format(nonTaxable), Centavos.format(taxable));
+        }
+    }
+
+    /**
+     * Command-line entry point
+     *
+     * @param args Year, year-to-date totals file, then optional thread count
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ThirteenthMonthRegister <year> <yearToDateFile> [threads]");
+            return;
+        }
+
+        int year;
+        int parallelism;
+        try {
+            year = Integer.parseInt(args[0].trim());
+            parallelism = args.length > 2 ? Integer.parseInt(args[2].trim()) : 1;
+        } catch (NumberFormatException e) {
+            System.out.println("Year and threads must be numbers");
+            return;
+        }
+        if (parallelism < 1) {
+            System.out.println("Invalid thread count");
+            return;
+        }
+
+        PayrollProcessor processor = new PayrollProcessor(DEFAULT_EMPLOYEE_FILE, DEFAULT_ATTENDANCE_FILE);
+        try {
+            processor.setYearToDateFile(args[1]);
+        } catch (IOException e) {
+            System.out.println("Error reading year-to-date file: " + e.getMessage());
+            return;
+        }
+        processor.runThirteenthMonth(year, parallelism).printRegister(System.out);
+    }
+}
@@ -0,0 +1,429 @@
+// File: motorph/process/YearToDateStore.java
+package motorph.process;
+
+import motorph.process.PayrollProcessor.PayrollResult;
+import motorph.util.Centavos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Year-to-date totals per employee and payroll year
+ * Each finalized result is added once: the totals are kept in centavos as
+ * payslips show them, next to a bitmask of the pay periods already added
+ * and the amounts each period added. Finalizing a period again with
+ * the same amounts changes nothing; with different amounts the earlier
+ * result is taken out and the new one added in its place, provided the
+ * earlier result is known. Lookups are hash lookups by year and employee, so
+ * annual figures never replay past periods. All methods may be called from
+ * several threads.
+ */
+public class YearToDateStore {
+    // Accumulated amounts, by index
+    public static final int GROSS_PAY = 0;
+    public static final int BASIC_PAY = 1;        // Base pay less late, undertime and absence deductions
+    public static final int TAXABLE_INCOME = 2;   // Gross pay less SSS, PhilHealth and Pag-IBIG
+    public static final int SSS = 3;
+    public static final int PHILHEALTH = 4;
+    public static final int PAGIBIG = 5;
+    public static final int WITHHOLDING_TAX = 6;
+    public static final int NET_PAY = 7;
+    public static final int FIELD_COUNT = 8;
+
+    // Pay periods in a year, two per month
+    private static final int PERIOD_COUNT = 24;
+
+    // File framing
+    private static final int MAGIC = 0x4D505944; // "MPYD"
+    private static final int VERSION = 3;
+
+    /**
+     * What finalizing a result did to the totals
+     */
+    public enum Outcome {
+        /** The period was new and the result was added */
+        ADDED,
+        /** The period held an earlier result, which was replaced */
+        REPLACED,
+        /** The period already held the same amounts */
+        UNCHANGED,
+        /** The period holds different amounts and the result they came from is not known */
+        CONFLICT
+    }
+
+    // Year -> employee ID -> totals
+    private final Map<Integer, Map<String, Totals>> years = new HashMap<>();
+
+    /**
+     * Add a finalized result to its employee's totals for the payroll year
+     *
+     * @param result Payroll result
+     * @return false if the result's pay period was already added
+     */
+    public synchronized boolean add(PayrollResult result) {
+        return finalizeResult(result, null) == Outcome.ADDED;
+    }
+
+    /**
+     * Finalize a result, replacing the period's earlier result if there is one
+     *
+     * @param result Payroll result
+     * @param previous The result the period was finalized with before, or null if not known
+     * @return What was done; CONFLICT leaves the totals as they were
+     */
+    public synchronized Outcome finalizeResult(PayrollResult result, PayrollResult previous) {
+        int period = periodIndex(result.month, result.payPeriodType);
+        long[] amounts = amountsOf(result);
+        Totals totals = years.computeIfAbsent(result.year, year -> new HashMap<>())
+                .computeIfAbsent(result.employee.getEmployeeId(), id -> new Totals());
+
+        if ((totals.periodMask & (1 << period)) == 0) {
+            totals.periodMask |= 1 << period;
+            totals.periodAmounts[period] = amounts;
+            addAmounts(totals.amounts, amounts, 1);
+            return Outcome.ADDED;
+        }
+        if (Arrays.equals(totals.periodAmounts[period], amounts)) {
+            return Outcome.UNCHANGED;
+        }
+        if (previous == null || !samePeriod(previous, result)
+                || !Arrays.equals(totals.periodAmounts[period], amountsOf(previous))) {
+            return Outcome.CONFLICT;
+        }
+
+        addAmounts(totals.amounts, totals.periodAmounts[period], -1);
+        addAmounts(totals.amounts, amounts, 1);
+        totals.periodAmounts[period] = amounts;
+        return Outcome.REPLACED;
+    }
+
+    /**
+     * Take a previously added result back out, for example to correct a period
+     *
+     * @param result The result that was added
+     * @return false if the period is not in the totals or was added with different amounts
+     */
+    public synchronized boolean remove(PayrollResult result) {
+        Map<String, Totals> employees = years.get(result.year);
+        Totals totals = employees != null ? employees.get(result.employee.getEmployeeId()) : null;
+        int period = periodIndex(result.month, result.payPeriodType);
+        long[] amounts = amountsOf(result);
+        if (totals == null || (totals.periodMask & (1 << period)) == 0
+                || !Arrays.equals(totals.periodAmounts[period], amounts)) {
+            return false;
+        }
+        totals.periodMask &= ~(1 << period);
+        totals.periodAmounts[period] = null;
+        addAmounts(totals.amounts, amounts, -1);
+        return true;
+    }
+
+    /**
+     * Check whether a result's pay period is in its employee's totals
+     *
+     * @param result Payroll result
+     * @return true if the period was finalized
+     */
+    public synchronized boolean includes(PayrollResult result) {
+        Map<String, Totals> employees = years.get(result.year);
+        Totals totals = employees != null ? employees.get(result.employee.getEmployeeId()) : null;
+        return totals != null && (totals.periodMask & periodBit(result.month, result.payPeriodType)) != 0;
+    }
+
+    /**
+     * Work out the amounts a result adds to the totals, in centavos
+     */
+    private static long[] amountsOf(PayrollResult result) {
+        long gross = Centavos.fromPesos(result.grossPay);
+        long sss = Centavos.fromPesos(result.deductions.sssDeduction);
+        long philhealth = Centavos.fromPesos(result.deductions.philhealthDeduction);
+        long pagibig = Centavos.fromPesos(result.deductions.pagibigDeduction);
+        long basic = Centavos.fromPesos(result.basePay) - Centavos.fromPesos(result.lateDeduction)
+                - Centavos.fromPesos(result.undertimeDeduction) - Centavos.fromPesos(result.absenceDeduction);
+
+        long[] amounts = new long[FIELD_COUNT];
+        amounts[GROSS_PAY] = gross;
+        amounts[BASIC_PAY] = Math.max(0, basic);
+        amounts[TAXABLE_INCOME] = gross - sss - philhealth - pagibig;
+        amounts[SSS] = sss;
+        amounts[PHILHEALTH] = philhealth;
+        amounts[PAGIBIG] = pagibig;
+        amounts[WITHHOLDING_TAX] = Centavos.fromPesos(result.deductions.withholdingTax);
+        amounts[NET_PAY] = Centavos.fromPesos(result.netPay);
+        return amounts;
+    }
+
+    private static void addAmounts(long[] totals, long[] amounts, int sign) {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            totals[field] += sign * amounts[field];
+        }
+    }
+
+    private static boolean samePeriod(PayrollResult a, PayrollResult b) {
+        return a.year == b.year && a.month == b.month
+                && periodIndex(a.month, a.payPeriodType) == periodIndex(b.month, b.payPeriodType)
+                && a.employee.getEmployeeId().equals(b.employee.getEmployeeId());
+    }
+
+    /**
+     * Get the bit of a pay period in a year's mask
+     * Like PayrollDateManager, any type other than MID_MONTH is end-month
+     */
+    static int periodBit(int month, int payPeriodType) {
+        return 1 << periodIndex(month, payPeriodType);
+    }
+
+    private static int periodIndex(int month, int payPeriodType) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid month: " + month);
+        }
+        return (month - 1) * 2 + (payPeriodType == PayrollDateManager.MID_MONTH ? 0 : 1);
+    }
+
+    /**
+     * Get an employee's totals for a year
+     *
+     * @param employeeId Employee ID
+     * @param year Payroll year
+     * @return Copy of the totals, or null if nothing was added for the year
+     */
+    public synchronized YearToDate get(String employeeId, int year) {
+        Map<String, Totals> employees = years.get(year);
+        Totals totals = employees != null ? employees.get(employeeId) : null;
+        return totals != null ? new YearToDate(employeeId, year, totals) : null;
+    }
+
+    /**
+     * Get every employee's totals for a year
+     *
+     * @param year Payroll year
+     * @return Copies of the totals, in employee number order
+     */
+    public synchronized List<YearToDate> getYear(int year) {
+        Map<String, Totals> employees = years.get(year);
+        if (employees == null) {
+            return Collections.emptyList();
+        }
+        List<YearToDate> result = new ArrayList<>(employees.size());
+        for (Map.Entry<String, Totals> entry : employees.entrySet()) {
+            result.add(new YearToDate(entry.getKey(), year, entry.getValue()));
+        }
+        result.sort((a, b) -> PayrollProcessor.EMPLOYEE_ID_ORDER.compare(a.employeeId, b.employeeId));
+        return result;
+    }
+
+    /**
+     * Get the number of employee-year totals kept
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<String, Totals> employees : years.values()) {
+            size += employees.size();
+        }
+        return size;
+    }
+
+    /**
+     * Write every total to a file
+     * The file is written next to the target and moved into place, so a
+     * crash leaves either the old file or the new one
+     *
+     * @param file File to write
+     * @throws IOException If the file cannot be written
+     */
+    public synchronized void save(String file) throws IOException {
+        Path target = Paths.get(file);
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(years.size());
+            for (Map.Entry<Integer, Map<String, Totals>> year : years.entrySet()) {
+                out.writeInt(year.getKey());
+                out.writeInt(year.getValue().size());
+                for (Map.Entry<String, Totals> entry : year.getValue().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().periodMask);
+                    for (long amount : entry.getValue().amounts) {
+                        out.writeLong(amount);
+                    }
+                    // Amounts of the finalized periods only, in period order
+                    for (int period = 0; period < PERIOD_COUNT; period++) {
+                        if ((entry.getValue().periodMask & (1 << period)) != 0) {
+                            for (long amount : entry.getValue().periodAmounts[period]) {
+                                out.writeLong(amount);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Replace every total with those in a file written by save
+     *
+     * @param file File to read
+     * @return false if the file does not exist, leaving the store empty
+     * @throws IOException If the file cannot be read or is not a totals file
+     */
+    public synchronized boolean load(String file) throws IOException {
+        years.clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(Paths.get(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a year-to-date file: " + file);
+            }
+            int yearCount = in.readInt();
+            for (int y = 0; y < yearCount; y++) {
+                int year = in.readInt();
+                int employeeCount = in.readInt();
+                Map<String, Totals> employees = new HashMap<>(employeeCount * 2);
+                for (int e = 0; e < employeeCount; e++) {
+                    String employeeId = in.readUTF();
+                    Totals totals = new Totals();
+                    totals.periodMask = in.readInt();
+                    for (int field = 0; field < FIELD_COUNT; field++) {
+                        totals.amounts[field] = in.readLong();
+                    }
+                    for (int period = 0; period < PERIOD_COUNT; period++) {
+                        if ((totals.periodMask & (1 << period)) != 0) {
+                            long[] amounts = new long[FIELD_COUNT];
+                            for (int field = 0; field < FIELD_COUNT; field++) {
+                                amounts[field] = in.readLong();
+                            }
+                            totals.periodAmounts[period] = amounts;
+                        }
+                    }
+                    employees.put(employeeId, totals);
+                }
+                years.put(year, employees);
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            years.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * What finalizing a set of results did to the totals
+     */
+    public static class FinalizeSummary {
+        public final int addedCount;
+        public final int replacedCount;
+        public final int unchangedCount;
+        public final List<PayrollResult> conflicts;
+
+        public FinalizeSummary(int addedCount, int replacedCount, int unchangedCount,
+                               List<PayrollResult> conflicts) {
+            this.addedCount = addedCount;
+            this.replacedCount = replacedCount;
+            this.unchangedCount = unchangedCount;
+            this.conflicts = Collections.unmodifiableList(conflicts);
+        }
+
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Added " + addedCount + ", replaced " + replacedCount + ", unchanged " + unchangedCount
+                    + ", conflicts " + conflicts.size();
+        }
+    }
+
+    /**
+     * Running totals of one employee and year
+     */
+    private static final class Totals {
+        private int periodMask;
+        private final long[] amounts = new long[FIELD_COUNT];
+        // Amounts each finalized period added, null for periods not added
+        private final long[][] periodAmounts = new long[PERIOD_COUNT][];
+    }
+
+    /**
+     * One employee's year-to-date totals at the time they were looked up
+     */
+    public static class YearToDate {
+        public final String employeeId;
+        public final int year;
+        public final int periodMask;
+        private final long[] amounts;
+
+        private YearToDate(String employeeId, int year, Totals totals) {
+            this.employeeId = employeeId;
+            this.year = year;
+            this.periodMask = totals.periodMask;
+            this.amounts = totals.amounts.clone();
+        }
+
+        /**
+         * Get a total in centavos
+         *
+         * @param field GROSS_PAY, BASIC_PAY, TAXABLE_INCOME, SSS, PHILHEALTH, PAGIBIG, WITHHOLDING_TAX or NET_PAY
+         * @return Total in centavos
+         */
+        public long getCentavos(int field) {
+            return amounts[field];
+        }
+
+        /**
+         * Get a total in pesos
+         *
+         * @param field One of the amount indexes
+         * @return Total in pesos
+         */
+        public double getPesos(int field) {
+            return Centavos.toPesos(amounts[field]);
+        }
+
+        /**
+         * Check whether a pay period is in the totals
+         *
+         * @param month Month of payroll (1-12)
+         * @param payPeriodType Pay period type (MID_MONTH or END_MONTH)
+         * @return true if the period was added
+         */
+        public boolean includes(int month, int payPeriodType) {
+            return (periodMask & periodBit(month, payPeriodType)) != 0;
+        }
+
+        /**
+         * Get the number of pay periods in the totals
+         */
+        public int getPeriodCount() {
+            return Integer.bitCount(periodMask);
+        }
+    }
+}
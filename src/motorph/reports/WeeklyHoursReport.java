@@ -9,7 +9,6 @@ import motorph.util.DateTimeUtil;
 
 import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -47,20 +46,10 @@ public class WeeklyHoursReport {
             return;
         }
 
-        // Get attendance records
-        List<AttendanceRecord> records = attendanceReader.getRecordsForEmployee(employeeId);
-        if (records.isEmpty()) {
-            System.out.println("No attendance records found for employee: " + employeeId);
-            return;
-        }
-
-        // Filter records within date range
+        // Get records within date range; only the months in the range are read
         Map<LocalDate, AttendanceRecord> recordsByDate = new HashMap<>();
-        for (AttendanceRecord record : records) {
-            LocalDate date = record.getDate();
-            if (DateTimeUtil.isDateInRange(date, startDate, endDate)) {
-                recordsByDate.put(date, record);
-            }
+        for (AttendanceRecord record : attendanceReader.getRecordsForEmployee(employeeId, startDate, endDate)) {
+            recordsByDate.put(record.getDate(), record);
         }
 
         if (recordsByDate.isEmpty()) {
@@ -0,0 +1,189 @@
+// File: motorph/test/AttendanceConflictTest.java
+package motorph.test;
+
+import motorph.hours.AttendanceReader;
+import motorph.hours.AttendanceRecord;
+import motorph.hours.ConflictPolicy;
+import motorph.hours.PunchConflict;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test class for attendance conflict detection
+ * Checks how each conflict policy handles duplicate, overlapping and
+ * separate punches, that conflicts are still found in rows appended after a
+ * snapshot restore, and what the conflict report contains
+ */
+public class AttendanceConflictTest {
+    private static final String HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out";
+
+    // One duplicate, one overlap and one separate pair, around rows that do not conflict
+    private static final List<String> ROWS = Arrays.asList(
+            "10001,Garcia,Manuel III,06/03/2024,8:00,17:00",
+            "10002,Lim,Antonio,06/03/2024,8:00,12:00",
+            "10003,Aquino,Bianca Sofia,06/03/2024,8:00,12:00",
+            "10001,Garcia,Manuel III,06/03/2024,8:00,17:00",
+            "10002,Lim,Antonio,06/03/2024,11:00,18:00",
+            "10003,Aquino,Bianca Sofia,06/03/2024,13:00,17:00",
+            "10001,Garcia,Manuel III,06/04/2024,8:00,17:00");
+
+    /**
+     * Run all conflict detection tests
+     */
+    public void runTests() {
+        System.out.println("=== Attendance Conflict Tests ===");
+        try {
+            testFlagKeepsBothRows();
+            testMergeWidensRow();
+            testRejectKeepsFirstRow();
+            testConflictReport();
+            testAppendAfterSnapshotRestore();
+        } catch (IOException e) {
+            System.out.println("FAIL: " + e.getMessage());
+        }
+        System.out.println("=== All Tests Completed ===");
+    }
+
+    /**
+     * FLAG stores every row and records each conflict
+     */
+    private void testFlagKeepsBothRows() throws IOException {
+        System.out.println("\nTest: Flag Policy");
+        AttendanceReader reader = new AttendanceReader(writeAttendance(ROWS), 1, false, ConflictPolicy.FLAG);
+
+        checkConflicts(reader, ConflictPolicy.FLAG);
+        check(reader.getRecordsForEmployee("10001").size() == 3, "Duplicate row is kept");
+        List<AttendanceRecord> overlap = reader.getRecordsForEmployee("10002");
+        check(overlap.size() == 2 && overlap.get(1).getTimeIn().equals(LocalTime.of(11, 0)),
+                "Overlapping row is kept after the first");
+    }
+
+    /**
+     * MERGE widens the stored row instead of adding one
+     */
+    private void testMergeWidensRow() throws IOException {
+        System.out.println("\nTest: Merge Policy");
+        AttendanceReader reader = new AttendanceReader(writeAttendance(ROWS), 1, false, ConflictPolicy.MERGE);
+
+        checkConflicts(reader, ConflictPolicy.MERGE);
+        check(reader.getRecordsForEmployee("10001").size() == 2, "Duplicate row is merged away");
+        List<AttendanceRecord> overlap = reader.getRecordsForEmployee("10002");
+        check(overlap.size() == 1 && overlap.get(0).getTimeIn().equals(LocalTime.of(8, 0))
+                        && overlap.get(0).getTimeOut().equals(LocalTime.of(18, 0)),
+                "Overlapping rows merge to 08:00-18:00");
+        List<AttendanceRecord> separate = reader.getRecordsForEmployee("10003");
+        check(separate.size() == 1 && separate.get(0).getTimeOut().equals(LocalTime.of(17, 0)),
+                "Separate rows merge to 08:00-17:00");
+    }
+
+    /**
+     * REJECT keeps the first row and drops the later one
+     */
+    private void testRejectKeepsFirstRow() throws IOException {
+        System.out.println("\nTest: Reject Policy");
+        AttendanceReader reader = new AttendanceReader(writeAttendance(ROWS), 1, false, ConflictPolicy.REJECT);
+
+        checkConflicts(reader, ConflictPolicy.REJECT);
+        check(reader.getRecordsForEmployee("10001").size() == 2, "Duplicate row is dropped");
+        List<AttendanceRecord> overlap = reader.getRecordsForEmployee("10002");
+        check(overlap.size() == 1 && overlap.get(0).getTimeOut().equals(LocalTime.of(12, 0)),
+                "First of the overlapping rows is kept");
+    }
+
+    /**
+     * The report lists every conflict in arrival order
+     */
+    private void testConflictReport() throws IOException {
+        System.out.println("\nTest: Conflict Report");
+        AttendanceReader reader = new AttendanceReader(writeAttendance(ROWS), 1, false, ConflictPolicy.MERGE);
+
+        List<String> expected = Arrays.asList(
+                "Employee #,Date,Kind,Existing Log In,Existing Log Out,New Log In,New Log Out,Action",
+                "10001,06/03/2024,DUPLICATE,08:00,17:00,08:00,17:00,MERGE",
+                "10002,06/03/2024,OVERLAP,08:00,12:00,11:00,18:00,MERGE",
+                "10003,06/03/2024,SEPARATE,08:00,12:00,13:00,17:00,MERGE");
+        Path report = Paths.get(reader.getConflictReportPath());
+        List<String> lines = Files.exists(report) ? Files.readAllLines(report) : null;
+        check(expected.equals(lines), "Report has the header and one line per conflict");
+        if (lines != null && !expected.equals(lines)) {
+            System.out.println("  got " + lines);
+        }
+    }
+
+    /**
+     * Rows appended after a snapshot restore are still checked against the restored rows
+     */
+    private void testAppendAfterSnapshotRestore() throws IOException {
+        System.out.println("\nTest: Append After Snapshot Restore");
+        String path = writeAttendance(Arrays.asList(ROWS.get(0), ROWS.get(1), ROWS.get(6)));
+        new AttendanceReader(path, 1, true, ConflictPolicy.REJECT);
+        check(Files.exists(Paths.get(path + ".snapshot")), "First load writes a snapshot");
+
+        AttendanceReader restored = new AttendanceReader(path, 1, true, ConflictPolicy.REJECT);
+        check(restored.getConflicts().isEmpty(), "Restored reader starts without conflicts");
+
+        Files.write(Paths.get(path), Arrays.asList(ROWS.get(3), ROWS.get(4),
+                "10003,Aquino,Bianca Sofia,06/03/2024,8:00,17:00"), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        int added = restored.ingestAppendedRows();
+
+        List<PunchConflict> conflicts = restored.getConflicts();
+        check(added == 1, "Only the non-conflicting row is added (" + added + " added)");
+        check(conflicts.size() == 2 && conflicts.get(0).getKind() == PunchConflict.Kind.DUPLICATE
+                        && conflicts.get(1).getKind() == PunchConflict.Kind.OVERLAP,
+                "Appended rows conflict with restored rows (" + conflicts.size() + " conflicts)");
+        check(restored.getRecordsForEmployee("10001").size() == 2, "Rejected rows are not stored");
+        check(Files.exists(Paths.get(restored.getConflictReportPath())), "Conflict report is written");
+    }
+
+    /**
+     * Check the three conflicts in ROWS were found, in order, under a policy
+     */
+    private void checkConflicts(AttendanceReader reader, ConflictPolicy policy) {
+        List<PunchConflict> conflicts = reader.getConflicts();
+        check(conflicts.size() == 3, "Three conflicts found (" + conflicts.size() + ")");
+        if (conflicts.size() != 3) {
+            return;
+        }
+        check(conflicts.get(0).getKind() == PunchConflict.Kind.DUPLICATE
+                        && conflicts.get(1).getKind() == PunchConflict.Kind.OVERLAP
+                        && conflicts.get(2).getKind() == PunchConflict.Kind.SEPARATE,
+                "Conflicts classified as duplicate, overlap, separate");
+        boolean policyRecorded = true;
+        for (PunchConflict conflict : conflicts) {
+            policyRecorded &= conflict.getPolicy() == policy;
+        }
+        check(policyRecorded, "Every conflict records the " + policy + " policy");
+    }
+
+    /**
+     * Write an attendance CSV with the given rows to a new temporary directory
+     *
+     * @return Path to the CSV
+     */
+    private String writeAttendance(List<String> rows) throws IOException {
+        Path file = Files.createTempDirectory("attendance").resolve("attendance.csv");
+        Files.write(file, Collections.singletonList(HEADER), StandardCharsets.UTF_8);
+        Files.write(file, rows, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        return file.toString();
+    }
+
+    private void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+    }
+
+    /**
+     * Main method to run tests directly
+     */
+    public static void main(String[] args) {
+        new AttendanceConflictTest().runTests();
+    }
+}
@@ -0,0 +1,309 @@
+// File: motorph/test/CSVScannerTest.java
+package motorph.test;
+
+import motorph.employee.CSVScanner;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for the memory-mapped CSV scanner
+ * Checks quoting, line endings and chunk boundaries, and that the scanner
+ * splits rows into the same fields as the line parser it replaced
+ */
+public class CSVScannerTest {
+    private final String employeeFilePath;
+    private final String attendanceFilePath;
+
+    /**
+     * Constructor
+     */
+    public CSVScannerTest(String employeeFilePath, String attendanceFilePath) {
+        this.employeeFilePath = employeeFilePath;
+        this.attendanceFilePath = attendanceFilePath;
+    }
+
+    /**
+     * Run all CSV scanner tests
+     */
+    public void runTests() {
+        System.out.println("=== CSV Scanner Tests ===");
+        try {
+            testQuotingAndLineEndings();
+            testLineStartAtOrAfter();
+            testChunkedScanMatchesFullScan();
+            testParityWithResources();
+            testParityWithDirtyData();
+        } catch (IOException e) {
+            System.out.println("FAIL: " + e.getMessage());
+        }
+        System.out.println("=== All Tests Completed ===");
+    }
+
+    /**
+     * Quoted commas, doubled quotes, CRLF, a BOM and a last line without a line break
+     */
+    private void testQuotingAndLineEndings() throws IOException {
+        System.out.println("\nTest: Quoting and Line Endings");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write(("Employee #,Address,Note,Status\r\n"
+                + "10001,\"Valero Street 1227, Makati City\",\"say \"\"hi\"\"\",  Regular  \r\n"
+                + "\r\n"
+                + "10002,\"\",\"90,000\",Probationary\n"
+                + "10003,Niño,end,last").getBytes(StandardCharsets.UTF_8));
+        List<String[]> rows = scanAll(writeFile(bytes.toByteArray()));
+
+        check(rows.size() == 3, "Header and blank line skipped (" + rows.size() + " rows)");
+        if (rows.size() != 3) {
+            return;
+        }
+        check(Arrays.equals(rows.get(0), new String[] {"10001", "Valero Street 1227, Makati City", "say \"hi\"", "Regular"}),
+                "Quoted comma, doubled quotes and CRLF: " + Arrays.toString(rows.get(0)));
+        check(Arrays.equals(rows.get(1), new String[] {"10002", "", "90,000", "Probationary"}),
+                "Empty quoted field and LF: " + Arrays.toString(rows.get(1)));
+        check(Arrays.equals(rows.get(2), new String[] {"10003", "Niño", "end", "last"}),
+                "UTF-8 field and last line without a line break: " + Arrays.toString(rows.get(2)));
+    }
+
+    /**
+     * Every offset maps to the next line start, including across read blocks
+     */
+    private void testLineStartAtOrAfter() throws IOException {
+        System.out.println("\nTest: Line Start At Or After");
+        byte[] data = generateRows(new Random(3), 200, true).getBytes(StandardCharsets.UTF_8);
+        Path file = writeFile(data);
+
+        int mismatches = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int position = 0; position <= data.length; position++) {
+                long expected = data.length;
+                for (int i = position; i <= data.length; i++) {
+                    if (i == 0 || data[i - 1] == '\n') {
+                        expected = i;
+                        break;
+                    }
+                }
+                long actual = CSVScanner.lineStartAtOrAfter(channel, position);
+                if (actual != expected && mismatches++ < 5) {
+                    System.out.println("  offset " + position + ": expected " + expected + ", got " + actual);
+                }
+            }
+        }
+        check(mismatches == 0, "Next line start found for all " + (data.length + 1) + " offsets ("
+                + mismatches + " mismatches)");
+    }
+
+    /**
+     * Scanning chunks split on line starts gives the rows of one full scan
+     */
+    private void testChunkedScanMatchesFullScan() throws IOException {
+        System.out.println("\nTest: Chunked Scan");
+        Path file = writeFile(generateRows(new Random(5), 500, true).getBytes(StandardCharsets.UTF_8));
+        List<String[]> full = scanAll(file);
+
+        boolean same = true;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = CSVScanner.lineStartAtOrAfter(channel, 1);
+            for (int chunkCount = 2; chunkCount <= 9; chunkCount++) {
+                List<String[]> chunked = new ArrayList<>();
+                long start = dataStart;
+                for (int i = 1; i <= chunkCount; i++) {
+                    long end = i == chunkCount ? size
+                            : Math.max(start, CSVScanner.lineStartAtOrAfter(channel, dataStart + (size - dataStart) * i / chunkCount));
+                    CSVScanner.scan(channel, start, end, false, row -> chunked.add(row.toArray()));
+                    start = end;
+                }
+                if (!sameRows(full, chunked)) {
+                    System.out.println("  " + chunkCount + " chunks differ from the full scan");
+                    same = false;
+                }
+            }
+        }
+        check(same && !full.isEmpty(), "2 to 9 chunks give the " + full.size() + " rows of a full scan");
+    }
+
+    /**
+     * The resource files split the same as with the old line parser
+     */
+    private void testParityWithResources() throws IOException {
+        System.out.println("\nTest: Parity With Resource Files");
+        for (String filePath : new String[] {employeeFilePath, attendanceFilePath}) {
+            List<String[]> expected = parseLines(filePath);
+            List<String[]> actual = new ArrayList<>();
+            CSVScanner.scan(filePath, row -> actual.add(row.toArray()));
+            check(sameRows(expected, actual), expected.size() + " rows match in " + Paths.get(filePath).getFileName());
+        }
+    }
+
+    /**
+     * Generated rows with padding, quoting, mixed line endings and a BOM
+     * split the same as with the old line parser
+     */
+    private void testParityWithDirtyData() throws IOException {
+        System.out.println("\nTest: Parity With Dirty Data");
+        for (int seed = 1; seed <= 5; seed++) {
+            Random random = new Random(seed);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            if (random.nextBoolean()) {
+                bytes.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            }
+            bytes.write(generateRows(random, 2000, false).getBytes(StandardCharsets.UTF_8));
+            Path file = writeFile(bytes.toByteArray());
+
+            List<String[]> expected = parseLines(file.toString());
+            List<String[]> actual = scanAll(file);
+            check(sameRows(expected, actual), "Seed " + seed + ": " + expected.size() + " rows match");
+        }
+    }
+
+    /**
+     * Generate a header and rows of dirty CSV
+     * Quoted sections never hold a doubled quote, since the old parser
+     * dropped those and the scanner keeps one quote
+     *
+     * @param random Source of the data
+     * @param rowCount Number of rows after the header
+     * @param longRow Whether to include a row longer than a lineStartAtOrAfter read block
+     */
+    private static String generateRows(Random random, int rowCount, boolean longRow) {
+        String[] words = {"Garcia", "Manuel III", "Niño", "Regular", "8:59", "06/03/2024", "90,000", "", "N/A", "é"};
+        StringBuilder text = new StringBuilder("Employee #,Last Name,First Name,Date,Log In,Log Out\n");
+        for (int row = 0; row < rowCount; row++) {
+            if (random.nextInt(40) == 0) {
+                text.append(random.nextBoolean() ? "" : "  \t").append('\n'); // blank line
+                continue;
+            }
+            int fieldCount = 1 + random.nextInt(8);
+            for (int field = 0; field < fieldCount; field++) {
+                if (field > 0) {
+                    text.append(',');
+                }
+                text.append(random.nextBoolean() ? "" : random.nextBoolean() ? " " : "\t ");
+                String word = words[random.nextInt(words.length)].replace(",", "");
+                switch (random.nextInt(4)) {
+                    case 0:
+                        text.append('"').append(words[random.nextInt(words.length)]).append(" , x").append('"');
+                        break;
+                    case 1:
+                        text.append(word).append("\"a,b\"").append(word); // quotes mid-field
+                        break;
+                    default:
+                        text.append(word);
+                }
+                text.append(random.nextBoolean() ? "" : "  ");
+            }
+            if (longRow && row == rowCount / 2) {
+                char[] filler = new char[10000];
+                Arrays.fill(filler, 'x');
+                text.append(",\"").append(filler).append('"');
+            }
+            text.append(random.nextBoolean() ? "\r\n" : "\n");
+        }
+        if (random.nextBoolean()) {
+            text.append("10001,no line break");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Read a file the way CSVReader did before the scanner: one line at a
+     * time, skipping the header, split by parseCSVLine
+     * Blank lines are left out, since the scanner skips them
+     */
+    private static List<String[]> parseLines(String filePath) throws IOException {
+        List<String[]> data = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8))) {
+            String line;
+            boolean headerSkipped = false;
+            while ((line = br.readLine()) != null) {
+                if (!headerSkipped) {
+                    headerSkipped = true;
+                    continue;
+                }
+                if (!line.trim().isEmpty()) {
+                    data.add(parseCSVLine(line).toArray(new String[0]));
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * The line parser CSVReader used before the scanner
+     */
+    private static List<String> parseCSVLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder currentValue = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                result.add(currentValue.toString().trim());
+                currentValue = new StringBuilder();
+            } else {
+                currentValue.append(c);
+            }
+        }
+        result.add(currentValue.toString().trim());
+        return result;
+    }
+
+    private static List<String[]> scanAll(Path file) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CSVScanner.scan(file.toString(), row -> rows.add(row.toArray()));
+        return rows;
+    }
+
+    private static boolean sameRows(List<String[]> expected, List<String[]> actual) {
+        if (expected.size() != actual.size()) {
+            System.out.println("  expected " + expected.size() + " rows, got " + actual.size());
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!Arrays.equals(expected.get(i), actual.get(i))) {
+                System.out.println("  row " + (i + 1) + ": expected " + Arrays.toString(expected.get(i))
+                        + ", got " + Arrays.toString(actual.get(i)));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path writeFile(byte[] data) throws IOException {
+        Path file = Files.createTempFile("scanner", ".csv");
+        Files.write(file, data);
+        return file;
+    }
+
+    private void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+    }
+
+    /**
+     * Main method to run tests directly
+     */
+    public static void main(String[] args) {
+        CSVScannerTest test = new CSVScannerTest(
+                "resources/MotorPH Employee Data - Employee Details.csv",
+                "resources/MotorPH Employee Data - Attendance Record.csv");
+        test.runTests();
+    }
+}
@@ -0,0 +1,236 @@
+// File: motorph/test/DateTimeUtilTest.java
+package motorph.test;
+
+import motorph.util.DateTimeUtil;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test class for date and time parsing
+ * Checks that the digit-by-digit parsers give the same result as the
+ * pattern and formatter parsing they replaced, for every input form
+ */
+public class DateTimeUtilTest {
+    // The formatter path: the formatters and patterns parsing used before the fast path
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter MILITARY_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter STANDARD_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+    private static final Pattern FOUR_DIGIT_PATTERN = Pattern.compile("(\\d{2})(\\d{2})");
+    private static final Pattern THREE_DIGIT_PATTERN = Pattern.compile("(\\d)(\\d{2})");
+    private static final Pattern STANDARD_PATTERN = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*(AM|PM|am|pm)?");
+
+    /**
+     * Run all date and time parsing tests
+     */
+    public void runTests() {
+        System.out.println("=== Date and Time Parsing Tests ===");
+        testDateParity();
+        testTimeParity();
+        testFastPathUsed();
+        System.out.println("=== All Tests Completed ===");
+    }
+
+    /**
+     * Padded and unpadded dates, impossible dates and garbage parse as the formatter does
+     */
+    private void testDateParity() {
+        List<String> inputs = new ArrayList<>();
+        for (int year : new int[] {1900, 2000, 2023, 2024}) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    inputs.add(String.format("%02d/%02d/%04d", month, day, year));
+                    inputs.add(month + "/" + day + "/" + year);
+                }
+            }
+        }
+        String[] special = {"02/30/2024", "02/29/2023", "13/01/2024", "00/15/2024", "06/03/0000",
+                "", "   ", "ab/cd/efgh", "06-03-2024", "06/03/24", " 06/03/2024", "06/03/2024 ", "0６/03/2024"};
+        for (String input : special) {
+            inputs.add(input);
+        }
+
+        int mismatches = 0;
+        PrintStream out = silence();
+        try {
+            for (String input : inputs) {
+                LocalDate expected = formatterDate(input);
+                int expectedDay = expected != null ? (int) expected.toEpochDay() : DateTimeUtil.INVALID;
+                if (!Objects.equals(DateTimeUtil.parseDate(input), expected)
+                        || DateTimeUtil.parseEpochDay(input) != expectedDay) {
+                    if (mismatches++ < 5) {
+                        out.println("Date mismatch for \"" + input + "\": expected " + expected);
+                    }
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+        check(mismatches == 0, "Date parsing matches the formatter for " + inputs.size() + " inputs");
+        check(formatterDate("02/30/2024") != null && formatterDate("13/01/2024") == null,
+                "Formatter adjusts 02/30 and rejects 13/01, and the fast path follows it");
+    }
+
+    /**
+     * 3- and 4-digit, H:mm, HH:mm and AM/PM times in any case parse as the formatter path does
+     */
+    private void testTimeParity() {
+        List<String> inputs = new ArrayList<>();
+        String[] meridiems = {"", " AM", " PM", "am", "pm", " Am", " pM", "\tPM", "  am"};
+        for (int hour = 0; hour <= 25; hour++) {
+            for (int minute = 0; minute <= 61; minute++) {
+                inputs.add(String.format("%02d%02d", hour, minute));
+                if (hour <= 9) {
+                    inputs.add(String.format("%d%02d", hour, minute));
+                }
+                for (String meridiem : meridiems) {
+                    inputs.add(String.format("%d:%02d", hour, minute) + meridiem);
+                    inputs.add(String.format("%02d:%02d", hour, minute) + meridiem);
+                }
+            }
+        }
+        String[] special = {"", " ", "\t", "abc", "8:0", "8:000", "8.30", "::", "12:30 XM", "12:30 A M",
+                " 8:30 ", "08:30\n", "123:45", "1:2:3", "-8:30", "+830", "８:30", "7:59", "8:00", "12:00"};
+        for (String input : special) {
+            inputs.add(input);
+        }
+
+        int mismatches = 0;
+        PrintStream out = silence();
+        try {
+            for (String input : inputs) {
+                LocalTime expected = formatterTime(input);
+                int expectedMinute = expected != null
+                        ? expected.getHour() * 60 + expected.getMinute() : DateTimeUtil.INVALID;
+                if (!Objects.equals(DateTimeUtil.parseTime(input), expected)
+                        || DateTimeUtil.parseMinuteOfDay(input) != expectedMinute) {
+                    if (mismatches++ < 5) {
+                        out.println("Time mismatch for \"" + input + "\": expected " + expected);
+                    }
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+        check(mismatches == 0, "Time parsing matches the formatter path for " + inputs.size() + " inputs");
+        check(DateTimeUtil.parseMinuteOfDay("7:59") == 19 * 60 + 59 && DateTimeUtil.parseMinuteOfDay("8:00") == 8 * 60,
+                "Single-digit hours 1-7 without AM/PM are PM");
+    }
+
+    /**
+     * Plain dates and times take the fast path; mixed-case AM/PM falls back
+     */
+    private void testFastPathUsed() {
+        DateTimeUtil.resetParseCounters();
+        DateTimeUtil.parseEpochDay("06/03/2024");
+        DateTimeUtil.parseMinuteOfDay("0830");
+        DateTimeUtil.parseMinuteOfDay("830");
+        DateTimeUtil.parseMinuteOfDay("8:30 PM");
+        check(DateTimeUtil.getFastParseCount() == 4 && DateTimeUtil.getFallbackParseCount() == 0,
+                "Common formats are parsed without the fallback");
+
+        DateTimeUtil.resetParseCounters();
+        int minute = DateTimeUtil.parseMinuteOfDay("8:30 Pm");
+        check(DateTimeUtil.getFallbackParseCount() == 1 && minute == 20 * 60 + 30,
+                "Mixed-case AM/PM goes through the fallback");
+        DateTimeUtil.resetParseCounters();
+    }
+
+    /**
+     * Parse a date the way parseDate did before the fast path
+     */
+    private static LocalDate formatterDate(String dateStr) {
+        try {
+            return LocalDate.parse(dateStr, DATE_FORMAT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a time the way parseTime did before the fast path
+     */
+    private static LocalTime formatterTime(String timeStr) {
+        if (timeStr == null || timeStr.trim().isEmpty()) {
+            return null;
+        }
+        String cleanTime = timeStr.trim();
+
+        try {
+            Matcher fourDigitMatcher = FOUR_DIGIT_PATTERN.matcher(cleanTime);
+            if (fourDigitMatcher.matches()) {
+                return LocalTime.of(Integer.parseInt(fourDigitMatcher.group(1)),
+                        Integer.parseInt(fourDigitMatcher.group(2)));
+            }
+
+            Matcher threeDigitMatcher = THREE_DIGIT_PATTERN.matcher(cleanTime);
+            if (threeDigitMatcher.matches()) {
+                return LocalTime.of(Integer.parseInt(threeDigitMatcher.group(1)),
+                        Integer.parseInt(threeDigitMatcher.group(2)));
+            }
+
+            Matcher standardMatcher = STANDARD_PATTERN.matcher(cleanTime);
+            if (standardMatcher.matches()) {
+                int hour = Integer.parseInt(standardMatcher.group(1));
+                int minute = Integer.parseInt(standardMatcher.group(2));
+                String amPm = standardMatcher.group(3);
+                if (amPm != null) {
+                    if (amPm.equalsIgnoreCase("PM") && hour < 12) {
+                        hour += 12;
+                    } else if (amPm.equalsIgnoreCase("AM") && hour == 12) {
+                        hour = 0;
+                    }
+                } else if (hour >= 1 && hour <= 7) {
+                    hour += 12;
+                }
+                return LocalTime.of(hour, minute);
+            }
+
+            if (cleanTime.toUpperCase().contains("AM") || cleanTime.toUpperCase().contains("PM")) {
+                try {
+                    return LocalTime.parse(cleanTime.toUpperCase(), STANDARD_FORMAT);
+                } catch (Exception e) {
+                    // Try next method
+                }
+            }
+            try {
+                return LocalTime.parse(cleanTime, MILITARY_FORMAT);
+            } catch (Exception e) {
+                // Try next method
+            }
+            return LocalTime.parse(cleanTime);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hide the parse error lines printed for invalid input
+     *
+     * @return The stream to restore afterwards
+     */
+    private static PrintStream silence() {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return out;
+    }
+
+    private void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+    }
+
+    /**
+     * Main method to run tests directly
+     */
+    public static void main(String[] args) {
+        new DateTimeUtilTest().runTests();
+    }
+}
@@ -0,0 +1,283 @@
+// File: motorph/test/PayrollJournalTest.java
+package motorph.test;
+
+import motorph.employee.Employee;
+import motorph.process.PayPeriod;
+import motorph.process.PayrollDateManager;
+import motorph.process.PayrollJournal;
+import motorph.process.PayrollProcessor;
+import motorph.process.PayrollProcessor.CalculationMode;
+import motorph.process.PayrollProcessor.PayrollResult;
+import motorph.process.PayrollRun;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for the payroll run journal
+ * Checks crash recovery of the journal file and that a resumed run gives the
+ * same payroll as one that was never interrupted
+ */
+public class PayrollJournalTest {
+    // Bytes in the journal file header: magic, version, three dates, period type, mode, inputs digest
+    private static final int HEADER_SIZE = 4 * 4 + 8 * 3 + PayrollJournal.INPUTS_DIGEST_BYTES;
+
+    // Inputs digest of the journals the tests write by hand
+    private static final byte[] INPUTS = new byte[PayrollJournal.INPUTS_DIGEST_BYTES];
+
+    private final PayrollProcessor processor;
+    private final PayPeriod payPeriod = PayPeriod.forPayroll(2024, 6, PayrollDateManager.END_MONTH);
+
+    // The uninterrupted run every test compares against
+    private PayrollRun baseline;
+    private final Map<String, Employee> employeesById = new HashMap<>();
+
+    /**
+     * Constructor
+     */
+    public PayrollJournalTest(String employeeFilePath, String attendanceFilePath) {
+        processor = new PayrollProcessor(employeeFilePath, attendanceFilePath);
+    }
+
+    /**
+     * Run all journal tests
+     */
+    public void runTests() {
+        System.out.println("=== Payroll Journal Tests ===");
+        baseline = processor.runPayroll(payPeriod);
+        for (PayrollResult result : baseline.getResults()) {
+            employeesById.put(result.employee.getEmployeeId(), result.employee);
+        }
+
+        if (baseline.getProcessedCount() < 3) {
+            System.out.println("FAIL: Need at least 3 payroll results, got " + baseline.getProcessedCount());
+        } else {
+            try {
+                testTornRecordIsTruncated();
+                testBadChecksumStopsReplay();
+                testHeaderMismatchIsRejected();
+                testResumedRunMatchesUninterrupted();
+                testCorrectedInputsStartOver();
+            } catch (IOException e) {
+                System.out.println("FAIL: " + e.getMessage());
+            }
+        }
+        System.out.println("=== All Tests Completed ===");
+    }
+
+    /**
+     * A record cut short by a crash is dropped and cut off the file
+     */
+    private void testTornRecordIsTruncated() throws IOException {
+        System.out.println("\nTest: Torn Last Record");
+        Path directory = Files.createTempDirectory("journal");
+        Path file = writeJournal(directory);
+        List<Long> starts = recordStarts(file);
+        long lastStart = starts.get(starts.size() - 1);
+
+        // Lose the last record's checksum and part of its body
+        truncate(file, Files.size(file) - 7);
+
+        try (PayrollJournal journal = openJournal(directory, CalculationMode.DOUBLE)) {
+            String lastId = lastResult().employee.getEmployeeId();
+            check(journal.getRecoveredCount() == starts.size() - 1,
+                    "Recovered " + journal.getRecoveredCount() + " of " + starts.size() + " records");
+            check(journal.getTruncatedBytes() > 0 && Files.size(file) == lastStart,
+                    "Torn record cut off at byte " + lastStart + " (" + journal.getTruncatedBytes() + " bytes)");
+            check(journal.getResult(lastId) == null, "Torn employee " + lastId + " has no result");
+        }
+    }
+
+    /**
+     * A record whose checksum does not match ends the replay there
+     */
+    private void testBadChecksumStopsReplay() throws IOException {
+        System.out.println("\nTest: Bad Record Checksum");
+        Path directory = Files.createTempDirectory("journal");
+        Path file = writeJournal(directory);
+        List<Long> starts = recordStarts(file);
+
+        // Flip one byte inside the body of the second record
+        long corrupt = starts.get(1) + Integer.BYTES + 2;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, corrupt);
+            one.put(0, (byte) (one.get(0) ^ 0x5A));
+            one.rewind();
+            channel.write(one, corrupt);
+        }
+
+        try (PayrollJournal journal = openJournal(directory, CalculationMode.DOUBLE)) {
+            String secondId = baseline.getResults().get(1).employee.getEmployeeId();
+            String lastId = lastResult().employee.getEmployeeId();
+            check(journal.getRecoveredCount() == 1, "Replay stops before the bad record ("
+                    + journal.getRecoveredCount() + " recovered)");
+            check(Files.size(file) == starts.get(1), "File cut off at the bad record");
+            check(journal.getResult(secondId) == null && journal.getResult(lastId) == null,
+                    "Records after the bad one are not replayed");
+        }
+    }
+
+    /**
+     * A journal is only reopened by the run that wrote it
+     */
+    private void testHeaderMismatchIsRejected() throws IOException {
+        System.out.println("\nTest: Header Mismatch");
+        Path directory = Files.createTempDirectory("journal");
+        Path file = writeJournal(directory);
+
+        try {
+            openJournal(directory, CalculationMode.CENTAVOS).close();
+            check(false, "Journal opened under another calculation mode");
+        } catch (IOException e) {
+            check(e.getMessage().contains("different pay period"), "Other calculation mode rejected");
+        }
+
+        // Put the file where the next period's journal belongs
+        PayPeriod other = PayPeriod.forPayroll(2024, 7, PayrollDateManager.END_MONTH);
+        Files.copy(file, directory.resolve(journalName(other)), StandardCopyOption.REPLACE_EXISTING);
+        try {
+            PayrollJournal.open(directory.toString(), other, CalculationMode.DOUBLE, INPUTS, employeesById::get).close();
+            check(false, "Journal opened for another pay period");
+        } catch (IOException e) {
+            check(e.getMessage().contains("different pay period"), "Other pay period rejected");
+        }
+    }
+
+    /**
+     * An interrupted journaled run picks up where it stopped
+     */
+    private void testResumedRunMatchesUninterrupted() throws IOException {
+        System.out.println("\nTest: Resumed Run");
+        Path directory = Files.createTempDirectory("journal");
+        PayrollRun first = processor.runPayroll(payPeriod, 1, directory.toString());
+        check(first.getResumedCount() == 0 && sameTotals(first), "Journaled run matches the plain run");
+
+        // Crash partway: keep the first half of the records, tearing the next one
+        Path file = directory.resolve(journalName(payPeriod));
+        List<Long> starts = recordStarts(file);
+        int kept = starts.size() / 2;
+        truncate(file, starts.get(kept) + 3);
+
+        PayrollRun resumed = processor.runPayroll(payPeriod, 1, directory.toString());
+        check(resumed.getResumedCount() == kept, "Resumed run skipped " + resumed.getResumedCount()
+                + " journaled employees (expected " + kept + ")");
+        check(resumed.getProcessedCount() == baseline.getProcessedCount() && sameTotals(resumed),
+                "Resumed run totals match: gross " + resumed.getTotalGrossCentavos()
+                        + ", net " + resumed.getTotalNetCentavos());
+
+        PayrollRun again = processor.runPayroll(payPeriod, 1, directory.toString());
+        check(again.getResumedCount() == baseline.getProcessedCount() && sameTotals(again),
+                "Completed journal is replayed without recalculating");
+    }
+
+    /**
+     * A finished journal is not replayed once an employee's pay has been corrected
+     */
+    private void testCorrectedInputsStartOver() throws IOException {
+        System.out.println("\nTest: Corrected Inputs");
+        Path directory = Files.createTempDirectory("journal");
+        processor.runPayroll(payPeriod, 1, directory.toString());
+
+        Employee original = lastResult().employee;
+        String employeeId = original.getEmployeeId();
+        processor.employeeUpdated(original.withBasicSalary(original.getBasicSalary() + 10000));
+        try {
+            PayrollRun corrected = processor.runPayroll(payPeriod, 1, directory.toString());
+            check(corrected.getResumedCount() == 0, "Run after the correction calculates every employee");
+            check(Files.exists(directory.resolve(journalName(payPeriod).replace(".journal", ".1.journal"))),
+                    "Old journal is kept as " + journalName(payPeriod).replace(".journal", ".1.journal"));
+
+            PayrollResult stored = processor.getPayrollResult(employeeId);
+            check(stored != null && stored.grossPay > lastResult().grossPay,
+                    "Stored result has the corrected pay: gross " + (stored != null ? stored.grossPay : 0)
+                            + " (was " + lastResult().grossPay + ")");
+            check(corrected.getTotalGrossCentavos() > baseline.getTotalGrossCentavos(),
+                    "Run totals include the correction");
+
+            PayrollRun again = processor.runPayroll(payPeriod, 1, directory.toString());
+            check(again.getResumedCount() == baseline.getProcessedCount()
+                            && again.getTotalGrossCentavos() == corrected.getTotalGrossCentavos(),
+                    "The corrected journal is replayed while its inputs are unchanged");
+        } finally {
+            processor.employeeUpdated(original);
+        }
+    }
+
+    /**
+     * Write a journal holding every result of the baseline run
+     *
+     * @return The journal file
+     */
+    private Path writeJournal(Path directory) throws IOException {
+        try (PayrollJournal journal = openJournal(directory, CalculationMode.DOUBLE)) {
+            for (PayrollResult result : baseline.getResults()) {
+                journal.appendResult(result);
+            }
+            return journal.getFile();
+        }
+    }
+
+    private PayrollJournal openJournal(Path directory, CalculationMode mode) throws IOException {
+        return PayrollJournal.open(directory.toString(), payPeriod, mode, INPUTS, employeesById::get);
+    }
+
+    /**
+     * Find where each record starts; records are [length][body][CRC32]
+     */
+    private static List<Long> recordStarts(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        buffer.position(HEADER_SIZE);
+        List<Long> starts = new ArrayList<>();
+        while (buffer.remaining() >= Integer.BYTES) {
+            starts.add((long) buffer.position());
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length + Integer.BYTES);
+        }
+        return starts;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static String journalName(PayPeriod payPeriod) {
+        return payPeriod.getPayDate() + "-" + payPeriod.getPeriodType() + ".journal";
+    }
+
+    private PayrollResult lastResult() {
+        return baseline.getResults().get(baseline.getProcessedCount() - 1);
+    }
+
+    private boolean sameTotals(PayrollRun run) {
+        return run.getTotalGrossCentavos() == baseline.getTotalGrossCentavos()
+                && run.getTotalNetCentavos() == baseline.getTotalNetCentavos()
+                && run.getTotalDeductionsCentavos() == baseline.getTotalDeductionsCentavos()
+                && run.getErrorCount() == baseline.getErrorCount();
+    }
+
+    private void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+    }
+
+    /**
+     * Main method to run tests directly
+     */
+    public static void main(String[] args) {
+        PayrollJournalTest test = new PayrollJournalTest(
+                "resources/MotorPH Employee Data - Employee Details.csv",
+                "resources/MotorPH Employee Data - Attendance Record.csv");
+        test.runTests();
+    }
+}
@@ -5,6 +5,7 @@ import motorph.deductions.PhilHealth;
 import motorph.deductions.SSS;
 import motorph.deductions.StatutoryDeductions;
 import motorph.deductions.WithholdingTax;
+import motorph.util.Centavos;
 
 /**
  * Test class for statutory deductions
@@ -17,6 +18,7 @@ public class StatutoryDeductionsTest {
         System.out.println("--- Statutory Deductions Tests ---");
         testMidMonthDeductions();
         testEndMonthDeductions();
+        testCentavoDeductions();
         System.out.println("=== All Tests Completed ===");
     }
 
@@ -74,6 +76,92 @@ public class StatutoryDeductionsTest {
         System.out.println("PASS: Tax deduction should be positive");
     }
 
+    /**
+     * Test centavo deductions against hand-computed table values and exact arithmetic
+     * Every amount must match exactly. SSS and Pag-IBIG must also equal the
+     * double results rounded to the centavo. PhilHealth and tax are not
+     * compared with the double path, because it halves and subtracts the
+     * PhilHealth amount before rounding it. The centavo path rounds the monthly
+     * amount first, so half of an odd amount rounds up (e.g. 10,000.20: monthly
+     * 300.01, mid-month 150.01, where the double path gives 150.00).
+     */
+    private void testCentavoDeductions() {
+        // Monthly salary, SSS, PhilHealth (mid-month), Pag-IBIG, withholding tax; all in centavos
+        long[][] table = {
+                {2_500_000, 112_500, 37_500, 10_000, 43_840},
+                {3_333_333, 112_500, 50_000, 10_000, 205_507},
+                {1_000_020, 45_000, 15_001, 10_000, 0},
+                {5_000_000, 112_500, 75_000, 10_000, 598_575},
+                {7_000_000, 112_500, 90_000, 10_000, 1_092_570},
+        };
+        int tableMismatches = 0;
+        for (long[] row : table) {
+            StatutoryDeductions.CentavoDeductionResult mid = StatutoryDeductions.calculateDeductionsCentavos(
+                    row[0], StatutoryDeductions.MID_MONTH, row[0]);
+            StatutoryDeductions.CentavoDeductionResult end = StatutoryDeductions.calculateDeductionsCentavos(
+                    row[0], StatutoryDeductions.END_MONTH, row[0]);
+            if (mid.sssDeduction != row[1] || mid.philhealthDeduction != row[2]
+                    || mid.pagibigDeduction != row[3] || end.withholdingTax != row[4]) {
+                tableMismatches++;
+                System.out.println("Table mismatch at " + Centavos.format(row[0]));
+            }
+        }
+        System.out.println((tableMismatches == 0 ? "PASS" : "FAIL")
+                + ": Centavo deductions match the hand-computed table");
+
+        // Salaries run from 0 to 200,000.00 in 25.25 steps, which crosses every
+        // SSS bracket and most tax brackets
+        int mismatches = 0;
+        for (long salaryCentavos = 0; salaryCentavos <= 20_000_000; salaryCentavos += 2_525) {
+            double salary = Centavos.toPesos(salaryCentavos);
+            StatutoryDeductions.DeductionResult doubleMid =
+                    StatutoryDeductions.calculateDeductions(salary, StatutoryDeductions.MID_MONTH, salary);
+            StatutoryDeductions.CentavoDeductionResult mid = StatutoryDeductions.calculateDeductionsCentavos(
+                    salaryCentavos, StatutoryDeductions.MID_MONTH, salaryCentavos);
+            StatutoryDeductions.CentavoDeductionResult end = StatutoryDeductions.calculateDeductionsCentavos(
+                    salaryCentavos, StatutoryDeductions.END_MONTH, salaryCentavos);
+
+            long sss = mid.sssDeduction;
+            long pagibig = mid.pagibigDeduction;
+            long philhealth = Math.min(roundHalfUp(salaryCentavos * 3, 100), 180_000);
+            if (sss != Centavos.fromPesos(doubleMid.sssDeduction)
+                    || pagibig != Centavos.fromPesos(doubleMid.pagibigDeduction)
+                    || mid.philhealthDeduction != roundHalfUp(philhealth, 2)
+                    || end.withholdingTax != expectedTax(salaryCentavos - sss - philhealth - pagibig)) {
+                if (mismatches++ < 5) {
+                    System.out.println("Mismatch at " + Centavos.format(salaryCentavos));
+                }
+            }
+        }
+        System.out.println((mismatches == 0 ? "PASS" : "FAIL")
+                + ": Centavo deductions match exactly across the salary range");
+    }
+
+    /**
+     * Withholding tax in centavos worked out straight from the tax table
+     */
+    private static long expectedTax(long taxable) {
+        if (taxable <= 2_083_300) {
+            return 0;
+        } else if (taxable <= 3_333_200) {
+            return roundHalfUp((taxable - 2_083_300) * 20, 100);
+        } else if (taxable <= 6_666_600) {
+            return 250_000 + roundHalfUp((taxable - 3_333_200) * 25, 100);
+        } else if (taxable <= 16_666_600) {
+            return 1_083_300 + roundHalfUp((taxable - 6_666_600) * 30, 100);
+        } else if (taxable <= 66_666_600) {
+            return 4_083_333 + roundHalfUp((taxable - 16_666_600) * 32, 100);
+        }
+        return 20_083_333 + roundHalfUp((taxable - 66_666_600) * 35, 100);
+    }
+
+    /**
+     * Divide a non-negative amount, rounding half up
+     */
+    private static long roundHalfUp(long amount, long divisor) {
+        return (2 * amount + divisor) / (2 * divisor);
+    }
+
     /**
      * Test calculation of a contribution
      */
@@ -0,0 +1,130 @@
+// File: motorph/test/YearToDateTest.java
+package motorph.test;
+
+import motorph.holidays.HolidayManager;
+import motorph.process.PayPeriod;
+import motorph.process.PayrollDateManager;
+import motorph.process.PayrollProcessor;
+import motorph.process.PayrollProcessor.PayrollResult;
+import motorph.process.PayrollRun;
+import motorph.process.YearToDateStore;
+import motorph.util.Centavos;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Test class for year-to-date totals
+ * Checks that finalizing is idempotent and that results recalculated after
+ * a change replace the ones finalized before
+ */
+public class YearToDateTest {
+    private final String employeeFilePath;
+    private final String attendanceFilePath;
+
+    /**
+     * Constructor
+     */
+    public YearToDateTest(String employeeFilePath, String attendanceFilePath) {
+        this.employeeFilePath = employeeFilePath;
+        this.attendanceFilePath = attendanceFilePath;
+    }
+
+    /**
+     * Run all year-to-date tests
+     */
+    public void runTests() {
+        System.out.println("=== Year-to-Date Tests ===");
+        try {
+            testFinalizeAfterRecompute();
+        } catch (IOException e) {
+            System.out.println("FAIL: " + e.getMessage());
+        }
+        System.out.println("=== All Tests Completed ===");
+    }
+
+    /**
+     * Finalize a period, add a holiday to it, recompute and finalize again
+     */
+    private void testFinalizeAfterRecompute() throws IOException {
+        // Own holidays, so the test holiday stays out of the application's
+        PayrollProcessor processor = new PayrollProcessor(employeeFilePath, attendanceFilePath, new HolidayManager());
+
+        // First end-month period of 2024 with attendance
+        PayrollRun run = null;
+        for (int month = 1; month <= 12 && (run == null || run.getProcessedCount() == 0); month++) {
+            run = processor.runPayroll(PayPeriod.forPayroll(2024, month, PayrollDateManager.END_MONTH));
+        }
+        if (run == null || run.getProcessedCount() == 0) {
+            System.out.println("FAIL: No payroll results to finalize");
+            return;
+        }
+
+        YearToDateStore.FinalizeSummary first = processor.finalizePayroll(run);
+        check(first.addedCount == run.getProcessedCount() && !first.hasConflicts(),
+                "First finalize adds every result (" + first + ")");
+
+        YearToDateStore.FinalizeSummary again = processor.finalizePayroll(run);
+        check(again.addedCount == 0 && again.replacedCount == 0
+                        && again.unchangedCount == run.getProcessedCount(),
+                "Finalizing the same run again changes nothing (" + again + ")");
+
+        // Make a day the first employee worked a regular holiday
+        PayrollResult before = run.getResults().get(0);
+        String employeeId = before.employee.getEmployeeId();
+        LocalDate holiday = null;
+        for (LocalDate date = before.startDate; !date.isAfter(before.endDate); date = date.plusDays(1)) {
+            boolean weekday = date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+            if (weekday && processor.getAttendanceReader().getDailyAttendance(employeeId, date) != null) {
+                holiday = date;
+                break;
+            }
+        }
+        if (holiday == null) {
+            System.out.println("FAIL: Employee " + employeeId + " worked no weekday in the period");
+            return;
+        }
+
+        long grossBefore = processor.getYearToDateStore().get(employeeId, before.year)
+                .getCentavos(YearToDateStore.GROSS_PAY);
+        processor.addHoliday("Test Holiday", holiday, true);
+        List<PayrollResult> recomputed = processor.recomputeChanged();
+        check(!recomputed.isEmpty(), "Adding a holiday recomputes the period");
+
+        YearToDateStore.FinalizeSummary corrected = processor.finalizeResults(recomputed);
+        check(corrected.replacedCount == recomputed.size() && !corrected.hasConflicts(),
+                "Recomputed results replace the finalized ones (" + corrected + ")");
+
+        PayrollResult after = null;
+        for (PayrollResult result : recomputed) {
+            if (result.employee.getEmployeeId().equals(employeeId)) {
+                after = result;
+            }
+        }
+        long grossAfter = processor.getYearToDateStore().get(employeeId, before.year)
+                .getCentavos(YearToDateStore.GROSS_PAY);
+        long expected = grossBefore - Centavos.fromPesos(before.grossPay)
+                + (after != null ? Centavos.fromPesos(after.grossPay) : 0);
+        check(after != null && grossAfter != grossBefore && grossAfter == expected,
+                "Year-to-date gross moved from " + Centavos.format(grossBefore) + " to "
+                        + Centavos.format(grossAfter));
+        check(processor.getYearToDateStore().get(employeeId, before.year).getPeriodCount() == 1,
+                "The period is still counted once");
+    }
+
+    private void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+    }
+
+    /**
+     * Main method to run tests directly
+     */
+    public static void main(String[] args) {
+        YearToDateTest test = new YearToDateTest(
+                "resources/MotorPH Employee Data - Employee Details.csv",
+                "resources/MotorPH Employee Data - Attendance Record.csv");
+        test.runTests();
+    }
+}
@@ -150,7 +150,7 @@ public class PayrollUI {
             return;
         }
 
-        payrollProcessor.displaySalaryDetails(result.employee);
+        payrollProcessor.displaySalaryDetails(result.employee, result.year, result.month, result.payPeriodType);
     }
 
     /**
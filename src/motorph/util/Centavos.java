@@ -0,0 +1,94 @@
+// File: motorph/util/Centavos.java
+package motorph.util;
+
+/**
+ * Fixed-point money arithmetic on whole centavos held in a long
+ * Every operation that can produce a fraction of a centavo rounds it
+ * explicitly, half away from zero, so the same inputs always give the same
+ * amount. Nothing here allocates.
+ */
+public final class Centavos {
+    // Centavos in one peso
+    public static final long PER_PESO = 100;
+
+    private Centavos() {
+    }
+
+    /**
+     * Convert a peso amount to centavos
+     * Amounts read from the CSV have at most 2 decimals and convert exactly
+     *
+     * @param pesos Amount in pesos
+     * @return Amount in centavos, rounded half away from zero
+     */
+    public static long fromPesos(double pesos) {
+        double centavos = pesos * PER_PESO;
+        return centavos < 0 ? -Math.round(-centavos) : Math.round(centavos);
+    }
+
+    /**
+     * Convert centavos back to pesos for display and for PayrollResult
+     *
+     * @param centavos Amount in centavos
+     * @return Amount in pesos
+     */
+    public static double toPesos(long centavos) {
+        return (double) centavos / PER_PESO;
+    }
+
+    /**
+     * Multiply an amount by the fraction numerator / denominator and round once
+     * Rates are passed as fractions (3% as 3 / 100) so no precision is lost
+     * before the single rounding step
+     *
+     * @param centavos Amount in centavos
+     * @param numerator Numerator of the factor
+     * @param denominator Denominator of the factor; must be positive
+     * @return Rounded product in centavos
+     * @throws ArithmeticException If the product does not fit in a long
+     */
+    public static long multiply(long centavos, long numerator, long denominator) {
+        return divide(Math.multiplyExact(centavos, numerator), denominator);
+    }
+
+    /**
+     * Divide an amount and round half away from zero
+     *
+     * @param centavos Amount in centavos
+     * @param divisor Divisor; must be positive
+     * @return Rounded quotient in centavos
+     */
+    public static long divide(long centavos, long divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive");
+        }
+        long half = divisor / 2;
+        if (centavos < 0) {
+            return -((-centavos + half) / divisor);
+        }
+        return (centavos + half) / divisor;
+    }
+
+    /**
+     * Format an amount as pesos with thousands separators, like "%,.2f"
+     *
+     * @param centavos Amount in centavos
+     * @return Formatted amount, for example "-1,234.05"
+     */
+    public static String format(long centavos) {
+        StringBuilder sb = new StringBuilder();
+        long pesos = Math.abs(centavos / PER_PESO);
+        long fraction = Math.abs(centavos % PER_PESO);
+
+        String digits = Long.toString(pesos);
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && (digits.length() - i) % 3 == 0) {
+                sb.append(',');
+            }
+            sb.append(digits.charAt(i));
+        }
+        sb.append('.').append(fraction < 10 ? "0" : "").append(fraction);
+
+        return centavos < 0 ? "-" + sb : sb.toString();
+    }
+}
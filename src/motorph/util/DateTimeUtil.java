@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +29,14 @@ public class DateTimeUtil {
     private static final Pattern THREE_DIGIT_PATTERN = Pattern.compile("(\\d)(\\d{2})");
     private static final Pattern STANDARD_PATTERN = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*(AM|PM|am|pm)?");
 
+    // Returned by the int parsers when a value can't be parsed
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    // How often parsing took the fast path, fell back to the formatters, or failed
+    private static final LongAdder FAST_PARSE_COUNT = new LongAdder();
+    private static final LongAdder FALLBACK_PARSE_COUNT = new LongAdder();
+    private static final LongAdder PARSE_ERROR_COUNT = new LongAdder();
+
     /**
      * Parse a date string in MM/dd/yyyy format
      *
@@ -35,14 +44,67 @@ public class DateTimeUtil {
      * @return LocalDate object or null if parsing fails
      */
     public static LocalDate parseDate(String dateStr) {
+        int epochDay = fastEpochDay(dateStr);
+        if (epochDay != INVALID) {
+            FAST_PARSE_COUNT.increment();
+            return LocalDate.ofEpochDay(epochDay);
+        }
+        return parseDateFallback(dateStr);
+    }
+
+    /**
+     * Parse a MM/dd/yyyy date to an epoch day
+     * Plain dates are read digit by digit; anything else goes through the
+     * same formatter as parseDate
+     *
+     * @param text Date text
+     * @return Epoch day, or INVALID if parsing fails
+     */
+    public static int parseEpochDay(CharSequence text) {
+        int epochDay = fastEpochDay(text);
+        if (epochDay != INVALID) {
+            FAST_PARSE_COUNT.increment();
+            return epochDay;
+        }
+
+        LocalDate date = parseDateFallback(text != null ? text.toString() : null);
+        return date != null ? (int) date.toEpochDay() : INVALID;
+    }
+
+    /**
+     * Parse a date with the MM/dd/yyyy formatter
+     */
+    private static LocalDate parseDateFallback(String dateStr) {
+        FALLBACK_PARSE_COUNT.increment();
         try {
             return LocalDate.parse(dateStr, DATE_FORMAT);
         } catch (DateTimeParseException e) {
+            PARSE_ERROR_COUNT.increment();
             System.out.println("Error parsing date: " + dateStr);
             return null;
         }
     }
 
+    /**
+     * Read an exact MM/dd/yyyy date without the formatter
+     * Dates the formatter would adjust or reject (e.g. 02/30) are left to it
+     *
+     * @return Epoch day, or INVALID if the text needs the formatter
+     */
+    private static int fastEpochDay(CharSequence text) {
+        if (text == null || text.length() != 10 || text.charAt(2) != '/' || text.charAt(5) != '/') {
+            return INVALID;
+        }
+
+        int month = digits(text, 0, 2);
+        int day = digits(text, 3, 5);
+        int year = digits(text, 6, 10);
+        if (month == INVALID || day == INVALID || year == INVALID || year == 0) {
+            return INVALID;
+        }
+        return epochDay(year, month, day);
+    }
+
     /**
      * Format a date in standard display format (Month DD, YYYY)
      *
@@ -96,6 +158,151 @@ public class DateTimeUtil {
 
         String cleanTime = timeStr.trim();
 
+        // Common formats are read digit by digit
+        int minuteOfDay = fastMinuteOfDay(cleanTime, 0, cleanTime.length());
+        if (minuteOfDay != INVALID) {
+            FAST_PARSE_COUNT.increment();
+            return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+        }
+
+        return parseTimeFallback(timeStr, cleanTime);
+    }
+
+    /**
+     * Parse a time to minutes since midnight
+     * Accepts the same formats as parseTime, with the same rule that 1:00-7:59
+     * without AM/PM is PM. The common formats are read digit by digit and
+     * anything else goes through parseTime's pattern and formatter steps.
+     *
+     * @param text Time text
+     * @return Minute of day, or INVALID if parsing fails
+     */
+    public static int parseMinuteOfDay(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+
+        // Trim the same characters String.trim does
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start == end) {
+            return INVALID;
+        }
+
+        int minuteOfDay = fastMinuteOfDay(text, start, end);
+        if (minuteOfDay != INVALID) {
+            FAST_PARSE_COUNT.increment();
+            return minuteOfDay;
+        }
+
+        String timeStr = text.toString();
+        LocalTime time = parseTimeFallback(timeStr, timeStr.trim());
+        return time != null ? time.getHour() * 60 + time.getMinute() : INVALID;
+    }
+
+    /**
+     * Read HHmm, Hmm, H:mm, HH:mm and h:mm AM/PM times without regex
+     * Times that are out of range are left to the fallback so its error
+     * handling applies
+     *
+     * @return Minute of day, or INVALID if the text needs the fallback
+     */
+    private static int fastMinuteOfDay(CharSequence text, int start, int end) {
+        int length = end - start;
+
+        // Four-digit (0800) and three-digit (800) forms, taken as 24-hour
+        if (length == 4 || length == 3) {
+            int hourDigits = length - 2;
+            int hour = digits(text, start, start + hourDigits);
+            int minute = digits(text, start + hourDigits, end);
+            if (hour != INVALID && minute != INVALID) {
+                return hour <= 23 && minute <= 59 ? hour * 60 + minute : INVALID;
+            }
+        }
+
+        // H:mm or HH:mm, then optional whitespace and AM/PM
+        int colon = start + 1;
+        if (colon < end && text.charAt(colon) != ':') {
+            colon++;
+        }
+        if (colon + 3 > end || text.charAt(colon) != ':') {
+            return INVALID;
+        }
+
+        int hour = digits(text, start, colon);
+        int minute = digits(text, colon + 1, colon + 3);
+        if (hour == INVALID || minute == INVALID) {
+            return INVALID;
+        }
+
+        int position = colon + 3;
+        while (position < end && isRegexSpace(text.charAt(position))) {
+            position++;
+        }
+
+        if (position == end) {
+            // No AM/PM indicator - 1:00-7:59 is taken as PM during work hours
+            if (hour >= 1 && hour <= 7) {
+                hour += 12;
+            }
+        } else if (position + 2 == end && isMeridiem(text.charAt(position), text.charAt(position + 1))) {
+            boolean pm = text.charAt(position) == 'P' || text.charAt(position) == 'p';
+            if (pm && hour < 12) {
+                hour += 12;
+            } else if (!pm && hour == 12) {
+                hour = 0;
+            }
+        } else {
+            return INVALID;
+        }
+
+        return hour <= 23 && minute <= 59 ? hour * 60 + minute : INVALID;
+    }
+
+    /**
+     * Check for AM, PM, am or pm (mixed case is left to the fallback)
+     */
+    private static boolean isMeridiem(char first, char second) {
+        return (second == 'M' && (first == 'A' || first == 'P'))
+                || (second == 'm' && (first == 'a' || first == 'p'));
+    }
+
+    /**
+     * Check for a character matched by \s in the time pattern
+     */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Parse a run of ASCII digits
+     *
+     * @return Parsed value, or INVALID if a non-digit is found
+     */
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parse a time with the pattern and formatter steps
+     *
+     * @param timeStr Original time text, for the error message
+     * @param cleanTime Trimmed time text
+     * @return LocalTime object or null if parsing fails
+     */
+    private static LocalTime parseTimeFallback(String timeStr, String cleanTime) {
+        FALLBACK_PARSE_COUNT.increment();
+
         try {
             // Try pattern matching approach first (most reliable)
 
@@ -162,11 +369,82 @@ public class DateTimeUtil {
             return LocalTime.parse(cleanTime);
 
         } catch (Exception e) {
+            PARSE_ERROR_COUNT.increment();
             System.out.println("Error parsing time: " + timeStr);
             return null;
         }
     }
 
+    /**
+     * Convert a calendar date to an epoch day without creating a LocalDate
+     *
+     * @param year Year
+     * @param month Month (1-12)
+     * @param day Day of month
+     * @return Epoch day, or INVALID if the date does not exist
+     */
+    public static int epochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+
+        // Days-from-civil algorithm, counting years from March
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Get the number of days in a month
+     */
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Get the number of dates and times parsed without the fallback
+     */
+    public static long getFastParseCount() {
+        return FAST_PARSE_COUNT.sum();
+    }
+
+    /**
+     * Get the number of dates and times that needed the pattern/formatter fallback
+     */
+    public static long getFallbackParseCount() {
+        return FALLBACK_PARSE_COUNT.sum();
+    }
+
+    /**
+     * Get the number of dates and times that could not be parsed at all
+     */
+    public static long getParseErrorCount() {
+        return PARSE_ERROR_COUNT.sum();
+    }
+
+    /**
+     * Reset the parse counters, e.g. before loading a new export
+     */
+    public static void resetParseCounters() {
+        FAST_PARSE_COUNT.reset();
+        FALLBACK_PARSE_COUNT.reset();
+        PARSE_ERROR_COUNT.reset();
+    }
+
     /**
      * Format time to standard format (e.g., 5:00 PM)
      *
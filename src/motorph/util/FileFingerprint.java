@@ -0,0 +1,130 @@
+// File: motorph/util/FileFingerprint.java
+package motorph.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Identifies the exact contents of a data file
+ * Combines size, last-modified time and a CRC32C of the bytes, and is used
+ * to decide whether a cached snapshot still matches its source file
+ */
+public final class FileFingerprint {
+    // Size of each mapped window while hashing
+    private static final long HASH_WINDOW = 64L * 1024 * 1024;
+
+    // Number of bytes written by writeTo
+    public static final int BYTES = 3 * Long.BYTES;
+
+    public final long size;
+    public final long lastModified;
+    public final long contentHash;
+
+    /**
+     * Create a fingerprint from known values
+     *
+     * @param size File size in bytes
+     * @param lastModified Last-modified time in milliseconds
+     * @param contentHash CRC32C of the file contents
+     */
+    public FileFingerprint(long size, long lastModified, long contentHash) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Compute the fingerprint of a file
+     *
+     * @param file File to fingerprint
+     * @return Fingerprint of the current file contents
+     * @throws IOException If the file cannot be read
+     */
+    public static FileFingerprint of(Path file) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+
+            for (long position = 0; position < size; position += HASH_WINDOW) {
+                long length = Math.min(HASH_WINDOW, size - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+
+            return new FileFingerprint(size, lastModified, crc.getValue());
+        }
+    }
+
+    /**
+     * Check a file's size and last-modified time against this fingerprint
+     * A cheap check that skips hashing, for callers that must not read the
+     * whole file
+     *
+     * @param file File to check
+     * @return true if the size and last-modified time both match
+     * @throws IOException If the file attributes cannot be read
+     */
+    public boolean matchesMetadata(Path file) throws IOException {
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModified;
+    }
+
+    /**
+     * Check that a file still has the contents this fingerprint was taken of
+     * Size and last-modified time are checked first; the file is only
+     * hashed when the size matches but the time does not, e.g. after a copy
+     *
+     * @param file File to check
+     * @return true if the file has the same contents
+     * @throws IOException If the file cannot be read
+     */
+    public boolean matchesContents(Path file) throws IOException {
+        if (matchesMetadata(file)) {
+            return true;
+        }
+        if (Files.size(file) != size) {
+            return false;
+        }
+        return of(file).contentHash == contentHash;
+    }
+
+    /**
+     * Write this fingerprint to a buffer
+     *
+     * @param buffer Buffer with at least BYTES remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(size);
+        buffer.putLong(lastModified);
+        buffer.putLong(contentHash);
+    }
+
+    /**
+     * Read a fingerprint written by writeTo
+     *
+     * @param buffer Buffer positioned at the fingerprint
+     * @return Fingerprint read from the buffer
+     */
+    public static FileFingerprint readFrom(ByteBuffer buffer) {
+        return new FileFingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof FileFingerprint)) {
+            return false;
+        }
+        FileFingerprint that = (FileFingerprint) other;
+        return size == that.size && lastModified == that.lastModified && contentHash == that.contentHash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(contentHash) * 31 + Long.hashCode(size);
+    }
+}
@@ -0,0 +1,128 @@
+// File: motorph/util/LongHashSet.java
+package motorph.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs
+ * Keys are stored in a flat array with linear probing, so adding or
+ * checking a key costs no allocation. The table doubles when it is half full.
+ */
+public final class LongHashSet {
+    // Marks an empty slot; the key 0 itself is tracked separately
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+
+    /**
+     * Create a set sized for a number of keys
+     *
+     * @param expectedSize Number of keys expected
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key Key to add
+     * @return true if the key was not already in the set
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Check if a key is in the set
+     *
+     * @param key Key to look for
+     * @return true if the key is present
+     */
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return hasZero;
+        }
+
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove every key
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Get the number of keys in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Double the table and re-insert every key
+     */
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slotOf(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    /**
+     * Spread the key bits before picking a slot
+     */
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,161 @@
+// File: motorph/util/SnapshotFile.java
+package motorph.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot files stored next to a CSV source
+ * A snapshot starts with a magic number, a format version and the
+ * fingerprint of the CSV it was built from. It is only used while that
+ * fingerprint still matches the CSV, so a stale snapshot is simply ignored
+ * and rebuilt.
+ */
+public final class SnapshotFile {
+    // Suffix added to the CSV path to name its snapshot
+    public static final String EXTENSION = ".snapshot";
+
+    // Bytes taken by the header: magic, version and source fingerprint
+    public static final int HEADER_SIZE = 2 * Integer.BYTES + FileFingerprint.BYTES;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Get the snapshot path for a CSV file
+     *
+     * @param sourcePath Path to the CSV file
+     * @return Path of the snapshot file
+     */
+    public static Path pathFor(String sourcePath) {
+        return Paths.get(sourcePath + EXTENSION);
+    }
+
+    /**
+     * Open a snapshot if it matches its source
+     *
+     * @param snapshot Snapshot file
+     * @param magic Expected magic number
+     * @param version Expected format version
+     * @param source Current fingerprint of the CSV file
+     * @return Mapped snapshot positioned after the header, or null if the
+     *         snapshot is missing, from another version or stale
+     * @throws IOException If the snapshot exists but cannot be read
+     */
+    public static ByteBuffer open(Path snapshot, int magic, int version, FileFingerprint source) throws IOException {
+        ByteBuffer buffer = open(snapshot, magic, version);
+        if (buffer == null || !source.equals(FileFingerprint.readFrom(buffer))) {
+            return null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Open a snapshot without checking its source
+     * Used when the caller compares the stored fingerprint itself
+     *
+     * @param snapshot Snapshot file
+     * @param magic Expected magic number
+     * @param version Expected format version
+     * @return Mapped snapshot positioned at the source fingerprint, or null
+     *         if the snapshot is missing or from another version
+     * @throws IOException If the snapshot exists but cannot be read
+     */
+    public static ByteBuffer open(Path snapshot, int magic, int version) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != magic || buffer.getInt() != version) {
+                return null;
+            }
+            return buffer;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot
+     * The file is written under a temporary name and then moved into place,
+     * so readers never see a half-written snapshot
+     *
+     * @param snapshot Snapshot file
+     * @param magic Magic number
+     * @param version Format version
+     * @param source Fingerprint of the CSV the body was built from
+     * @param body Snapshot contents, from position to limit
+     * @throws IOException If the snapshot cannot be written
+     */
+    public static void write(Path snapshot, int magic, int version, FileFingerprint source, ByteBuffer body)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(magic);
+        header.putInt(version);
+        source.writeTo(header);
+        header.flip();
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+
+        try {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Get the number of bytes putString will write for a value
+     *
+     * @param value String value
+     * @return Encoded size in bytes
+     */
+    public static int stringSize(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string
+     *
+     * @param buffer Target buffer
+     * @param value String value
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Read a string written by putString
+     *
+     * @param buffer Source buffer
+     * @return String value
+     */
+    public static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}